@@ -0,0 +1,833 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToLongBiFunction;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Клас BasicDataOperationBenchmark вимірює операції, які виконують класи BasicDataOperationUsingList,
+ * BasicDataOperationUsingQueue та BasicDataOperationUsingSet, з прогрівом, багаторазовими вимірюваннями та статистикою.
+ *
+ * <p>Вимірюється код самих програм, а не його копія: вихідні файли програм компілюються під час запуску
+ * (див. {@link ProgramClasses}), і бенчмарк викликає їхні завантажувачі, способи сортування, структури даних
+ * та індекси. Тому зміна в програмі одразу змінює і вимірюваний код, і результати можна порівнювати між запусками,
+ * щоб помітити регресію.</p>
+ *
+ * <p>На відміну від одноразового вимірювання через {@code System.nanoTime()}, кожна операція спочатку виконується
+ * {@link #WARMUP_PROPERTY} разів без запису результату, потім {@link #ITERATIONS_PROPERTY} разів з вимірюванням.
+ * Результат кожного виклику накопичується у {@link #blackhole}, щоб JIT не вилучив обчислення як мертвий код.
+ * Вивід програм під час вимірювань (звіти завантаження тощо) відкидається.</p>
+ *
+ * <p>Вимірювані операції:</p>
+ * <ul>
+ *   <li>BasicDataOperationUsingList: сортування масиву та StatisticsList кожним способом SortEngine; бінарний пошук
+ *       у масиві, списку та навченим індексом LearnedIndex; мінімум і максимум StatisticsList; часова шкала EpochTimeline,
+ *       масив поза heap OffHeapLongArray і стиснена шкала PackedTimeline (сортування або побудова, пошук, мінімум
+ *       і максимум кожним способом ScanKernel); зчитування файлу через Utils у масив об'єктів і секунд, запис файлу.</li>
+ *   <li>BasicDataOperationUsingQueue: {@code contains}, мінімум і максимум кожної структури черги.</li>
+ *   <li>BasicDataOperationUsingSet: сортування і бінарний пошук у масиві чисел, {@code contains}, мінімум і максимум
+ *       кожної структури множини (HashSet і DoubleOpenHashSet).</li>
+ * </ul>
+ *
+ * <p>Параметри задаються системними властивостями:</p>
+ * <ul>
+ *   <li>{@link #SIZES_PROPERTY} - розміри даних через кому (типово {@code 1000,100000}).</li>
+ *   <li>{@link #DISTRIBUTIONS_PROPERTY} - розподіли даних через кому: random, sorted, reverse, duplicates.</li>
+ *   <li>{@link #WARMUP_PROPERTY} та {@link #ITERATIONS_PROPERTY} - кількість ітерацій прогріву (не менше 0)
+ *       та вимірювання (не менше 1).</li>
+ *   <li>{@link #FILTER_PROPERTY} - підрядок назви операції, щоб запускати лише частину вимірювань.</li>
+ *   <li>{@link #OUTPUT_PROPERTY} - шлях до CSV-файлу з результатами для порівняння між запусками.</li>
+ *   <li>{@link #SOURCES_PROPERTY} - каталог з вихідними файлами програм (типово поточний).</li>
+ * </ul>
+ *
+ * <p>Приклад використання:</p>
+ * <pre>
+ * {@code
+ * java -Dbench.sizes=1000000 -Dbench.distributions=random,duplicates BasicDataOperationBenchmark.java
+ * }
+ * </pre>
+ */
+public class BasicDataOperationBenchmark {
+    static final String SIZES_PROPERTY = "bench.sizes";
+    static final String DISTRIBUTIONS_PROPERTY = "bench.distributions";
+    static final String WARMUP_PROPERTY = "bench.warmup";
+    static final String ITERATIONS_PROPERTY = "bench.iterations";
+    static final String FILTER_PROPERTY = "bench.filter";
+    static final String OUTPUT_PROPERTY = "bench.output";
+    static final String SOURCES_PROPERTY = "bench.sources";
+
+    static final int QUERY_COUNT = 1024;
+    static final long LINEAR_OPERATIONS_BUDGET = 1L << 24;
+
+    /** Накопичувач результатів операцій, який не дає JIT вилучити вимірюваний код. */
+    static volatile long blackhole;
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final String filter;
+    private final List<BenchmarkResult> results = new ArrayList<>();
+    private final ProgramClasses list;
+    private final ProgramClasses queue;
+    private final ProgramClasses set;
+
+    public static void main(String[] args) throws IOException {
+        BasicDataOperationBenchmark benchmark = new BasicDataOperationBenchmark();
+
+        for (String size : System.getProperty(SIZES_PROPERTY, "1000,100000").split(",")) {
+            for (String distribution : System.getProperty(DISTRIBUTIONS_PROPERTY, "random,sorted,reverse,duplicates").split(",")) {
+                benchmark.runAll(Integer.parseInt(size.trim()), Distribution.valueOf(distribution.trim().toUpperCase()));
+            }
+        }
+
+        String outputPath = System.getProperty(OUTPUT_PROPERTY);
+        if (outputPath != null) {
+            benchmark.writeCsv(outputPath);
+        }
+    }
+
+    BasicDataOperationBenchmark() throws IOException {
+        this.warmupIterations = Integer.getInteger(WARMUP_PROPERTY, 5);
+        this.measuredIterations = Integer.getInteger(ITERATIONS_PROPERTY, 10);
+        this.filter = System.getProperty(FILTER_PROPERTY, "");
+        if (warmupIterations < 0) {
+            throw new IllegalArgumentException("Кількість ітерацій прогріву не може бути від'ємною: " + warmupIterations);
+        }
+        if (measuredIterations < 1) {
+            throw new IllegalArgumentException("Кількість ітерацій вимірювання має бути не менше 1: " + measuredIterations);
+        }
+
+        Path sources = Paths.get(System.getProperty(SOURCES_PROPERTY, "."));
+        this.list = ProgramClasses.compile(sources.resolve("BasicDataOperationUsingList.java"));
+        this.queue = ProgramClasses.compile(sources.resolve("BasicDataOperationUsingQueue.java"));
+        this.set = ProgramClasses.compile(sources.resolve("BasicDataOperationUsingSet.java"));
+    }
+
+    /**
+     * Виконує всі вимірювання для заданого розміру та розподілу даних.
+     *
+     * @param size Кількість елементів.
+     * @param distribution Розподіл значень.
+     */
+    void runAll(int size, Distribution distribution) throws IOException {
+        System.out.println("\n=== Розмір: " + size + ", розподіл: " + distribution + " ===");
+        System.out.println(String.format(Locale.ROOT, "%-28s %12s %12s %12s %12s %10s",
+                "операція", "min", "p50", "mean", "max", "stddev"));
+
+        Random random = new Random(size * 31L + distribution.ordinal());
+        long[] epochSeconds = distribution.generate(size, random);
+
+        LocalDateTime[] dateTimeArray = new LocalDateTime[size];
+        Double[] doubleArray = new Double[size];
+        for (int i = 0; i < size; i++) {
+            dateTimeArray[i] = LocalDateTime.ofEpochSecond(epochSeconds[i], 0, ZoneOffset.UTC);
+            doubleArray[i] = epochSeconds[i] / 7.0;
+        }
+
+        LocalDateTime[] sortedDateTimeArray = dateTimeArray.clone();
+        Arrays.sort(sortedDateTimeArray);
+        long[] sortedEpochSeconds = epochSeconds.clone();
+        Arrays.sort(sortedEpochSeconds);
+        Double[] sortedDoubleArray = doubleArray.clone();
+        Arrays.sort(sortedDoubleArray);
+
+        // половина запитів влучає в дані, половина - ні
+        LocalDateTime[] dateTimeQueries = new LocalDateTime[QUERY_COUNT];
+        long[] epochSecondQueries = new long[QUERY_COUNT];
+        double[] doubleQueries = new double[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            int index = random.nextInt(size);
+            long offset = (i % 2 == 0) ? 0 : 1;
+            epochSecondQueries[i] = epochSeconds[index] + offset;
+            dateTimeQueries[i] = LocalDateTime.ofEpochSecond(epochSecondQueries[i], 0, ZoneOffset.UTC);
+            doubleQueries[i] = (epochSeconds[index] + offset * 0.5) / 7.0;
+        }
+
+        // операції з лінійною складністю виконуються меншу кількість разів на ітерацію
+        int linearQueryCount = (int) Math.max(1, Math.min(QUERY_COUNT, LINEAR_OPERATIONS_BUDGET / Math.max(1, size)));
+        int[] cursor = new int[1];
+
+        runListOperations(size, distribution, dateTimeArray, sortedDateTimeArray, epochSeconds, sortedEpochSeconds,
+                dateTimeQueries, epochSecondQueries, cursor);
+        runQueueOperations(size, distribution, dateTimeArray, dateTimeQueries, linearQueryCount, cursor);
+        runSetOperations(size, distribution, doubleArray, sortedDoubleArray, doubleQueries, cursor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runListOperations(int size, Distribution distribution, LocalDateTime[] dateTimeArray,
+                                   LocalDateTime[] sortedDateTimeArray, long[] epochSeconds, long[] sortedEpochSeconds,
+                                   LocalDateTime[] dateTimeQueries, long[] epochSecondQueries, int[] cursor) throws IOException {
+        Class<?> valueStatisticsType = list.type("ValueStatistics");
+        Class<?> scanKernelType = list.type("ScanKernel");
+        MethodHandle newStatistics = list.constructor("ValueStatistics");
+        MethodHandle accept = list.method("ValueStatistics", "accept", Comparable.class);
+        TriFunction<Object[], Integer, Object, Object> newStatisticsList = list.constructor(TriFunction.class,
+                "StatisticsList", Comparable[].class, int.class, valueStatisticsType);
+        BiConsumer<Object, Consumer<List<LocalDateTime>>> sortWith = list.method(BiConsumer.class,
+                "StatisticsList", "sortWith", Consumer.class);
+        Function<Object, LocalDateTime> listMin = list.method(Function.class, "StatisticsList", "min");
+        Function<Object, LocalDateTime> listMax = list.method(Function.class, "StatisticsList", "max");
+        BiConsumer<Object, LocalDateTime[]> sortArray = list.method(BiConsumer.class, "SortEngine", "sort", LocalDateTime[].class);
+        BiConsumer<Object, List<LocalDateTime>> sortList = list.method(BiConsumer.class, "SortEngine", "sort", List.class);
+
+        Object statistics = ProgramClasses.call(newStatistics);
+        for (LocalDateTime dateTime : dateTimeArray) {
+            ProgramClasses.call(accept, statistics, dateTime);
+        }
+
+        for (Object engine : list.constants("SortEngine")) {
+            String engineName = engine.toString().toLowerCase();
+
+            LocalDateTime[][] sortTarget = new LocalDateTime[1][];
+            measure("array.sort." + engineName, size, distribution, 1,
+                    () -> sortTarget[0] = dateTimeArray.clone(),
+                    () -> {
+                        sortArray.accept(engine, sortTarget[0]);
+                        return sortTarget[0][0].getSecond();
+                    });
+
+            Consumer<List<LocalDateTime>> sorter = values -> sortList.accept(engine, values);
+            Object[] listSortTarget = new Object[1];
+            measure("list.sort." + engineName, size, distribution, 1,
+                    () -> listSortTarget[0] = newStatisticsList.apply(dateTimeArray.clone(), size, statistics),
+                    () -> {
+                        sortWith.accept(listSortTarget[0], sorter);
+                        return ((List<?>) listSortTarget[0]).size();
+                    });
+        }
+
+        List<LocalDateTime> sortedList = (List<LocalDateTime>) newStatisticsList.apply(sortedDateTimeArray.clone(), size, statistics);
+        List<LocalDateTime> sortedView = Arrays.asList(sortedDateTimeArray);
+        Object learnedIndex = ProgramClasses.call(list.method("LearnedIndex", "build", List.class), sortedView);
+        ToIntTriFunction<Object, List<LocalDateTime>, LocalDateTime> learnedSearch = list.method(ToIntTriFunction.class,
+                "LearnedIndex", "binarySearch", List.class, LocalDateTime.class);
+
+        measure("array.binarySearch", size, distribution, QUERY_COUNT, null,
+                () -> Arrays.binarySearch(sortedDateTimeArray, dateTimeQueries[nextQuery(cursor, QUERY_COUNT)]));
+        measure("array.learnedIndex", size, distribution, QUERY_COUNT, null,
+                () -> learnedSearch.applyAsInt(learnedIndex, sortedView, dateTimeQueries[nextQuery(cursor, QUERY_COUNT)]));
+        measure("list.binarySearch", size, distribution, QUERY_COUNT, null,
+                () -> Collections.binarySearch(sortedList, dateTimeQueries[nextQuery(cursor, QUERY_COUNT)]));
+        measure("list.learnedIndex", size, distribution, QUERY_COUNT, null,
+                () -> learnedSearch.applyAsInt(learnedIndex, sortedList, dateTimeQueries[nextQuery(cursor, QUERY_COUNT)]));
+        measure("list.minMax", size, distribution, QUERY_COUNT, null,
+                () -> listMin.apply(sortedList).getSecond() + listMax.apply(sortedList).getSecond());
+
+        // часова шкала і масив поза heap: сортування, пошук і мінімум з максимумом кожним способом проходу
+        Function<long[], Object> newTimeline = list.constructor(Function.class, "EpochTimeline", long[].class);
+        BiConsumer<Object, Object> timelineSort = list.method(BiConsumer.class, "EpochTimeline", "sort", list.type("SortEngine"));
+        ToIntBiFunction<Object, LocalDateTime> timelineSearch = list.method(ToIntBiFunction.class,
+                "EpochTimeline", "binarySearch", LocalDateTime.class);
+        BiFunction<Object, Object, LocalDateTime> timelineMin = list.method(BiFunction.class, "EpochTimeline", "min", scanKernelType);
+        BiFunction<Object, Object, LocalDateTime> timelineMax = list.method(BiFunction.class, "EpochTimeline", "max", scanKernelType);
+        Object defaultEngine = ProgramClasses.call(list.method("SortEngine", "fromSystemProperty"));
+
+        Object[] timelineTarget = new Object[1];
+        measure("timeline.sort", size, distribution, 1,
+                () -> timelineTarget[0] = newTimeline.apply(epochSeconds.clone()),
+                () -> {
+                    timelineSort.accept(timelineTarget[0], defaultEngine);
+                    return 1;
+                });
+        Object unsortedTimeline = newTimeline.apply(epochSeconds.clone());
+        Object sortedTimeline = newTimeline.apply(epochSeconds.clone());
+        timelineSort.accept(sortedTimeline, defaultEngine);
+        measure("timeline.binarySearch", size, distribution, QUERY_COUNT, null,
+                () -> timelineSearch.applyAsInt(sortedTimeline, dateTimeQueries[nextQuery(cursor, QUERY_COUNT)]));
+
+        IntFunction<Object> newOffHeap = list.constructor(IntFunction.class, "OffHeapLongArray", int.class);
+        ObjLongConsumer<Object> offHeapAdd = list.method(ObjLongConsumer.class, "OffHeapLongArray", "add", long.class);
+        Consumer<Object> offHeapSort = list.method(Consumer.class, "OffHeapLongArray", "sort");
+        ToIntObjLongFunction<Object> offHeapSearch = list.method(ToIntObjLongFunction.class,
+                "OffHeapLongArray", "binarySearch", long.class);
+        ToLongBiFunction<Object, Object> offHeapMin = list.method(ToLongBiFunction.class, "OffHeapLongArray", "min", scanKernelType);
+        ToLongBiFunction<Object, Object> offHeapMax = list.method(ToLongBiFunction.class, "OffHeapLongArray", "max", scanKernelType);
+        Object unsortedOffHeap = newOffHeap.apply(size);
+        Object sortedOffHeap = newOffHeap.apply(size);
+        for (int i = 0; i < size; i++) {
+            offHeapAdd.accept(unsortedOffHeap, epochSeconds[i]);
+            offHeapAdd.accept(sortedOffHeap, sortedEpochSeconds[i]);
+        }
+
+        Object[] offHeapTarget = new Object[1];
+        measure("offheap.sort", size, distribution, 1,
+                () -> {
+                    offHeapTarget[0] = newOffHeap.apply(size);
+                    for (long epochSecond : epochSeconds) {
+                        offHeapAdd.accept(offHeapTarget[0], epochSecond);
+                    }
+                },
+                () -> {
+                    offHeapSort.accept(offHeapTarget[0]);
+                    return 1;
+                });
+        measure("offheap.binarySearch", size, distribution, QUERY_COUNT, null,
+                () -> offHeapSearch.applyAsInt(sortedOffHeap, epochSecondQueries[nextQuery(cursor, QUERY_COUNT)]));
+
+        for (Object kernel : list.constants("ScanKernel")) {
+            String kernelName = kernel.toString().toLowerCase();
+            measure("timeline.minMax." + kernelName, size, distribution, 1, null,
+                    () -> timelineMin.apply(unsortedTimeline, kernel).getSecond() + timelineMax.apply(unsortedTimeline, kernel).getSecond());
+            measure("offheap.minMax." + kernelName, size, distribution, 1, null,
+                    () -> offHeapMin.applyAsLong(unsortedOffHeap, kernel) + offHeapMax.applyAsLong(unsortedOffHeap, kernel));
+        }
+
+        // стиснена відсортована шкала
+        Function<long[], Object> packTimeline = list.method(Function.class, "PackedTimeline", "of", long[].class);
+        ToIntBiFunction<Object, LocalDateTime> packedSearch = list.method(ToIntBiFunction.class,
+                "PackedTimeline", "binarySearch", LocalDateTime.class);
+        Function<Object, LocalDateTime> packedMin = list.method(Function.class, "PackedTimeline", "min");
+        Function<Object, LocalDateTime> packedMax = list.method(Function.class, "PackedTimeline", "max");
+        measure("packed.build", size, distribution, 1, null,
+                () -> {
+                    packTimeline.apply(sortedEpochSeconds);
+                    return 1;
+                });
+        Object packedTimeline = packTimeline.apply(sortedEpochSeconds);
+        measure("packed.binarySearch", size, distribution, QUERY_COUNT, null,
+                () -> packedSearch.applyAsInt(packedTimeline, dateTimeQueries[nextQuery(cursor, QUERY_COUNT)]));
+        measure("packed.minMax", size, distribution, QUERY_COUNT, null,
+                () -> packedMin.apply(packedTimeline).getSecond() + packedMax.apply(packedTimeline).getSecond());
+
+        // зчитування і запис файлу завантажувачами програми
+        Function<String, LocalDateTime[]> readArray = list.method(Function.class, "Utils", "readArrayFromFile", String.class);
+        Function<String, long[]> readEpochSeconds = list.method(Function.class, "Utils", "readEpochSecondsFromFile", String.class);
+        BiConsumer<LocalDateTime[], String> writeArray = list.method(BiConsumer.class,
+                "Utils", "writeArrayToFile", LocalDateTime[].class, String.class);
+        File dataFile = File.createTempFile("benchmark", ".data");
+        dataFile.deleteOnExit();
+        String dataPath = dataFile.getPath();
+        writeArray.accept(dateTimeArray, dataPath);
+        measure("file.load", size, distribution, 1, null, () -> readArray.apply(dataPath).length);
+        measure("file.loadEpochSeconds", size, distribution, 1, null, () -> readEpochSeconds.apply(dataPath).length);
+        measure("file.write", size, distribution, 1, null, () -> {
+            writeArray.accept(sortedDateTimeArray, dataPath);
+            return dataFile.length();
+        });
+    }
+
+    private void runQueueOperations(int size, Distribution distribution, LocalDateTime[] dateTimeArray,
+                                    LocalDateTime[] dateTimeQueries, int linearQueryCount, int[] cursor) throws IOException {
+        Object statistics = ProgramClasses.call(queue.constructor("ValueStatistics"));
+        MethodHandle accept = queue.method("ValueStatistics", "accept", Comparable.class);
+        for (LocalDateTime dateTime : dateTimeArray) {
+            ProgramClasses.call(accept, statistics, dateTime);
+        }
+
+        MethodHandle createQueue = queue.method("BasicDataOperationUsingQueue", "createQueue",
+                String.class, LocalDateTime[].class, queue.type("ValueStatistics"));
+        Function<Object, LocalDateTime> queueMin = queue.method(Function.class, "MinMaxQueue", "min");
+        Function<Object, LocalDateTime> queueMax = queue.method(Function.class, "MinMaxQueue", "max");
+        for (String structure : new String[] {"heap", "deque", "concurrent"}) {
+            Object dateTimeQueue = ProgramClasses.call(createQueue, structure, dateTimeArray.clone(), statistics);
+            measure("queue.contains." + structure, size, distribution, linearQueryCount, null,
+                    () -> ((java.util.Queue<?>) dateTimeQueue).contains(dateTimeQueries[nextQuery(cursor, QUERY_COUNT)]) ? 1 : 0);
+            measure("queue.minMax." + structure, size, distribution, QUERY_COUNT, null,
+                    () -> queueMin.apply(dateTimeQueue).getSecond() + queueMax.apply(dateTimeQueue).getSecond());
+        }
+    }
+
+    private void runSetOperations(int size, Distribution distribution, Double[] doubleArray, Double[] sortedDoubleArray,
+                                  double[] doubleQueries, int[] cursor) throws IOException {
+        Double[][] doubleSortTarget = new Double[1][];
+        measure("doubleArray.sort", size, distribution, 1,
+                () -> doubleSortTarget[0] = doubleArray.clone(),
+                () -> {
+                    Arrays.sort(doubleSortTarget[0]);
+                    return doubleSortTarget[0][0].longValue();
+                });
+        measure("doubleArray.binarySearch", size, distribution, QUERY_COUNT, null,
+                () -> Arrays.binarySearch(sortedDoubleArray, doubleQueries[nextQuery(cursor, QUERY_COUNT)]));
+
+        MethodHandle createSet = set.method("BasicDataOperationUsingSet", "createSet", String.class, Double[].class);
+        ObjDoublePredicate<Object> contains = set.method(ObjDoublePredicate.class,
+                "BasicDataOperationUsingSet", "contains", Set.class, double.class);
+        Function<Object, Double> setMin = set.method(Function.class, "MinMaxSet", "min");
+        Function<Object, Double> setMax = set.method(Function.class, "MinMaxSet", "max");
+        for (String structure : new String[] {"hash", "primitive"}) {
+            Object doubleSet = ProgramClasses.call(createSet, structure, doubleArray);
+            measure("set.contains." + structure, size, distribution, QUERY_COUNT, null,
+                    () -> contains.test(doubleSet, doubleQueries[nextQuery(cursor, QUERY_COUNT)]) ? 1 : 0);
+            measure("set.minMax." + structure, size, distribution, QUERY_COUNT, null,
+                    () -> setMin.apply(doubleSet).longValue() + setMax.apply(doubleSet).longValue());
+        }
+    }
+
+    /**
+     * Вимірює операцію: виконує прогрів, потім вимірювальні ітерації, і виводить статистику в наносекундах на операцію.
+     * Вивід програм під час ітерацій відкидається, щоб їхні звіти не змішувалися з таблицею результатів.
+     *
+     * @param name Назва операції.
+     * @param size Кількість елементів.
+     * @param distribution Розподіл значень.
+     * @param operationsPerIteration Кількість викликів операції за одну ітерацію.
+     * @param setup Підготовка стану перед кожною ітерацією (не входить у вимірюваний час) або null.
+     * @param operation Вимірювана операція; її результат потрапляє у {@link #blackhole}.
+     */
+    void measure(String name, int size, Distribution distribution, int operationsPerIteration,
+                 Setup setup, Operation operation) {
+        if (!name.contains(filter)) {
+            return;
+        }
+
+        double[] samples = new double[measuredIterations];
+        long sink = 0;
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int iteration = -warmupIterations; iteration < measuredIterations; iteration++) {
+                if (setup != null) {
+                    setup.run();
+                }
+
+                long startTime = System.nanoTime();
+                for (int i = 0; i < operationsPerIteration; i++) {
+                    sink += operation.run();
+                }
+                long duration = System.nanoTime() - startTime;
+
+                if (iteration >= 0) {
+                    samples[iteration] = (double) duration / operationsPerIteration;
+                }
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Операція " + name + " завершилася помилкою", e);
+        } finally {
+            System.setOut(console);
+        }
+        blackhole += sink;
+
+        BenchmarkResult result = BenchmarkResult.of(name, size, distribution, samples);
+        results.add(result);
+        System.out.println(result.format());
+    }
+
+    /**
+     * Записує результати всіх вимірювань у CSV-файл.
+     *
+     * @param pathToFile Шлях до файлу для запису.
+     */
+    void writeCsv(String pathToFile) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(pathToFile)))) {
+            writer.println("operation,size,distribution,min_ns,p50_ns,mean_ns,max_ns,stddev_ns");
+            for (BenchmarkResult result : results) {
+                writer.println(String.format(Locale.ROOT, "%s,%d,%s,%.1f,%.1f,%.1f,%.1f,%.1f", result.name, result.size,
+                        result.distribution, result.min, result.median, result.mean, result.max, result.stddev));
+            }
+        }
+    }
+
+    private static int nextQuery(int[] cursor, int queryCount) {
+        cursor[0] = (cursor[0] + 1) % queryCount;
+        return cursor[0];
+    }
+
+    /**
+     * Підготовка стану перед ітерацією; може викликати код програм через {@link ProgramClasses}.
+     */
+    @FunctionalInterface
+    interface Setup {
+        void run() throws Throwable;
+    }
+
+    /**
+     * Вимірювана операція; може викликати код програм через {@link ProgramClasses}.
+     */
+    @FunctionalInterface
+    interface Operation {
+        long run() throws Throwable;
+    }
+
+    /**
+     * Функція трьох аргументів для методів програм, яких немає серед {@link java.util.function}.
+     * Інтерфейси, які реалізує {@link ProgramClasses}, мають бути публічними: їх реалізація
+     * створюється в пакеті класу програми, завантаженого іншим завантажувачем.
+     */
+    @FunctionalInterface
+    public interface TriFunction<A, B, C, R> {
+        R apply(A first, B second, C third);
+    }
+
+    /**
+     * Функція трьох аргументів з результатом {@code int}.
+     */
+    @FunctionalInterface
+    public interface ToIntTriFunction<A, B, C> {
+        int applyAsInt(A first, B second, C third);
+    }
+
+    /**
+     * Функція об'єкта і {@code long} з результатом {@code int}.
+     */
+    @FunctionalInterface
+    public interface ToIntObjLongFunction<T> {
+        int applyAsInt(T target, long value);
+    }
+
+    /**
+     * Предикат об'єкта і {@code double}.
+     */
+    @FunctionalInterface
+    public interface ObjDoublePredicate<T> {
+        boolean test(T target, double value);
+    }
+}
+
+/**
+ * Клас ProgramClasses компілює вихідний файл програми і завантажує її класи окремим завантажувачем.
+ *
+ * <p>Кожна програма містить власні копії допоміжних класів з однаковими назвами (Utils, SortEngine, ValueStatistics),
+ * тому їх не можна скомпілювати разом; окремий завантажувач для кожної програми дозволяє бенчмарку викликати
+ * код усіх трьох. Класи програм доступні лише в межах свого пакета, тож методи відкриваються через
+ * {@link java.lang.reflect.AccessibleObject#setAccessible(boolean)} і викликаються через {@link MethodHandle}.</p>
+ *
+ * <p>Для вимірюваних викликів {@link MethodHandle} перетворюється на реалізацію типізованого функціонального
+ * інтерфейсу через {@link LambdaMetafactory}: такий виклик коштує як звичайний виклик інтерфейсу, без
+ * узагальненого {@code invoke} з перетворенням типів на кожному виклику.</p>
+ */
+class ProgramClasses {
+    /** Клас, що компілюється разом з програмою і видає {@link MethodHandles.Lookup} з повним доступом до її пакета. */
+    private static final String LOOKUP_CLASS = "BenchmarkProgramLookup";
+
+    private final ClassLoader loader;
+    private final MethodHandles.Lookup lookup;
+
+    private ProgramClasses(ClassLoader loader) {
+        this.loader = loader;
+        try {
+            this.lookup = (MethodHandles.Lookup) type(LOOKUP_CLASS).getMethod("lookup").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не вдалося отримати доступ до класів програми", e);
+        }
+    }
+
+    /**
+     * Компілює вихідний файл у тимчасовий каталог, який видаляється після завершення JVM.
+     *
+     * @param sourceFile Вихідний файл програми.
+     * @return Класи програми.
+     * @throws IOException Якщо файл не вдалося скомпілювати.
+     */
+    static ProgramClasses compile(Path sourceFile) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Для компіляції програм потрібен JDK, а не JRE");
+        }
+
+        Path outputDirectory = Files.createTempDirectory("benchmark-classes");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteRecursively(outputDirectory)));
+
+        // LambdaMetafactory потребує Lookup з повним доступом, а privateLookupIn з іншого завантажувача його не дає
+        Path lookupSource = outputDirectory.resolve(LOOKUP_CLASS + ".java");
+        Files.writeString(lookupSource, "public class " + LOOKUP_CLASS + " {\n"
+                + "    public static java.lang.invoke.MethodHandles.Lookup lookup() {\n"
+                + "        return java.lang.invoke.MethodHandles.lookup();\n"
+                + "    }\n"
+                + "}\n");
+
+        int exitCode = compiler.run(null, null, System.err, "-encoding", "UTF-8", "-nowarn", "-Xlint:none",
+                "-d", outputDirectory.toString(), sourceFile.toString(), lookupSource.toString());
+        if (exitCode != 0) {
+            throw new IOException("Не вдалося скомпілювати " + sourceFile);
+        }
+        return new ProgramClasses(new URLClassLoader(new URL[] {outputDirectory.toUri().toURL()},
+                BasicDataOperationBenchmark.class.getClassLoader()));
+    }
+
+    /**
+     * @param name Назва класу програми.
+     * @return Клас програми.
+     */
+    Class<?> type(String name) {
+        try {
+            return Class.forName(name, true, loader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("У програмі немає класу " + name, e);
+        }
+    }
+
+    /**
+     * @param enumName Назва переліку програми.
+     * @return Значення переліку в порядку оголошення.
+     */
+    Object[] constants(String enumName) {
+        return type(enumName).getEnumConstants();
+    }
+
+    /**
+     * Знаходить метод програми; для методу екземпляра першим аргументом виклику є об'єкт.
+     *
+     * @param className Назва класу програми.
+     * @param name Назва методу.
+     * @param parameterTypes Типи параметрів після стирання узагальнень.
+     * @return Метод для виклику.
+     */
+    MethodHandle method(String className, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = type(className).getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("У класі " + className + " немає методу " + name
+                    + Arrays.toString(parameterTypes), e);
+        }
+    }
+
+    /**
+     * Знаходить конструктор класу програми.
+     *
+     * @param className Назва класу програми.
+     * @param parameterTypes Типи параметрів після стирання узагальнень.
+     * @return Конструктор для виклику.
+     */
+    MethodHandle constructor(String className, Class<?>... parameterTypes) {
+        try {
+            Constructor<?> constructor = type(className).getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("У класі " + className + " немає конструктора "
+                    + Arrays.toString(parameterTypes), e);
+        }
+    }
+
+    /**
+     * Знаходить метод програми і реалізує ним функціональний інтерфейс; для методу екземпляра першим аргументом
+     * інтерфейсу є об'єкт. Посилальні типи параметрів і результату інтерфейсу звужуються до типів методу,
+     * примітивні мають збігатися з типами методу або розширюватися до них.
+     *
+     * @param functionalInterface Публічний функціональний інтерфейс.
+     * @param className Назва класу програми.
+     * @param name Назва методу.
+     * @param parameterTypes Типи параметрів після стирання узагальнень.
+     * @return Реалізація інтерфейсу, що викликає метод.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T method(Class<?> functionalInterface, String className, String name, Class<?>... parameterTypes) {
+        return (T) implement(functionalInterface, type(className), method(className, name, parameterTypes));
+    }
+
+    /**
+     * Знаходить конструктор класу програми і реалізує ним функціональний інтерфейс.
+     *
+     * @param functionalInterface Публічний функціональний інтерфейс.
+     * @param className Назва класу програми.
+     * @param parameterTypes Типи параметрів після стирання узагальнень.
+     * @return Реалізація інтерфейсу, що створює об'єкт.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T constructor(Class<?> functionalInterface, String className, Class<?>... parameterTypes) {
+        return (T) implement(functionalInterface, type(className), constructor(className, parameterTypes));
+    }
+
+    private Object implement(Class<?> functionalInterface, Class<?> owner, MethodHandle target) {
+        Method abstractMethod = null;
+        for (Method method : functionalInterface.getMethods()) {
+            if (Modifier.isAbstract(method.getModifiers())) {
+                abstractMethod = method;
+            }
+        }
+        if (abstractMethod == null || abstractMethod.getParameterCount() != target.type().parameterCount()) {
+            throw new IllegalArgumentException("Інтерфейс " + functionalInterface.getName()
+                    + " не відповідає методу " + target.type());
+        }
+
+        MethodType interfaceType = MethodType.methodType(abstractMethod.getReturnType(), abstractMethod.getParameterTypes());
+        Class<?>[] parameters = new Class<?>[interfaceType.parameterCount()];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = specialize(interfaceType.parameterType(i), target.type().parameterType(i));
+        }
+        MethodType instantiatedType = MethodType.methodType(specialize(interfaceType.returnType(), target.type().returnType()), parameters);
+
+        try {
+            // реалізація визначається поруч з класом програми, щоб мати доступ і до його приватних методів
+            CallSite site = LambdaMetafactory.metafactory(MethodHandles.privateLookupIn(owner, lookup), abstractMethod.getName(),
+                    MethodType.methodType(functionalInterface), interfaceType, target, instantiatedType);
+            return site.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Не вдалося реалізувати " + functionalInterface.getName()
+                    + " методом " + target.type(), e);
+        }
+    }
+
+    /**
+     * Звужує посилальний тип інтерфейсу до типу методу; примітивний тип методу замінюється обгорткою,
+     * примітивний тип інтерфейсу лишається без змін.
+     */
+    private static Class<?> specialize(Class<?> interfaceType, Class<?> targetType) {
+        if (interfaceType.isPrimitive()) {
+            return interfaceType;
+        }
+        return targetType.isPrimitive() ? MethodType.methodType(targetType).wrap().returnType() : targetType;
+    }
+
+    /**
+     * Викликає метод програми поза вимірюванням, перетворюючи перевірні винятки на {@link IllegalStateException}.
+     *
+     * @param handle Метод.
+     * @param arguments Аргументи виклику.
+     * @return Результат методу.
+     */
+    static Object call(MethodHandle handle, Object... arguments) {
+        try {
+            return handle.invokeWithArguments(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
+
+/**
+ * Перелік Distribution описує розподіли значень, на яких вимірюються операції.
+ */
+enum Distribution {
+    RANDOM,
+    SORTED,
+    REVERSE,
+    DUPLICATES;
+
+    /** Початок діапазону міток часу - 2024-01-01T00:00:00Z. */
+    static final long BASE_EPOCH_SECOND = 1_704_067_200L;
+    static final int SECONDS_PER_YEAR = 31_536_000;
+
+    /**
+     * Генерує мітки часу (секунди від початку епохи) протягом одного року.
+     *
+     * @param size Кількість значень.
+     * @param random Генератор випадкових чисел.
+     * @return Масив секунд від початку епохи.
+     */
+    long[] generate(int size, Random random) {
+        long[] values = new long[size];
+        // для DUPLICATES кожне значення повторюється в середньому 100 разів
+        int distinctCount = (this == DUPLICATES) ? Math.max(1, size / 100) : SECONDS_PER_YEAR;
+        long[] pool = (this == DUPLICATES) ? new long[distinctCount] : null;
+        if (pool != null) {
+            for (int i = 0; i < distinctCount; i++) {
+                pool[i] = BASE_EPOCH_SECOND + random.nextInt(SECONDS_PER_YEAR);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            values[i] = (pool != null) ? pool[random.nextInt(distinctCount)] : BASE_EPOCH_SECOND + random.nextInt(SECONDS_PER_YEAR);
+        }
+
+        if (this == SORTED || this == REVERSE) {
+            Arrays.sort(values);
+        }
+        if (this == REVERSE) {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                long value = values[i];
+                values[i] = values[j];
+                values[j] = value;
+            }
+        }
+        return values;
+    }
+}
+
+/**
+ * Клас BenchmarkResult містить статистику вимірювань однієї операції в наносекундах на операцію.
+ */
+class BenchmarkResult {
+    final String name;
+    final int size;
+    final Distribution distribution;
+    final double min;
+    final double median;
+    final double mean;
+    final double max;
+    final double stddev;
+
+    private BenchmarkResult(String name, int size, Distribution distribution,
+                            double min, double median, double mean, double max, double stddev) {
+        this.name = name;
+        this.size = size;
+        this.distribution = distribution;
+        this.min = min;
+        this.median = median;
+        this.mean = mean;
+        this.max = max;
+        this.stddev = stddev;
+    }
+
+    /**
+     * Обчислює статистику за вибіркою вимірювань.
+     */
+    static BenchmarkResult of(String name, int size, Distribution distribution, double[] samples) {
+        if (samples.length == 0) {
+            throw new IllegalArgumentException("Немає вимірювань операції " + name);
+        }
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+
+        double sum = 0;
+        for (double sample : sorted) {
+            sum += sample;
+        }
+        double mean = sum / sorted.length;
+
+        double squares = 0;
+        for (double sample : sorted) {
+            squares += (sample - mean) * (sample - mean);
+        }
+        double stddev = (sorted.length > 1) ? Math.sqrt(squares / (sorted.length - 1)) : 0;
+
+        // для парної кількості вимірювань медіана - середнє двох середніх значень
+        int middle = sorted.length / 2;
+        double median = (sorted.length % 2 == 0) ? (sorted[middle - 1] + sorted[middle]) / 2 : sorted[middle];
+
+        return new BenchmarkResult(name, size, distribution, sorted[0], median, mean, sorted[sorted.length - 1], stddev);
+    }
+
+    String format() {
+        return String.format(Locale.ROOT, "%-28s %12.1f %12.1f %12.1f %12.1f %10.1f ns/op", name, min, median, mean, max, stddev);
+    }
+}
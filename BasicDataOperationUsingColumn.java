@@ -0,0 +1,1174 @@
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.DoubleFunction;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Клас BasicDataOperationUsingColumn виконує основні операції з даними будь-якого типу з каталогу {@code list/}.
+ *
+ * <p>Тип обирається під час запуску першим аргументом - це назва файлу без розширення ({@code byte}, {@code short},
+ * {@code int}, {@code char}, {@code long}, {@code float}, {@code double}, {@code LocalDate}, {@code LocalTime},
+ * {@code LocalDateTime} або {@code String}). Решта аргументів - значення для пошуку.</p>
+ *
+ * <p>Дані зберігаються у примітивних стовпцях ({@link Column}) без упакування кожного значення в об'єкт:</p>
+ * <ul>
+ *   <li>{@code byte}, {@code short}, {@code int}, {@code char} та {@code LocalDate} (день від початку епохи) - у {@code int[]};</li>
+ *   <li>{@code long}, {@code LocalTime} (наносекунда доби) та {@code LocalDateTime} (секунда від початку епохи, UTC) - у {@code long[]};</li>
+ *   <li>{@code float} та {@code double} - у {@code double[]};</li>
+ *   <li>{@code String} - у словнику: кожен різний рядок зберігається один раз у суцільному масиві байтів UTF-8,
+ *       а стовпець містить лише {@code int}-коди рядків.</li>
+ * </ul>
+ *
+ * <p>Для кожного типу виконується однаковий конвеєр: пошук i мінімум/максимум до та після сортування,
+ * побудова множини різних значень, пошук у множині та порівняння розмірів.</p>
+ *
+ * <p>Приклад використання:</p>
+ * <pre>
+ * {@code
+ * java BasicDataOperationUsingColumn.java LocalDate 2024-03-22
+ * java BasicDataOperationUsingColumn.java String Sunshine brightens up the morning sky
+ * }
+ * </pre>
+ */
+public class BasicDataOperationUsingColumn {
+    static final String PATH_TO_DATA_DIRECTORY = "list/";
+    static final String DATA_FILE_EXTENSION = ".data";
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final String valueToSearch;
+    private final Column column;
+    private Column valueSet;
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Будь ласка, вкажіть тип даних та значення для пошуку. Доступні типи: " + ColumnType.names());
+            return;
+        }
+
+        try {
+            ColumnType type = ColumnType.fromName(args[0]);
+            String valueToSearch = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
+            // значення перевіряється до завантаження файлу, щоб помилка формату не коштувала зчитування даних
+            type.newBuilder().append(valueToSearch);
+
+            BasicDataOperationUsingColumn operation = new BasicDataOperationUsingColumn(type, valueToSearch);
+            operation.doDataOperation();
+            OperationMetrics.report();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            System.err.println("Неправильне значення: " + e.getMessage());
+        }
+    }
+
+    public BasicDataOperationUsingColumn(ColumnType type, String valueToSearch) {
+        this.valueToSearch = valueToSearch;
+        this.column = readColumnFromFile(type, PATH_TO_DATA_DIRECTORY + type.fileName() + DATA_FILE_EXTENSION);
+    }
+
+    private void doDataOperation() {
+        searchColumn();
+        findMinAndMaxInColumn();
+
+        sortColumn();
+
+        searchColumn();
+        findMinAndMaxInColumn();
+
+        createSet();
+        searchSet();
+        compareColumnAndSet();
+    }
+
+    private void sortColumn() {
+        String operationName = "сортування стовпця " + column.type().fileName();
+        OperationTimer timer = OperationTimer.start();
+        column.sort();
+        timer.stop(operationName);
+    }
+
+    private void searchColumn() {
+        // назва будується до вимірювання: пошук у відсортованому стовпці коротший за її побудову
+        String operationName = column.isSorted() ? "бінарний пошук у стовпці " + column.type().fileName()
+                : "лінійний пошук у стовпці " + column.type().fileName();
+        OperationTimer timer = OperationTimer.start();
+        int index = column.indexOf(valueToSearch);
+        timer.stop(operationName);
+
+        if (index >= 0) {
+            System.out.println("Значення '" + valueToSearch + "' знайдено в стовпці за індексом: " + index);
+        } else {
+            System.out.println("Значення '" + valueToSearch + "' у стовпці не знайдено.");
+        }
+    }
+
+    private void findMinAndMaxInColumn() {
+        if (column.size() == 0) {
+            System.out.println("Стовпець порожній.");
+            return;
+        }
+
+        String operationName = "пошук мінімального та максимального значень у стовпці " + column.type().fileName();
+        OperationTimer timer = OperationTimer.start();
+        String min = column.min();
+        String max = column.max();
+        timer.stop(operationName);
+
+        System.out.println("Мінімальне значення в стовпці: " + min);
+        System.out.println("Максимальне значення в стовпці: " + max);
+    }
+
+    private void createSet() {
+        String operationName = "побудова множини різних значень " + column.type().fileName();
+        OperationTimer timer = OperationTimer.start();
+        valueSet = column.distinct();
+        timer.stop(operationName);
+    }
+
+    private void searchSet() {
+        String operationName = "пошук у множині " + column.type().fileName();
+        OperationTimer timer = OperationTimer.start();
+        boolean isFound = valueSet.indexOf(valueToSearch) >= 0;
+        timer.stop(operationName);
+
+        if (isFound) {
+            System.out.println("Значення '" + valueToSearch + "' знайдено у множині.");
+        } else {
+            System.out.println("Значення '" + valueToSearch + "' у множині не знайдено.");
+        }
+    }
+
+    private void compareColumnAndSet() {
+        System.out.println("Кількість елементів у стовпці: " + column.size() + " (" + column.footprintBytes() + " байт)");
+        System.out.println("Кількість елементів у множині: " + valueSet.size() + " (" + valueSet.footprintBytes() + " байт)");
+    }
+
+    /**
+     * Зчитує файл у стовпець заданого типу. Порожні рядки та рядки, що не є значенням цього типу
+     * (наприклад, число поза діапазоном {@code int}), пропускаються з повідомленням.
+     */
+    static Column readColumnFromFile(ColumnType type, String pathToFile) {
+        OperationTimer timer = OperationTimer.start();
+        ColumnBuilder builder = type.newBuilder();
+
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(pathToFile), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            String line;
+            int lineNumber = 0;
+            int skippedCount = 0;
+            String firstSkipped = null;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    builder.append(line);
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    if (skippedCount++ == 0) {
+                        firstSkipped = "рядок " + lineNumber + ": " + e.getMessage();
+                    }
+                }
+            }
+            if (skippedCount > 0) {
+                System.err.println("Пропущено рядків, що не є значеннями типу " + type.fileName() + ": " + skippedCount
+                        + " (перший - " + firstSkipped + ")");
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка читання файлу: " + e.getMessage());
+        }
+
+        Column column = builder.build();
+        printLoadReport(timer, pathToFile, column.size());
+        return column;
+    }
+
+    private static void printLoadReport(OperationTimer timer, String pathToFile, int lineCount) {
+        timer.stop(() -> "завантаження файлу " + pathToFile);
+
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.println("Зчитано рядків: " + lineCount + ", пікове використання heap: " + (peakHeapBytes >> 20) + " МБ");
+    }
+}
+
+/**
+ * Перелік ColumnType описує типи даних каталогу {@code list/} та спосіб їх кодування у примітивний стовпець.
+ */
+enum ColumnType {
+    BYTE("byte") {
+        ColumnBuilder newBuilder() {
+            return new IntColumn.Builder(this, text -> Byte.parseByte(text.strip()), value -> Byte.toString((byte) value));
+        }
+    },
+    SHORT("short") {
+        ColumnBuilder newBuilder() {
+            return new IntColumn.Builder(this, text -> Short.parseShort(text.strip()), value -> Short.toString((short) value));
+        }
+    },
+    INT("int") {
+        ColumnBuilder newBuilder() {
+            return new IntColumn.Builder(this, text -> Integer.parseInt(text.strip()), Integer::toString);
+        }
+    },
+    CHAR("char") {
+        ColumnBuilder newBuilder() {
+            return new IntColumn.Builder(this, ColumnType::parseChar, value -> String.valueOf((char) value));
+        }
+    },
+    LOCAL_DATE("LocalDate") {
+        ColumnBuilder newBuilder() {
+            return new IntColumn.Builder(this, text -> Math.toIntExact(LocalDate.parse(text.strip()).toEpochDay()),
+                    value -> LocalDate.ofEpochDay(value).toString());
+        }
+    },
+    LONG("long") {
+        ColumnBuilder newBuilder() {
+            return new LongColumn.Builder(this, text -> Long.parseLong(text.strip()), Long::toString);
+        }
+    },
+    LOCAL_TIME("LocalTime") {
+        ColumnBuilder newBuilder() {
+            return new LongColumn.Builder(this, text -> LocalTime.parse(text.strip()).toNanoOfDay(),
+                    value -> LocalTime.ofNanoOfDay(value).toString());
+        }
+    },
+    LOCAL_DATE_TIME("LocalDateTime") {
+        ColumnBuilder newBuilder() {
+            return new LongColumn.Builder(this, ColumnType::parseEpochSecond,
+                    value -> LocalDateTime.ofEpochSecond(value, 0, ZoneOffset.UTC).toString());
+        }
+    },
+    FLOAT("float") {
+        ColumnBuilder newBuilder() {
+            return new DoubleColumn.Builder(this, text -> Float.parseFloat(text.strip()), value -> Float.toString((float) value));
+        }
+    },
+    DOUBLE("double") {
+        ColumnBuilder newBuilder() {
+            return new DoubleColumn.Builder(this, text -> Double.parseDouble(text.strip()), Double::toString);
+        }
+    },
+    STRING("String") {
+        ColumnBuilder newBuilder() {
+            return new StringColumn.Builder(this);
+        }
+    };
+
+    private final String fileName;
+
+    ColumnType(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * @return Назва файлу даних без розширення.
+     */
+    String fileName() {
+        return fileName;
+    }
+
+    /**
+     * @return Новий побудовник стовпця цього типу.
+     */
+    abstract ColumnBuilder newBuilder();
+
+    /**
+     * Повертає тип за назвою файлу даних.
+     *
+     * @param name Назва файлу без розширення, наприклад {@code int} або {@code LocalDate}.
+     * @return Тип даних.
+     * @throws IllegalArgumentException Якщо тип невідомий.
+     */
+    static ColumnType fromName(String name) {
+        for (ColumnType type : values()) {
+            if (type.fileName.equals(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("невідомий тип даних '" + name + "', доступні типи: " + names());
+    }
+
+    static String names() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (ColumnType type : values()) {
+            joiner.add(type.fileName);
+        }
+        return joiner.toString();
+    }
+
+    private static int parseChar(String text) {
+        if (text.length() != 1) {
+            throw new IllegalArgumentException("очікується один символ: '" + text + "'");
+        }
+        return text.charAt(0);
+    }
+
+    private static long parseEpochSecond(String text) {
+        LocalDateTime dateTime = LocalDateTime.parse(text.strip(), DateTimeFormatter.ISO_DATE_TIME);
+        if (dateTime.getNano() != 0) {
+            // стовпець зберігає секунди, тож дробова частина була б мовчки відкинута
+            throw new IllegalArgumentException("точність зберігання дати i часу - одна секунда: '" + text + "'");
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
+
+/**
+ * Інтерфейс ColumnBuilder накопичує рядки файлу у примітивному буфері та будує з них стовпець.
+ */
+interface ColumnBuilder {
+    /**
+     * Розбирає рядок i додає значення до стовпця.
+     *
+     * @param text Текстове подання значення.
+     */
+    void append(String text);
+
+    /**
+     * @return Стовпець з усіх доданих значень.
+     */
+    Column build();
+}
+
+/**
+ * Клас Column - стовпець значень одного типу, що зберігаються у примітивному масиві.
+ *
+ * <p>Значення передаються та повертаються у текстовому поданні, а всередині стовпця порівнюються як примітиви.
+ * Пошук у невідсортованому стовпці лінійний, у відсортованому - бінарний; мінімум i максимум
+ * відсортованого стовпця - це перший i останній елементи.</p>
+ */
+abstract class Column {
+    private final ColumnType type;
+    private boolean isSorted;
+
+    Column(ColumnType type, boolean isSorted) {
+        this.type = type;
+        this.isSorted = isSorted;
+    }
+
+    ColumnType type() {
+        return type;
+    }
+
+    boolean isSorted() {
+        return isSorted;
+    }
+
+    /**
+     * Сортує стовпець за зростанням.
+     */
+    void sort() {
+        sortValues();
+        isSorted = true;
+    }
+
+    /**
+     * @return Кількість значень у стовпці.
+     */
+    abstract int size();
+
+    /**
+     * @param index Індекс значення.
+     * @return Текстове подання значення за індексом.
+     */
+    abstract String get(int index);
+
+    /**
+     * Шукає значення у стовпці.
+     *
+     * @param text Текстове подання значення.
+     * @return Індекс знайденого значення або від'ємне число, якщо значення відсутнє.
+     */
+    abstract int indexOf(String text);
+
+    /**
+     * @return Мінімальне значення стовпця.
+     */
+    abstract String min();
+
+    /**
+     * @return Максимальне значення стовпця.
+     */
+    abstract String max();
+
+    /**
+     * Будує відсортований стовпець без повторень. Вихідний стовпець не змінюється.
+     *
+     * @return Множина різних значень стовпця.
+     */
+    abstract Column distinct();
+
+    /**
+     * @return Приблизний обсяг пам'яті даних стовпця в байтах.
+     */
+    abstract long footprintBytes();
+
+    abstract void sortValues();
+
+    /**
+     * Повертає нову місткість буфера: у 1.5 раза більшу за поточну.
+     */
+    static int growCapacity(int capacity) {
+        return Math.max(16, capacity + (capacity >> 1));
+    }
+}
+
+/**
+ * Клас IntColumn зберігає значення, що вміщуються в {@code int}: byte, short, int, char та LocalDate.
+ */
+class IntColumn extends Column {
+    private final int[] values;
+    private final IntFunction<String> decoder;
+    private final ToIntFunction<String> encoder;
+
+    IntColumn(ColumnType type, int[] values, ToIntFunction<String> encoder, IntFunction<String> decoder, boolean isSorted) {
+        super(type, isSorted);
+        this.values = values;
+        this.encoder = encoder;
+        this.decoder = decoder;
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    String get(int index) {
+        return decoder.apply(values[index]);
+    }
+
+    int indexOf(String text) {
+        int key = encoder.applyAsInt(text);
+        if (isSorted()) {
+            return Arrays.binarySearch(values, key);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String min() {
+        if (isSorted()) {
+            return get(0);
+        }
+        int min = values[0];
+        for (int value : values) {
+            min = Math.min(min, value);
+        }
+        return decoder.apply(min);
+    }
+
+    String max() {
+        if (isSorted()) {
+            return get(values.length - 1);
+        }
+        int max = values[0];
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return decoder.apply(max);
+    }
+
+    Column distinct() {
+        int[] sorted = values.clone();
+        if (!isSorted()) {
+            Arrays.sort(sorted);
+        }
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[count - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return new IntColumn(type(), Arrays.copyOf(sorted, count), encoder, decoder, true);
+    }
+
+    long footprintBytes() {
+        return (long) values.length * Integer.BYTES;
+    }
+
+    void sortValues() {
+        Arrays.sort(values);
+    }
+
+    static class Builder implements ColumnBuilder {
+        private final ColumnType type;
+        private final ToIntFunction<String> encoder;
+        private final IntFunction<String> decoder;
+        private int[] values = new int[16];
+        private int size;
+
+        Builder(ColumnType type, ToIntFunction<String> encoder, IntFunction<String> decoder) {
+            this.type = type;
+            this.encoder = encoder;
+            this.decoder = decoder;
+        }
+
+        public void append(String text) {
+            int value = encoder.applyAsInt(text);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, growCapacity(size));
+            }
+            values[size++] = value;
+        }
+
+        public Column build() {
+            return new IntColumn(type, Arrays.copyOf(values, size), encoder, decoder, false);
+        }
+    }
+}
+
+/**
+ * Клас LongColumn зберігає значення, що вміщуються в {@code long}: long, LocalTime та LocalDateTime.
+ */
+class LongColumn extends Column {
+    private final long[] values;
+    private final ToLongFunction<String> encoder;
+    private final LongFunction<String> decoder;
+
+    LongColumn(ColumnType type, long[] values, ToLongFunction<String> encoder, LongFunction<String> decoder, boolean isSorted) {
+        super(type, isSorted);
+        this.values = values;
+        this.encoder = encoder;
+        this.decoder = decoder;
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    String get(int index) {
+        return decoder.apply(values[index]);
+    }
+
+    int indexOf(String text) {
+        long key = encoder.applyAsLong(text);
+        if (isSorted()) {
+            return Arrays.binarySearch(values, key);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String min() {
+        if (isSorted()) {
+            return get(0);
+        }
+        long min = values[0];
+        for (long value : values) {
+            min = Math.min(min, value);
+        }
+        return decoder.apply(min);
+    }
+
+    String max() {
+        if (isSorted()) {
+            return get(values.length - 1);
+        }
+        long max = values[0];
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        return decoder.apply(max);
+    }
+
+    Column distinct() {
+        long[] sorted = values.clone();
+        if (!isSorted()) {
+            Arrays.sort(sorted);
+        }
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[count - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return new LongColumn(type(), Arrays.copyOf(sorted, count), encoder, decoder, true);
+    }
+
+    long footprintBytes() {
+        return (long) values.length * Long.BYTES;
+    }
+
+    void sortValues() {
+        Arrays.sort(values);
+    }
+
+    static class Builder implements ColumnBuilder {
+        private final ColumnType type;
+        private final ToLongFunction<String> encoder;
+        private final LongFunction<String> decoder;
+        private long[] values = new long[16];
+        private int size;
+
+        Builder(ColumnType type, ToLongFunction<String> encoder, LongFunction<String> decoder) {
+            this.type = type;
+            this.encoder = encoder;
+            this.decoder = decoder;
+        }
+
+        public void append(String text) {
+            long value = encoder.applyAsLong(text);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, growCapacity(size));
+            }
+            values[size++] = value;
+        }
+
+        public Column build() {
+            return new LongColumn(type, Arrays.copyOf(values, size), encoder, decoder, false);
+        }
+    }
+}
+
+/**
+ * Клас DoubleColumn зберігає значення з рухомою комою: float (розширений до double без втрати точності) та double.
+ *
+ * <p>Порядок i рівність значень такі ж, як у {@link Double#compare(double, double)}: {@code -0.0} менше за {@code 0.0},
+ * а {@code NaN} дорівнює собі та більше за всі інші значення.</p>
+ */
+class DoubleColumn extends Column {
+    private final double[] values;
+    private final ToDoubleFunction<String> encoder;
+    private final DoubleFunction<String> decoder;
+
+    DoubleColumn(ColumnType type, double[] values, ToDoubleFunction<String> encoder, DoubleFunction<String> decoder, boolean isSorted) {
+        super(type, isSorted);
+        this.values = values;
+        this.encoder = encoder;
+        this.decoder = decoder;
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    String get(int index) {
+        return decoder.apply(values[index]);
+    }
+
+    int indexOf(String text) {
+        double key = encoder.applyAsDouble(text);
+        if (isSorted()) {
+            return Arrays.binarySearch(values, key);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (Double.compare(values[i], key) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String min() {
+        if (isSorted()) {
+            return get(0);
+        }
+        double min = values[0];
+        for (double value : values) {
+            if (Double.compare(value, min) < 0) {
+                min = value;
+            }
+        }
+        return decoder.apply(min);
+    }
+
+    String max() {
+        if (isSorted()) {
+            return get(values.length - 1);
+        }
+        double max = values[0];
+        for (double value : values) {
+            if (Double.compare(value, max) > 0) {
+                max = value;
+            }
+        }
+        return decoder.apply(max);
+    }
+
+    Column distinct() {
+        double[] sorted = values.clone();
+        if (!isSorted()) {
+            Arrays.sort(sorted);
+        }
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || Double.compare(sorted[i], sorted[count - 1]) != 0) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return new DoubleColumn(type(), Arrays.copyOf(sorted, count), encoder, decoder, true);
+    }
+
+    long footprintBytes() {
+        return (long) values.length * Double.BYTES;
+    }
+
+    void sortValues() {
+        Arrays.sort(values);
+    }
+
+    static class Builder implements ColumnBuilder {
+        private final ColumnType type;
+        private final ToDoubleFunction<String> encoder;
+        private final DoubleFunction<String> decoder;
+        private double[] values = new double[16];
+        private int size;
+
+        Builder(ColumnType type, ToDoubleFunction<String> encoder, DoubleFunction<String> decoder) {
+            this.type = type;
+            this.encoder = encoder;
+            this.decoder = decoder;
+        }
+
+        public void append(String text) {
+            double value = encoder.applyAsDouble(text);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, growCapacity(size));
+            }
+            values[size++] = value;
+        }
+
+        public Column build() {
+            return new DoubleColumn(type, Arrays.copyOf(values, size), encoder, decoder, false);
+        }
+    }
+}
+
+/**
+ * Клас StringColumn зберігає рядки як словник: кожен різний рядок записується один раз у суцільний масив байтів
+ * UTF-8 ({@code arena}), а стовпець містить лише коди рядків у {@code int[]}.
+ *
+ * <p>Словник упорядкований побайтово (для UTF-8 це порядок кодових точок), i код рядка дорівнює його номеру
+ * у словнику. Тому порівняння рядків зводиться до порівняння кодів: сортування стовпця - це сортування {@code int[]},
+ * а мінімум i максимум - найменший i найбільший коди.</p>
+ */
+class StringColumn extends Column {
+    private final byte[] arena;
+    private final int[] offsets;
+    private final int[] codes;
+
+    private StringColumn(ColumnType type, byte[] arena, int[] offsets, int[] codes, boolean isSorted) {
+        super(type, isSorted);
+        this.arena = arena;
+        this.offsets = offsets;
+        this.codes = codes;
+    }
+
+    int size() {
+        return codes.length;
+    }
+
+    String get(int index) {
+        return decode(codes[index]);
+    }
+
+    int indexOf(String text) {
+        int code = codeOf(text.getBytes(StandardCharsets.UTF_8));
+        if (code < 0) {
+            return -1;
+        }
+        if (isSorted()) {
+            return Arrays.binarySearch(codes, code);
+        }
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] == code) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String min() {
+        if (isSorted()) {
+            return get(0);
+        }
+        int min = codes[0];
+        for (int code : codes) {
+            min = Math.min(min, code);
+        }
+        return decode(min);
+    }
+
+    String max() {
+        if (isSorted()) {
+            return get(codes.length - 1);
+        }
+        int max = codes[0];
+        for (int code : codes) {
+            max = Math.max(max, code);
+        }
+        return decode(max);
+    }
+
+    Column distinct() {
+        // кожен рядок словника зустрічається у стовпці, тому множина - це сам словник
+        int[] dictionaryCodes = new int[offsets.length - 1];
+        Arrays.setAll(dictionaryCodes, code -> code);
+        return new StringColumn(type(), arena, offsets, dictionaryCodes, true);
+    }
+
+    long footprintBytes() {
+        return arena.length + (long) offsets.length * Integer.BYTES + (long) codes.length * Integer.BYTES;
+    }
+
+    void sortValues() {
+        Arrays.sort(codes);
+    }
+
+    private String decode(int code) {
+        return new String(arena, offsets[code], offsets[code + 1] - offsets[code], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Бінарний пошук рядка у словнику.
+     *
+     * @return Код рядка або -1, якщо його немає у словнику.
+     */
+    private int codeOf(byte[] bytes) {
+        int low = 0;
+        int high = offsets.length - 2;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = Arrays.compareUnsigned(arena, offsets[middle], offsets[middle + 1], bytes, 0, bytes.length);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    static class Builder implements ColumnBuilder {
+        private final ColumnType type;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<byte[]> entries = new ArrayList<>();
+        private int[] codes = new int[16];
+        private int size;
+
+        Builder(ColumnType type) {
+            this.type = type;
+        }
+
+        public void append(String text) {
+            Integer code = dictionary.get(text);
+            if (code == null) {
+                code = entries.size();
+                dictionary.put(text, code);
+                entries.add(text.getBytes(StandardCharsets.UTF_8));
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, growCapacity(size));
+            }
+            codes[size++] = code;
+        }
+
+        public Column build() {
+            Integer[] order = new Integer[entries.size()];
+            Arrays.setAll(order, code -> code);
+            Arrays.sort(order, (left, right) -> Arrays.compareUnsigned(entries.get(left), entries.get(right)));
+
+            int[] rank = new int[order.length];
+            int[] offsets = new int[order.length + 1];
+            for (int i = 0; i < order.length; i++) {
+                rank[order[i]] = i;
+                offsets[i + 1] = offsets[i] + entries.get(order[i]).length;
+            }
+
+            byte[] arena = new byte[offsets[order.length]];
+            for (int i = 0; i < order.length; i++) {
+                byte[] entry = entries.get(order[i]);
+                System.arraycopy(entry, 0, arena, offsets[i], entry.length);
+            }
+
+            int[] rankedCodes = new int[size];
+            for (int i = 0; i < size; i++) {
+                rankedCodes[i] = rank[codes[i]];
+            }
+            return new StringColumn(type, arena, offsets, rankedCodes, false);
+        }
+    }
+}
+
+/**
+ * Клас OperationTimer фіксує момент початку операції та кількість байтів, виділених поточним потоком,
+ * щоб після завершення операції записати її тривалість i виділену пам'ять у {@link OperationMetrics}.
+ */
+class OperationTimer {
+    private final long startTime;
+    private final long startAllocatedBytes;
+
+    private OperationTimer(long startTime, long startAllocatedBytes) {
+        this.startTime = startTime;
+        this.startAllocatedBytes = startAllocatedBytes;
+    }
+
+    /**
+     * Починає вимірювання операції.
+     * 
+     * @return Таймер операції.
+     */
+    static OperationTimer start() {
+        long startAllocatedBytes = OperationMetrics.currentThreadAllocatedBytes();
+        return new OperationTimer(System.nanoTime(), startAllocatedBytes);
+    }
+
+    /**
+     * Завершує вимірювання та записує тривалість операції в наносекундах i виділені байти в метрики.
+     * 
+     * <p>Аргумент обчислюється до виклику, тобто всередині вимірювання, тому назву, яку потрібно складати
+     * з частин, слід будувати до {@link #start()} або передавати через {@link #stop(Supplier)}.</p>
+     * 
+     * @param operationName Назва операції.
+     */
+    void stop(String operationName) {
+        long duration = System.nanoTime() - startTime;
+        long allocatedBytes = OperationMetrics.currentThreadAllocatedBytes() - startAllocatedBytes;
+        OperationMetrics.record(operationName, duration, Math.max(0, allocatedBytes));
+    }
+
+    /**
+     * Завершує вимірювання, як {@link #stop(String)}, але будує назву операції лише після того, як зчитано час
+     * i лічильник виділених байтів, тож побудова назви не потрапляє у вимірювання.
+     * 
+     * @param operationName Джерело назви операції.
+     */
+    void stop(Supplier<String> operationName) {
+        long endTime = System.nanoTime();
+        long allocatedBytes = OperationMetrics.currentThreadAllocatedBytes() - startAllocatedBytes;
+        OperationMetrics.record(operationName.get(), endTime - startTime, Math.max(0, allocatedBytes));
+    }
+}
+
+/**
+ * Клас OperationMetrics накопичує час виконання операцій у гістограмах {@link LatencyHistogram} за назвою операції.
+ * 
+ * <p>Запис у метрики не виконує введення-виведення, тому не впливає на вимірюваний час. Підсумок виводиться
+ * один раз методом {@link #report()} наприкінці запуску; якщо задано системну властивість {@link #OUTPUT_PROPERTY},
+ * метрики також записуються у файл у форматі {@link #FORMAT_PROPERTY} ({@code json} або {@code prometheus}),
+ * щоб результати багатьох запусків можна було об'єднувати.</p>
+ */
+class OperationMetrics {
+    static final String OUTPUT_PROPERTY = "metrics.output";
+    static final String FORMAT_PROPERTY = "metrics.format";
+
+    static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    static final String[] QUANTILE_NAMES = {"p50", "p99", "p999"};
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean IS_ALLOCATION_SUPPORTED = THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemorySupported();
+
+    /**
+     * Записує одне вимірювання операції.
+     * 
+     * @param operationName Назва операції.
+     * @param durationNanos Тривалість у наносекундах.
+     * @param allocatedBytes Кількість байтів, виділених під час операції.
+     */
+    static void record(String operationName, long durationNanos, long allocatedBytes) {
+        HISTOGRAMS.computeIfAbsent(operationName, name -> new LatencyHistogram()).record(durationNanos, allocatedBytes);
+    }
+
+    /**
+     * @return Кількість байтів, виділених поточним потоком, або 0, якщо JVM цього не підтримує.
+     */
+    static long currentThreadAllocatedBytes() {
+        return IS_ALLOCATION_SUPPORTED
+                ? ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getCurrentThreadAllocatedBytes()
+                : 0;
+    }
+
+    /**
+     * Виводить підсумок метрик у консоль та, за потреби, записує їх у файл.
+     */
+    static void report() {
+        System.out.println("\n>>>>>>>>> Метрики операцій (наносекунди):");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            System.out.println("'" + entry.getKey() + "': кількість=" + histogram.count()
+                    + ", p50=" + histogram.quantile(0.5) + ", p99=" + histogram.quantile(0.99)
+                    + ", p999=" + histogram.quantile(0.999) + ", max=" + histogram.max()
+                    + ", виділено байт=" + histogram.allocatedBytes());
+        }
+
+        String outputPath = System.getProperty(OUTPUT_PROPERTY);
+        if (outputPath == null) {
+            return;
+        }
+
+        String format = System.getProperty(FORMAT_PROPERTY, "json");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputPath), StandardCharsets.UTF_8))) {
+            if ("prometheus".equals(format)) {
+                writePrometheus(writer);
+            } else if ("json".equals(format)) {
+                writeJson(writer);
+            } else {
+                throw new IOException("Невідомий формат метрик: " + format);
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка запису метрик у файл: " + e.getMessage());
+        }
+    }
+
+    private static void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"operations\": [");
+        String separator = "\n";
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            writer.write(separator + "    {\"name\": \"" + escapeJson(entry.getKey()) + "\", \"count\": " + histogram.count()
+                    + ", \"sumNanos\": " + histogram.sum() + ", \"maxNanos\": " + histogram.max());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                writer.write(", \"" + QUANTILE_NAMES[i] + "Nanos\": " + histogram.quantile(QUANTILES[i]));
+            }
+            writer.write(", \"allocatedBytes\": " + histogram.allocatedBytes() + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  ]\n}\n");
+    }
+
+    private static void writePrometheus(Writer writer) throws IOException {
+        Map<String, LatencyHistogram> histograms = new TreeMap<>(HISTOGRAMS);
+
+        writer.write("# HELP operation_duration_nanoseconds Тривалість операції в наносекундах.\n");
+        writer.write("# TYPE operation_duration_nanoseconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String label = "operation=\"" + escapePrometheus(entry.getKey()) + "\"";
+            LatencyHistogram histogram = entry.getValue();
+            for (double quantile : QUANTILES) {
+                writer.write("operation_duration_nanoseconds{" + label + ",quantile=\"" + quantile + "\"} "
+                        + histogram.quantile(quantile) + "\n");
+            }
+            writer.write("operation_duration_nanoseconds_sum{" + label + "} " + histogram.sum() + "\n");
+            writer.write("operation_duration_nanoseconds_count{" + label + "} " + histogram.count() + "\n");
+        }
+
+        writer.write("# HELP operation_allocated_bytes_total Кількість байтів, виділених під час операції.\n");
+        writer.write("# TYPE operation_allocated_bytes_total counter\n");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            writer.write("operation_allocated_bytes_total{operation=\"" + escapePrometheus(entry.getKey()) + "\"} "
+                    + entry.getValue().allocatedBytes() + "\n");
+        }
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapePrometheus(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
+
+/**
+ * Клас LatencyHistogram - безблокувальна гістограма з логарифмічно-лінійними кошиками на зразок HdrHistogram.
+ * 
+ * <p>Значення менші за {@link #SUB_BUCKET_COUNT} зберігаються точно, більші - з відносною похибкою не більше 1/32.
+ * Усі лічильники оновлюються атомарно, тому гістограму можна заповнювати з кількох потоків одночасно.</p>
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    void record(long value, long allocated) {
+        long nonNegative = Math.max(0, value);
+        counts.incrementAndGet(indexOf(nonNegative));
+        count.incrementAndGet();
+        sum.addAndGet(nonNegative);
+        max.accumulateAndGet(nonNegative, Math::max);
+        allocatedBytes.addAndGet(allocated);
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long sum() {
+        return sum.get();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * Повертає верхню межу кошика, в який потрапляє задана частка вимірювань.
+     * 
+     * @param quantile Частка від 0 до 1.
+     * @return Значення квантиля (не більше за максимальне записане значення).
+     */
+    long quantile(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            cumulative += counts.get(index);
+            if (cumulative >= target) {
+                return Math.min(upperBoundOf(index), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        long upperBound = ((subBucket + 1) << shift) - 1;
+        return (upperBound < 0) ? Long.MAX_VALUE : upperBound;
+    }
+}
@@ -1,14 +1,69 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.ListIterator;
+import java.util.Random;
+import java.util.RandomAccess;
 import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * Клас BasicDataOperationUsingList надає методи для виконання основних операцiй з даними типу LocalDateTime.
@@ -19,12 +74,25 @@ import java.util.List;
  * <ul>
  *   <li>{@link #main(String[])} - Точка входу в програму.</li>
  *   <li>{@link #doDataOperation()} - Виконує основнi операцiї з даними.</li>
+ *   <li>{@link #doBatchSearch()} - Виконує пакетний пошук запитiв з файлу або stdin.</li>
+ *   <li>{@link #doRangeQuery()} - Вибирає значення дiапазону дат, найближчi значення та гiстограму за iнтервалами.</li>
+ *   <li>{@link #doService()} - Обслуговує запити з stdin або локального сокета, тримаючи вiдсортованi данi в пам'ятi.</li>
+ *   <li>{@link #doIncrementalMerge()} - Зливає вiдсортований файл з новими даними без повторного сортування iсторiї.</li>
+ *   <li>{@link #doExternalSort()} - Сортує файл, що не вмiщується в пам'ять, частинами з обмiном через диск.</li>
  *   <li>{@link #sortArray()} - Сортує масив LocalDateTime.</li>
  *   <li>{@link #searchArray()} - Виконує пошук значення в масивi LocalDateTime.</li>
  *   <li>{@link #findMinAndMaxInArray()} - Знаходить мiнiмальне та максимальне значення в масивi LocalDateTime.</li>
  *   <li>{@link #sortList()} - Сортує список LocalDateTime.</li>
  *   <li>{@link #searchList()} - Виконує пошук значення в списку LocalDateTime.</li>
  *   <li>{@link #findMinAndMaxInList()} - Знаходить мiнiмальне та максимальне значення в списку LocalDateTime.</li>
+ *   <li>{@link #sortTimeline()} - Сортує часову шкалу {@link EpochTimeline}.</li>
+ *   <li>{@link #searchTimeline()} - Виконує пошук значення в часовiй шкалi.</li>
+ *   <li>{@link #findMinAndMaxInTimeline()} - Знаходить мiнiмальне та максимальне значення в часовiй шкалi.</li>
+ *   <li>{@link #searchPackedTimeline()} - Виконує пошук значення в стисненiй часовiй шкалi {@link PackedTimeline}.</li>
+ *   <li>{@link #findMinAndMaxInPackedTimeline()} - Знаходить мiнiмальне та максимальне значення в стисненiй часовiй шкалi.</li>
+ *   <li>{@link #searchColumnFile()} - Виконує пошук значення у вiдображеному в пам'ять бiнарному файлi.</li>
+ *   <li>{@link #findMinAndMaxInColumnFile()} - Знаходить мiнiмальне та максимальне значення у бiнарному файлi.</li>
+ *   <li>{@link #writeSortedOutput()} - Записує вiдсортованi данi у текстовому або бiнарному форматi.</li>
  * </ul>
  * 
  * <p>Конструктор:</p>
@@ -35,13 +103,35 @@ import java.util.List;
  * <p>Константи:</p>
  * <ul>
  *   <li>{@link #PATH_TO_DATA_FILE} - Шлях до файлу з даними.</li>
+ *   <li>{@link #BATCH_SEARCH_PROPERTY} - Системна властивiсть з файлом запитiв (або {@code -} для stdin) для пакетного пошуку.</li>
+ *   <li>{@link #MERGE_DELTA_PROPERTY} - Системна властивiсть з файлами нових даних через кому для iнкрементального злиття.</li>
+ *   <li>{@link #SORT_MEMORY_PROPERTY} - Системна властивiсть з обсягом пам'ятi для зовнiшнього сортування.</li>
+ *   <li>{@link #STORAGE_PROPERTY} - Системна властивiсть, що обирає спосiб зберiгання даних.</li>
+ *   <li>{@link SortEngine#PROPERTY} - Системна властивiсть, що обирає спосiб сортування.</li>
+ *   <li>{@link ScanKernel#PROPERTY} - Системна властивiсть, що обирає спосiб лiнiйного проходу по масивах long.</li>
+ *   <li>{@link #SCAN_BENCHMARK_PROPERTY} - Системна властивiсть з кiлькiстю значень для порiвняння способiв проходу.</li>
+ *   <li>{@link #LOAD_BENCHMARK_PROPERTY} - Системна властивiсть з розмiрами файлiв через кому для звiту про завантаження.</li>
+ *   <li>{@link ParallelFileLoader#PROPERTY} - Системна властивiсть, що вмикає паралельне завантаження файлу.</li>
+ *   <li>{@link LearnedIndex#PROPERTY} - Системна властивiсть, що обирає спосiб пошуку у вiдсортованих масивi та списку.</li>
+ *   <li>{@link #LEARNED_INDEX_CHECK_PROPERTY} - Системна властивiсть з кiлькiстю випадкових послiдовностей для звiрки навченого iндексу з бiнарним пошуком.</li>
+ *   <li>{@link TimeRange#PROPERTY} - Системна властивiсть з дiапазоном {@code <початок>/<кiнець>} для запитiв дiапазону.</li>
+ *   <li>{@link QueryService#PROPERTY} - Системна властивiсть, що запускає резидентний сервiс на stdin ({@code -}) або локальному портi.</li>
+ *   <li>{@link MemoryReport#PROPERTY} - Системна властивiсть, що вмикає звiт про збирання смiття, heap i RSS наприкiнцi запуску.</li>
+ *   <li>{@link #SORTED_FORMAT_PROPERTY} - Системна властивiсть, що обирає формат вiдсортованого файлу ({@code text} або {@code binary}).</li>
+ *   <li>{@link #PATH_TO_SORTED_COLUMN_FILE} - Шлях до вiдсортованого файлу у бiнарному форматi {@link ColumnFile}.</li>
  * </ul>
  * 
  * <p>Змiннi екземпляра:</p>
  * <ul>
  *   <li>{@link #dateTimeValueToSearch} - Значення LocalDateTime для пошуку.</li>
  *   <li>{@link #dateTimeArray} - Масив LocalDateTime.</li>
- *   <li>{@link #dateTimeList} - Список LocalDateTime.</li>
+ *   <li>{@link #dateTimeArrayStatistics} - Мiнiмум, максимум i ознака впорядкованостi масиву LocalDateTime.</li>
+ *   <li>{@link #dateTimeList} - Список LocalDateTime, що веде власну статистику мiнiмуму i максимуму.</li>
+ *   <li>{@link #dateTimeTimeline} - Часова шкала з секунд вiд початку епохи (лише в режимi {@code timeline}).</li>
+ *   <li>{@link #dateTimeColumnFile} - Вiдображений у пам'ять вiдсортований бiнарний файл (лише в режимi {@code mapped}).</li>
+ *   <li>{@link #dateTimeOffHeapArray} - Секунди вiд початку епохи поза heap (лише в режимi {@code offheap}).</li>
+ *   <li>{@link #dateTimePackedTimeline} - Стиснена вiдсортована часова шкала (лише в режимi {@code packed}).</li>
+ *   <li>{@link #dateTimeArrayIndex} i {@link #dateTimeListIndex} - Навченi iндекси вiдсортованих масиву та списку.</li>
  * </ul>
  * 
  * <p>Приклад використання:</p>
@@ -50,17 +140,206 @@ import java.util.List;
  * java BasicDataOperationUsingList "2024-03-16T00:12:38Z"
  * }
  * </pre>
+ * 
+ * <p>Режим зберiгання у примiтивному масивi {@code long[]} (8 байт на мiтку часу замiсть об'єктiв LocalDateTime):</p>
+ * <pre>
+ * {@code
+ * java -Dstorage=timeline BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * }
+ * </pre>
+ * 
+ * <p>Режим зберiгання поза heap: секунди вiд початку епохи лежать у прямих буферах {@link OffHeapLongArray},
+ * якi збирач смiття не переглядає; сортування, пошук i мiнiмум з максимумом працюють безпосередньо з ними.
+ * Звiт {@code memory.report} показує час збирань смiття, heap i RSS для порiвняння з режимом {@code objects}:</p>
+ * <pre>
+ * {@code
+ * java -Dstorage=offheap -Dmemory.report=true BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * java -Dstorage=objects -Dmemory.report=true BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * }
+ * </pre>
+ * 
+ * <p>Вибiр способу сортування (sequential, parallel або radix, див. {@link SortEngine}):</p>
+ * <pre>
+ * {@code
+ * java -Dsort.engine=radix BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * }
+ * </pre>
+ * 
+ * <p>Режим стисненої вiдсортованої часової шкали: пiсля сортування мiтки зберiгаються блоками по 128 рiзниць,
+ * упакованих у найменшу потрiбну кiлькiсть бiтiв (див. {@link PackedTimeline}); пошук розпаковує лише один блок,
+ * а запити дiапазону {@code search.range} переглядають блоки послiдовно:</p>
+ * <pre>
+ * {@code
+ * java -Dstorage=packed BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * java -Dstorage=packed -Dsearch.range=2024-03-01T00:00:00/2024-04-01T00:00:00 BasicDataOperationUsingList
+ * }
+ * </pre>
+ * 
+ * <p>Мiнiмум i максимум невiдсортованих часової шкали та масиву поза heap знаходяться розгорнутим проходом
+ * без умовних переходiв ({@code unrolled}, типово) або по одному елементу ({@code scalar}, див. {@link ScanKernel});
+ * {@code scan.benchmark} порiвнює обидва способи на випадкових даних заданого розмiру:</p>
+ * <pre>
+ * {@code
+ * java -Dstorage=timeline -Dscan.kernel=scalar BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * java -Dscan.benchmark=10000000 BasicDataOperationUsingList
+ * }
+ * </pre>
+ * 
+ * <p>Звiт про завантаження файлiв заданих розмiрiв: для кожного розмiру генерується тимчасовий файл, який
+ * зчитується так само, як {@link #PATH_TO_DATA_FILE} у режимi {@code objects} (типово) або {@code timeline};
+ * виводиться пiкове використання heap, а час потрапляє у звiт метрик:</p>
+ * <pre>
+ * {@code
+ * java -Xmx6g -Dload.benchmark=1000000,10000000 BasicDataOperationUsingList
+ * java -Dstorage=timeline -Dload.benchmark=1000000,10000000,50000000 BasicDataOperationUsingList
+ * }
+ * </pre>
+ * 
+ * <p>Паралельне завантаження файлу частинами на всiх ядрах ({@code concat}); у режимi {@code timeline}
+ * значення {@code sorted} ще й сортує кожну частину та зливає їх, тож окреме сортування вже не потрiбне
+ * (див. {@link ParallelFileLoader}):</p>
+ * <pre>
+ * {@code
+ * java -Dload.parallel=concat BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * java -Dstorage=timeline -Dload.parallel=sorted BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * }
+ * </pre>
+ * 
+ * <p>Пошук у вiдсортованих масивi та списку через навчений кусково-лiнiйний iндекс з похибкою не бiльше
+ * {@code search.index.epsilon} позицiй (див. {@link LearnedIndex}):</p>
+ * <pre>
+ * {@code
+ * java -Dsearch.index=learned -Dsearch.index.epsilon=32 BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * }
+ * </pre>
+ * 
+ * <p>Пакетний пошук: запити зчитуються з файлу (або stdin для {@code -}), сортуються i знаходяться
+ * за один прохiд по вiдсортованому масиву; для кожного запиту виводиться рядок {@code <запит>\t<iндекс>},
+ * де iндекс дорiвнює -1, якщо значення не знайдено:</p>
+ * <pre>
+ * {@code
+ * java -Dsearch.batch=queries.data BasicDataOperationUsingList
+ * }
+ * </pre>
+ * 
+ * <p>Запити дiапазону: значення з iнтервалу {@code [початок, кiнець)} вибираються без копiювання (зсув i довжина
+ * у вiдсортованому масивi), для заданого значення виводяться найближчi не пiзнiше i не ранiше за нього, а також
+ * кiлькiсть значень за хвилинами, годинами (типово) або днями з {@code search.range.bucket} (див. {@link TimeRange}):</p>
+ * <pre>
+ * {@code
+ * java -Dsearch.range=2024-03-01T00:00:00/2024-04-01T00:00:00 -Dsearch.range.bucket=days BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * }
+ * </pre>
+ * 
+ * <p>Резидентний сервiс: файл завантажується i сортується один раз, пiсля чого запити {@code search}, {@code minmax},
+ * {@code floor}, {@code ceiling}, {@code range} i {@code histogram} читаються по рядку з stdin або з'єднань
+ * на {@code 127.0.0.1:<порт>}; змiнений файл перезавантажується автоматично (див. {@link QueryService}):</p>
+ * <pre>
+ * {@code
+ * echo "search 2024-03-16T00:12:38Z" | java -Dservice=- BasicDataOperationUsingList
+ * java -Dservice=7070 BasicDataOperationUsingList
+ * }
+ * </pre>
+ * 
+ * <p>Запис вiдсортованих даних у бiнарному форматi та наступнi запуски без розбору i сортування:
+ * файл {@link #PATH_TO_SORTED_COLUMN_FILE} вiдображається у пам'ять, пошук виконується безпосередньо в ньому:</p>
+ * <pre>
+ * {@code
+ * java -Dsorted.format=binary BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * java -Dstorage=mapped BasicDataOperationUsingList "2024-03-16T00:12:38Z"
+ * }
+ * </pre>
+ * 
+ * <p>Iнкрементальне злиття: сортуються лише новi данi, а наявний вiдсортований файл {@code .sorted} читається потоком
+ * i зливається з ними, тому час роботи пропорцiйний обсягу нових даних, а не всiй iсторiї. Файл з даними
+ * {@link #PATH_TO_DATA_FILE} при цьому не змiнюється. Точнiсть зберiгання - одна секунда, як у режимi {@code timeline}:</p>
+ * <pre>
+ * {@code
+ * java -Dmerge.delta=list/2024-12-31.data,list/2025-01-01.data BasicDataOperationUsingList
+ * }
+ * </pre>
+ * 
+ * <p>Зовнiшнє сортування файлу, бiльшого за heap: данi зчитуються частинами не бiльше заданого обсягу
+ * (суфiкси {@code k}, {@code m}, {@code g}), частини сортуються (типово паралельно), записуються на диск
+ * i зливаються у файл {@code .sorted} (див. {@link ExternalSort}):</p>
+ * <pre>
+ * {@code
+ * java -Dsort.memory=512m BasicDataOperationUsingList
+ * }
+ * </pre>
  */
 public class BasicDataOperationUsingList {
     static final String PATH_TO_DATA_FILE = "list/LocalDateTime.data";
+    static final String BATCH_SEARCH_PROPERTY = "search.batch";
+    static final String MERGE_DELTA_PROPERTY = "merge.delta";
+    static final String SORT_MEMORY_PROPERTY = "sort.memory";
+    static final String SCAN_BENCHMARK_PROPERTY = "scan.benchmark";
+    static final String LOAD_BENCHMARK_PROPERTY = "load.benchmark";
+    static final String LEARNED_INDEX_CHECK_PROPERTY = "search.index.check";
+    static final String STORAGE_PROPERTY = "storage";
+    static final String STORAGE_OBJECTS = "objects";
+    static final String STORAGE_TIMELINE = "timeline";
+    static final String STORAGE_MAPPED = "mapped";
+    static final String STORAGE_OFFHEAP = "offheap";
+    static final String STORAGE_PACKED = "packed";
+    static final String SORTED_FORMAT_PROPERTY = "sorted.format";
+    static final String SORTED_FORMAT_TEXT = "text";
+    static final String SORTED_FORMAT_BINARY = "binary";
+    static final String PATH_TO_SORTED_COLUMN_FILE = PATH_TO_DATA_FILE + ".sorted.col";
+    private static final int SCAN_BENCHMARK_ITERATIONS = 10;
 
     LocalDateTime dateTimeValueToSearch;
     LocalDateTime[] dateTimeArray;
-    List<LocalDateTime> dateTimeList;
+    ValueStatistics<LocalDateTime> dateTimeArrayStatistics;
+    StatisticsList<LocalDateTime> dateTimeList;
+    EpochTimeline dateTimeTimeline;
+    ColumnFile dateTimeColumnFile;
+    OffHeapLongArray dateTimeOffHeapArray;
+    PackedTimeline dateTimePackedTimeline;
+    LearnedIndex dateTimeArrayIndex;
+    LearnedIndex dateTimeListIndex;
+    SortEngine sortEngine;
+    ScanKernel scanKernel;
+    boolean isLearnedIndexEnabled;
 
     public static void main(String[] args) {  
+        Integer scanBenchmarkSize = Integer.getInteger(SCAN_BENCHMARK_PROPERTY);
+        if (scanBenchmarkSize != null) {
+            compareScanKernels(scanBenchmarkSize);
+            OperationMetrics.report();
+            return;
+        }
+        Integer learnedIndexChecks = Integer.getInteger(LEARNED_INDEX_CHECK_PROPERTY);
+        if (learnedIndexChecks != null) {
+            checkLearnedIndex(learnedIndexChecks);
+            OperationMetrics.report();
+            return;
+        }
+        String loadBenchmarkSizes = System.getProperty(LOAD_BENCHMARK_PROPERTY);
+        if (loadBenchmarkSizes != null) {
+            compareLoadSizes(loadBenchmarkSizes);
+            OperationMetrics.report();
+            return;
+        }
+
         BasicDataOperationUsingList basicDataOperationUsingList = new BasicDataOperationUsingList(args);
-        basicDataOperationUsingList.doDataOperation();
+        if (System.getProperty(MERGE_DELTA_PROPERTY) != null) {
+            basicDataOperationUsingList.doIncrementalMerge();
+        } else if (System.getProperty(SORT_MEMORY_PROPERTY) != null) {
+            basicDataOperationUsingList.doExternalSort();
+        } else if (System.getProperty(BATCH_SEARCH_PROPERTY) != null) {
+            basicDataOperationUsingList.doBatchSearch();
+        } else if (System.getProperty(TimeRange.PROPERTY) != null) {
+            basicDataOperationUsingList.doRangeQuery();
+        } else if (System.getProperty(QueryService.PROPERTY) != null) {
+            basicDataOperationUsingList.doService();
+        } else {
+            basicDataOperationUsingList.doDataOperation();
+        }
+        OperationMetrics.report();
+        if (MemoryReport.isEnabled()) {
+            MemoryReport.print();
+        }
     }
 
     /**
@@ -69,15 +348,57 @@ public class BasicDataOperationUsingList {
      * @param args Аргументи командного рядка, де перший аргумент - значення для пошуку.
      */
     BasicDataOperationUsingList(String[] args) {
-        if (args.length == 0) {
+        if (args.length == 0 && System.getProperty(BATCH_SEARCH_PROPERTY) == null && System.getProperty(TimeRange.PROPERTY) == null
+                && System.getProperty(QueryService.PROPERTY) == null
+                && System.getProperty(MERGE_DELTA_PROPERTY) == null && System.getProperty(SORT_MEMORY_PROPERTY) == null) {
             throw new RuntimeException("Вiдсутнє значення для пошуку");
         }
 
-        String searchValue = args[0];
-        dateTimeValueToSearch = LocalDateTime.parse(searchValue, DateTimeFormatter.ISO_DATE_TIME);
+        if (args.length > 0) {
+            String searchValue = args[0];
+            dateTimeValueToSearch = LocalDateTime.parse(searchValue, DateTimeFormatter.ISO_DATE_TIME);
+        }
+
+        sortEngine = SortEngine.fromSystemProperty();
+        scanKernel = ScanKernel.fromSystemProperty();
+        isLearnedIndexEnabled = LearnedIndex.isEnabled();
 
-        dateTimeArray = Utils.readArrayFromFile(PATH_TO_DATA_FILE);
-        dateTimeList = new ArrayList<>(Arrays.asList(dateTimeArray));
+        String storageMode = System.getProperty(STORAGE_PROPERTY, STORAGE_OBJECTS);
+        String loadMode = System.getProperty(ParallelFileLoader.PROPERTY);
+        if (loadMode != null && !ParallelFileLoader.MODE_CONCAT.equals(loadMode) && !ParallelFileLoader.MODE_SORTED.equals(loadMode)) {
+            throw new RuntimeException("Невiдомий спосiб паралельного завантаження: " + loadMode);
+        }
+        if (System.getProperty(MERGE_DELTA_PROPERTY) != null || System.getProperty(SORT_MEMORY_PROPERTY) != null) {
+            // злиття i зовнiшнє сортування читають файли потоком, тому повна iсторiя не завантажується
+        } else if (System.getProperty(QueryService.PROPERTY) != null) {
+            // сервiс завантажує файл сам, щоб так само перезавантажувати його пiсля змiни
+        } else if (STORAGE_TIMELINE.equals(storageMode) || STORAGE_PACKED.equals(storageMode)) {
+            dateTimeTimeline = (loadMode == null)
+                    ? new EpochTimeline(Utils.readEpochSecondsFromFile(PATH_TO_DATA_FILE))
+                    : ParallelFileLoader.readTimeline(PATH_TO_DATA_FILE, ParallelFileLoader.MODE_SORTED.equals(loadMode));
+            if (STORAGE_PACKED.equals(storageMode)) {
+                packTimeline();
+            }
+        } else if (STORAGE_OBJECTS.equals(storageMode)) {
+            dateTimeArrayStatistics = new ValueStatistics<>();
+            LocalDateTime[] loaded = (loadMode == null)
+                    ? Utils.readBufferFromFile(PATH_TO_DATA_FILE, dateTimeArrayStatistics)
+                    : ParallelFileLoader.readArray(PATH_TO_DATA_FILE, dateTimeArrayStatistics);
+            int count = (int) dateTimeArrayStatistics.count();
+            // масив i список сортуються незалежно, тому копiя потрiбна однiй структурi: масив отримує її
+            // одразу потрiбної довжини, а буфер завантаження переходить у власнiсть списку без обрiзання
+            dateTimeArray = Arrays.copyOf(loaded, count);
+            dateTimeList = new StatisticsList<>(loaded, count, dateTimeArrayStatistics);
+        } else if (STORAGE_MAPPED.equals(storageMode)) {
+            dateTimeColumnFile = openColumnFile(PATH_TO_SORTED_COLUMN_FILE);
+        } else if (STORAGE_OFFHEAP.equals(storageMode)) {
+            if (loadMode != null) {
+                throw new RuntimeException("Паралельне завантаження не пiдтримується в режимi " + STORAGE_OFFHEAP);
+            }
+            dateTimeOffHeapArray = Utils.readEpochSecondsOffHeap(PATH_TO_DATA_FILE);
+        } else {
+            throw new RuntimeException("Невiдомий спосiб зберiгання даних: " + storageMode);
+        }
     }
 
     /**
@@ -86,6 +407,24 @@ public class BasicDataOperationUsingList {
      * Метод зчитує масив та список об'єктiв LocalDateTime з файлу, сортує їх та виконує пошук значення.
      */
     void doDataOperation() {
+        if (dateTimePackedTimeline != null) {
+            doPackedOperation();
+            return;
+        }
+        if (dateTimeTimeline != null) {
+            doTimelineOperation();
+            return;
+        }
+        if (dateTimeColumnFile != null) {
+            searchColumnFile();
+            findMinAndMaxInColumnFile();
+            return;
+        }
+        if (dateTimeOffHeapArray != null) {
+            doOffHeapOperation();
+            return;
+        }
+
         // операцiї з масивом дати та часу
         searchArray();
         findMinAndMaxInArray();
@@ -105,30 +444,276 @@ public class BasicDataOperationUsingList {
         findMinAndMaxInList();
 
         // записати вiдсортований масив в окремий файл
-        Utils.writeArrayToFile(dateTimeArray, PATH_TO_DATA_FILE + ".sorted");
+        writeSortedOutput();
+    }
+
+    /**
+     * Виконує пакетний пошук: сортує масив i запити, знаходить усi запити за один прохiд злиттям
+     * та виводить результати у порядку зростання запитiв.
+     */
+    void doBatchSearch() {
+        if (dateTimeTimeline != null) {
+            sortTimeline();
+        } else if (dateTimeOffHeapArray != null) {
+            sortOffHeapArray();
+        } else if (dateTimeColumnFile == null) {
+            sortArray();
+        }
+
+        LocalDateTime[] queries = Utils.readQueries(System.getProperty(BATCH_SEARCH_PROPERTY));
+        sortEngine.sort(queries);
+
+        OperationTimer timer = OperationTimer.start();
+
+        int[] results;
+        if (dateTimeTimeline != null) {
+            results = dateTimeTimeline.searchBatch(queries);
+        } else if (dateTimeColumnFile != null) {
+            // файл уже вiдсортований, а блоки, до яких звертаються сусiднi запити, лишаються в кешi сторiнок
+            results = new int[queries.length];
+            for (int i = 0; i < queries.length; i++) {
+                int index = binarySearchColumnFile(queries[i]);
+                results[i] = (index >= 0) ? index : BatchSearch.NOT_FOUND;
+            }
+        } else if (dateTimeOffHeapArray != null) {
+            results = new int[queries.length];
+            for (int i = 0; i < queries.length; i++) {
+                int index = binarySearchOffHeapArray(queries[i]);
+                results[i] = (index >= 0) ? index : BatchSearch.NOT_FOUND;
+            }
+        } else {
+            results = BatchSearch.search(dateTimeArray, queries);
+        }
+
+        timer.stop(() -> "пакетний пошук " + queries.length + " значень");
+
+        Utils.writeBatchResults(queries, results);
+    }
+
+    /**
+     * Виконує запити дiапазону з властивостi {@link TimeRange#PROPERTY} у форматi {@code <початок>/<кiнець>}
+     * над вiдсортованими масивом i списком: вибiр значень iнтервалу {@code [початок, кiнець)} без копiювання,
+     * найближчi значення до шуканого (якщо воно задане) i гiстограму iнтервалу.
+     */
+    void doRangeQuery() {
+        if (dateTimeArray == null && dateTimePackedTimeline == null) {
+            throw new RuntimeException("Запити дiапазону пiдтримуються лише в режимах " + STORAGE_OBJECTS + " i " + STORAGE_PACKED);
+        }
+
+        String[] bounds = System.getProperty(TimeRange.PROPERTY).split("/");
+        if (bounds.length != 2) {
+            throw new RuntimeException("Дiапазон має бути у форматi <початок>/<кiнець>: " + System.getProperty(TimeRange.PROPERTY));
+        }
+        LocalDateTime from = LocalDateTime.parse(bounds[0], DateTimeFormatter.ISO_DATE_TIME);
+        LocalDateTime to = LocalDateTime.parse(bounds[1], DateTimeFormatter.ISO_DATE_TIME);
+        ChronoUnit bucket = TimeRange.bucketFromSystemProperty();
+
+        if (dateTimePackedTimeline != null) {
+            queryPackedRange(from, to, bucket);
+            return;
+        }
+
+        sortArray();
+        queryRange(TimeRange.of(Arrays.asList(dateTimeArray), dateTimeArrayIndex), "масивi", from, to, bucket);
+
+        sortList();
+        queryRange(TimeRange.of(dateTimeList, dateTimeListIndex), "ArrayList", from, to, bucket);
+    }
+
+    /**
+     * Виконує запити дiапазону над однiєю вiдсортованою послiдовнiстю та виводить результати.
+     * 
+     * @param sorted Подання всiєї вiдсортованої послiдовностi.
+     * @param name Назва послiдовностi для виводу.
+     * @param from Початок iнтервалу (включно).
+     * @param to Кiнець iнтервалу (не включно).
+     * @param bucket Тривалiсть iнтервалу гiстограми.
+     */
+    void queryRange(TimeRange sorted, String name, LocalDateTime from, LocalDateTime to, ChronoUnit bucket) {
+        // запити тривають менше мiкросекунди, тому назви операцiй будуються до вимiрювань
+        String rangeOperation = "запит дiапазону в " + name;
+        String nearestOperation = "пошук найближчих значень в " + name;
+        String histogramOperation = "гiстограма дiапазону в " + name;
+
+        OperationTimer timer = OperationTimer.start();
+        TimeRange range = sorted.between(from, to);
+        timer.stop(rangeOperation);
+
+        System.out.println("Дiапазон [" + from + ", " + to + ") в " + name + ": " + range.size()
+                + " значень, починаючи з iндексу " + range.offset());
+
+        if (dateTimeValueToSearch != null) {
+            timer = OperationTimer.start();
+            LocalDateTime floor = sorted.floor(dateTimeValueToSearch);
+            LocalDateTime ceiling = sorted.ceiling(dateTimeValueToSearch);
+            timer.stop(nearestOperation);
+
+            System.out.println("Найближче значення не пiзнiше '" + dateTimeValueToSearch + "' в " + name + ": " + floor);
+            System.out.println("Найближче значення не ранiше '" + dateTimeValueToSearch + "' в " + name + ": " + ceiling);
+        }
+
+        timer = OperationTimer.start();
+        Map<LocalDateTime, Integer> histogram = range.histogram(bucket);
+        timer.stop(histogramOperation);
+
+        System.out.println("Кiлькiсть значень за iнтервалами " + bucket.name().toLowerCase() + " в " + name + ":");
+        for (Map.Entry<LocalDateTime, Integer> entry : histogram.entrySet()) {
+            System.out.println(entry.getKey() + "\t" + entry.getValue());
+        }
+    }
+
+    /**
+     * Виконує тi самi запити дiапазону, що й {@link #queryRange}, над стисненою часовою шкалою: межi та найближчi
+     * значення знаходяться пошуком з розпаковуванням одного блоку, гiстограма - послiдовним переглядом блокiв дiапазону.
+     * 
+     * @param from Початок iнтервалу (включно).
+     * @param to Кiнець iнтервалу (не включно).
+     * @param bucket Тривалiсть iнтервалу гiстограми.
+     */
+    void queryPackedRange(LocalDateTime from, LocalDateTime to, ChronoUnit bucket) {
+        String name = "стисненiй часовiй шкалi";
+        // запити тривають менше мiкросекунди, тому назви операцiй будуються до вимiрювань
+        String rangeOperation = "запит дiапазону в " + name;
+        String nearestOperation = "пошук найближчих значень в " + name;
+        String histogramOperation = "гiстограма дiапазону в " + name;
+
+        OperationTimer timer = OperationTimer.start();
+        int start = dateTimePackedTimeline.lowerBound(from);
+        int end = Math.max(start, dateTimePackedTimeline.lowerBound(to));
+        timer.stop(rangeOperation);
+
+        System.out.println("Дiапазон [" + from + ", " + to + ") в " + name + ": " + (end - start)
+                + " значень, починаючи з iндексу " + start);
+
+        if (dateTimeValueToSearch != null) {
+            timer = OperationTimer.start();
+            LocalDateTime floor = dateTimePackedTimeline.floor(dateTimeValueToSearch);
+            LocalDateTime ceiling = dateTimePackedTimeline.ceiling(dateTimeValueToSearch);
+            timer.stop(nearestOperation);
+
+            System.out.println("Найближче значення не пiзнiше '" + dateTimeValueToSearch + "' в " + name + ": " + floor);
+            System.out.println("Найближче значення не ранiше '" + dateTimeValueToSearch + "' в " + name + ": " + ceiling);
+        }
+
+        timer = OperationTimer.start();
+        Map<LocalDateTime, Integer> histogram = new LinkedHashMap<>();
+        dateTimePackedTimeline.forEach(start, end,
+                epochSecond -> histogram.merge(EpochTimeline.toLocalDateTime(epochSecond).truncatedTo(bucket), 1, Integer::sum));
+        timer.stop(histogramOperation);
+
+        System.out.println("Кiлькiсть значень за iнтервалами " + bucket.name().toLowerCase() + " в " + name + ":");
+        for (Map.Entry<LocalDateTime, Integer> entry : histogram.entrySet()) {
+            System.out.println(entry.getKey() + "\t" + entry.getValue());
+        }
+    }
+
+    /**
+     * Запускає резидентний сервiс запитiв {@link QueryService} на stdin або локальному портi з властивостi
+     * {@link QueryService#PROPERTY} i повертається, коли сервiс зупинено.
+     */
+    void doService() {
+        new QueryService(PATH_TO_DATA_FILE, sortEngine, isLearnedIndexEnabled).serve(System.getProperty(QueryService.PROPERTY));
+    }
+
+    /**
+     * Зливає вiдсортований файл {@code .sorted} з файлами нових даних з властивостi {@link #MERGE_DELTA_PROPERTY}.
+     * 
+     * <p>Кожен файл нових даних зчитується та сортується окремо, пiсля чого всi послiдовностi зливаються
+     * {@link KWayMerge} i записуються {@link Utils#writeSortedRun}. Усi файли нових даних читаються до початку
+     * злиття, тому вiдсутнiй або непридатний файл зупиняє програму з помилкою, не змiнюючи {@code .sorted}.</p>
+     */
+    void doIncrementalMerge() {
+        String sortedPath = PATH_TO_DATA_FILE + ".sorted";
+        List<SortedRun> runs = new ArrayList<>();
+        long deltaCount = 0;
+
+        for (String deltaPath : System.getProperty(MERGE_DELTA_PROPERTY).split(",")) {
+            long[] delta;
+            try {
+                delta = Utils.readEpochSecondsChecked(deltaPath.trim());
+            } catch (IOException e) {
+                throw new RuntimeException("Не вдалося прочитати файл нових даних " + deltaPath.trim() + ": " + e, e);
+            }
+
+            OperationTimer timer = OperationTimer.start();
+            sortEngine.sort(delta);
+            timer.stop(() -> "сортування нових даних (" + sortEngine + ")");
+
+            runs.add(new ArrayRun(delta));
+            deltaCount += delta.length;
+        }
+
+        OperationTimer timer = OperationTimer.start();
+
+        long mergedCount;
+        try (TextFileRun sorted = new TextFileRun(sortedPath)) {
+            runs.add(0, sorted);
+            try (KWayMerge merge = new KWayMerge(runs)) {
+                mergedCount = Utils.writeSortedRun(merge, Paths.get(sortedPath));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Не вдалося злити вiдсортований файл " + sortedPath + ": " + e, e);
+        }
+
+        timer.stop("злиття вiдсортованого файлу з новими даними");
+
+        System.out.println("Злито значень: " + mergedCount + ", з них нових: " + deltaCount);
+    }
+
+    /**
+     * Сортує файл {@link #PATH_TO_DATA_FILE} у файл {@code .sorted} за допомогою {@link ExternalSort}, використовуючи
+     * не бiльше пам'ятi, нiж задано властивiстю {@link #SORT_MEMORY_PROPERTY}, та виводить статистику обмiну з диском.
+     */
+    void doExternalSort() {
+        long memoryBudget = Utils.parseByteSize(System.getProperty(SORT_MEMORY_PROPERTY));
+        // без явно заданого способу частини сортуються на всiх ядрах
+        SortEngine chunkEngine = (System.getProperty(SortEngine.PROPERTY) == null) ? SortEngine.PARALLEL : sortEngine;
+        ExternalSort externalSort = new ExternalSort(chunkEngine, memoryBudget);
+
+        OperationTimer timer = OperationTimer.start();
+
+        long count;
+        try {
+            count = externalSort.sort(PATH_TO_DATA_FILE, PATH_TO_DATA_FILE + ".sorted");
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        timer.stop(() -> "зовнiшнє сортування (" + chunkEngine + ")");
+
+        System.out.println("Вiдсортовано значень: " + count);
+        externalSort.printStatistics();
     }
 
     /**
      * Сортує масив об'єктiв LocalDateTime та виводить початковий i вiдсортований масиви.
-     * Вимiрює та виводить час, витрачений на сортування масиву в наносекундах.
+     * Вимiрює час, витрачений на сортування масиву в наносекундах, i записує його в {@link OperationMetrics}.
      */
     void sortArray() {
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
+
+        sortEngine.sort(dateTimeArray);
+        dateTimeArrayStatistics.markSorted();
 
-        Arrays.sort(dateTimeArray);
+        timer.stop(() -> "сортування масиву дати i часу (" + sortEngine + ")");
 
-        Utils.printOperationDuration(startTime, "сортування масиву дати i часу");
+        if (isLearnedIndexEnabled) {
+            dateTimeArrayIndex = buildLearnedIndex(Arrays.asList(dateTimeArray), "масиву");
+        }
     }
 
     /**
      * Метод для пошуку значення в масивi дати i часу.
      */
     void searchArray() {
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
 
-        int index = Arrays.binarySearch(this.dateTimeArray, dateTimeValueToSearch);
+        int index = (dateTimeArrayIndex != null)
+                ? dateTimeArrayIndex.binarySearch(Arrays.asList(this.dateTimeArray), dateTimeValueToSearch)
+                : Arrays.binarySearch(this.dateTimeArray, dateTimeValueToSearch);
 
-        Utils.printOperationDuration(startTime, "пошук в масивi дати i часу");
+        timer.stop((dateTimeArrayIndex != null) ? "пошук в масивi дати i часу (навчений iндекс)" : "пошук в масивi дати i часу");
 
         if (index >= 0) {
             System.out.println("Значення '" + dateTimeValueToSearch + "' знайдено в масивi за iндексом: " + index);
@@ -146,21 +731,13 @@ public class BasicDataOperationUsingList {
             return;
         }
 
-        long startTime = System.nanoTime();
-
-        LocalDateTime min = dateTimeArray[0];
-        LocalDateTime max = dateTimeArray[0];
+        OperationTimer timer = OperationTimer.start();
 
-        for (LocalDateTime dateTime : dateTimeArray) {
-            if (dateTime.isBefore(min)) {
-                min = dateTime;
-            }
-            if (dateTime.isAfter(max)) {
-                max = dateTime;
-            }
-        }
+        // мiнiмум i максимум накопиченi пiд час завантаження, тому масив не переглядається
+        LocalDateTime min = dateTimeArrayStatistics.min();
+        LocalDateTime max = dateTimeArrayStatistics.max();
 
-        Utils.printOperationDuration(startTime, "пошук мiнiмальної i максимальної дати i часу в масивi");
+        timer.stop("пошук мiнiмальної i максимальної дати i часу в масивi");
 
         System.out.println("Мiнiмальне значення в масивi: " + min);
         System.out.println("Максимальне значення в масивi: " + max);
@@ -170,11 +747,13 @@ public class BasicDataOperationUsingList {
      * Шукає задане значення дати i часу в ArrayList дати i часу.
      */
     void searchList() {
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
 
-        int index = Collections.binarySearch(this.dateTimeList, dateTimeValueToSearch);
+        int index = (dateTimeListIndex != null)
+                ? dateTimeListIndex.binarySearch(this.dateTimeList, dateTimeValueToSearch)
+                : Collections.binarySearch(this.dateTimeList, dateTimeValueToSearch);
 
-        Utils.printOperationDuration(startTime, "пошук в ArrayList дати i часу");        
+        timer.stop((dateTimeListIndex != null) ? "пошук в ArrayList дати i часу (навчений iндекс)" : "пошук в ArrayList дати i часу");
 
         if (index >= 0) {
             System.out.println("Значення '" + dateTimeValueToSearch + "' знайдено в ArrayList за iндексом: " + index);
@@ -192,12 +771,12 @@ public class BasicDataOperationUsingList {
             return;
         }
 
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
 
-        LocalDateTime min = Collections.min(dateTimeList);
-        LocalDateTime max = Collections.max(dateTimeList);
+        LocalDateTime min = dateTimeList.min();
+        LocalDateTime max = dateTimeList.max();
 
-        Utils.printOperationDuration(startTime, "пошук мiнiмальної i максимальної дати i часу в ArrayList");
+        timer.stop("пошук мiнiмальної i максимальної дати i часу в ArrayList");
 
         System.out.println("Мiнiмальне значення в ArrayList: " + min);
         System.out.println("Максимальне значення в ArrayList: " + max);
@@ -205,74 +784,4557 @@ public class BasicDataOperationUsingList {
 
     /**
      * Сортує ArrayList об'єктiв LocalDateTime та виводить початковий i вiдсортований списки.
-     * Вимiрює та виводить час, витрачений на сортування списку в наносекундах.
+     * Вимiрює час, витрачений на сортування списку в наносекундах, i записує його в {@link OperationMetrics}.
      */
     void sortList() {
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
+
+        dateTimeList.sortWith(sortEngine::sort);
 
-        Collections.sort(dateTimeList);
+        timer.stop(() -> "сортування ArrayList дати i часу (" + sortEngine + ")");
 
-        Utils.printOperationDuration(startTime, "сортування ArrayList дати i часу");
+        if (isLearnedIndexEnabled) {
+            dateTimeListIndex = buildLearnedIndex(dateTimeList, "ArrayList");
+        }
     }
-}
 
-/**
- * Клас Utils мiститить допомiжнi методи для роботи з даними типу LocalDateTime.
- */
-class Utils {
     /**
-     * Виводить час виконання операцiї в наносекундах.
+     * Будує навчений iндекс над вiдсортованою послiдовнiстю, вимiрює час побудови та виводить його похибку.
      * 
-     * @param startTime Час початку операцiї в наносекундах.
-     * @param operationName Назва операцiї.
+     * @param sorted Вiдсортована послiдовнiсть.
+     * @param name Назва послiдовностi для звiту.
+     * @return Iндекс.
      */
-    static void printOperationDuration(long startTime, String operationName) {
-        long endTime = System.nanoTime();
-        long duration = (endTime - startTime);
-        System.out.println("\n>>>>>>>>> Час виконання операцiї '" + operationName + "': " + duration + " наносекунд");
+    static LearnedIndex buildLearnedIndex(List<LocalDateTime> sorted, String name) {
+        OperationTimer timer = OperationTimer.start();
+
+        LearnedIndex index = LearnedIndex.build(sorted);
+
+        timer.stop(() -> "побудова навченого iндексу " + name);
+
+        System.out.println("Навчений iндекс " + name + ": вiдрiзкiв=" + index.segmentCount() + ", допустима похибка="
+                + index.epsilon() + ", фактична похибка=" + index.maxError(sorted) + ", обсяг=" + index.footprintBytes() + " байт");
+        return index;
     }
 
     /**
-     * Зчитує масив об'єктiв LocalDateTime з файлу.
+     * Звiряє пошук {@link LearnedIndex} з {@link Collections#binarySearch} на випадкових вiдсортованих послiдовностях,
+     * зокрема порожнiй, з одного значення, з повторами та з дробовими секундами. Для кожної послiдовностi iндекс
+     * будується з випадковою похибкою, а запити - наявнi значення, значення мiж ними та за межами послiдовностi.
      * 
-     * @param pathToFile Шлях до файлу з даними.
-     * @return Масив об'єктiв LocalDateTime.
+     * @param rounds Кiлькiсть випадкових послiдовностей.
+     * @throws RuntimeException якщо результат iндексу вiдрiзняється вiд еталонного.
      */
-    static LocalDateTime[] readArrayFromFile(String pathToFile) {
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
-        LocalDateTime[] tempArray = new LocalDateTime[1000];
-        int index = 0;
+    static void checkLearnedIndex(int rounds) {
+        if (rounds <= 0) {
+            throw new RuntimeException("Кiлькiсть перевiрок навченого iндексу має бути додатною: " + rounds);
+        }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(pathToFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                LocalDateTime dateTime = LocalDateTime.parse(line, formatter);
-                tempArray[index++] = dateTime;
+        Random random = new Random(rounds);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        OperationTimer timer = OperationTimer.start();
+        long queryCount = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            int size = (round < 2) ? round : random.nextInt(2000);
+            // мала ширина дiапазону дає багато повторiв, велика - майже унiкальнi значення
+            int spreadSeconds = 1 + random.nextInt((random.nextBoolean()) ? 10 : 86400 * 30);
+            boolean hasNanos = random.nextBoolean();
+
+            List<LocalDateTime> sorted = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                sorted.add(randomDateTime(random, start, spreadSeconds, hasNanos));
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            Collections.sort(sorted);
+
+            int epsilon = 1 + random.nextInt(32);
+            LearnedIndex index = LearnedIndex.build(sorted, epsilon);
+
+            List<LocalDateTime> queries = new ArrayList<>(sorted);
+            queries.add(start.minusSeconds(1));
+            queries.add(start.plusSeconds(spreadSeconds + 1L));
+            for (int i = 0; i < 64; i++) {
+                queries.add(randomDateTime(random, start.minusSeconds(2), spreadSeconds + 4, true));
+            }
+
+            for (LocalDateTime query : queries) {
+                int expected = Collections.binarySearch(sorted, query);
+                while (expected > 0 && sorted.get(expected - 1).equals(query)) {
+                    expected--;
+                }
+                int actual = index.binarySearch(sorted, query);
+                if (actual != expected) {
+                    throw new RuntimeException("Навчений iндекс (n=" + size + ", похибка=" + epsilon + ") для '" + query
+                            + "' повернув " + actual + " замiсть " + expected);
+                }
+            }
+            queryCount += queries.size();
         }
 
-        LocalDateTime[] finalArray = new LocalDateTime[index];
-        System.arraycopy(tempArray, 0, finalArray, 0, index);
+        timer.stop("перевiрка навченого iндексу");
 
-        return finalArray;
+        System.out.println("Навчений iндекс збiгається з Collections.binarySearch: послiдовностей=" + rounds + ", запитiв=" + queryCount);
+    }
+
+    private static LocalDateTime randomDateTime(Random random, LocalDateTime start, int spreadSeconds, boolean hasNanos) {
+        LocalDateTime dateTime = start.plusSeconds(random.nextInt(spreadSeconds));
+        return hasNanos ? dateTime.plusNanos(random.nextInt(1_000_000_000)) : dateTime;
     }
 
     /**
-     * Записує масив об'єктiв LocalDateTime у файл.
+     * Порiвнює способи проходу {@link ScanKernel} на випадкових секундах вiд початку епохи протягом 2024 року:
+     * мiнiмум i максимум, пiдрахунок значень у дiапазонi (приблизно чверть року) та пошук вiдсутнього значення,
+     * що переглядає весь масив. Результати способiв звiряються, час кожної операцiї потрапляє у звiт метрик.
      * 
-     * @param dateTimeArray Масив об'єктiв LocalDateTime.
-     * @param pathToFile Шлях до файлу для запису.
+     * @param size Кiлькiсть значень.
      */
-    static void writeArrayToFile(LocalDateTime[] dateTimeArray, String pathToFile) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(pathToFile))) {
-            for (LocalDateTime dateTime : dateTimeArray) {
-                writer.write(dateTime.toString());
-                writer.newLine();
+    static void compareScanKernels(int size) {
+        if (size <= 0) {
+            throw new RuntimeException("Кiлькiсть значень для порiвняння проходiв має бути додатною: " + size);
+        }
+
+        Random random = new Random(size);
+        long start = EpochTimeline.toEpochSecond(LocalDateTime.of(2024, 1, 1, 0, 0));
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = start + random.nextInt(366 * 86400);
+        }
+        long low = start + 91L * 86400;
+        long high = start + 182L * 86400;
+        long missing = start - 1;
+
+        long[] checksums = new long[ScanKernel.values().length];
+        for (int iteration = 0; iteration < SCAN_BENCHMARK_ITERATIONS; iteration++) {
+            for (ScanKernel kernel : ScanKernel.values()) {
+                String name = kernel.name().toLowerCase();
+
+                OperationTimer timer = OperationTimer.start();
+                long checksum = kernel.min(values, 0, size) ^ kernel.max(values, 0, size);
+                timer.stop(() -> "прохiд " + name + ": мiнiмум i максимум " + size + " значень");
+
+                timer = OperationTimer.start();
+                checksum += kernel.countInRange(values, 0, size, low, high);
+                timer.stop(() -> "прохiд " + name + ": пiдрахунок у дiапазонi серед " + size + " значень");
+
+                timer = OperationTimer.start();
+                checksum += kernel.indexOf(values, 0, size, missing);
+                timer.stop(() -> "прохiд " + name + ": пошук вiдсутнього значення серед " + size + " значень");
+
+                checksums[kernel.ordinal()] = checksum;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
+
+        for (long checksum : checksums) {
+            if (checksum != checksums[0]) {
+                throw new RuntimeException("Способи проходу повернули рiзнi результати: " + Arrays.toString(checksums));
+            }
+        }
+        System.out.println("Контрольна сума проходiв: " + checksums[0]);
+    }
+
+    /**
+     * Генерує для кожного розмiру тимчасовий файл з випадковими мiтками часу 2024 року у форматi ISO
+     * та зчитує його завантажувачем режиму {@link #STORAGE_PROPERTY}: {@code objects} (типово) або {@code timeline}.
+     * Перед кожним завантаженням пiковi значення пулiв heap скидаються, тож звiт завантаження
+     * показує пiк саме для цього файлу. Тимчасовi файли видаляються.
+     * 
+     * @param sizes Кiлькостi рядкiв через кому, наприклад {@code 1000000,10000000,50000000}.
+     */
+    static void compareLoadSizes(String sizes) {
+        String storageMode = System.getProperty(STORAGE_PROPERTY, STORAGE_OBJECTS);
+        if (!STORAGE_OBJECTS.equals(storageMode) && !STORAGE_TIMELINE.equals(storageMode)) {
+            throw new RuntimeException("Звiт про завантаження пiдтримує лише режими " + STORAGE_OBJECTS + " i " + STORAGE_TIMELINE);
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+        for (String value : sizes.split(",")) {
+            int size = Integer.parseInt(value.trim());
+            if (size <= 0) {
+                throw new RuntimeException("Кiлькiсть рядкiв для звiту про завантаження має бути додатною: " + size);
+            }
+
+            Path file = null;
+            try {
+                file = Files.createTempFile("load-" + size + "-", ".data");
+                Random random = new Random(size);
+                LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    for (int i = 0; i < size; i++) {
+                        writer.write(formatter.format(start.plusSeconds(random.nextInt(366 * 86400))));
+                        writer.newLine();
+                    }
+                }
+
+                System.gc();
+                for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                    pool.resetPeakUsage();
+                }
+                System.out.print(storageMode + ", " + size + " рядкiв. ");
+                int loaded = STORAGE_OBJECTS.equals(storageMode)
+                        ? Utils.readArrayFromFile(file.toString()).length
+                        : Utils.readEpochSecondsFromFile(file.toString()).length;
+                if (loaded != size) {
+                    throw new RuntimeException("Зчитано " + loaded + " рядкiв замiсть " + size);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (file != null) {
+                    file.toFile().delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Виконує тi самi операцiї, що й {@link #doDataOperation()}, над часовою шкалою {@link EpochTimeline}.
+     * 
+     * Масив i список у цьому режимi не створюються: данi зберiгаються один раз у примiтивному масивi.
+     */
+    void doTimelineOperation() {
+        searchTimeline();
+        findMinAndMaxInTimeline();
+
+        sortTimeline();
+
+        searchTimeline();
+        findMinAndMaxInTimeline();
+
+        // записати вiдсортовану часову шкалу в окремий файл
+        writeSortedOutput();
+    }
+
+    /**
+     * Сортує часову шкалу та вимiрює час, витрачений на сортування, в наносекундах.
+     */
+    void sortTimeline() {
+        OperationTimer timer = OperationTimer.start();
+
+        dateTimeTimeline.sort(sortEngine);
+
+        timer.stop(() -> "сортування часової шкали (" + sortEngine + ")");
+    }
+
+    /**
+     * Шукає задане значення дати i часу в часовiй шкалi.
+     */
+    void searchTimeline() {
+        OperationTimer timer = OperationTimer.start();
+
+        int index = dateTimeTimeline.binarySearch(dateTimeValueToSearch);
+
+        timer.stop("пошук в часовiй шкалi");
+
+        if (index >= 0) {
+            System.out.println("Значення '" + dateTimeValueToSearch + "' знайдено в часовiй шкалi за iндексом: " + index);
+        } else {
+            System.out.println("Значення '" + dateTimeValueToSearch + "' в часовiй шкалi не знайдено.");
+        }
+    }
+
+    /**
+     * Знаходить мiнiмальне та максимальне значення в часовiй шкалi.
+     */
+    void findMinAndMaxInTimeline() {
+        if (dateTimeTimeline.size() == 0) {
+            System.out.println("Часова шкала порожня.");
+            return;
+        }
+
+        OperationTimer timer = OperationTimer.start();
+
+        LocalDateTime min = dateTimeTimeline.min(scanKernel);
+        LocalDateTime max = dateTimeTimeline.max(scanKernel);
+
+        timer.stop("пошук мiнiмальної i максимальної дати i часу в часовiй шкалi");
+
+        System.out.println("Мiнiмальне значення в часовiй шкалi: " + min);
+        System.out.println("Максимальне значення в часовiй шкалi: " + max);
+    }
+
+    /**
+     * Сортує завантажену часову шкалу та стискає її в {@link PackedTimeline}; нестиснений масив пiсля цього
+     * не зберiгається. Виводить обсяг стисненої шкали порiвняно з {@code long[]}.
+     */
+    void packTimeline() {
+        sortTimeline();
+
+        OperationTimer timer = OperationTimer.start();
+
+        dateTimePackedTimeline = dateTimeTimeline.toPackedTimeline();
+        dateTimeTimeline = null;
+
+        timer.stop("стиснення часової шкали");
+
+        System.out.println("Стиснена часова шкала: значень=" + dateTimePackedTimeline.size() + ", блокiв="
+                + dateTimePackedTimeline.blockCount() + ", обсяг=" + dateTimePackedTimeline.footprintBytes()
+                + " байт (long[] - " + (long) dateTimePackedTimeline.size() * Long.BYTES + " байт)");
+    }
+
+    /**
+     * Виконує пошук, мiнiмум i максимум над стисненою часовою шкалою (режим {@code packed}) та записує її у файл.
+     * Шкала вже вiдсортована пiд час завантаження, тому повторне сортування не потрiбне.
+     */
+    void doPackedOperation() {
+        searchPackedTimeline();
+        findMinAndMaxInPackedTimeline();
+
+        // записати вiдсортованi данi в окремий файл
+        writeSortedOutput();
+    }
+
+    /**
+     * Шукає задане значення дати i часу в стисненiй часовiй шкалi.
+     */
+    void searchPackedTimeline() {
+        OperationTimer timer = OperationTimer.start();
+
+        int index = dateTimePackedTimeline.binarySearch(dateTimeValueToSearch);
+
+        timer.stop("пошук в стисненiй часовiй шкалi");
+
+        if (index >= 0) {
+            System.out.println("Значення '" + dateTimeValueToSearch + "' знайдено в стисненiй часовiй шкалi за iндексом: " + index);
+        } else {
+            System.out.println("Значення '" + dateTimeValueToSearch + "' в стисненiй часовiй шкалi не знайдено.");
+        }
+    }
+
+    /**
+     * Знаходить мiнiмальне та максимальне значення в стисненiй часовiй шкалi.
+     */
+    void findMinAndMaxInPackedTimeline() {
+        if (dateTimePackedTimeline.size() == 0) {
+            System.out.println("Стиснена часова шкала порожня.");
+            return;
+        }
+
+        OperationTimer timer = OperationTimer.start();
+
+        LocalDateTime min = dateTimePackedTimeline.min();
+        LocalDateTime max = dateTimePackedTimeline.max();
+
+        timer.stop("пошук мiнiмальної i максимальної дати i часу в стисненiй часовiй шкалi");
+
+        System.out.println("Мiнiмальне значення в стисненiй часовiй шкалi: " + min);
+        System.out.println("Максимальне значення в стисненiй часовiй шкалi: " + max);
+    }
+
+    /**
+     * Виконує основнi операцiї з секундами вiд початку епохи, що зберiгаються поза heap (режим {@code offheap}).
+     */
+    void doOffHeapOperation() {
+        searchOffHeapArray();
+        findMinAndMaxInOffHeapArray();
+
+        sortOffHeapArray();
+
+        searchOffHeapArray();
+        findMinAndMaxInOffHeapArray();
+
+        // записати вiдсортованi данi в окремий файл
+        writeSortedOutput();
+    }
+
+    /**
+     * Сортує масив поза heap та вимiрює час, витрачений на сортування, в наносекундах.
+     */
+    void sortOffHeapArray() {
+        OperationTimer timer = OperationTimer.start();
+
+        dateTimeOffHeapArray.sort();
+
+        timer.stop("сортування масиву поза heap");
+    }
+
+    /**
+     * Шукає задане значення дати i часу в масивi поза heap.
+     */
+    void searchOffHeapArray() {
+        OperationTimer timer = OperationTimer.start();
+
+        int index = binarySearchOffHeapArray(dateTimeValueToSearch);
+
+        timer.stop("пошук в масивi поза heap");
+
+        if (index >= 0) {
+            System.out.println("Значення '" + dateTimeValueToSearch + "' знайдено в масивi поза heap за iндексом: " + index);
+        } else {
+            System.out.println("Значення '" + dateTimeValueToSearch + "' в масивi поза heap не знайдено.");
+        }
+    }
+
+    /**
+     * Знаходить мiнiмальне та максимальне значення в масивi поза heap.
+     */
+    void findMinAndMaxInOffHeapArray() {
+        if (dateTimeOffHeapArray.size() == 0) {
+            System.out.println("Масив поза heap порожнiй.");
+            return;
+        }
+
+        OperationTimer timer = OperationTimer.start();
+
+        LocalDateTime min = EpochTimeline.toLocalDateTime(dateTimeOffHeapArray.min(scanKernel));
+        LocalDateTime max = EpochTimeline.toLocalDateTime(dateTimeOffHeapArray.max(scanKernel));
+
+        timer.stop("пошук мiнiмальної i максимальної дати i часу в масивi поза heap");
+
+        System.out.println("Мiнiмальне значення в масивi поза heap: " + min);
+        System.out.println("Максимальне значення в масивi поза heap: " + max);
+    }
+
+    private int binarySearchOffHeapArray(LocalDateTime value) {
+        // масив зберiгає цiлi секунди, тому значення з дробовою частиною в ньому вiдсутнє
+        if (value.getNano() != 0) {
+            return -1;
+        }
+        return dateTimeOffHeapArray.binarySearch(EpochTimeline.toEpochSecond(value));
+    }
+
+    /**
+     * Записує вiдсортованi данi у файл у форматi, заданому властивiстю {@link #SORTED_FORMAT_PROPERTY}:
+     * текстовому (один рядок на значення) або бiнарному {@link ColumnFile}.
+     */
+    void writeSortedOutput() {
+        String format = System.getProperty(SORTED_FORMAT_PROPERTY, SORTED_FORMAT_TEXT);
+        if (SORTED_FORMAT_TEXT.equals(format)) {
+            if (dateTimeTimeline != null) {
+                dateTimeTimeline.writeToFile(PATH_TO_DATA_FILE + ".sorted");
+            } else if (dateTimePackedTimeline != null) {
+                dateTimePackedTimeline.writeToFile(PATH_TO_DATA_FILE + ".sorted");
+            } else if (dateTimeOffHeapArray != null) {
+                Utils.writeEpochSecondsToFile(dateTimeOffHeapArray, PATH_TO_DATA_FILE + ".sorted");
+            } else {
+                Utils.writeArrayToFile(dateTimeArray, PATH_TO_DATA_FILE + ".sorted");
+            }
+        } else if (SORTED_FORMAT_BINARY.equals(format)) {
+            OperationTimer timer = OperationTimer.start();
+            try {
+                if (dateTimeTimeline != null) {
+                    dateTimeTimeline.writeToColumnFile(PATH_TO_SORTED_COLUMN_FILE);
+                } else if (dateTimePackedTimeline != null) {
+                    // блоки розпаковуються послiдовно, а не з початку блоку для кожного iндексу
+                    ColumnFile.writeEpochSeconds(PATH_TO_SORTED_COLUMN_FILE, dateTimePackedTimeline.size(),
+                            dateTimePackedTimeline::copyTo, true);
+                } else if (dateTimeOffHeapArray != null) {
+                    ColumnFile.writeEpochSeconds(PATH_TO_SORTED_COLUMN_FILE, dateTimeOffHeapArray.size(),
+                            dateTimeOffHeapArray::get, dateTimeOffHeapArray.isSorted());
+                } else {
+                    ColumnFile.write(PATH_TO_SORTED_COLUMN_FILE, Utils.toEpochSeconds(dateTimeArray), dateTimeArrayStatistics.isSorted());
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            timer.stop("запис бiнарного файлу " + PATH_TO_SORTED_COLUMN_FILE);
+        } else {
+            throw new RuntimeException("Невiдомий формат вiдсортованого файлу: " + format);
+        }
+    }
+
+    /**
+     * Вiдкриває вiдсортований бiнарний файл вiдображенням у пам'ять та вимiрює час вiдкриття.
+     * 
+     * @param pathToFile Шлях до файлу.
+     * @return Вiдкритий файл.
+     */
+    static ColumnFile openColumnFile(String pathToFile) {
+        OperationTimer timer = OperationTimer.start();
+
+        ColumnFile columnFile;
+        try {
+            columnFile = ColumnFile.open(pathToFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Не вдалося вiдкрити бiнарний файл (його створює запуск з -D"
+                    + SORTED_FORMAT_PROPERTY + "=" + SORTED_FORMAT_BINARY + "): " + e.getMessage(), e);
+        }
+        if (columnFile.type() != ColumnFile.TYPE_EPOCH_SECONDS || !columnFile.isSorted()) {
+            throw new RuntimeException("Бiнарний файл не мiстить вiдсортованих дат i часу: " + pathToFile);
+        }
+
+        timer.stop(() -> "вiдкриття бiнарного файлу " + pathToFile);
+        System.out.println("Вiдкрито бiнарний файл: " + columnFile.size() + " значень");
+        return columnFile;
+    }
+
+    /**
+     * Шукає задане значення дати i часу у вiдображеному в пам'ять бiнарному файлi.
+     */
+    void searchColumnFile() {
+        OperationTimer timer = OperationTimer.start();
+
+        int index = binarySearchColumnFile(dateTimeValueToSearch);
+
+        timer.stop("пошук у бiнарному файлi");
+
+        if (index >= 0) {
+            System.out.println("Значення '" + dateTimeValueToSearch + "' знайдено у бiнарному файлi за iндексом: " + index);
+        } else {
+            System.out.println("Значення '" + dateTimeValueToSearch + "' у бiнарному файлi не знайдено.");
+        }
+    }
+
+    /**
+     * Знаходить мiнiмальне та максимальне значення за таблицею блокiв бiнарного файлу, не звертаючись до самих значень.
+     */
+    void findMinAndMaxInColumnFile() {
+        if (dateTimeColumnFile.size() == 0) {
+            System.out.println("Бiнарний файл порожнiй.");
+            return;
+        }
+
+        OperationTimer timer = OperationTimer.start();
+
+        LocalDateTime min = EpochTimeline.toLocalDateTime(dateTimeColumnFile.minBits());
+        LocalDateTime max = EpochTimeline.toLocalDateTime(dateTimeColumnFile.maxBits());
+
+        timer.stop("пошук мiнiмальної i максимальної дати i часу у бiнарному файлi");
+
+        System.out.println("Мiнiмальне значення у бiнарному файлi: " + min);
+        System.out.println("Максимальне значення у бiнарному файлi: " + max);
+    }
+
+    private int binarySearchColumnFile(LocalDateTime value) {
+        // файл зберiгає цiлi секунди, тому значення з дробовою частиною в ньому вiдсутнє
+        if (value.getNano() != 0) {
+            return -1;
+        }
+        return dateTimeColumnFile.binarySearch(EpochTimeline.toEpochSecond(value));
+    }
+}
+
+/**
+ * Клас EpochTimeline зберiгає послiдовнiсть дат i часу як примiтивний масив секунд вiд початку епохи (UTC).
+ * 
+ * <p>Кожна мiтка часу займає 8 байт без заголовкiв об'єктiв та посилань, тому сортування, пошук
+ * i перегляд виконуються над неперервною дiлянкою пам'ятi. Точнiсть зберiгання - одна секунда.</p>
+ */
+class EpochTimeline {
+    private final long[] epochSeconds;
+    private boolean isSorted;
+
+    /**
+     * Створює часову шкалу над наданим масивом без його копiювання.
+     * 
+     * @param epochSeconds Масив секунд вiд початку епохи.
+     */
+    EpochTimeline(long[] epochSeconds) {
+        this(epochSeconds, false);
+    }
+
+    /**
+     * Створює часову шкалу над наданим масивом без його копiювання.
+     * 
+     * @param epochSeconds Масив секунд вiд початку епохи.
+     * @param isSorted Чи вiдсортований масив за зростанням; вiдсортована шкала не сортується повторно.
+     */
+    EpochTimeline(long[] epochSeconds, boolean isSorted) {
+        this.epochSeconds = epochSeconds;
+        this.isSorted = isSorted;
+    }
+
+    /**
+     * @return Кiлькiсть мiток часу.
+     */
+    int size() {
+        return epochSeconds.length;
+    }
+
+    /**
+     * @param index Iндекс мiтки часу.
+     * @return Мiтка часу за iндексом.
+     */
+    LocalDateTime get(int index) {
+        return toLocalDateTime(epochSeconds[index]);
+    }
+
+    /**
+     * Сортує часову шкалу за зростанням.
+     * 
+     * @param sortEngine Спосiб сортування.
+     */
+    void sort(SortEngine sortEngine) {
+        if (!isSorted) {
+            sortEngine.sort(epochSeconds);
+            isSorted = true;
+        }
+    }
+
+    /**
+     * Виконує бiнарний пошук у вiдсортованiй часовiй шкалi.
+     * 
+     * @param value Значення для пошуку.
+     * @return Iндекс знайденого значення або {@code -(точка вставки) - 1}, як у {@link Arrays#binarySearch(long[], long)}.
+     */
+    int binarySearch(LocalDateTime value) {
+        long key = toEpochSecond(value);
+        int index = Arrays.binarySearch(epochSeconds, key);
+        if (value.getNano() == 0) {
+            return index;
+        }
+
+        // значення з дробовою частиною секунди не може зберiгатися в шкалi - шукаємо лише точку вставки
+        int insertionPoint = (index >= 0) ? index : -index - 1;
+        while (insertionPoint < epochSeconds.length && epochSeconds[insertionPoint] == key) {
+            insertionPoint++;
+        }
+        return -insertionPoint - 1;
+    }
+
+    /**
+     * Знаходить вiдсортованi запити у вiдсортованiй часовiй шкалi за один прохiд (див. {@link BatchSearch}).
+     * Запити з дробовою частиною секунди в шкалi зберiгатися не можуть i вважаються не знайденими.
+     * 
+     * @param sortedQueries Запити, вiдсортованi за зростанням.
+     * @return Для кожного запиту - iндекс у шкалi або {@link BatchSearch#NOT_FOUND}.
+     */
+    int[] searchBatch(LocalDateTime[] sortedQueries) {
+        long[] keys = new long[sortedQueries.length];
+        for (int i = 0; i < sortedQueries.length; i++) {
+            keys[i] = toEpochSecond(sortedQueries[i]);
+        }
+
+        int[] results = BatchSearch.search(epochSeconds, keys);
+        for (int i = 0; i < sortedQueries.length; i++) {
+            if (sortedQueries[i].getNano() != 0) {
+                results[i] = BatchSearch.NOT_FOUND;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @param scanKernel Спосiб проходу невiдсортованої шкали.
+     * @return Мiнiмальна мiтка часу (для вiдсортованої шкали - перший елемент без перегляду масиву).
+     */
+    LocalDateTime min(ScanKernel scanKernel) {
+        if (isSorted) {
+            return toLocalDateTime(epochSeconds[0]);
+        }
+        return toLocalDateTime(scanKernel.min(epochSeconds, 0, epochSeconds.length));
+    }
+
+    /**
+     * @param scanKernel Спосiб проходу невiдсортованої шкали.
+     * @return Максимальна мiтка часу (для вiдсортованої шкали - останнiй елемент без перегляду масиву).
+     */
+    LocalDateTime max(ScanKernel scanKernel) {
+        if (isSorted) {
+            return toLocalDateTime(epochSeconds[epochSeconds.length - 1]);
+        }
+        return toLocalDateTime(scanKernel.max(epochSeconds, 0, epochSeconds.length));
+    }
+
+    /**
+     * Записує часову шкалу у файл у тому ж текстовому виглядi, що й {@link Utils#writeArrayToFile}.
+     * 
+     * @param pathToFile Шлях до файлу для запису.
+     */
+    void writeToFile(String pathToFile) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(pathToFile), Utils.READ_BUFFER_SIZE)) {
+            for (long epochSecond : epochSeconds) {
+                writer.write(toLocalDateTime(epochSecond).toString());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Записує часову шкалу у бiнарний файл {@link ColumnFile}.
+     * 
+     * @param pathToFile Шлях до файлу для запису.
+     * @throws IOException Якщо запис не вдався.
+     */
+    void writeToColumnFile(String pathToFile) throws IOException {
+        ColumnFile.write(pathToFile, epochSeconds, isSorted);
+    }
+
+    /**
+     * Стискає вiдсортовану часову шкалу (див. {@link PackedTimeline}).
+     * 
+     * @return Стиснена шкала з тими самими значеннями.
+     * @throws IllegalStateException Якщо шкала не вiдсортована.
+     */
+    PackedTimeline toPackedTimeline() {
+        if (!isSorted) {
+            throw new IllegalStateException("Стиснути можна лише вiдсортовану часову шкалу");
+        }
+        return PackedTimeline.of(epochSeconds);
+    }
+
+    static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
+
+/**
+ * Клас PackedTimeline - стиснена вiдсортована часова шкала: блоки по {@link #BLOCK_SIZE} секунд вiд початку епохи,
+ * у кожному з яких зберiгається перше значення та рiзницi мiж сусiднiми значеннями, упакованi в однакову
+ * для блоку кiлькiсть бiтiв (найменшу, що вмiщує найбiльшу рiзницю блоку).
+ * 
+ * <p>У вiдсортованих мiтках часу з невеликими промiжками рiзницi займають кiлька десяткiв бiтiв замiсть 64,
+ * тому шкала займає в кiлька разiв менше пам'ятi, нiж {@code long[]}. Першi значення блокiв утворюють окремий
+ * iндекс: пошук спершу виконується бiнарним пошуком у ньому, а розпаковується лише один блок. Послiдовний
+ * перегляд ({@link #forEach}) розпаковує блоки по черзi, а доступ за iндексом ({@link #get}) - лише початок
+ * одного блоку.</p>
+ */
+class PackedTimeline {
+    static final int BLOCK_SIZE = 128;
+
+    private final int size;
+    private final long[] firstValues;
+    private final int[] wordOffsets;
+    private final byte[] bitWidths;
+    private final long[] words;
+
+    private PackedTimeline(int size, long[] firstValues, int[] wordOffsets, byte[] bitWidths, long[] words) {
+        this.size = size;
+        this.firstValues = firstValues;
+        this.wordOffsets = wordOffsets;
+        this.bitWidths = bitWidths;
+        this.words = words;
+    }
+
+    /**
+     * Стискає вiдсортований масив секунд вiд початку епохи.
+     * 
+     * @param sorted Масив, вiдсортований за зростанням; не змiнюється.
+     * @return Стиснена шкала.
+     * @throws IllegalArgumentException Якщо масив не вiдсортований.
+     */
+    static PackedTimeline of(long[] sorted) {
+        int blockCount = (sorted.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[] firstValues = new long[blockCount];
+        int[] wordOffsets = new int[blockCount + 1];
+        byte[] bitWidths = new byte[blockCount];
+
+        for (int block = 0; block < blockCount; block++) {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(sorted.length, from + BLOCK_SIZE);
+            long maxDelta = 0;
+            for (int i = from + 1; i < to; i++) {
+                if (sorted[i] < sorted[i - 1]) {
+                    throw new IllegalArgumentException("Масив для стиснення не вiдсортований за iндексом " + i);
+                }
+                // рiзниця вiдсортованих значень невiд'ємна, але може не вмiститися в long зi знаком
+                long delta = sorted[i] - sorted[i - 1];
+                if (Long.compareUnsigned(delta, maxDelta) > 0) {
+                    maxDelta = delta;
+                }
+            }
+            int bitWidth = Long.SIZE - Long.numberOfLeadingZeros(maxDelta);
+
+            firstValues[block] = sorted[from];
+            bitWidths[block] = (byte) bitWidth;
+            wordOffsets[block + 1] = Math.addExact(wordOffsets[block], (int) (((long) (to - from - 1) * bitWidth + 63) >>> 6));
+        }
+
+        long[] words = new long[wordOffsets[blockCount]];
+        for (int block = 0; block < blockCount; block++) {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(sorted.length, from + BLOCK_SIZE);
+            int bitWidth = bitWidths[block];
+            long bitPosition = (long) wordOffsets[block] << 6;
+            for (int i = from + 1; i < to; i++, bitPosition += bitWidth) {
+                write(words, bitPosition, bitWidth, sorted[i] - sorted[i - 1]);
+            }
+        }
+        return new PackedTimeline(sorted.length, firstValues, wordOffsets, bitWidths, words);
+    }
+
+    /**
+     * @return Кiлькiсть мiток часу.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return Кiлькiсть блокiв.
+     */
+    int blockCount() {
+        return firstValues.length;
+    }
+
+    /**
+     * @return Обсяг масивiв шкали в байтах (без заголовкiв об'єктiв).
+     */
+    long footprintBytes() {
+        return (long) words.length * Long.BYTES + (long) firstValues.length * Long.BYTES
+                + (long) wordOffsets.length * Integer.BYTES + bitWidths.length;
+    }
+
+    /**
+     * Повертає значення за iндексом, розпаковуючи блок лише до нього.
+     * 
+     * @param index Iндекс мiтки часу.
+     * @return Секунди вiд початку епохи.
+     */
+    long get(int index) {
+        Objects.checkIndex(index, size);
+        int block = index / BLOCK_SIZE;
+        int bitWidth = bitWidths[block];
+        long value = firstValues[block];
+        long bitPosition = (long) wordOffsets[block] << 6;
+        for (int i = block * BLOCK_SIZE; i < index; i++, bitPosition += bitWidth) {
+            value += read(words, bitPosition, bitWidth);
+        }
+        return value;
+    }
+
+    /**
+     * @return Мiнiмальна мiтка часу - перше значення першого блоку.
+     */
+    LocalDateTime min() {
+        return EpochTimeline.toLocalDateTime(firstValues[0]);
+    }
+
+    /**
+     * @return Максимальна мiтка часу - останнє значення останнього блоку.
+     */
+    LocalDateTime max() {
+        return EpochTimeline.toLocalDateTime(get(size - 1));
+    }
+
+    /**
+     * Виконує пошук, розпаковуючи не бiльше одного блоку.
+     * 
+     * @param value Значення для пошуку.
+     * @return Iндекс першого входження значення або {@code -(точка вставки) - 1}, як у {@link Arrays#binarySearch(long[], long)}.
+     */
+    int binarySearch(LocalDateTime value) {
+        int position = lowerBound(value);
+        if (value.getNano() == 0 && position < size && get(position) == EpochTimeline.toEpochSecond(value)) {
+            return position;
+        }
+        return -position - 1;
+    }
+
+    /**
+     * @param value Значення.
+     * @return Iндекс першого значення шкали, не меншого за задане, або {@link #size()}, якщо такого немає.
+     */
+    int lowerBound(LocalDateTime value) {
+        // мiтки зберiгаються з точнiстю до секунди, тому значення з дробовою частиною округлюється вгору
+        long second = EpochTimeline.toEpochSecond(value);
+        return lowerBound((value.getNano() == 0) ? second : second + 1);
+    }
+
+    /**
+     * @param value Значення.
+     * @return Найбiльше значення шкали, не бiльше за задане, або null, якщо такого немає.
+     */
+    LocalDateTime floor(LocalDateTime value) {
+        // мiтка не пiзнiша за значення не пiзнiша i за його цiлу секунду
+        int position = lowerBound(EpochTimeline.toEpochSecond(value) + 1);
+        return (position > 0) ? EpochTimeline.toLocalDateTime(get(position - 1)) : null;
+    }
+
+    /**
+     * @param value Значення.
+     * @return Найменше значення шкали, не менше за задане, або null, якщо такого немає.
+     */
+    LocalDateTime ceiling(LocalDateTime value) {
+        int position = lowerBound(value);
+        return (position < size) ? EpochTimeline.toLocalDateTime(get(position)) : null;
+    }
+
+    /**
+     * Знаходить перше значення, не менше за ключ: бiнарний пошук за першими значеннями блокiв,
+     * пiсля чого послiдовно розпаковується лише блок, що передує знайденому.
+     * 
+     * @param key Секунди вiд початку епохи.
+     * @return Iндекс першого значення, не меншого за ключ, або {@link #size()}, якщо такого немає.
+     */
+    private int lowerBound(long key) {
+        // перший блок, що починається зi значення, не меншого за ключ
+        int low = 0;
+        int high = firstValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (firstValues[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == 0) {
+            return 0;
+        }
+
+        // шукане значення - у попередньому блоцi або перше значення знайденого блоку
+        int block = low - 1;
+        int bitWidth = bitWidths[block];
+        int index = block * BLOCK_SIZE;
+        int end = Math.min(size, index + BLOCK_SIZE);
+        long value = firstValues[block];
+        long bitPosition = (long) wordOffsets[block] << 6;
+        for (index++; index < end; index++, bitPosition += bitWidth) {
+            value += read(words, bitPosition, bitWidth);
+            if (value >= key) {
+                return index;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Послiдовно переглядає значення з iндексами {@code [from, to)}, розпаковуючи кожен блок один раз.
+     * 
+     * @param from Початковий iндекс (включно).
+     * @param to Кiнцевий iндекс (не включно).
+     * @param action Дiя над секундами вiд початку епохи кожного значення.
+     */
+    void forEach(int from, int to, LongConsumer action) {
+        Objects.checkFromToIndex(from, to, size);
+        int index = from;
+        while (index < to) {
+            int block = index / BLOCK_SIZE;
+            int bitWidth = bitWidths[block];
+            int blockStart = block * BLOCK_SIZE;
+            int blockEnd = Math.min(to, blockStart + BLOCK_SIZE);
+            long value = firstValues[block];
+            long bitPosition = (long) wordOffsets[block] << 6;
+            for (int i = blockStart; i < blockEnd; i++) {
+                if (i > blockStart) {
+                    value += read(words, bitPosition, bitWidth);
+                    bitPosition += bitWidth;
+                }
+                if (i >= index) {
+                    action.accept(value);
+                }
+            }
+            index = blockEnd;
+        }
+    }
+
+    /**
+     * Розпаковує значення з iндексами {@code [from, to)} у масив, починаючи з його початку; кожен блок розпаковується один раз.
+     * 
+     * @param from Початковий iндекс (включно).
+     * @param to Кiнцевий iндекс (не включно).
+     * @param target Масив довжиною не менше {@code to - from}.
+     */
+    void copyTo(int from, int to, long[] target) {
+        int[] position = {0};
+        forEach(from, to, value -> target[position[0]++] = value);
+    }
+
+    /**
+     * Записує шкалу у файл у тому ж текстовому виглядi, що й {@link EpochTimeline#writeToFile}.
+     * 
+     * @param pathToFile Шлях до файлу для запису.
+     */
+    void writeToFile(String pathToFile) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(pathToFile), Utils.READ_BUFFER_SIZE)) {
+            forEach(0, size, epochSecond -> {
+                try {
+                    writer.write(EpochTimeline.toLocalDateTime(epochSecond).toString());
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void write(long[] words, long bitPosition, int bitWidth, long value) {
+        if (bitWidth == 0) {
+            return;
+        }
+        int word = (int) (bitPosition >>> 6);
+        int shift = (int) (bitPosition & 63);
+        words[word] |= value << shift;
+        if (shift + bitWidth > Long.SIZE) {
+            words[word + 1] |= value >>> (Long.SIZE - shift);
+        }
+    }
+
+    private static long read(long[] words, long bitPosition, int bitWidth) {
+        if (bitWidth == 0) {
+            return 0;
+        }
+        int word = (int) (bitPosition >>> 6);
+        int shift = (int) (bitPosition & 63);
+        long value = words[word] >>> shift;
+        if (shift + bitWidth > Long.SIZE) {
+            value |= words[word + 1] << (Long.SIZE - shift);
+        }
+        return (bitWidth == Long.SIZE) ? value : value & ((1L << bitWidth) - 1);
+    }
+}
+
+/**
+ * Клас OffHeapLongArray - масив long поза heap у прямих буферах {@link ByteBuffer#allocateDirect(int)}.
+ * 
+ * <p>Значення зберiгаються частинами по {@link #CHUNK_LENGTH} елементiв (128 МБ), тому розмiр не обмежений
+ * 2 ГБ одного буфера, а збирач смiття бачить лише невеликi об'єкти буферiв i не переглядає та не копiює данi.
+ * Сортування (порозрядне LSD, з допомiжним масивом поза heap), бiнарний пошук i пошук мiнiмуму та максимуму
+ * працюють безпосередньо з буферами. Пам'ять звiльняється, коли масив стає недосяжним; її загальний обсяг
+ * обмежує {@code -XX:MaxDirectMemorySize} (типово - розмiр heap).</p>
+ */
+class OffHeapLongArray {
+    static final int CHUNK_SHIFT = 24;
+    static final int CHUNK_LENGTH = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_LENGTH - 1;
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int SCAN_BLOCK_LENGTH = 1 << 12;
+
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    private long capacity;
+    private int size;
+    private boolean isSorted;
+
+    /**
+     * Створює масив з мiсткiстю для заданої кiлькостi елементiв.
+     * 
+     * @param expectedSize Очiкувана кiлькiсть елементiв.
+     */
+    OffHeapLongArray(int expectedSize) {
+        while (capacity < expectedSize) {
+            addChunk((int) Math.min(CHUNK_LENGTH, Math.max(MIN_CAPACITY, expectedSize - capacity)));
+        }
+    }
+
+    void add(long value) {
+        if (size == capacity) {
+            grow();
+        }
+        set(size++, value);
+    }
+
+    long get(int index) {
+        return chunks[index >>> CHUNK_SHIFT].getLong((index & CHUNK_MASK) << 3);
+    }
+
+    void set(int index, long value) {
+        chunks[index >>> CHUNK_SHIFT].putLong((index & CHUNK_MASK) << 3, value);
+        isSorted = false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isSorted() {
+        return isSorted;
+    }
+
+    /**
+     * @return Обсяг видiленої пам'ятi поза heap у байтах.
+     */
+    long footprintBytes() {
+        return capacity * Long.BYTES;
+    }
+
+    /**
+     * Сортує масив за зростанням порозрядним сортуванням по 8 бiтiв; розряди, однаковi для всiх значень, пропускаються.
+     */
+    void sort() {
+        if (isSorted) {
+            return;
+        }
+
+        OffHeapLongArray source = this;
+        OffHeapLongArray target = new OffHeapLongArray(size);
+        target.size = size;
+        int[] offsets = new int[RADIX];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(offsets, 0);
+            for (int i = 0; i < size; i++) {
+                offsets[digit(source.get(i), shift)]++;
+            }
+            if (size == 0 || offsets[digit(source.get(0), shift)] == size) {
+                continue;
+            }
+
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = offsets[digit];
+                offsets[digit] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < size; i++) {
+                long value = source.get(i);
+                target.set(offsets[digit(value, shift)]++, value);
+            }
+
+            OffHeapLongArray swap = source;
+            source = target;
+            target = swap;
+        }
+
+        if (source != this) {
+            chunks = source.chunks;
+            capacity = source.capacity;
+        }
+        isSorted = true;
+    }
+
+    /**
+     * Виконує бiнарний пошук у вiдсортованому масивi.
+     * 
+     * @param key Значення для пошуку.
+     * @return Iндекс знайденого значення або {@code -(точка вставки) - 1}, як у {@link Arrays#binarySearch(long[], long)}.
+     */
+    int binarySearch(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long value = get(middle);
+            if (value < key) {
+                low = middle + 1;
+            } else if (value > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * @param scanKernel Спосiб проходу невiдсортованого масиву.
+     * @return Мiнiмальне значення (для вiдсортованого масиву - перший елемент без перегляду).
+     */
+    long min(ScanKernel scanKernel) {
+        if (isSorted) {
+            return get(0);
+        }
+        long min = get(0);
+        long[] block = new long[SCAN_BLOCK_LENGTH];
+        for (int from = 0; from < size; from += SCAN_BLOCK_LENGTH) {
+            int length = copyBlock(from, block);
+            min = Math.min(min, scanKernel.min(block, 0, length));
+        }
+        return min;
+    }
+
+    /**
+     * @param scanKernel Спосiб проходу невiдсортованого масиву.
+     * @return Максимальне значення (для вiдсортованого масиву - останнiй елемент без перегляду).
+     */
+    long max(ScanKernel scanKernel) {
+        if (isSorted) {
+            return get(size - 1);
+        }
+        long max = get(0);
+        long[] block = new long[SCAN_BLOCK_LENGTH];
+        for (int from = 0; from < size; from += SCAN_BLOCK_LENGTH) {
+            int length = copyBlock(from, block);
+            max = Math.max(max, scanKernel.max(block, 0, length));
+        }
+        return max;
+    }
+
+    /**
+     * Копiює блок елементiв, що починається з {@code from}, у масив у heap одним масовим читанням буфера,
+     * щоб прохiд {@link ScanKernel} працював з масивом, а не з окремими зверненнями до буфера.
+     * Блок не перетинає межу частини, бо {@link #SCAN_BLOCK_LENGTH} дiлить {@link #CHUNK_LENGTH}.
+     * 
+     * @return Кiлькiсть скопiйованих елементiв.
+     */
+    private int copyBlock(int from, long[] block) {
+        int length = Math.min(block.length, size - from);
+        // пiсля зростання позицiя частини не нульова, а її копiя має порядок байтiв big-endian,
+        // тому подання будується з початку частини i з порядком байтiв платформи
+        ByteBuffer chunk = chunks[from >>> CHUNK_SHIFT].duplicate().clear().order(ByteOrder.nativeOrder());
+        chunk.asLongBuffer().get(from & CHUNK_MASK, block, 0, length);
+        return length;
+    }
+
+    private void grow() {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Масив поза heap досяг найбiльшого розмiру");
+        }
+        ByteBuffer last = (chunks.length > 0) ? chunks[chunks.length - 1] : null;
+        if (last == null || last.capacity() == CHUNK_LENGTH * Long.BYTES) {
+            addChunk(MIN_CAPACITY);
+            return;
+        }
+
+        // неповна остання частина зростає вдвiчi, доки не стане повною
+        ByteBuffer grown = allocate((int) Math.min(CHUNK_LENGTH, 2L * last.capacity() / Long.BYTES));
+        grown.put(last.duplicate().clear());
+        capacity += (grown.capacity() - last.capacity()) / Long.BYTES;
+        chunks[chunks.length - 1] = grown;
+    }
+
+    private void addChunk(int length) {
+        chunks = Arrays.copyOf(chunks, chunks.length + 1);
+        chunks[chunks.length - 1] = allocate(length);
+        capacity += length;
+    }
+
+    private static ByteBuffer allocate(int length) {
+        return ByteBuffer.allocateDirect(length * Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    private static int digit(long value, int shift) {
+        // iнвертований знаковий бiт упорядковує вiд'ємнi значення перед додатними
+        return (int) (((value ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1));
+    }
+}
+
+/**
+ * Клас MemoryReport виводить використання пам'ятi процесом: час i кiлькiсть збирань смiття, heap,
+ * пам'ять прямих i вiдображених буферiв та резидентну пам'ять процесу (RSS) з {@code /proc/self/status}.
+ */
+class MemoryReport {
+    static final String PROPERTY = "memory.report";
+    private static final String PROC_STATUS = "/proc/self/status";
+
+    static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    static void print() {
+        long collectionCount = 0;
+        long collectionMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectionCount += Math.max(0, collector.getCollectionCount());
+            collectionMillis += Math.max(0, collector.getCollectionTime());
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+
+        System.out.println("\n>>>>>>>>> Пам'ять процесу:");
+        System.out.println("Збирань смiття: " + collectionCount + ", сумарний час: " + collectionMillis + " мс");
+        System.out.println("Heap: використано " + (heap.getUsed() >> 20) + " МБ, видiлено " + (heap.getCommitted() >> 20) + " МБ");
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            System.out.println("Буфери " + pool.getName() + ": " + (pool.getMemoryUsed() >> 20) + " МБ");
+        }
+
+        try {
+            for (String line : Files.readAllLines(Paths.get(PROC_STATUS))) {
+                if (line.startsWith("VmRSS:") || line.startsWith("VmHWM:")) {
+                    System.out.println(line.replaceAll("\\s+", " "));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("RSS недоступний: " + e.getMessage());
+        }
+    }
+}
+
+/**
+ * Клас Utils мiститить допомiжнi методи для роботи з даними типу LocalDateTime.
+ */
+class Utils {
+    static final int READ_BUFFER_SIZE = 1 << 16;
+    static final int MIN_CAPACITY = 16;
+    static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    static final int LINE_SAMPLE_SIZE = 1 << 16;
+    static final int MAX_ESTIMATED_CAPACITY = 1 << 26;
+
+    /**
+     * Зчитує масив об'єктiв LocalDateTime з файлу.
+     * 
+     * <p>Мiсткiсть масиву попередньо оцiнюється за розмiром файлу та вибiркою рядкiв з його початку,
+     * а якщо оцiнка виявилась замалою - масив збiльшується геометрично. Файл розбирається за один прохiд,
+     * i якщо оцiнка точна (зокрема для файлiв, що вмiщуються у вибiрку), пiдсумковий масив повертається
+     * без додаткового копiювання.</p>
+     * 
+     * <p>Рядки фiксованого формату ISO декодуються безпосередньо з вiдображеного у пам'ять файлу
+     * (див. {@link MappedLineReader}); форматер використовується лише для рядкiв iншого вигляду.</p>
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @return Масив об'єктiв LocalDateTime.
+     */
+    static LocalDateTime[] readArrayFromFile(String pathToFile) {
+        return readArrayFromFile(pathToFile, new ValueStatistics<>());
+    }
+
+    /**
+     * Зчитує масив об'єктiв LocalDateTime з файлу, накопичуючи статистику значень за той самий прохiд.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @param statistics Статистика, в яку додається кожне зчитане значення.
+     * @return Масив об'єктiв LocalDateTime.
+     */
+    static LocalDateTime[] readArrayFromFile(String pathToFile, ValueStatistics<LocalDateTime> statistics) {
+        LocalDateTime[] buffer = readBufferFromFile(pathToFile, statistics);
+        int count = (int) statistics.count();
+        return (count == buffer.length) ? buffer : Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Зчитує об'єкти LocalDateTime з файлу в буфер завантаження без обрiзання до кiлькостi зчитаних значень:
+     * кiлькiсть дорiвнює {@link ValueStatistics#count()}, а решта буфера заповнена null.
+     * Так буфер можна передати у власнiсть структурi даних (див. {@link StatisticsList}) без зайвого копiювання.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @param statistics Порожня статистика, в яку додається кожне зчитане значення.
+     * @return Буфер, першi {@code statistics.count()} елементiв якого - значення з файлу.
+     */
+    static LocalDateTime[] readBufferFromFile(String pathToFile, ValueStatistics<LocalDateTime> statistics) {
+        OperationTimer timer = OperationTimer.start();
+
+        LocalDateTime[] buffer = new LocalDateTime[0];
+
+        try (MappedLineReader reader = new MappedLineReader(pathToFile)) {
+            buffer = readDateTimeBuffer(reader, estimateLineCount(pathToFile), statistics);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        printLoadReport(timer, pathToFile, (int) statistics.count());
+
+        return buffer;
+    }
+
+    /**
+     * Зчитує всi рядки, що лишилися в {@link MappedLineReader}, у масив об'єктiв LocalDateTime.
+     * 
+     * @param reader Джерело рядкiв.
+     * @param capacity Початкова мiсткiсть масиву.
+     * @param statistics Статистика, в яку додається кожне зчитане значення.
+     * @return Масив об'єктiв LocalDateTime.
+     * @throws IOException якщо сталася помилка читання.
+     */
+    static LocalDateTime[] readDateTimes(MappedLineReader reader, int capacity, ValueStatistics<LocalDateTime> statistics) throws IOException {
+        long countBefore = statistics.count();
+        LocalDateTime[] buffer = readDateTimeBuffer(reader, capacity, statistics);
+        int count = (int) (statistics.count() - countBefore);
+        return (count == buffer.length) ? buffer : Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Зчитує всi рядки, що лишилися в {@link MappedLineReader}, у буфер, не обрiзаючи його:
+     * кiлькiсть зчитаних значень - це прирiст {@link ValueStatistics#count()}.
+     * 
+     * @param reader Джерело рядкiв.
+     * @param capacity Початкова мiсткiсть буфера.
+     * @param statistics Статистика, в яку додається кожне зчитане значення.
+     * @return Буфер зi зчитаними значеннями на початку.
+     * @throws IOException якщо сталася помилка читання.
+     */
+    static LocalDateTime[] readDateTimeBuffer(MappedLineReader reader, int capacity, ValueStatistics<LocalDateTime> statistics) throws IOException {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+        LocalDateTime[] tempArray = new LocalDateTime[Math.max(MIN_CAPACITY, capacity)];
+        int index = 0;
+
+        while (reader.nextLine()) {
+            if (index == tempArray.length) {
+                tempArray = Arrays.copyOf(tempArray, growCapacity(tempArray.length));
+            }
+            LocalDateTime dateTime = reader.hasIsoLayout()
+                    ? LocalDateTime.ofEpochSecond(reader.epochSecond(), 0, ZoneOffset.UTC)
+                    : LocalDateTime.parse(reader.line(), formatter);
+            statistics.accept(dateTime);
+            tempArray[index++] = dateTime;
+        }
+
+        return tempArray;
+    }
+
+    /**
+     * Зчитує мiтки часу з файлу у масив секунд вiд початку епохи (UTC) без створення об'єктiв LocalDateTime.
+     * 
+     * <p>Рядки, якi не мають фiксованого формату ISO, розбираються форматером; дробова частина секунд
+     * у таких рядках вiдкидається.</p>
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @return Масив секунд вiд початку епохи.
+     */
+    static long[] readEpochSecondsFromFile(String pathToFile) {
+        try {
+            return readEpochSecondsChecked(pathToFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new long[0];
+        }
+    }
+
+    /**
+     * Зчитує мiтки часу з файлу у масив секунд вiд початку епохи (UTC), як {@link #readEpochSecondsFromFile},
+     * але не приховує помилку читання.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @return Масив секунд вiд початку епохи.
+     * @throws IOException якщо файл вiдсутнiй або його не вдалося прочитати.
+     */
+    static long[] readEpochSecondsChecked(String pathToFile) throws IOException {
+        OperationTimer timer = OperationTimer.start();
+
+        long[] finalArray;
+        try (MappedLineReader reader = new MappedLineReader(pathToFile)) {
+            finalArray = readEpochSeconds(reader, estimateLineCount(pathToFile));
+        }
+
+        printLoadReport(timer, pathToFile, finalArray.length);
+
+        return finalArray;
+    }
+
+    /**
+     * Зчитує всi рядки, що лишилися в {@link MappedLineReader}, у масив секунд вiд початку епохи (UTC).
+     * 
+     * @param reader Джерело рядкiв.
+     * @param capacity Початкова мiсткiсть масиву.
+     * @return Масив секунд вiд початку епохи.
+     * @throws IOException якщо сталася помилка читання.
+     */
+    static long[] readEpochSeconds(MappedLineReader reader, int capacity) throws IOException {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+        long[] tempArray = new long[Math.max(MIN_CAPACITY, capacity)];
+        int index = 0;
+
+        while (reader.nextLine()) {
+            if (index == tempArray.length) {
+                tempArray = Arrays.copyOf(tempArray, growCapacity(tempArray.length));
+            }
+            tempArray[index++] = reader.hasIsoLayout()
+                    ? reader.epochSecond()
+                    : LocalDateTime.parse(reader.line(), formatter).toEpochSecond(ZoneOffset.UTC);
+        }
+
+        return (index == tempArray.length) ? tempArray : Arrays.copyOf(tempArray, index);
+    }
+
+    /**
+     * Зчитує мiтки часу з файлу у масив секунд вiд початку епохи поза heap, не створюючи промiжного масиву в heap.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @return Масив секунд вiд початку епохи поза heap.
+     */
+    static OffHeapLongArray readEpochSecondsOffHeap(String pathToFile) {
+        OperationTimer timer = OperationTimer.start();
+
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+        OffHeapLongArray epochSeconds = new OffHeapLongArray(estimateLineCount(pathToFile));
+
+        try (MappedLineReader reader = new MappedLineReader(pathToFile)) {
+            while (reader.nextLine()) {
+                epochSeconds.add(reader.hasIsoLayout()
+                        ? reader.epochSecond()
+                        : LocalDateTime.parse(reader.line(), formatter).toEpochSecond(ZoneOffset.UTC));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        printLoadReport(timer, pathToFile, epochSeconds.size());
+
+        return epochSeconds;
+    }
+
+    /**
+     * Записує секунди вiд початку епохи з масиву поза heap у файл у тому ж текстовому виглядi, що й {@link #writeArrayToFile}.
+     * 
+     * @param epochSeconds Масив секунд вiд початку епохи.
+     * @param pathToFile Шлях до файлу для запису.
+     */
+    static void writeEpochSecondsToFile(OffHeapLongArray epochSeconds, String pathToFile) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(pathToFile), READ_BUFFER_SIZE)) {
+            for (int i = 0; i < epochSeconds.size(); i++) {
+                writer.write(EpochTimeline.toLocalDateTime(epochSeconds.get(i)).toString());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Зчитує значення для пакетного пошуку з файлу або зi стандартного вводу.
+     * 
+     * @param source Шлях до файлу або {@code -} для стандартного вводу.
+     * @return Масив запитiв у порядку зчитування.
+     */
+    static LocalDateTime[] readQueries(String source) {
+        if (!"-".equals(source)) {
+            return readArrayFromFile(source);
+        }
+
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+        LocalDateTime[] queries = new LocalDateTime[MIN_CAPACITY];
+        int index = 0;
+
+        try {
+            BufferedReader br = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (index == queries.length) {
+                    queries = Arrays.copyOf(queries, growCapacity(queries.length));
+                }
+                queries[index++] = LocalDateTime.parse(line.trim(), formatter);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return Arrays.copyOf(queries, index);
+    }
+
+    /**
+     * Виводить результати пакетного пошуку рядками {@code <запит>\t<iндекс>} через буфер,
+     * не формуючи весь вивiд у пам'ятi.
+     * 
+     * @param queries Запити.
+     * @param results Iндекси знайдених значень або {@link BatchSearch#NOT_FOUND}.
+     */
+    static void writeBatchResults(LocalDateTime[] queries, int[] results) {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        try {
+            for (int i = 0; i < queries.length; i++) {
+                writer.write(queries[i].toString());
+                writer.write('\t');
+                writer.write(Integer.toString(results[i]));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Оцiнює кiлькiсть рядкiв у файлi за вибiркою з перших {@link #LINE_SAMPLE_SIZE} байтiв: середня довжина
+     * рядка у вибiрцi не залежить вiд того, короткий чи порожнiй перший рядок. Файл, що вмiщується у вибiрку,
+     * пiдраховується точно. Оцiнка обмежена {@link #MAX_ESTIMATED_CAPACITY}: якщо її не вистачить,
+     * масив збiльшиться в {@link #growCapacity}, а завищена оцiнка не видiлить зайвий масив на весь файл.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @return Початкова мiсткiсть масиву (не менше одиницi).
+     */
+    static int estimateLineCount(String pathToFile) {
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+            long fileLength = channel.size();
+            ByteBuffer sample = ByteBuffer.allocate((int) Math.min(fileLength, LINE_SAMPLE_SIZE));
+            while (sample.hasRemaining() && channel.read(sample) > 0) {
+                // читання до заповнення вибiрки
+            }
+
+            int sampleLength = sample.position();
+            long lineCount = 0;
+            for (int i = 0; i < sampleLength; i++) {
+                if (sample.get(i) == '\n') {
+                    lineCount++;
+                }
+            }
+
+            if (sampleLength == fileLength) {
+                // +1 на останнiй рядок без символу нового рядка
+                boolean hasUnterminatedLine = sampleLength > 0 && sample.get(sampleLength - 1) != '\n';
+                return (int) Math.max(1, lineCount + (hasUnterminatedLine ? 1 : 0));
+            }
+            if (lineCount == 0) {
+                // жодного цiлого рядка у вибiрцi - рядки довгi, тому достатньо мiнiмальної мiсткостi
+                return MIN_CAPACITY;
+            }
+            long estimate = fileLength * lineCount / sampleLength + 1;
+            return (int) Math.min(estimate, MAX_ESTIMATED_CAPACITY);
+        } catch (IOException e) {
+            return MIN_CAPACITY;
+        }
+    }
+
+    /**
+     * Обчислює нову мiсткiсть масиву при геометричному збiльшеннi в 1.5 раза.
+     * 
+     * @param currentCapacity Поточна мiсткiсть масиву.
+     * @return Нова мiсткiсть масиву.
+     */
+    static int growCapacity(int currentCapacity) {
+        if (currentCapacity >= MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError("Кiлькiсть рядкiв перевищує максимальний розмiр масиву");
+        }
+        long newCapacity = Math.max(MIN_CAPACITY, currentCapacity + (currentCapacity >> 1));
+        return (int) Math.min(newCapacity, MAX_ARRAY_SIZE);
+    }
+
+    /**
+     * Виводить звiт про завантаження файлу: час, кiлькiсть рядкiв та пiкове використання heap.
+     * 
+     * @param timer Таймер, запущений на початку завантаження.
+     * @param pathToFile Шлях до файлу з даними.
+     * @param lineCount Кiлькiсть зчитаних рядкiв.
+     */
+    static void printLoadReport(OperationTimer timer, String pathToFile, int lineCount) {
+        printLoadReport(timer, () -> pathToFile, lineCount);
+    }
+
+    /**
+     * Виводить звiт про завантаження файлу, як {@link #printLoadReport(OperationTimer, String, int)}, з описом джерела,
+     * який будується лише пiсля зупинки таймера.
+     * 
+     * @param timer Таймер, запущений на початку завантаження.
+     * @param source Опис джерела даних, наприклад шлях до файлу зi способом завантаження.
+     * @param lineCount Кiлькiсть зчитаних рядкiв.
+     */
+    static void printLoadReport(OperationTimer timer, Supplier<String> source, int lineCount) {
+        timer.stop(() -> "завантаження файлу " + source.get());
+
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        System.out.println("Зчитано рядкiв: " + lineCount + ", пiкове використання heap: " + (peakHeapBytes >> 20) + " МБ");
+    }
+
+    /**
+     * Перетворює масив дат i часу на секунди вiд початку епохи (UTC).
+     * 
+     * @param dateTimeArray Масив об'єктiв LocalDateTime.
+     * @return Масив секунд вiд початку епохи.
+     * @throws RuntimeException Якщо значення має дробову частину секунди, яку не можна зберегти.
+     */
+    static long[] toEpochSeconds(LocalDateTime[] dateTimeArray) {
+        long[] epochSeconds = new long[dateTimeArray.length];
+        for (int i = 0; i < dateTimeArray.length; i++) {
+            if (dateTimeArray[i].getNano() != 0) {
+                throw new RuntimeException("Значення з дробовою частиною секунди не можна записати у бiнарний файл: " + dateTimeArray[i]);
+            }
+            epochSeconds[i] = EpochTimeline.toEpochSecond(dateTimeArray[i]);
+        }
+        return epochSeconds;
+    }
+
+    /**
+     * Записує вiдсортовану послiдовнiсть у текстовий файл (один рядок на значення) i закриває її.
+     * Запис iде у тимчасовий файл поруч, який замiнює цiльовий лише пiсля успiшного завершення.
+     * 
+     * @param run Вiдсортована послiдовнiсть секунд вiд початку епохи.
+     * @param pathToFile Шлях до файлу для запису.
+     * @return Кiлькiсть записаних значень.
+     * @throws IOException якщо сталася помилка читання або запису.
+     */
+    static long writeSortedRun(SortedRun run, Path pathToFile) throws IOException {
+        Path temporary = Files.createTempFile(pathToFile.toAbsolutePath().getParent(), pathToFile.getFileName().toString(), ".tmp");
+        long count = 0;
+        try (SortedRun source = run;
+                BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            while (source.advance()) {
+                writer.write(EpochTimeline.toLocalDateTime(source.current()).toString());
+                writer.newLine();
+                count++;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, pathToFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * Розбирає обсяг пам'ятi з необов'язковим суфiксом {@code k}, {@code m} або {@code g}.
+     * 
+     * @param value Обсяг, наприклад {@code 512m}.
+     * @return Обсяг у байтах.
+     */
+    static long parseByteSize(String value) {
+        String text = value.trim().toLowerCase();
+        int shift = 0;
+        if (text.endsWith("k")) {
+            shift = 10;
+        } else if (text.endsWith("m")) {
+            shift = 20;
+        } else if (text.endsWith("g")) {
+            shift = 30;
+        }
+        try {
+            long number = Long.parseLong((shift == 0) ? text : text.substring(0, text.length() - 1));
+            return number << shift;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Неправильний обсяг пам'ятi: " + value);
+        }
+    }
+
+    /**
+     * Записує масив об'єктiв LocalDateTime у файл.
+     * 
+     * @param dateTimeArray Масив об'єктiв LocalDateTime.
+     * @param pathToFile Шлях до файлу для запису.
+     */
+    static void writeArrayToFile(LocalDateTime[] dateTimeArray, String pathToFile) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(pathToFile))) {
+            for (LocalDateTime dateTime : dateTimeArray) {
+                writer.write(dateTime.toString());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
+
+/**
+ * Клас ValueStatistics iнкрементально накопичує кiлькiсть, мiнiмум i максимум значень та ознаку впорядкованостi,
+ * щоб запити до крайнiх значень виконувались за сталий час без повторного перегляду даних.
+ * 
+ * <p>Значення враховуються в тому порядку, в якому вони додаються в кiнець послiдовностi
+ * (пiд час завантаження файлу або вставки в контейнер).</p>
+ */
+class ValueStatistics<T extends Comparable<? super T>> {
+    private long count;
+    private T min;
+    private T max;
+    private T last;
+    private boolean isSorted = true;
+
+    /**
+     * Враховує значення, додане в кiнець послiдовностi.
+     * 
+     * @param value Значення.
+     */
+    void accept(T value) {
+        if (count == 0 || value.compareTo(min) < 0) {
+            min = value;
+        }
+        if (count == 0 || value.compareTo(max) > 0) {
+            max = value;
+        }
+        if (count > 0 && value.compareTo(last) < 0) {
+            isSorted = false;
+        }
+        last = value;
+        count++;
+    }
+
+    /**
+     * Враховує статистику послiдовностi, що продовжує цю, так нiби її значення додано по одному через {@link #accept}.
+     * Вiдсортованiсть зберiгається, лише якщо обидвi частини вiдсортованi, а перше (найменше) значення
+     * наступної частини не менше за останнє значення цiєї.
+     * 
+     * @param next Статистика наступної частини послiдовностi.
+     */
+    void combine(ValueStatistics<T> next) {
+        if (next.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            min = next.min;
+            max = next.max;
+            isSorted = next.isSorted;
+        } else {
+            if (next.min.compareTo(min) < 0) {
+                min = next.min;
+            }
+            if (next.max.compareTo(max) > 0) {
+                max = next.max;
+            }
+            // у вiдсортованiй частинi перше значення - її мiнiмум
+            isSorted = isSorted && next.isSorted && next.min.compareTo(last) >= 0;
+        }
+        last = next.last;
+        count += next.count;
+    }
+
+    /**
+     * Позначає послiдовнiсть як вiдсортовану за зростанням (мiнiмум i максимум при цьому не змiнюються).
+     */
+    void markSorted() {
+        isSorted = true;
+        last = max;
+    }
+
+    /**
+     * Позначає послiдовнiсть як невпорядковану, наприклад пiсля вставки в середину.
+     */
+    void markUnsorted() {
+        isSorted = false;
+    }
+
+    /**
+     * Скидає накопичену статистику.
+     */
+    void clear() {
+        count = 0;
+        min = null;
+        max = null;
+        last = null;
+        isSorted = true;
+    }
+
+    /**
+     * @return Копiя статистики.
+     */
+    ValueStatistics<T> copy() {
+        ValueStatistics<T> copy = new ValueStatistics<>();
+        copy.count = count;
+        copy.min = min;
+        copy.max = max;
+        copy.last = last;
+        copy.isSorted = isSorted;
+        return copy;
+    }
+
+    long count() {
+        return count;
+    }
+
+    T min() {
+        return min;
+    }
+
+    T max() {
+        return max;
+    }
+
+    boolean isSorted() {
+        return isSorted;
+    }
+}
+
+/**
+ * Клас StatisticsList - список з довiльним доступом, який веде {@link ValueStatistics} своїх елементiв.
+ * 
+ * <p>Додавання в кiнець оновлює мiнiмум i максимум за сталий час; замiна або видалення елемента
+ * лише позначає статистику застарiлою, i вона перераховується одним проходом при наступному запитi.
+ * Пiсля сортування список знає, що впорядкований. Усi змiни, зокрема через {@link #subList} та iтератори,
+ * проходять через {@link #set}, {@link #add(int, Comparable)} i {@link #remove(int)}.</p>
+ */
+class StatisticsList<E extends Comparable<? super E>> extends AbstractList<E> implements RandomAccess {
+    private E[] elements;
+    private int size;
+    private final ValueStatistics<E> statistics;
+    private boolean isStatisticsValid = true;
+
+    /**
+     * Створює список з елементiв масиву з уже обчисленою статистикою, без повторного перегляду елементiв.
+     * 
+     * <p>Масив не копiюється, а переходить у власнiсть списку: це може бути буфер завантажувача,
+     * довший за кiлькiсть зчитаних значень, тож обрiзати його не потрiбно.</p>
+     * 
+     * @param values Масив, першi {@code size} елементiв якого стають елементами списку.
+     * @param size Кiлькiсть елементiв.
+     * @param statistics Статистика елементiв масиву (копiюється).
+     */
+    StatisticsList(E[] values, int size, ValueStatistics<E> statistics) {
+        if (size < 0 || size > values.length) {
+            throw new IndexOutOfBoundsException("Кiлькiсть елементiв " + size + " поза межами масиву довжини " + values.length);
+        }
+        this.elements = values;
+        this.size = size;
+        this.statistics = statistics.copy();
+    }
+
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        Objects.checkIndex(index, size);
+        isStatisticsValid = false;
+        E previous = elements[index];
+        elements[index] = element;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        Objects.checkIndex(index, size + 1);
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Utils.growCapacity(elements.length));
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = element;
+        size++;
+        modCount++;
+        if (isStatisticsValid) {
+            statistics.accept(element);
+            if (index != size - 1) {
+                statistics.markUnsorted();
+            }
+        }
+    }
+
+    @Override
+    public E remove(int index) {
+        Objects.checkIndex(index, size);
+        E removed = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        modCount++;
+        isStatisticsValid = false;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+        modCount++;
+        statistics.clear();
+        isStatisticsValid = true;
+    }
+
+    @Override
+    public void sort(Comparator<? super E> comparator) {
+        Arrays.sort(elements, 0, size, comparator);
+        modCount++;
+        if (comparator == null) {
+            statistics().markSorted();
+        } else {
+            isStatisticsValid = false;
+        }
+    }
+
+    /**
+     * Сортує список заданою процедурою сортування за зростанням i позначає його як вiдсортований.
+     * 
+     * @param sorter Процедура, що сортує переданий їй список за природним порядком.
+     */
+    void sortWith(Consumer<List<E>> sorter) {
+        // подання масиву без копiювання; змiни через нього не проходять через set i не скидають статистику
+        List<E> view = Arrays.asList(elements);
+        sorter.accept((size == elements.length) ? view : view.subList(0, size));
+        modCount++;
+        statistics().markSorted();
+    }
+
+    /**
+     * @return Мiнiмальний елемент за сталий час (або null для порожнього списку).
+     */
+    E min() {
+        return statistics().min();
+    }
+
+    /**
+     * @return Максимальний елемент за сталий час (або null для порожнього списку).
+     */
+    E max() {
+        return statistics().max();
+    }
+
+    /**
+     * @return true, якщо елементи списку впорядкованi за зростанням.
+     */
+    boolean isSorted() {
+        return statistics().isSorted();
+    }
+
+    private ValueStatistics<E> statistics() {
+        if (!isStatisticsValid) {
+            statistics.clear();
+            for (int i = 0; i < size; i++) {
+                statistics.accept(elements[i]);
+            }
+            isStatisticsValid = true;
+        }
+        return statistics;
+    }
+}
+
+/**
+ * Клас OperationTimer фiксує момент початку операцiї та кiлькiсть байтiв, видiлених поточним потоком,
+ * щоб пiсля завершення операцiї записати її тривалiсть i видiлену пам'ять у {@link OperationMetrics}.
+ */
+class OperationTimer {
+    private final long startTime;
+    private final long startAllocatedBytes;
+
+    private OperationTimer(long startTime, long startAllocatedBytes) {
+        this.startTime = startTime;
+        this.startAllocatedBytes = startAllocatedBytes;
+    }
+
+    /**
+     * Починає вимiрювання операцiї.
+     * 
+     * @return Таймер операцiї.
+     */
+    static OperationTimer start() {
+        long startAllocatedBytes = OperationMetrics.currentThreadAllocatedBytes();
+        return new OperationTimer(System.nanoTime(), startAllocatedBytes);
+    }
+
+    /**
+     * Завершує вимiрювання та записує тривалiсть операцiї в наносекундах i видiленi байти в метрики.
+     * 
+     * <p>Аргумент обчислюється до виклику, тобто всерединi вимiрювання, тому назву, яку потрiбно складати
+     * з частин, слiд будувати до {@link #start()} або передавати через {@link #stop(Supplier)}.</p>
+     * 
+     * @param operationName Назва операцiї.
+     */
+    void stop(String operationName) {
+        long duration = System.nanoTime() - startTime;
+        long allocatedBytes = OperationMetrics.currentThreadAllocatedBytes() - startAllocatedBytes;
+        OperationMetrics.record(operationName, duration, Math.max(0, allocatedBytes));
+    }
+
+    /**
+     * Завершує вимiрювання, як {@link #stop(String)}, але будує назву операцiї лише пiсля того, як зчитано час
+     * i лiчильник видiлених байтiв, тож побудова назви не потрапляє у вимiрювання.
+     * 
+     * @param operationName Джерело назви операцiї.
+     */
+    void stop(Supplier<String> operationName) {
+        long endTime = System.nanoTime();
+        long allocatedBytes = OperationMetrics.currentThreadAllocatedBytes() - startAllocatedBytes;
+        OperationMetrics.record(operationName.get(), endTime - startTime, Math.max(0, allocatedBytes));
+    }
+}
+
+/**
+ * Клас OperationMetrics накопичує час виконання операцiй у гiстограмах {@link LatencyHistogram} за назвою операцiї.
+ * 
+ * <p>Запис у метрики не виконує введення-виведення, тому не впливає на вимiрюваний час. Пiдсумок виводиться
+ * один раз методом {@link #report()} наприкiнцi запуску; якщо задано системну властивiсть {@link #OUTPUT_PROPERTY},
+ * метрики також записуються у файл у форматi {@link #FORMAT_PROPERTY} ({@code json} або {@code prometheus}),
+ * щоб результати багатьох запускiв можна було об'єднувати.</p>
+ */
+class OperationMetrics {
+    static final String OUTPUT_PROPERTY = "metrics.output";
+    static final String FORMAT_PROPERTY = "metrics.format";
+
+    static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    static final String[] QUANTILE_NAMES = {"p50", "p99", "p999"};
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean IS_ALLOCATION_SUPPORTED = THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemorySupported();
+
+    /**
+     * Записує одне вимiрювання операцiї.
+     * 
+     * @param operationName Назва операцiї.
+     * @param durationNanos Тривалiсть у наносекундах.
+     * @param allocatedBytes Кiлькiсть байтiв, видiлених пiд час операцiї.
+     */
+    static void record(String operationName, long durationNanos, long allocatedBytes) {
+        HISTOGRAMS.computeIfAbsent(operationName, name -> new LatencyHistogram()).record(durationNanos, allocatedBytes);
+    }
+
+    /**
+     * @return Кiлькiсть байтiв, видiлених поточним потоком, або 0, якщо JVM цього не пiдтримує.
+     */
+    static long currentThreadAllocatedBytes() {
+        return IS_ALLOCATION_SUPPORTED
+                ? ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getCurrentThreadAllocatedBytes()
+                : 0;
+    }
+
+    /**
+     * Виводить пiдсумок метрик у консоль та, за потреби, записує їх у файл.
+     */
+    static void report() {
+        System.out.println("\n>>>>>>>>> Метрики операцiй (наносекунди):");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            System.out.println("'" + entry.getKey() + "': кiлькiсть=" + histogram.count()
+                    + ", p50=" + histogram.quantile(0.5) + ", p99=" + histogram.quantile(0.99)
+                    + ", p999=" + histogram.quantile(0.999) + ", max=" + histogram.max()
+                    + ", видiлено байт=" + histogram.allocatedBytes());
+        }
+
+        String outputPath = System.getProperty(OUTPUT_PROPERTY);
+        if (outputPath == null) {
+            return;
+        }
+
+        String format = System.getProperty(FORMAT_PROPERTY, "json");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputPath), StandardCharsets.UTF_8))) {
+            if ("prometheus".equals(format)) {
+                writePrometheus(writer);
+            } else if ("json".equals(format)) {
+                writeJson(writer);
+            } else {
+                throw new IOException("Невiдомий формат метрик: " + format);
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка запису метрик у файл: " + e.getMessage());
+        }
+    }
+
+    private static void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"operations\": [");
+        String separator = "\n";
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            writer.write(separator + "    {\"name\": \"" + escapeJson(entry.getKey()) + "\", \"count\": " + histogram.count()
+                    + ", \"sumNanos\": " + histogram.sum() + ", \"maxNanos\": " + histogram.max());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                writer.write(", \"" + QUANTILE_NAMES[i] + "Nanos\": " + histogram.quantile(QUANTILES[i]));
+            }
+            writer.write(", \"allocatedBytes\": " + histogram.allocatedBytes() + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  ]\n}\n");
+    }
+
+    private static void writePrometheus(Writer writer) throws IOException {
+        Map<String, LatencyHistogram> histograms = new TreeMap<>(HISTOGRAMS);
+
+        writer.write("# HELP operation_duration_nanoseconds Тривалiсть операцiї в наносекундах.\n");
+        writer.write("# TYPE operation_duration_nanoseconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String label = "operation=\"" + escapePrometheus(entry.getKey()) + "\"";
+            LatencyHistogram histogram = entry.getValue();
+            for (double quantile : QUANTILES) {
+                writer.write("operation_duration_nanoseconds{" + label + ",quantile=\"" + quantile + "\"} "
+                        + histogram.quantile(quantile) + "\n");
+            }
+            writer.write("operation_duration_nanoseconds_sum{" + label + "} " + histogram.sum() + "\n");
+            writer.write("operation_duration_nanoseconds_count{" + label + "} " + histogram.count() + "\n");
+        }
+
+        writer.write("# HELP operation_allocated_bytes_total Кiлькiсть байтiв, видiлених пiд час операцiї.\n");
+        writer.write("# TYPE operation_allocated_bytes_total counter\n");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            writer.write("operation_allocated_bytes_total{operation=\"" + escapePrometheus(entry.getKey()) + "\"} "
+                    + entry.getValue().allocatedBytes() + "\n");
+        }
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapePrometheus(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
+
+/**
+ * Клас LatencyHistogram - безблокувальна гiстограма з логарифмiчно-лiнiйними кошиками на зразок HdrHistogram.
+ * 
+ * <p>Значення меншi за {@link #SUB_BUCKET_COUNT} зберiгаються точно, бiльшi - з вiдносною похибкою не бiльше 1/32.
+ * Усi лiчильники оновлюються атомарно, тому гiстограму можна заповнювати з кiлькох потокiв одночасно.</p>
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    void record(long value, long allocated) {
+        long nonNegative = Math.max(0, value);
+        counts.incrementAndGet(indexOf(nonNegative));
+        count.incrementAndGet();
+        sum.addAndGet(nonNegative);
+        max.accumulateAndGet(nonNegative, Math::max);
+        allocatedBytes.addAndGet(allocated);
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long sum() {
+        return sum.get();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * Повертає верхню межу кошика, в який потрапляє задана частка вимiрювань.
+     * 
+     * @param quantile Частка вiд 0 до 1.
+     * @return Значення квантиля (не бiльше за максимальне записане значення).
+     */
+    long quantile(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            cumulative += counts.get(index);
+            if (cumulative >= target) {
+                return Math.min(upperBoundOf(index), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        long upperBound = ((subBucket + 1) << shift) - 1;
+        return (upperBound < 0) ? Long.MAX_VALUE : upperBound;
+    }
+}
+
+/**
+ * Перелiк SortEngine визначає спосiб сортування масивiв i спискiв дати та часу.
+ * 
+ * <p>Спосiб обирається системною властивiстю {@link #PROPERTY}, наприклад {@code -Dsort.engine=radix}:</p>
+ * <ul>
+ *   <li>{@link #SEQUENTIAL} - однопотокове сортування порiвнянням ({@link Arrays#sort(Object[])}).</li>
+ *   <li>{@link #PARALLEL} - {@link Arrays#parallelSort(Comparable[])} на пулi fork-join.</li>
+ *   <li>{@link #RADIX} - паралельне порозрядне сортування LSD за ключами в наносекундах вiд початку епохи
+ *       (див. {@link LongRadixSort}).</li>
+ * </ul>
+ */
+enum SortEngine {
+    SEQUENTIAL,
+    PARALLEL,
+    RADIX;
+
+    static final String PROPERTY = "sort.engine";
+
+    /**
+     * Повертає спосiб сортування, заданий системною властивiстю {@link #PROPERTY} (типово {@link #SEQUENTIAL}).
+     * 
+     * @return Обраний спосiб сортування.
+     */
+    static SortEngine fromSystemProperty() {
+        String value = System.getProperty(PROPERTY, SEQUENTIAL.name());
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Невiдомий спосiб сортування: " + value);
+        }
+    }
+
+    /**
+     * Сортує масив дати i часу за зростанням.
+     * 
+     * @param array Масив для сортування.
+     */
+    void sort(LocalDateTime[] array) {
+        switch (this) {
+            case PARALLEL:
+                Arrays.parallelSort(array);
+                break;
+            case RADIX:
+                radixSort(array);
+                break;
+            default:
+                Arrays.sort(array);
+        }
+    }
+
+    /**
+     * Сортує список дати i часу за зростанням. Для паралельного та порозрядного способiв елементи
+     * сортуються в масивi та записуються назад у список, як це робить {@link List#sort}.
+     * 
+     * @param list Список для сортування.
+     */
+    void sort(List<LocalDateTime> list) {
+        if (this == SEQUENTIAL) {
+            Collections.sort(list);
+            return;
+        }
+
+        LocalDateTime[] array = list.toArray(new LocalDateTime[0]);
+        sort(array);
+
+        ListIterator<LocalDateTime> iterator = list.listIterator();
+        for (LocalDateTime dateTime : array) {
+            iterator.next();
+            iterator.set(dateTime);
+        }
+    }
+
+    /**
+     * Сортує масив секунд вiд початку епохи за зростанням.
+     * 
+     * @param keys Масив для сортування.
+     */
+    void sort(long[] keys) {
+        sort(keys, keys.length);
+    }
+
+    /**
+     * Сортує за зростанням першi {@code size} елементiв масиву секунд вiд початку епохи; решта масиву не змiнюється.
+     * 
+     * @param keys Масив для сортування.
+     * @param size Кiлькiсть елементiв на початку масиву, якi потрiбно вiдсортувати.
+     */
+    void sort(long[] keys, int size) {
+        switch (this) {
+            case PARALLEL:
+                Arrays.parallelSort(keys, 0, size);
+                break;
+            case RADIX:
+                LongRadixSort.sort(keys, null, size);
+                break;
+            default:
+                Arrays.sort(keys, 0, size);
+        }
+    }
+
+    /**
+     * Сортує масив дати i часу порозрядно: обчислює ключi в наносекундах, сортує їх разом з iндексами
+     * i переставляє елементи за отриманим порядком. Сортування стабiльне.
+     * Якщо ключ не вмiщується в long (роки поза 1677-2262), використовується {@link #PARALLEL}.
+     */
+    private static void radixSort(LocalDateTime[] array) {
+        long[] keys = new long[array.length];
+        int[] order = new int[array.length];
+
+        try {
+            for (int i = 0; i < array.length; i++) {
+                long epochSecond = array[i].toEpochSecond(ZoneOffset.UTC);
+                keys[i] = Math.addExact(Math.multiplyExact(epochSecond, 1_000_000_000L), array[i].getNano());
+                order[i] = i;
+            }
+        } catch (ArithmeticException e) {
+            Arrays.parallelSort(array);
+            return;
+        }
+
+        LongRadixSort.sort(keys, order);
+
+        LocalDateTime[] source = array.clone();
+        for (int i = 0; i < array.length; i++) {
+            array[i] = source[order[i]];
+        }
+    }
+}
+
+/**
+ * Перелiк ScanKernel визначає спосiб лiнiйного проходу по масивах {@code long}: пошук мiнiмуму i максимуму,
+ * пiдрахунок значень у дiапазонi та пошук значення в невiдсортованих даних.
+ * 
+ * <p>Спосiб обирається системною властивiстю {@link #PROPERTY}, наприклад {@code -Dscan.kernel=scalar}:</p>
+ * <ul>
+ *   <li>{@link #UNROLLED} - цикл розгорнутий на кiлька незалежних накопичувачiв без умовних переходiв,
+ *       що залежать вiд даних: сусiднi порiвняння не чекають одне на одне, а компiлятор C2 може виконати їх
+ *       векторними iнструкцiями.</li>
+ *   <li>{@link #SCALAR} - по одному елементу за iтерацiю; еталон для перевiрки та порiвняння.</li>
+ * </ul>
+ */
+enum ScanKernel {
+    SCALAR,
+    UNROLLED;
+
+    static final String PROPERTY = "scan.kernel";
+
+    /**
+     * Повертає спосiб проходу, заданий системною властивiстю {@link #PROPERTY} (типово {@link #UNROLLED}).
+     * 
+     * @return Обраний спосiб проходу.
+     */
+    static ScanKernel fromSystemProperty() {
+        String value = System.getProperty(PROPERTY, UNROLLED.name());
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Невiдомий спосiб проходу масиву: " + value);
+        }
+    }
+
+    /**
+     * @param values Масив.
+     * @param from Початковий iндекс (включно).
+     * @param to Кiнцевий iндекс (не включно), бiльший за {@code from}.
+     * @return Мiнiмальне значення в {@code values[from, to)}.
+     */
+    long min(long[] values, int from, int to) {
+        long min0 = values[from];
+        int i = from + 1;
+        if (this == UNROLLED) {
+            long min1 = min0;
+            long min2 = min0;
+            long min3 = min0;
+            for (int end = to - 3; i < end; i += 4) {
+                min0 = Math.min(min0, values[i]);
+                min1 = Math.min(min1, values[i + 1]);
+                min2 = Math.min(min2, values[i + 2]);
+                min3 = Math.min(min3, values[i + 3]);
+            }
+            min0 = Math.min(Math.min(min0, min1), Math.min(min2, min3));
+        }
+        for (; i < to; i++) {
+            min0 = Math.min(min0, values[i]);
+        }
+        return min0;
+    }
+
+    /**
+     * @param values Масив.
+     * @param from Початковий iндекс (включно).
+     * @param to Кiнцевий iндекс (не включно), бiльший за {@code from}.
+     * @return Максимальне значення в {@code values[from, to)}.
+     */
+    long max(long[] values, int from, int to) {
+        long max0 = values[from];
+        int i = from + 1;
+        if (this == UNROLLED) {
+            long max1 = max0;
+            long max2 = max0;
+            long max3 = max0;
+            for (int end = to - 3; i < end; i += 4) {
+                max0 = Math.max(max0, values[i]);
+                max1 = Math.max(max1, values[i + 1]);
+                max2 = Math.max(max2, values[i + 2]);
+                max3 = Math.max(max3, values[i + 3]);
+            }
+            max0 = Math.max(Math.max(max0, max1), Math.max(max2, max3));
+        }
+        for (; i < to; i++) {
+            max0 = Math.max(max0, values[i]);
+        }
+        return max0;
+    }
+
+    /**
+     * Пiдраховує значення з дiапазону {@code [low, high)}. Розгорнутий прохiд замiнює два порiвняння одним
+     * беззнаковим {@code value - low < high - low}, обчисленим без умовного переходу.
+     * 
+     * @param values Масив.
+     * @param from Початковий iндекс (включно).
+     * @param to Кiнцевий iндекс (не включно).
+     * @param low Нижня межа дiапазону (включно).
+     * @param high Верхня межа дiапазону (не включно).
+     * @return Кiлькiсть значень дiапазону в {@code values[from, to)}.
+     */
+    int countInRange(long[] values, int from, int to, long low, long high) {
+        if (low >= high) {
+            return 0;
+        }
+
+        int count0 = 0;
+        int i = from;
+        if (this == UNROLLED) {
+            long width = high - low;
+            int count1 = 0;
+            int count2 = 0;
+            int count3 = 0;
+            for (int end = to - 3; i < end; i += 4) {
+                count0 += isBelowUnsigned(values[i] - low, width);
+                count1 += isBelowUnsigned(values[i + 1] - low, width);
+                count2 += isBelowUnsigned(values[i + 2] - low, width);
+                count3 += isBelowUnsigned(values[i + 3] - low, width);
+            }
+            count0 += count1 + count2 + count3;
+        }
+        for (; i < to; i++) {
+            if (values[i] >= low && values[i] < high) {
+                count0++;
+            }
+        }
+        return count0;
+    }
+
+    /**
+     * Шукає перше входження значення. Розгорнутий прохiд порiвнює вiсiм елементiв без переходiв мiж ними
+     * i переглядає блок поелементно лише тодi, коли в ньому є збiг.
+     * 
+     * @param values Масив.
+     * @param from Початковий iндекс (включно).
+     * @param to Кiнцевий iндекс (не включно).
+     * @param key Значення для пошуку.
+     * @return Iндекс першого входження або -1, якщо значення вiдсутнє.
+     */
+    int indexOf(long[] values, int from, int to, long key) {
+        int i = from;
+        if (this == UNROLLED) {
+            for (int end = to - 7; i < end; i += 8) {
+                if ((values[i] == key) | (values[i + 1] == key) | (values[i + 2] == key) | (values[i + 3] == key)
+                        | (values[i + 4] == key) | (values[i + 5] == key) | (values[i + 6] == key) | (values[i + 7] == key)) {
+                    break;
+                }
+            }
+        }
+        for (; i < to; i++) {
+            if (values[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 1, якщо {@code left < right} як беззнаковi числа, iнакше 0 (Hacker's Delight, 2-12).
+     */
+    private static int isBelowUnsigned(long left, long right) {
+        return (int) (((~left & right) | ((~left | right) & (left - right))) >>> 63);
+    }
+}
+
+/**
+ * Клас LongRadixSort реалiзує паралельне стабiльне порозрядне сортування LSD для масивiв long.
+ * 
+ * <p>Ключ обробляється вiсьмома проходами по 8 бiт. На кожному проходi масив дiлиться на частини,
+ * для яких паралельно (на пулi fork-join) будуються гiстограми розрядiв, пiсля чого кожна частина
+ * паралельно розкладає свої елементи на обчисленi позицiї. Проходи, у яких усi ключi мають однаковий
+ * розряд (наприклад, старшi байти близьких мiток часу), пропускаються.</p>
+ */
+class LongRadixSort {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Сортує ключi за зростанням (зi знаком), за потреби переставляючи разом з ними масив супутнiх iндексiв.
+     * 
+     * @param keys Масив ключiв.
+     * @param payload Масив супутнiх значень тiєї ж довжини або null.
+     */
+    static void sort(long[] keys, int[] payload) {
+        sort(keys, payload, keys.length);
+    }
+
+    /**
+     * Сортує першi {@code length} ключiв за зростанням (зi знаком); додатковий буфер займає лише {@code length} елементiв.
+     * 
+     * @param keys Масив ключiв.
+     * @param payload Масив супутнiх значень не коротший за {@code length} або null.
+     * @param length Кiлькiсть ключiв на початку масиву, якi потрiбно вiдсортувати.
+     */
+    static void sort(long[] keys, int[] payload, int length) {
+        int chunkCount = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L, length / MIN_CHUNK_SIZE));
+        int chunkSize = (length + chunkCount - 1) / Math.max(1, chunkCount);
+        int[][] counts = new int[chunkCount][RADIX];
+
+        long[] source = keys;
+        long[] target = new long[length];
+        int[] sourcePayload = payload;
+        int[] targetPayload = (payload == null) ? null : new int[length];
+
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            final int digitShift = shift;
+            final long[] from = source;
+            final long[] to = target;
+            final int[] fromPayload = sourcePayload;
+            final int[] toPayload = targetPayload;
+
+            IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+                int[] chunkCounts = counts[chunk];
+                Arrays.fill(chunkCounts, 0);
+                int end = Math.min(length, (chunk + 1) * chunkSize);
+                for (int i = chunk * chunkSize; i < end; i++) {
+                    chunkCounts[digit(from[i], digitShift)]++;
+                }
+            });
+
+            if (isTrivialPass(counts, length)) {
+                continue;
+            }
+
+            // перетворюємо лiчильники на початковi позицiї: спершу за розрядом, потiм за номером частини
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                for (int chunk = 0; chunk < chunkCount; chunk++) {
+                    int count = counts[chunk][digit];
+                    counts[chunk][digit] = offset;
+                    offset += count;
+                }
+            }
+
+            IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+                int[] positions = counts[chunk];
+                int end = Math.min(length, (chunk + 1) * chunkSize);
+                for (int i = chunk * chunkSize; i < end; i++) {
+                    int position = positions[digit(from[i], digitShift)]++;
+                    to[position] = from[i];
+                    if (toPayload != null) {
+                        toPayload[position] = fromPayload[i];
+                    }
+                }
+            });
+
+            source = to;
+            target = from;
+            sourcePayload = toPayload;
+            targetPayload = fromPayload;
+        }
+
+        if (source != keys) {
+            System.arraycopy(source, 0, keys, 0, length);
+            if (payload != null) {
+                System.arraycopy(sourcePayload, 0, payload, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Повертає розряд ключа; знаковий бiт iнвертується, щоб беззнаковий порядок розрядiв збiгався зi знаковим порядком ключiв.
+     */
+    private static int digit(long key, int shift) {
+        return (int) ((key ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1);
+    }
+
+    private static boolean isTrivialPass(int[][] counts, int length) {
+        for (int digit = 0; digit < RADIX; digit++) {
+            int total = 0;
+            for (int[] chunkCounts : counts) {
+                total += chunkCounts[digit];
+            }
+            if (total != 0) {
+                return total == length;
+            }
+        }
+        return true;
+    }
+}
+
+/**
+ * Клас BatchSearch знаходить багато вiдсортованих запитiв у вiдсортованому масивi за один прохiд.
+ * 
+ * <p>Запити обробляються злиттям: пошук кожного наступного запиту починається з позицiї попереднього
+ * i виконується експоненцiйним (galloping) пошуком, тому сумарна вартiсть - O(m log(n/m)) замiсть m log n
+ * незалежних бiнарних пошукiв. Великi пакети запитiв дiляться на частини, якi обробляються паралельно
+ * на пулi fork-join; кожна частина починає злиття з бiнарного пошуку свого першого запиту.</p>
+ */
+class BatchSearch {
+    static final int NOT_FOUND = -1;
+    private static final int MIN_CHUNK_SIZE = 1 << 12;
+
+    /**
+     * Знаходить вiдсортованi запити у вiдсортованому масивi.
+     * 
+     * @param sortedValues Вiдсортований масив значень.
+     * @param sortedQueries Вiдсортований масив запитiв.
+     * @return Для кожного запиту - iндекс першого рiвного йому значення або {@link #NOT_FOUND}.
+     */
+    static <T extends Comparable<? super T>> int[] search(T[] sortedValues, T[] sortedQueries) {
+        int[] results = new int[sortedQueries.length];
+        int chunkCount = chunkCount(sortedQueries.length);
+        int chunkSize = (sortedQueries.length + chunkCount - 1) / chunkCount;
+
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int from = 0;
+            int end = Math.min(sortedQueries.length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                from = lowerBound(sortedValues, from, sortedQueries[i]);
+                boolean isFound = from < sortedValues.length && sortedValues[from].compareTo(sortedQueries[i]) == 0;
+                results[i] = isFound ? from : NOT_FOUND;
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Знаходить вiдсортованi запити у вiдсортованому масивi секунд вiд початку епохи.
+     * 
+     * @param sortedValues Вiдсортований масив значень.
+     * @param sortedQueries Вiдсортований масив запитiв.
+     * @return Для кожного запиту - iндекс першого рiвного йому значення або {@link #NOT_FOUND}.
+     */
+    static int[] search(long[] sortedValues, long[] sortedQueries) {
+        int[] results = new int[sortedQueries.length];
+        int chunkCount = chunkCount(sortedQueries.length);
+        int chunkSize = (sortedQueries.length + chunkCount - 1) / chunkCount;
+
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int from = 0;
+            int end = Math.min(sortedQueries.length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                from = lowerBound(sortedValues, from, sortedQueries[i]);
+                boolean isFound = from < sortedValues.length && sortedValues[from] == sortedQueries[i];
+                results[i] = isFound ? from : NOT_FOUND;
+            }
+        });
+        return results;
+    }
+
+    private static int lowerBound(long[] values, int from, long key) {
+        int low = from;
+        int high = values.length;
+        long step = 1;
+        int probe = low;
+        while (probe < values.length) {
+            if (values[probe] >= key) {
+                high = probe;
+                break;
+            }
+            low = probe + 1;
+            probe = (int) Math.min(values.length, low + step);
+            step <<= 1;
+        }
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int chunkCount(int queryCount) {
+        return (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L, queryCount / MIN_CHUNK_SIZE));
+    }
+
+    /**
+     * Повертає перший iндекс не менший за {@code from}, значення за яким не менше за ключ.
+     * Спершу крок пошуку подвоюється, доки не перескочить ключ, потiм бiнарний пошук звужує знайдений промiжок.
+     */
+    private static <T extends Comparable<? super T>> int lowerBound(T[] values, int from, T key) {
+        int low = from;
+        int high = values.length;
+        long step = 1;
+        int probe = low;
+        while (probe < values.length) {
+            if (values[probe].compareTo(key) >= 0) {
+                high = probe;
+                break;
+            }
+            low = probe + 1;
+            probe = (int) Math.min(values.length, low + step);
+            step <<= 1;
+        }
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
+
+/**
+ * Клас LearnedIndex - кусково-лiнiйний навчений iндекс (у дусi PGM-index) над вiдсортованими мiтками часу.
+ * 
+ * <p>Iндекс наближає залежнiсть позицiї вiд ключа (секунди вiд початку епохи) вiдрiзками прямих так,
+ * що для кожного ключа масиву передбачена позицiя першого його входження вiдрiзняється вiд справжньої
+ * не бiльше нiж на {@link #epsilon()}. Вiдрiзки будуються за один прохiд жадiбним звуженням конуса
+ * допустимих нахилiв. Пошук знаходить вiдрiзок бiнарним пошуком серед невеликого масиву перших ключiв,
+ * обчислює позицiю i переглядає лише вiкно з {@code 2 * epsilon + 1} елементiв навколо неї - кiлька
+ * звернень до пам'ятi замiсть {@code log2(n)} для звичайного бiнарного пошуку.</p>
+ * 
+ * <p>Ключ - лише цiла секунда, тому значення з дробовою частиною можуть опинитися за межами вiкна;
+ * у такому разi, як i при будь-якiй невдалiй перевiрцi меж вiкна, пошук продовжується звичайним
+ * бiнарним пошуком, тож результат завжди правильний.</p>
+ */
+class LearnedIndex {
+    static final String PROPERTY = "search.index";
+    static final String BINARY = "binary";
+    static final String LEARNED = "learned";
+    static final String EPSILON_PROPERTY = "search.index.epsilon";
+    static final int DEFAULT_EPSILON = 16;
+
+    private final int epsilon;
+    private final int size;
+    private final long[] segmentKeys;
+    private final int[] segmentStarts;
+    private final double[] segmentSlopes;
+
+    private LearnedIndex(int epsilon, int size, long[] segmentKeys, int[] segmentStarts, double[] segmentSlopes) {
+        this.epsilon = epsilon;
+        this.size = size;
+        this.segmentKeys = segmentKeys;
+        this.segmentStarts = segmentStarts;
+        this.segmentSlopes = segmentSlopes;
+    }
+
+    /**
+     * Повертає, чи ввiмкнено навчений iндекс системною властивiстю {@link #PROPERTY}.
+     * 
+     * @return true для {@link #LEARNED}, false для {@link #BINARY} (типово).
+     */
+    static boolean isEnabled() {
+        String value = System.getProperty(PROPERTY, BINARY);
+        if (LEARNED.equals(value)) {
+            return true;
+        } else if (BINARY.equals(value)) {
+            return false;
+        }
+        throw new RuntimeException("Невiдомий спосiб пошуку: " + value);
+    }
+
+    /**
+     * Будує iндекс над вiдсортованою послiдовнiстю дати i часу з похибкою {@link #EPSILON_PROPERTY}.
+     * 
+     * @param sorted Вiдсортована послiдовнiсть.
+     * @return Iндекс.
+     */
+    static LearnedIndex build(List<LocalDateTime> sorted) {
+        return build(sorted, Integer.getInteger(EPSILON_PROPERTY, DEFAULT_EPSILON));
+    }
+
+    /**
+     * Будує iндекс над вiдсортованою послiдовнiстю дати i часу.
+     * 
+     * @param sorted Вiдсортована послiдовнiсть.
+     * @param epsilon Найбiльша допустима похибка передбаченої позицiї.
+     * @return Iндекс.
+     */
+    static LearnedIndex build(List<LocalDateTime> sorted, int epsilon) {
+        long[] keys = new long[sorted.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = EpochTimeline.toEpochSecond(sorted.get(i));
+        }
+        return build(keys, epsilon);
+    }
+
+    /**
+     * Будує iндекс над вiдсортованими ключами.
+     * 
+     * @param keys Ключi, вiдсортованi за неспаданням.
+     * @param epsilon Найбiльша допустима похибка передбаченої позицiї.
+     * @return Iндекс.
+     */
+    static LearnedIndex build(long[] keys, int epsilon) {
+        if (epsilon < 1) {
+            throw new RuntimeException("Похибка навченого iндексу має бути додатною: " + epsilon);
+        }
+
+        long[] segmentKeys = new long[Utils.MIN_CAPACITY];
+        int[] segmentStarts = new int[Utils.MIN_CAPACITY];
+        double[] segmentSlopes = new double[Utils.MIN_CAPACITY];
+        int segmentCount = 0;
+
+        int start = 0;
+        while (start < keys.length) {
+            long firstKey = keys[start];
+            double lowSlope = 0;
+            double highSlope = Double.POSITIVE_INFINITY;
+
+            int next = skipDuplicates(keys, start);
+            while (next < keys.length) {
+                double distance = (double) keys[next] - firstKey;
+                double low = Math.max(lowSlope, (next - start - epsilon) / distance);
+                double high = Math.min(highSlope, (next - start + epsilon) / distance);
+                if (low > high) {
+                    break;
+                }
+                lowSlope = low;
+                highSlope = high;
+                next = skipDuplicates(keys, next);
+            }
+
+            if (segmentCount == segmentKeys.length) {
+                int capacity = Utils.growCapacity(segmentCount);
+                segmentKeys = Arrays.copyOf(segmentKeys, capacity);
+                segmentStarts = Arrays.copyOf(segmentStarts, capacity);
+                segmentSlopes = Arrays.copyOf(segmentSlopes, capacity);
+            }
+            segmentKeys[segmentCount] = firstKey;
+            segmentStarts[segmentCount] = start;
+            segmentSlopes[segmentCount] = (highSlope == Double.POSITIVE_INFINITY) ? 0 : (lowSlope + highSlope) / 2;
+            segmentCount++;
+            start = next;
+        }
+
+        return new LearnedIndex(epsilon, keys.length, Arrays.copyOf(segmentKeys, segmentCount),
+                Arrays.copyOf(segmentStarts, segmentCount), Arrays.copyOf(segmentSlopes, segmentCount));
+    }
+
+    int epsilon() {
+        return epsilon;
+    }
+
+    int segmentCount() {
+        return segmentKeys.length;
+    }
+
+    /**
+     * @return Обсяг пам'ятi вiдрiзкiв у байтах.
+     */
+    long footprintBytes() {
+        return (long) segmentKeys.length * (Long.BYTES + Integer.BYTES + Double.BYTES);
+    }
+
+    /**
+     * Вимiрює найбiльшу фактичну похибку передбачення на ключах, за якими iндекс побудовано.
+     * 
+     * @param sorted Вiдсортована послiдовнiсть, за якою побудовано iндекс.
+     * @return Найбiльша рiзниця мiж передбаченою позицiєю та позицiєю першого входження ключа.
+     */
+    int maxError(List<LocalDateTime> sorted) {
+        int maxError = 0;
+        long previousKey = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            long key = EpochTimeline.toEpochSecond(sorted.get(i));
+            if (i == 0 || key != previousKey) {
+                maxError = Math.max(maxError, Math.abs(predict(key) - i));
+            }
+            previousKey = key;
+        }
+        return maxError;
+    }
+
+    /**
+     * Шукає значення у вiдсортованiй послiдовностi, за якою побудовано iндекс.
+     * 
+     * @param sorted Вiдсортована послiдовнiсть з довiльним доступом.
+     * @param value Значення для пошуку.
+     * @return Iндекс першого входження значення або {@code -(точка вставки) - 1}, як у {@link Collections#binarySearch}.
+     */
+    int binarySearch(List<LocalDateTime> sorted, LocalDateTime value) {
+        int index = lowerBound(sorted, value);
+        return (index < size && sorted.get(index).compareTo(value) == 0) ? index : -index - 1;
+    }
+
+    /**
+     * Знаходить позицiю першого значення, не меншого за задане, у вiдсортованiй послiдовностi, за якою побудовано iндекс.
+     * 
+     * @param sorted Вiдсортована послiдовнiсть з довiльним доступом.
+     * @param value Значення для пошуку.
+     * @return Iндекс першого значення, не меншого за задане, або розмiр послiдовностi, якщо такого немає.
+     */
+    int lowerBound(List<LocalDateTime> sorted, LocalDateTime value) {
+        if (size == 0) {
+            // порожня послiдовнiсть не має вiдрiзкiв: точка вставки будь-якого значення - 0
+            return 0;
+        }
+
+        int predicted = predict(EpochTimeline.toEpochSecond(value));
+        int from = Math.max(0, predicted - epsilon);
+        int to = Math.min(size, predicted + epsilon + 1);
+
+        int index = lowerBound(sorted, value, from, to);
+        boolean isWindowValid = (index > from || from == 0 || sorted.get(from - 1).compareTo(value) < 0)
+                && (index < to || to == size || sorted.get(to).compareTo(value) >= 0);
+        return isWindowValid ? index : lowerBound(sorted, value, 0, size);
+    }
+
+    private int predict(long key) {
+        if (segmentKeys.length == 0) {
+            return 0;
+        }
+
+        int segment = Arrays.binarySearch(segmentKeys, key);
+        if (segment < 0) {
+            segment = Math.max(0, -segment - 2);
+        }
+
+        int segmentStart = segmentStarts[segment];
+        int segmentEnd = (segment + 1 < segmentStarts.length) ? segmentStarts[segment + 1] : size;
+        double position = segmentStart + segmentSlopes[segment] * ((double) key - segmentKeys[segment]);
+        return (int) Math.max(segmentStart, Math.min(segmentEnd, Math.round(position)));
+    }
+
+    private static int lowerBound(List<LocalDateTime> sorted, LocalDateTime value, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted.get(middle).compareTo(value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int skipDuplicates(long[] keys, int index) {
+        int next = index + 1;
+        while (next < keys.length && keys[next] == keys[index]) {
+            next++;
+        }
+        return next;
+    }
+}
+
+/**
+ * Клас TimeRange - подання неперервного дiапазону вiдсортованої послiдовностi дати i часу без копiювання:
+ * лише посилання на послiдовнiсть, зсув i довжина.
+ * 
+ * <p>Межi дiапазону, найближчi значення до заданого ({@link #floor}, {@link #ceiling}) знаходяться бiнарним пошуком
+ * (або через {@link LearnedIndex}, якщо вiн побудований), тобто за {@code O(log n)} порiвнянь без перегляду даних.
+ * Гiстограма за годинами чи днями рахується одним лiнiйним проходом по дiапазону: у вiдсортованих даних
+ * значення кожного iнтервалу лежать поспiль, тому достатньо порiвнювати з межею поточного iнтервалу.</p>
+ */
+class TimeRange extends AbstractList<LocalDateTime> implements RandomAccess {
+    static final String PROPERTY = "search.range";
+    static final String BUCKET_PROPERTY = "search.range.bucket";
+    static final ChronoUnit DEFAULT_BUCKET = ChronoUnit.HOURS;
+
+    private final List<LocalDateTime> sorted;
+    private final LearnedIndex index;
+    private final int offset;
+    private final int length;
+
+    private TimeRange(List<LocalDateTime> sorted, LearnedIndex index, int offset, int length) {
+        this.sorted = sorted;
+        this.index = index;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Створює подання всiєї вiдсортованої послiдовностi.
+     * 
+     * @param sorted Вiдсортована послiдовнiсть з довiльним доступом.
+     * @param index Навчений iндекс цiєї послiдовностi або null для звичайного бiнарного пошуку.
+     * @return Подання всiєї послiдовностi.
+     */
+    static TimeRange of(List<LocalDateTime> sorted, LearnedIndex index) {
+        return new TimeRange(sorted, index, 0, sorted.size());
+    }
+
+    /**
+     * Зчитує одиницю iнтервалу гiстограми з системної властивостi {@link #BUCKET_PROPERTY}.
+     * 
+     * @return {@link ChronoUnit#MINUTES}, {@link ChronoUnit#HOURS} (типово) або {@link ChronoUnit#DAYS}.
+     */
+    static ChronoUnit bucketFromSystemProperty() {
+        return parseBucket(System.getProperty(BUCKET_PROPERTY, DEFAULT_BUCKET.name()));
+    }
+
+    /**
+     * @param value Назва одиницi iнтервалу гiстограми без урахування регiстру.
+     * @return {@link ChronoUnit#MINUTES}, {@link ChronoUnit#HOURS} або {@link ChronoUnit#DAYS}.
+     */
+    static ChronoUnit parseBucket(String value) {
+        for (ChronoUnit unit : new ChronoUnit[] { ChronoUnit.MINUTES, ChronoUnit.HOURS, ChronoUnit.DAYS }) {
+            if (unit.name().equalsIgnoreCase(value)) {
+                return unit;
+            }
+        }
+        throw new RuntimeException("Невiдомий iнтервал гiстограми: " + value);
+    }
+
+    /**
+     * @return Iндекс першого значення дiапазону у вихiднiй послiдовностi.
+     */
+    int offset() {
+        return offset;
+    }
+
+    @Override
+    public LocalDateTime get(int position) {
+        Objects.checkIndex(position, length);
+        return sorted.get(offset + position);
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Вибирає значення з пiввiдкритого iнтервалу {@code [from, to)}.
+     * 
+     * @param from Початок iнтервалу (включно).
+     * @param to Кiнець iнтервалу (не включно).
+     * @return Подання дiапазону в тiй самiй послiдовностi.
+     */
+    TimeRange between(LocalDateTime from, LocalDateTime to) {
+        int start = lowerBound(from);
+        int end = Math.max(start, lowerBound(to));
+        return new TimeRange(sorted, index, start, end - start);
+    }
+
+    /**
+     * @param value Значення.
+     * @return Найбiльше значення дiапазону, не бiльше за задане, або null, якщо такого немає.
+     */
+    LocalDateTime floor(LocalDateTime value) {
+        int position = upperBound(value);
+        return (position > offset) ? sorted.get(position - 1) : null;
+    }
+
+    /**
+     * @param value Значення.
+     * @return Найменше значення дiапазону, не менше за задане, або null, якщо такого немає.
+     */
+    LocalDateTime ceiling(LocalDateTime value) {
+        int position = lowerBound(value);
+        return (position < offset + length) ? sorted.get(position) : null;
+    }
+
+    /**
+     * Рахує значення дiапазону в кожному iнтервалi заданої тривалостi одним проходом.
+     * 
+     * @param unit Тривалiсть iнтервалу, не бiльша за добу.
+     * @return Кiлькiсть значень для кожного непорожнього iнтервалу за його початком, у порядку зростання.
+     */
+    Map<LocalDateTime, Integer> histogram(ChronoUnit unit) {
+        Map<LocalDateTime, Integer> counts = new LinkedHashMap<>();
+        int end = offset + length;
+        int position = offset;
+        while (position < end) {
+            LocalDateTime bucket = sorted.get(position).truncatedTo(unit);
+            LocalDateTime nextBucket = bucket.plus(1, unit);
+            int bucketStart = position;
+            while (position < end && sorted.get(position).isBefore(nextBucket)) {
+                position++;
+            }
+            counts.put(bucket, position - bucketStart);
+        }
+        return counts;
+    }
+
+    /**
+     * @return Iндекс у вихiднiй послiдовностi першого значення дiапазону, не меншого за задане.
+     */
+    private int lowerBound(LocalDateTime value) {
+        int position = (index != null) ? index.lowerBound(sorted, value) : search(value, false);
+        return Math.max(offset, Math.min(offset + length, position));
+    }
+
+    /**
+     * @return Iндекс у вихiднiй послiдовностi першого значення дiапазону, бiльшого за задане.
+     */
+    private int upperBound(LocalDateTime value) {
+        return search(value, true);
+    }
+
+    private int search(LocalDateTime value, boolean isStrict) {
+        int low = offset;
+        int high = offset + length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = sorted.get(middle).compareTo(value);
+            if (comparison < 0 || (isStrict && comparison == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
+
+/**
+ * Клас QueryService - резидентний сервiс, який один раз завантажує i сортує файл дати i часу та вiдповiдає
+ * на запити з stdin або через локальний сокет, не запускаючи для кожного запиту нову JVM.
+ * 
+ * <p>Протокол рядковий: один запит - один рядок вiдповiдi (поля роздiленi табуляцiєю, помилка - {@code ERROR <опис>}):</p>
+ * <ul>
+ *   <li>{@code search <дата i час>} - {@code <значення>\t<iндекс>}, iндекс -1, якщо значення не знайдено;</li>
+ *   <li>{@code minmax} - {@code <мiнiмум>\t<максимум>};</li>
+ *   <li>{@code floor <дата i час>}, {@code ceiling <дата i час>} - найближче значення не пiзнiше (не ранiше) або {@code null};</li>
+ *   <li>{@code range <початок>/<кiнець>} - {@code <зсув>\t<кiлькiсть>} значень з iнтервалу {@code [початок, кiнець)};</li>
+ *   <li>{@code histogram <початок>/<кiнець> [minutes|hours|days]} - пари {@code <iнтервал>=<кiлькiсть>} через пробiл;</li>
+ *   <li>{@code reload} - примусове перезавантаження, вiдповiдь - кiлькiсть значень;</li>
+ *   <li>{@code quit} - закриває з'єднання, {@code shutdown} - зупиняє сервiс.</li>
+ * </ul>
+ * 
+ * <p>Данi зберiгаються незмiнним знiмком {@link Snapshot}, тому запити з рiзних з'єднань виконуються без блокувань.
+ * Час змiни файлу перевiряється не частiше одного разу на {@link #RELOAD_CHECK_INTERVAL_NANOS}; якщо вiн змiнився,
+ * файл завантажується i сортується знову, i новий знiмок замiнює старий. Якщо перезавантаження не вдалося,
+ * сервiс продовжує вiдповiдати за попереднiм знiмком.</p>
+ */
+class QueryService {
+    static final String PROPERTY = "service";
+    static final String STDIN = "-";
+    static final long RELOAD_CHECK_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final String pathToFile;
+    private final SortEngine sortEngine;
+    private final boolean isLearnedIndexEnabled;
+    private volatile Snapshot snapshot;
+    private volatile long nextReloadCheck;
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * Створює сервiс i завантажує перший знiмок даних.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @param sortEngine Спосiб сортування при завантаженнi.
+     * @param isLearnedIndexEnabled Чи будувати {@link LearnedIndex} для пошуку.
+     * @throws UncheckedIOException Якщо файл не вдалося прочитати.
+     */
+    QueryService(String pathToFile, SortEngine sortEngine, boolean isLearnedIndexEnabled) {
+        this.pathToFile = pathToFile;
+        this.sortEngine = sortEngine;
+        this.isLearnedIndexEnabled = isLearnedIndexEnabled;
+        try {
+            this.snapshot = load();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.nextReloadCheck = System.nanoTime() + RELOAD_CHECK_INTERVAL_NANOS;
+    }
+
+    /**
+     * Обслуговує запити, доки не закiнчиться stdin або не надiйде команда {@code shutdown}.
+     * 
+     * @param endpoint {@link #STDIN} для stdin або номер порту на локальнiй адресi.
+     */
+    void serve(String endpoint) {
+        if (STDIN.equals(endpoint)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            serveConnection(reader, writer);
+            return;
+        }
+
+        int port;
+        try {
+            port = Integer.parseInt(endpoint);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Сервiс очiкує " + STDIN + " або номер порту: " + endpoint);
+        }
+
+        try (ServerSocket server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            serverSocket = server;
+            System.out.println("Сервiс слухає " + server.getLocalSocketAddress() + ", значень: " + snapshot.values.length);
+            while (!server.isClosed()) {
+                Socket client;
+                try {
+                    client = server.accept();
+                } catch (SocketException e) {
+                    // сокет закрито командою shutdown
+                    break;
+                }
+                Thread thread = new Thread(() -> serveClient(client), "query-service-" + client.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void serveClient(Socket client) {
+        try (Socket socket = client;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            serveConnection(reader, writer);
+        } catch (IOException e) {
+            System.err.println("Помилка з'єднання " + client.getRemoteSocketAddress() + ": " + e.getMessage());
+        }
+    }
+
+    private void serveConnection(BufferedReader reader, Writer writer) {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if ("quit".equals(line)) {
+                    break;
+                }
+                if ("shutdown".equals(line)) {
+                    shutdown();
+                    break;
+                }
+                writer.write(answer(line));
+                writer.write('\n');
+                writer.flush();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void shutdown() throws IOException {
+        ServerSocket server = serverSocket;
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * Виконує один запит протоколу.
+     * 
+     * @param line Рядок запиту.
+     * @return Рядок вiдповiдi без символу кiнця рядка.
+     */
+    String answer(String line) {
+        int space = line.indexOf(' ');
+        String command = (space < 0) ? line : line.substring(0, space);
+        String argument = (space < 0) ? "" : line.substring(space + 1).trim();
+        String operationName = "сервiс: " + command;
+
+        OperationTimer timer = OperationTimer.start();
+        try {
+            String response = execute(command, argument);
+            timer.stop(operationName);
+            return response;
+        } catch (RuntimeException | IOException e) {
+            return "ERROR " + e.getMessage();
+        }
+    }
+
+    private String execute(String command, String argument) throws IOException {
+        Snapshot current = currentSnapshot();
+        switch (command) {
+            case "search": {
+                LocalDateTime value = LocalDateTime.parse(argument, DateTimeFormatter.ISO_DATE_TIME);
+                int index = (current.index != null)
+                        ? current.index.binarySearch(current.all, value)
+                        : Arrays.binarySearch(current.values, value);
+                return value + "\t" + ((index >= 0) ? index : BatchSearch.NOT_FOUND);
+            }
+            case "minmax":
+                return current.statistics.min() + "\t" + current.statistics.max();
+            case "floor":
+                return String.valueOf(current.all.floor(LocalDateTime.parse(argument, DateTimeFormatter.ISO_DATE_TIME)));
+            case "ceiling":
+                return String.valueOf(current.all.ceiling(LocalDateTime.parse(argument, DateTimeFormatter.ISO_DATE_TIME)));
+            case "range": {
+                TimeRange range = between(current, argument);
+                return range.offset() + "\t" + range.size();
+            }
+            case "histogram": {
+                String[] parts = argument.split("\\s+");
+                if (parts.length > 2) {
+                    throw new IllegalArgumentException("Очiкується histogram <початок>/<кiнець> [minutes|hours|days]");
+                }
+                ChronoUnit bucket = (parts.length == 2) ? TimeRange.parseBucket(parts[1]) : TimeRange.DEFAULT_BUCKET;
+                StringBuilder response = new StringBuilder();
+                for (Map.Entry<LocalDateTime, Integer> entry : between(current, parts[0]).histogram(bucket).entrySet()) {
+                    if (response.length() > 0) {
+                        response.append(' ');
+                    }
+                    response.append(entry.getKey()).append('=').append(entry.getValue());
+                }
+                return response.toString();
+            }
+            case "reload":
+                synchronized (this) {
+                    snapshot = load();
+                    return String.valueOf(snapshot.values.length);
+                }
+            default:
+                throw new IllegalArgumentException("Невiдома команда: " + command);
+        }
+    }
+
+    private static TimeRange between(Snapshot current, String argument) {
+        String[] bounds = argument.split("/");
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("Дiапазон має бути у форматi <початок>/<кiнець>: " + argument);
+        }
+        return current.all.between(LocalDateTime.parse(bounds[0], DateTimeFormatter.ISO_DATE_TIME),
+                LocalDateTime.parse(bounds[1], DateTimeFormatter.ISO_DATE_TIME));
+    }
+
+    /**
+     * Повертає поточний знiмок, перед тим перезавантажуючи файл, якщо час його змiни iнший.
+     */
+    private Snapshot currentSnapshot() {
+        if (System.nanoTime() - nextReloadCheck < 0) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (System.nanoTime() - nextReloadCheck >= 0) {
+                try {
+                    if (!Files.getLastModifiedTime(Paths.get(pathToFile)).equals(snapshot.lastModified)) {
+                        snapshot = load();
+                        System.err.println("Файл " + pathToFile + " змiнено, завантажено значень: " + snapshot.values.length);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Не вдалося перезавантажити " + pathToFile + ", використовується попереднiй знiмок: " + e);
+                }
+                nextReloadCheck = System.nanoTime() + RELOAD_CHECK_INTERVAL_NANOS;
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() throws IOException {
+        OperationTimer timer = OperationTimer.start();
+
+        // час змiни зчитується до даних, щоб запис пiд час читання викликав ще одне перезавантаження
+        FileTime lastModified = Files.getLastModifiedTime(Paths.get(pathToFile));
+        ValueStatistics<LocalDateTime> statistics = new ValueStatistics<>();
+        LocalDateTime[] values;
+        try (MappedLineReader reader = new MappedLineReader(pathToFile)) {
+            values = Utils.readDateTimes(reader, Utils.estimateLineCount(pathToFile), statistics);
+        }
+        sortEngine.sort(values);
+        statistics.markSorted();
+
+        List<LocalDateTime> sorted = Arrays.asList(values);
+        LearnedIndex index = isLearnedIndexEnabled ? LearnedIndex.build(sorted) : null;
+
+        timer.stop(() -> "сервiс: завантаження i сортування " + pathToFile);
+        return new Snapshot(values, statistics, TimeRange.of(sorted, index), index, lastModified);
+    }
+
+    /**
+     * Незмiнний знiмок вiдсортованих даних.
+     */
+    private static final class Snapshot {
+        final LocalDateTime[] values;
+        final ValueStatistics<LocalDateTime> statistics;
+        final TimeRange all;
+        final LearnedIndex index;
+        final FileTime lastModified;
+
+        Snapshot(LocalDateTime[] values, ValueStatistics<LocalDateTime> statistics, TimeRange all,
+                 LearnedIndex index, FileTime lastModified) {
+            this.values = values;
+            this.statistics = statistics;
+            this.all = all;
+            this.index = index;
+            this.lastModified = lastModified;
+        }
+    }
+}
+
+/**
+ * Iнтерфейс SortedRun - вiдсортована за зростанням послiдовнiсть секунд вiд початку епохи, що читається по одному значенню.
+ */
+interface SortedRun extends Closeable {
+    /**
+     * Переходить до наступного значення.
+     * 
+     * @return true, якщо значення є; false, якщо послiдовнiсть вичерпано.
+     * @throws IOException якщо сталася помилка читання.
+     */
+    boolean advance() throws IOException;
+
+    /**
+     * @return Поточне значення (пiсля успiшного {@link #advance()}).
+     */
+    long current();
+}
+
+/**
+ * Клас ArrayRun читає вiдсортований масив у пам'ятi як {@link SortedRun}.
+ */
+class ArrayRun implements SortedRun {
+    private final long[] values;
+    private final int length;
+    private int index = -1;
+
+    ArrayRun(long[] values) {
+        this(values, values.length);
+    }
+
+    /**
+     * @param values Масив, вiдсортований у межах {@code [0, length)}.
+     * @param length Кiлькiсть значень на початку масиву.
+     */
+    ArrayRun(long[] values, int length) {
+        this.values = values;
+        this.length = length;
+    }
+
+    public boolean advance() {
+        return ++index < length;
+    }
+
+    public long current() {
+        return values[index];
+    }
+
+    public void close() {
+    }
+}
+
+/**
+ * Клас TextFileRun читає вiдсортований текстовий файл (один рядок ISO на значення) як {@link SortedRun},
+ * не завантажуючи файл у пам'ять повнiстю.
+ */
+class TextFileRun implements SortedRun {
+    private final MappedLineReader reader;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+    private long current;
+
+    TextFileRun(String pathToFile) throws IOException {
+        this.reader = new MappedLineReader(pathToFile);
+    }
+
+    public boolean advance() throws IOException {
+        if (!reader.nextLine()) {
+            return false;
+        }
+        current = reader.hasIsoLayout()
+                ? reader.epochSecond()
+                : LocalDateTime.parse(reader.line(), formatter).toEpochSecond(ZoneOffset.UTC);
+        return true;
+    }
+
+    public long current() {
+        return current;
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+}
+
+/**
+ * Клас KWayMerge зливає кiлька вiдсортованих послiдовностей в одну, також вiдсортовану.
+ * 
+ * <p>Поточнi значення послiдовностей тримаються у двiйковiй купi, тому кожне значення результату
+ * коштує O(log k) порiвнянь, а пам'ять не залежить вiд довжини послiдовностей. Серед рiвних значень
+ * першими видаються значення послiдовностi з меншим номером.</p>
+ */
+class KWayMerge implements SortedRun {
+    private final List<SortedRun> runs;
+    private final int[] heap;
+    private final long[] heads;
+    private int heapSize;
+    private int currentRun = -1;
+    private long current;
+
+    /**
+     * @param runs Вiдсортованi послiдовностi; закриваються разом зi злиттям.
+     * @throws IOException якщо не вдалося прочитати першi значення.
+     */
+    KWayMerge(List<SortedRun> runs) throws IOException {
+        this.runs = runs;
+        this.heap = new int[runs.size()];
+        this.heads = new long[runs.size()];
+        for (int run = 0; run < runs.size(); run++) {
+            if (runs.get(run).advance()) {
+                heads[run] = runs.get(run).current();
+                heap[heapSize] = run;
+                siftUp(heapSize++);
+            }
+        }
+    }
+
+    public boolean advance() throws IOException {
+        if (currentRun >= 0) {
+            // поповнити купу наступним значенням послiдовностi, з якої взято попереднє
+            if (runs.get(currentRun).advance()) {
+                heads[currentRun] = runs.get(currentRun).current();
+                heap[heapSize] = currentRun;
+                siftUp(heapSize++);
+            }
+        }
+        if (heapSize == 0) {
+            currentRun = -1;
+            return false;
+        }
+
+        currentRun = heap[0];
+        current = heads[currentRun];
+        heap[0] = heap[--heapSize];
+        siftDown(0);
+        return true;
+    }
+
+    public long current() {
+        return current;
+    }
+
+    public void close() throws IOException {
+        IOException failure = null;
+        for (SortedRun run : runs) {
+            try {
+                run.close();
+            } catch (IOException e) {
+                failure = (failure == null) ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private boolean isLess(int left, int right) {
+        return heads[left] < heads[right] || (heads[left] == heads[right] && left < right);
+    }
+
+    private void siftUp(int index) {
+        int run = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isLess(run, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = run;
+    }
+
+    private void siftDown(int index) {
+        int run = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && isLess(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!isLess(heap[child], run)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = run;
+    }
+}
+
+/**
+ * Клас BinaryRunWriter записує вiдсортовану послiдовнiсть секунд вiд початку епохи у компактному бiнарному виглядi:
+ * перше значення - у зигзаг-кодуваннi, кожне наступне - як рiзниця з попереднiм; усi числа - змiнної довжини
+ * по 7 бiтiв у байтi. Для вiдсортованих мiток часу з невеликими промiжками це 1-3 байти на значення замiсть 20 у текстi.
+ */
+class BinaryRunWriter implements Closeable {
+    private final OutputStream output;
+    private long previous;
+    private boolean isFirst = true;
+    private long bytesWritten;
+
+    BinaryRunWriter(Path path) throws IOException {
+        this.output = new BufferedOutputStream(Files.newOutputStream(path), Utils.READ_BUFFER_SIZE);
+    }
+
+    /**
+     * Записує наступне значення, не менше за попереднє.
+     */
+    void write(long value) throws IOException {
+        writeUnsigned(isFirst ? (value << 1) ^ (value >> 63) : value - previous);
+        previous = value;
+        isFirst = false;
+    }
+
+    long bytesWritten() {
+        return bytesWritten;
+    }
+
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void writeUnsigned(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+            bytesWritten++;
+        }
+        output.write((int) value);
+        bytesWritten++;
+    }
+}
+
+/**
+ * Клас BinaryFileRun читає файл, записаний {@link BinaryRunWriter}, як {@link SortedRun}.
+ */
+class BinaryFileRun implements SortedRun {
+    private final InputStream input;
+    private long current;
+    private boolean isFirst = true;
+    private long bytesRead;
+
+    BinaryFileRun(Path path) throws IOException {
+        this.input = new BufferedInputStream(Files.newInputStream(path), Utils.READ_BUFFER_SIZE);
+    }
+
+    public boolean advance() throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = input.read();
+            if (b < 0) {
+                if (shift != 0) {
+                    throw new EOFException("Обрiзаний бiнарний файл");
+                }
+                return false;
+            }
+            bytesRead++;
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        current = isFirst ? (value >>> 1) ^ -(value & 1) : current + value;
+        isFirst = false;
+        return true;
+    }
+
+    public long current() {
+        return current;
+    }
+
+    long bytesRead() {
+        return bytesRead;
+    }
+
+    public void close() throws IOException {
+        input.close();
+    }
+}
+
+/**
+ * Клас ExternalSort сортує файл мiток часу, який не вмiщується в пам'ять.
+ * 
+ * <p>Файл зчитується частинами, кожна з яких займає не бiльше заданого обсягу пам'ятi; частина сортується
+ * (паралельно, якщо так налаштовано {@link SortEngine}) i записується у тимчасовий файл {@link BinaryRunWriter}.
+ * Пiсля цього тимчасовi файли зливаються {@link KWayMerge}. Якщо їх бiльше за {@link #MAX_FAN_IN},
+ * злиття виконується в кiлька проходiв, щоб не вiдкривати забагато файлiв одночасно.</p>
+ * 
+ * <p>Бюджет пам'ятi дiлиться навпiл мiж частиною i буфером того ж розмiру, який видiляють паралельне
+ * та порозрядне сортування, тож пiковий обсяг не перевищує бюджету. Значення зберiгаються як цiлi секунди
+ * вiд початку епохи (UTC): дробова частина секунд у вхiдних рядках вiдкидається, i результат мiстить
+ * мiтки часу з точнiстю до секунди.</p>
+ */
+class ExternalSort {
+    static final int MAX_FAN_IN = 128;
+
+    private final SortEngine sortEngine;
+    private final int chunkCapacity;
+
+    private int runCount;
+    private int mergePassCount;
+    private long spilledBytes;
+    private long mergeReadBytes;
+
+    /**
+     * @param sortEngine Спосiб сортування частин.
+     * @param memoryBudgetBytes Обсяг пам'ятi для сортування однiєї частини (разом з буфером сортування) в байтах.
+     */
+    ExternalSort(SortEngine sortEngine, long memoryBudgetBytes) {
+        this.sortEngine = sortEngine;
+        // половина бюджету - частина, друга половина - буфер сортування такого ж розмiру
+        this.chunkCapacity = (int) Math.max(Utils.MIN_CAPACITY, Math.min(Utils.MAX_ARRAY_SIZE, memoryBudgetBytes / (2 * Long.BYTES)));
+    }
+
+    /**
+     * Сортує текстовий файл мiток часу у текстовий файл. Перша частина видiляється за оцiнкою кiлькостi рядкiв
+     * ({@link Utils#estimateLineCount}) i збiльшується в {@link Utils#growCapacity} лише до {@code chunkCapacity},
+     * тому малий файл не займає весь бюджет пам'ятi.
+     * 
+     * @param inputPath Шлях до файлу з даними.
+     * @param outputPath Шлях до вiдсортованого файлу.
+     * @return Кiлькiсть вiдсортованих значень.
+     * @throws IOException якщо сталася помилка читання або запису.
+     */
+    long sort(String inputPath, String outputPath) throws IOException {
+        Path temporaryDirectory = Files.createTempDirectory("external-sort");
+        List<Path> runs = new ArrayList<>();
+
+        try {
+            DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+            long[] chunk = new long[Math.min(chunkCapacity, Math.max(Utils.MIN_CAPACITY, Utils.estimateLineCount(inputPath)))];
+            int size = 0;
+            long count = 0;
+
+            try (MappedLineReader reader = new MappedLineReader(inputPath)) {
+                while (reader.nextLine()) {
+                    chunk[size++] = reader.hasIsoLayout()
+                            ? reader.epochSecond()
+                            : LocalDateTime.parse(reader.line(), formatter).toEpochSecond(ZoneOffset.UTC);
+                    count++;
+                    if (size == chunkCapacity) {
+                        sortEngine.sort(chunk, size);
+                        runs.add(spill(chunk, size, temporaryDirectory));
+                        size = 0;
+                    } else if (size == chunk.length) {
+                        // оцiнка виявилася замалою - частина росте до бюджету
+                        chunk = Arrays.copyOf(chunk, Math.min(chunkCapacity, Utils.growCapacity(chunk.length)));
+                    }
+                }
+            }
+
+            // останню неповну частину сортуємо на мiсцi, без копiювання у масив меншого розмiру
+            sortEngine.sort(chunk, size);
+
+            if (runs.isEmpty()) {
+                // усi данi вмiстилися в одну частину - тимчасовi файли не потрiбнi
+                Utils.writeSortedRun(new ArrayRun(chunk, size), Paths.get(outputPath));
+                return count;
+            }
+            if (size > 0) {
+                runs.add(spill(chunk, size, temporaryDirectory));
+            }
+            chunk = null;
+
+            while (runs.size() > MAX_FAN_IN) {
+                List<Path> merged = new ArrayList<>();
+                for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+                    List<Path> group = runs.subList(from, Math.min(runs.size(), from + MAX_FAN_IN));
+                    merged.add(mergeToRun(group, temporaryDirectory));
+                    for (Path run : group) {
+                        Files.delete(run);
+                    }
+                }
+                runs = merged;
+                mergePassCount++;
+            }
+
+            List<BinaryFileRun> readers = openRuns(runs);
+            Utils.writeSortedRun(new KWayMerge(new ArrayList<>(readers)), Paths.get(outputPath));
+            countReadBytes(readers);
+            mergePassCount++;
+            return count;
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(temporaryDirectory)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(temporaryDirectory);
+        }
+    }
+
+    /**
+     * Виводить статистику обмiну з диском останнього сортування.
+     */
+    void printStatistics() {
+        System.out.println("Зовнiшнє сортування: частин=" + runCount + " (до " + chunkCapacity + " значень), записано на диск="
+                + spilledBytes + " байт, проходiв злиття=" + mergePassCount + ", прочитано пiд час злиття=" + mergeReadBytes + " байт");
+    }
+
+    private Path spill(long[] chunk, int size, Path temporaryDirectory) throws IOException {
+        Path run = Files.createTempFile(temporaryDirectory, "run", ".bin");
+        try (BinaryRunWriter writer = new BinaryRunWriter(run)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(chunk[i]);
+            }
+            spilledBytes += writer.bytesWritten();
+        }
+        runCount++;
+        return run;
+    }
+
+    private Path mergeToRun(List<Path> group, Path temporaryDirectory) throws IOException {
+        Path run = Files.createTempFile(temporaryDirectory, "merge", ".bin");
+        List<BinaryFileRun> readers = openRuns(group);
+        try (KWayMerge merge = new KWayMerge(new ArrayList<>(readers)); BinaryRunWriter writer = new BinaryRunWriter(run)) {
+            while (merge.advance()) {
+                writer.write(merge.current());
+            }
+            spilledBytes += writer.bytesWritten();
+        }
+        countReadBytes(readers);
+        return run;
+    }
+
+    private static List<BinaryFileRun> openRuns(List<Path> runs) throws IOException {
+        List<BinaryFileRun> readers = new ArrayList<>();
+        try {
+            for (Path run : runs) {
+                readers.add(new BinaryFileRun(run));
+            }
+        } catch (IOException e) {
+            for (BinaryFileRun reader : readers) {
+                reader.close();
+            }
+            throw e;
+        }
+        return readers;
+    }
+
+    private void countReadBytes(List<BinaryFileRun> readers) {
+        for (BinaryFileRun reader : readers) {
+            mergeReadBytes += reader.bytesRead();
+        }
+    }
+}
+
+/**
+ * Клас ColumnFile - бiнарний стовпцевий формат вiдсортованих даних, що вiдкривається вiдображенням у пам'ять без розбору тексту.
+ *
+ * <p>Усi числа записуються у порядку байтiв little-endian:</p>
+ * <pre>
+ * 0   int    {@link #MAGIC}
+ * 4   short  {@link #VERSION}
+ * 6   byte   тип значень ({@link #TYPE_EPOCH_SECONDS} або {@link #TYPE_DOUBLE})
+ * 7   byte   прапорцi ({@link #FLAG_SORTED})
+ * 8   long   кiлькiсть значень
+ * 16  int    кiлькiсть значень у блоцi ({@link #BLOCK_SIZE})
+ * 20  int    кiлькiсть блокiв
+ * 24  long[] мiнiмум i максимум кожного блоку
+ * ... long[] значення (для {@code double} - бiти {@link Double#doubleToRawLongBits(double)})
+ * </pre>
+ *
+ * <p>Мiнiмуми i максимуми блокiв дають крайнi значення файлу без перегляду даних, а пошук у вiдсортованому файлi
+ * спершу вибирає блок за його максимумом i лише потiм звертається до сторiнок з самими значеннями.</p>
+ */
+final class ColumnFile {
+    static final int MAGIC = 0x4C4F4342;
+    static final short VERSION = 1;
+    static final byte TYPE_EPOCH_SECONDS = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte FLAG_SORTED = 1;
+    static final int BLOCK_SIZE = 4096;
+
+    private static final int HEADER_SIZE = 24;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Джерело значень для запису, що видає цiлий дiапазон iндексiв за один виклик.
+     */
+    @FunctionalInterface
+    interface RangeSource {
+        /**
+         * Записує значення з iндексами {@code [from, to)} у {@code target}, починаючи з позицiї 0.
+         */
+        void read(int from, int to, long[] target);
+    }
+
+    private final ByteBuffer buffer;
+    private final byte type;
+    private final boolean isSorted;
+    private final int count;
+    private final int blockCount;
+    private final int payloadOffset;
+
+    private ColumnFile(ByteBuffer buffer, byte type, boolean isSorted, int count, int blockCount) {
+        this.buffer = buffer;
+        this.type = type;
+        this.isSorted = isSorted;
+        this.count = count;
+        this.blockCount = blockCount;
+        this.payloadOffset = HEADER_SIZE + blockCount * 2 * Long.BYTES;
+    }
+
+    /**
+     * Записує масив секунд вiд початку епохи у файл.
+     *
+     * @param pathToFile Шлях до файлу для запису.
+     * @param epochSeconds Значення.
+     * @param isSorted Чи вiдсортованi значення за зростанням.
+     * @throws IOException Якщо запис не вдався.
+     */
+    static void write(String pathToFile, long[] epochSeconds, boolean isSorted) throws IOException {
+        write(pathToFile, TYPE_EPOCH_SECONDS, epochSeconds.length,
+                (from, to, target) -> System.arraycopy(epochSeconds, from, target, 0, to - from), isSorted);
+    }
+
+    /**
+     * Записує секунди вiд початку епохи з довiльного джерела у файл без копiювання їх у масив.
+     *
+     * @param pathToFile Шлях до файлу для запису.
+     * @param count Кiлькiсть значень.
+     * @param epochSeconds Значення за iндексом.
+     * @param isSorted Чи вiдсортованi значення за зростанням.
+     * @throws IOException Якщо запис не вдався.
+     */
+    static void writeEpochSeconds(String pathToFile, int count, IntToLongFunction epochSeconds, boolean isSorted) throws IOException {
+        write(pathToFile, TYPE_EPOCH_SECONDS, count, byIndex(epochSeconds), isSorted);
+    }
+
+    /**
+     * Записує секунди вiд початку епохи з джерела, що розпаковує значення дiапазонами (наприклад, стиснених
+     * {@link PackedTimeline}), без копiювання їх у масив: джерело читається блоками по {@link #BLOCK_SIZE} значень.
+     *
+     * @param pathToFile Шлях до файлу для запису.
+     * @param count Кiлькiсть значень.
+     * @param epochSeconds Значення дiапазонами iндексiв.
+     * @param isSorted Чи вiдсортованi значення за зростанням.
+     * @throws IOException Якщо запис не вдався.
+     */
+    static void writeEpochSeconds(String pathToFile, int count, RangeSource epochSeconds, boolean isSorted) throws IOException {
+        write(pathToFile, TYPE_EPOCH_SECONDS, count, epochSeconds, isSorted);
+    }
+
+    /**
+     * Записує масив чисел з рухомою комою у файл.
+     *
+     * @param pathToFile Шлях до файлу для запису.
+     * @param values Значення.
+     * @param isSorted Чи вiдсортованi значення за зростанням.
+     * @throws IOException Якщо запис не вдався.
+     */
+    static void write(String pathToFile, double[] values, boolean isSorted) throws IOException {
+        write(pathToFile, TYPE_DOUBLE, values.length, byIndex(index -> Double.doubleToRawLongBits(values[index])), isSorted);
+    }
+
+    private static RangeSource byIndex(IntToLongFunction values) {
+        return (from, to, target) -> {
+            for (int i = from; i < to; i++) {
+                target[i - from] = values.applyAsLong(i);
+            }
+        };
+    }
+
+    private static void write(String pathToFile, byte type, int count, RangeSource values, boolean isSorted) throws IOException {
+        int blockCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[] blockValues = new long[BLOCK_SIZE];
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + blockCount * 2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).put(type).put(isSorted ? FLAG_SORTED : 0)
+                .putLong(count).putInt(BLOCK_SIZE).putInt(blockCount);
+        for (int block = 0; block < blockCount; block++) {
+            int from = block * BLOCK_SIZE;
+            int length = Math.min(count, from + BLOCK_SIZE) - from;
+            values.read(from, from + length, blockValues);
+            long min = blockValues[0];
+            long max = min;
+            for (int i = 1; i < length; i++) {
+                long value = blockValues[i];
+                if (compare(type, value, min) < 0) {
+                    min = value;
+                }
+                if (compare(type, value, max) > 0) {
+                    max = value;
+                }
+            }
+            header.putLong(min).putLong(max);
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            ByteBuffer payload = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (int from = 0; from < count; from += BLOCK_SIZE) {
+                int length = Math.min(count, from + BLOCK_SIZE) - from;
+                values.read(from, from + length, blockValues);
+                for (int i = 0; i < length; i++) {
+                    if (!payload.hasRemaining()) {
+                        drain(channel, payload);
+                    }
+                    payload.putLong(blockValues[i]);
+                }
+            }
+            drain(channel, payload);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer payload) throws IOException {
+        payload.flip();
+        while (payload.hasRemaining()) {
+            channel.write(payload);
+        }
+        payload.clear();
+    }
+
+    /**
+     * Вiдкриває файл вiдображенням у пам'ять. Значення не зчитуються: сторiнки завантажуються операцiйною
+     * системою лише пiд час звернення до них.
+     *
+     * @param pathToFile Шлях до файлу.
+     * @return Вiдкритий стовпець.
+     * @throws IOException Якщо файл вiдсутнiй, пошкоджений або завеликий для одного вiдображення.
+     */
+    static ColumnFile open(String pathToFile) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Файл завеликий для одного вiдображення: " + pathToFile);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Файл не є бiнарним стовпцем: " + pathToFile);
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Непiдтримувана версiя бiнарного стовпця " + buffer.getShort(4) + ": " + pathToFile);
+        }
+
+        byte type = buffer.get(6);
+        boolean isSorted = (buffer.get(7) & FLAG_SORTED) != 0;
+        long count = buffer.getLong(8);
+        int blockSize = buffer.getInt(16);
+        int blockCount = buffer.getInt(20);
+        long expectedSize = HEADER_SIZE + (long) blockCount * 2 * Long.BYTES + count * Long.BYTES;
+        if ((type != TYPE_EPOCH_SECONDS && type != TYPE_DOUBLE) || blockSize != BLOCK_SIZE
+                || blockCount != (count + BLOCK_SIZE - 1) / BLOCK_SIZE || expectedSize != buffer.capacity()) {
+            throw new IOException("Пошкоджений заголовок бiнарного стовпця: " + pathToFile);
+        }
+        return new ColumnFile(buffer, type, isSorted, (int) count, blockCount);
+    }
+
+    byte type() {
+        return type;
+    }
+
+    boolean isSorted() {
+        return isSorted;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @param index Iндекс значення.
+     * @return Значення типу {@link #TYPE_EPOCH_SECONDS} за iндексом.
+     */
+    long getLong(int index) {
+        return buffer.getLong(payloadOffset + index * Long.BYTES);
+    }
+
+    /**
+     * @param index Iндекс значення.
+     * @return Значення типу {@link #TYPE_DOUBLE} за iндексом.
+     */
+    double getDouble(int index) {
+        return Double.longBitsToDouble(getLong(index));
+    }
+
+    /**
+     * @return Мiнiмальне значення (бiти значення для {@link #TYPE_DOUBLE}) за таблицею блокiв.
+     */
+    long minBits() {
+        long min = blockMin(0);
+        for (int block = 1; block < blockCount; block++) {
+            if (compare(type, blockMin(block), min) < 0) {
+                min = blockMin(block);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @return Максимальне значення (бiти значення для {@link #TYPE_DOUBLE}) за таблицею блокiв.
+     */
+    long maxBits() {
+        long max = blockMax(0);
+        for (int block = 1; block < blockCount; block++) {
+            if (compare(type, blockMax(block), max) > 0) {
+                max = blockMax(block);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Виконує бiнарний пошук у вiдсортованому файлi.
+     *
+     * @param key Значення для пошуку (бiти значення для {@link #TYPE_DOUBLE}).
+     * @return Iндекс знайденого значення або {@code -(точка вставки) - 1}, як у {@link Arrays#binarySearch(long[], long)}.
+     * @throws IllegalStateException Якщо файл не вiдсортований.
+     */
+    int binarySearch(long key) {
+        if (!isSorted) {
+            throw new IllegalStateException("Бiнарний пошук можливий лише у вiдсортованому стовпцi");
+        }
+
+        // перший блок, максимум якого не менший за ключ - лише в ньому може бути перше входження
+        int lowBlock = 0;
+        int highBlock = blockCount;
+        while (lowBlock < highBlock) {
+            int middle = (lowBlock + highBlock) >>> 1;
+            if (compare(type, blockMax(middle), key) < 0) {
+                lowBlock = middle + 1;
+            } else {
+                highBlock = middle;
+            }
+        }
+        if (lowBlock == blockCount) {
+            return -count - 1;
+        }
+
+        int low = lowBlock * BLOCK_SIZE;
+        int high = Math.min(count, low + BLOCK_SIZE) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(type, getLong(middle), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    private long blockMin(int block) {
+        return buffer.getLong(HEADER_SIZE + block * 2 * Long.BYTES);
+    }
+
+    private long blockMax(int block) {
+        return buffer.getLong(HEADER_SIZE + block * 2 * Long.BYTES + Long.BYTES);
+    }
+
+    private static int compare(byte type, long left, long right) {
+        return (type == TYPE_DOUBLE)
+                ? Double.compare(Double.longBitsToDouble(left), Double.longBitsToDouble(right))
+                : Long.compare(left, right);
+    }
+}
+
+/**
+ * Клас ParallelFileLoader зчитує файл мiток часу паралельно на всiх ядрах.
+ * 
+ * <p>Файл дiлиться на дiлянки байтiв, межi яких зсуваються до початку наступного рядка, тож кожен рядок
+ * належить рiвно однiй дiлянцi. Кожна дiлянка розбирається окремою задачею спiльного пулу fork-join
+ * у власний масив через {@link MappedLineReader}, пiсля чого масиви об'єднуються у вихiдному порядку рядкiв.
+ * Якщо данi все одно будуть сортуватися, кожна задача ще й сортує свою частину, а частини зливаються
+ * {@link KWayMerge} замiсть простого об'єднання.</p>
+ */
+class ParallelFileLoader {
+    static final String PROPERTY = "load.parallel";
+    static final String MODE_CONCAT = "concat";
+    static final String MODE_SORTED = "sorted";
+
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Зчитує файл у часову шкалу.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @param isSortRequested Чи сортувати частини i зливати їх у вiдсортовану шкалу.
+     * @return Часова шкала.
+     */
+    static EpochTimeline readTimeline(String pathToFile, boolean isSortRequested) {
+        OperationTimer timer = OperationTimer.start();
+
+        long[][] chunks = parseChunks(pathToFile, long[][]::new, reader -> {
+            long[] chunk = Utils.readEpochSeconds(reader, Utils.MIN_CAPACITY);
+            if (isSortRequested) {
+                Arrays.sort(chunk);
+            }
+            return chunk;
+        });
+
+        int count = 0;
+        for (long[] chunk : chunks) {
+            count += chunk.length;
+        }
+        long[] epochSeconds = new long[count];
+
+        if (isSortRequested) {
+            List<SortedRun> runs = new ArrayList<>();
+            for (long[] chunk : chunks) {
+                runs.add(new ArrayRun(chunk));
+            }
+            try (KWayMerge merge = new KWayMerge(runs)) {
+                for (int i = 0; merge.advance(); i++) {
+                    epochSeconds[i] = merge.current();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            int offset = 0;
+            for (long[] chunk : chunks) {
+                System.arraycopy(chunk, 0, epochSeconds, offset, chunk.length);
+                offset += chunk.length;
+            }
+        }
+
+        Utils.printLoadReport(timer, () -> pathToFile + " (" + chunks.length + " частин паралельно)", count);
+        return new EpochTimeline(epochSeconds, isSortRequested);
+    }
+
+    /**
+     * Зчитує файл у масив об'єктiв LocalDateTime у порядку рядкiв файлу.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @param statistics Статистика, в яку додається кожне зчитане значення.
+     * @return Масив об'єктiв LocalDateTime.
+     */
+    static LocalDateTime[] readArray(String pathToFile, ValueStatistics<LocalDateTime> statistics) {
+        OperationTimer timer = OperationTimer.start();
+
+        DateTimeChunk[] chunks = parseChunks(pathToFile, DateTimeChunk[]::new, reader -> {
+            ValueStatistics<LocalDateTime> chunkStatistics = new ValueStatistics<>();
+            return new DateTimeChunk(Utils.readDateTimes(reader, Utils.MIN_CAPACITY, chunkStatistics), chunkStatistics);
+        });
+
+        int count = 0;
+        for (DateTimeChunk chunk : chunks) {
+            count += chunk.values.length;
+        }
+        LocalDateTime[] dateTimeArray = new LocalDateTime[count];
+        int offset = 0;
+        for (DateTimeChunk chunk : chunks) {
+            System.arraycopy(chunk.values, 0, dateTimeArray, offset, chunk.values.length);
+            offset += chunk.values.length;
+            // частини об'єднуються в порядку файлу, тому їхня статистика поєднується в тому ж порядку
+            statistics.combine(chunk.statistics);
+        }
+
+        Utils.printLoadReport(timer, () -> pathToFile + " (" + chunks.length + " частин паралельно)", count);
+        return dateTimeArray;
+    }
+
+    /**
+     * Дiлить файл на дiлянки, межi яких збiгаються з початками рядкiв.
+     * 
+     * @param pathToFile Шлях до файлу.
+     * @param maxChunkCount Найбiльша кiлькiсть дiлянок.
+     * @return Позицiї меж: дiлянка {@code i} займає байти вiд {@code bounds[i]} до {@code bounds[i + 1]}.
+     * @throws IOException якщо сталася помилка читання.
+     */
+    static long[] splitAtLines(String pathToFile, int maxChunkCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunkCount = (int) Math.max(1, Math.min(maxChunkCount, size / MIN_CHUNK_SIZE));
+
+            long[] bounds = new long[chunkCount + 1];
+            int boundCount = 1;
+            ByteBuffer scratch = ByteBuffer.allocate(4096);
+            for (int i = 1; i < chunkCount; i++) {
+                long bound = nextLineStart(channel, Math.max(bounds[boundCount - 1], size / chunkCount * i), scratch);
+                if (bound > bounds[boundCount - 1] && bound < size) {
+                    bounds[boundCount++] = bound;
+                }
+            }
+            bounds[boundCount++] = size;
+            return Arrays.copyOf(bounds, boundCount);
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer scratch) throws IOException {
+        // рядок, що починається рiвно на позицiї, лишається цiлим, тому перевiряється й попереднiй байт
+        long current = Math.max(0, position - 1);
+        while (true) {
+            scratch.clear();
+            int read = channel.read(scratch, current);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (scratch.get(i) == '\n') {
+                    return current + i + 1;
+                }
+            }
+            current += read;
+        }
+    }
+
+    /**
+     * Значення однiєї дiлянки файлу разом з їхньою статистикою, накопиченою пiд час розбору.
+     */
+    private static final class DateTimeChunk {
+        final LocalDateTime[] values;
+        final ValueStatistics<LocalDateTime> statistics;
+
+        DateTimeChunk(LocalDateTime[] values, ValueStatistics<LocalDateTime> statistics) {
+            this.values = values;
+            this.statistics = statistics;
+        }
+    }
+
+    /**
+     * Iнтерфейс ChunkParser розбирає одну дiлянку файлу.
+     */
+    interface ChunkParser<T> {
+        T parse(MappedLineReader reader) throws IOException;
+    }
+
+    private static <T> T[] parseChunks(String pathToFile, IntFunction<T[]> arrayFactory, ChunkParser<T> parser) {
+        try {
+            long[] bounds = splitAtLines(pathToFile, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD);
+            return IntStream.range(0, bounds.length - 1).parallel().mapToObj(chunk -> {
+                try (MappedLineReader reader = new MappedLineReader(pathToFile, bounds[chunk], bounds[chunk + 1])) {
+                    return parser.parse(reader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toArray(arrayFactory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
+
+/**
+ * Клас MappedLineReader зчитує рядки файлу через вiдображений у пам'ять {@link MappedByteBuffer}
+ * та декодує мiтки часу фiксованого формату ISO безпосередньо з байтiв, без створення промiжних рядкiв.
+ * 
+ * <p>Пiдтримуються формати {@code yyyy-MM-ddTHH:mm:ss} та {@code yyyy-MM-ddTHH:mm} (у тому числi з суфiксом {@code Z}),
+ * якi зустрiчаються у вхiдних файлах та у вiдсортованому виводi. Для iнших рядкiв {@link #hasIsoLayout()}
+ * повертає false, i рядок слiд розбирати повiльним форматером через {@link #line()}.</p>
+ * 
+ * <p>Великi файли вiдображаються вiкнами по {@link #WINDOW_SIZE} байт, тому розмiр файлу не обмежений 2 ГБ.</p>
+ */
+class MappedLineReader implements Closeable {
+    static final int WINDOW_SIZE = 1 << 28;
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private final FileChannel channel;
+    private final long endPosition;
+
+    private MappedByteBuffer buffer;
+    private long windowStart;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+
+    /**
+     * Вiдкриває файл та вiдображає перше вiкно в пам'ять.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @throws IOException якщо файл не вдалося вiдкрити.
+     */
+    MappedLineReader(String pathToFile) throws IOException {
+        this(pathToFile, 0, -1);
+    }
+
+    /**
+     * Вiдкриває частину файлу з байта {@code start} до байта {@code end}. Межi мають збiгатися з початками рядкiв
+     * (див. {@link ParallelFileLoader#splitAtLines}), щоб кожен рядок потрапив рiвно в одну частину.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @param start Позицiя першого байта частини.
+     * @param end Позицiя пiсля останнього байта частини або -1 для кiнця файлу.
+     * @throws IOException якщо файл не вдалося вiдкрити.
+     */
+    MappedLineReader(String pathToFile, long start, long end) throws IOException {
+        this.channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ);
+        this.endPosition = (end < 0) ? channel.size() : end;
+        map(start);
+    }
+
+    /**
+     * Переходить до наступного рядка файлу.
+     * 
+     * @return true, якщо рядок зчитано; false, якщо досягнуто кiнця файлу.
+     * @throws IOException якщо рядок довший за вiкно вiдображення або сталася помилка читання.
+     */
+    boolean nextLine() throws IOException {
+        while (true) {
+            int limit = buffer.limit();
+            boolean isLastWindow = windowStart + limit >= endPosition;
+
+            if (position >= limit) {
+                if (isLastWindow) {
+                    return false;
+                }
+                map(windowStart + limit);
+                continue;
+            }
+
+            int end = position;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+
+            if (end == limit && !isLastWindow) {
+                if (position == 0) {
+                    throw new IOException("Рядок довший за " + WINDOW_SIZE + " байт");
+                }
+                // рядок перетинає межу вiкна - вiдображаємо нове вiкно з його початку
+                map(windowStart + position);
+                continue;
+            }
+
+            lineStart = position;
+            lineEnd = (end > position && buffer.get(end - 1) == '\r') ? end - 1 : end;
+            position = end + 1;
+            return true;
+        }
+    }
+
+    /**
+     * Перевiряє, чи має поточний рядок фiксований формат ISO, який декодує {@link #epochSecond()}.
+     * 
+     * @return true, якщо рядок можна декодувати без форматера.
+     */
+    boolean hasIsoLayout() {
+        int length = lineEnd - lineStart;
+        if (length > 0 && buffer.get(lineEnd - 1) == 'Z') {
+            length--;
+        }
+        if (length != 16 && length != 19) {
+            return false;
+        }
+        if (!isDigits(0, 4) || buffer.get(lineStart + 4) != '-' || !isDigits(5, 2) || buffer.get(lineStart + 7) != '-'
+                || !isDigits(8, 2) || buffer.get(lineStart + 10) != 'T' || !isDigits(11, 2)
+                || buffer.get(lineStart + 13) != ':' || !isDigits(14, 2)) {
+            return false;
+        }
+        if (length == 19 && (buffer.get(lineStart + 16) != ':' || !isDigits(17, 2))) {
+            return false;
+        }
+
+        int year = number(0, 4);
+        int month = number(5, 2);
+        int day = number(8, 2);
+        return month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)
+                && number(11, 2) < 24 && number(14, 2) < 60 && (length == 16 || number(17, 2) < 60);
+    }
+
+    /**
+     * Декодує поточний рядок у кiлькiсть секунд вiд початку епохи (UTC).
+     * Викликати лише пiсля того, як {@link #hasIsoLayout()} повернув true.
+     * 
+     * @return Кiлькiсть секунд вiд 1970-01-01T00:00:00.
+     */
+    long epochSecond() {
+        int year = number(0, 4);
+        int month = number(5, 2);
+        int day = number(8, 2);
+        int hour = number(11, 2);
+        int minute = number(14, 2);
+        boolean hasSeconds = lineEnd - lineStart >= 19 && buffer.get(lineStart + 16) == ':';
+        int second = hasSeconds ? number(17, 2) : 0;
+
+        return epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+    }
+
+    /**
+     * Повертає поточний рядок як String для розбору повiльним форматером.
+     * 
+     * @return Поточний рядок.
+     */
+    String line() {
+        byte[] bytes = new byte[lineEnd - lineStart];
+        buffer.get(lineStart, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Обчислює номер дня вiд 1970-01-01 для дати пролептичного григорiанського календаря.
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = (month <= 2) ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        boolean isLeap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+        return (month == 2 && isLeap) ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    private boolean isDigits(int offset, int count) {
+        for (int i = lineStart + offset; i < lineStart + offset + count; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int number(int offset, int count) {
+        int value = 0;
+        for (int i = lineStart + offset; i < lineStart + offset + count; i++) {
+            value = value * 10 + (buffer.get(i) - '0');
+        }
+        return value;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        position = 0;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, endPosition - start));
     }
 }
\ No newline at end of file
@@ -1,14 +1,48 @@
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
+import java.io.Closeable;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.Queue;
+import java.util.AbstractQueue;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * Клас BasicDataOperationUsingQueue надає методи для виконання основних операцiй з даними типу LocalDateTime.
@@ -19,6 +53,7 @@ import java.util.PriorityQueue;
  * <ul>
  *   <li>{@link #main(String[])} - Точка входу в програму.</li>
  *   <li>{@link #doDataOperation()} - Виконує основнi операцiї з даними.</li>
+ *   <li>{@link #doBatchSearch()} - Виконує пакетний пошук запитiв з файлу або stdin.</li>
  *   <li>{@link #sortArray()} - Сортує масив LocalDateTime.</li>
  *   <li>{@link #searchArray()} - Виконує пошук значення в масивi LocalDateTime.</li>
  *   <li>{@link #findMinAndMaxInArray()} - Знаходить мiнiмальне та максимальне значення в масивi LocalDateTime.</li>
@@ -35,13 +70,24 @@ import java.util.PriorityQueue;
  * <p>Константи:</p>
  * <ul>
  *   <li>{@link #PATH_TO_DATA_FILE} - Шлях до файлу з даними.</li>
+ *   <li>{@link #BATCH_SEARCH_PROPERTY} - Системна властивiсть з файлом запитiв (або {@code -} для stdin) для пакетного пошуку.</li>
+ *   <li>{@link #QUEUE_STRUCTURE_PROPERTY} - Системна властивiсть, що обирає структуру черги (heap, deque або concurrent).</li>
+ *   <li>{@link #QUEUE_BENCHMARK_PROPERTY} - Системна властивiсть, що запускає порiвняння структур черги на даних заданого розмiру.</li>
+ *   <li>{@link #QUEUE_CONCURRENT_BENCHMARK_PROPERTY} - Системна властивiсть, що запускає вимiрювання пропускної здатностi
+ *       потокобезпечних черг з {@link #QUEUE_THREADS_PROPERTY} виробникiв i стiлькома ж споживачами.</li>
+ *   <li>{@link SortEngine#PROPERTY} - Системна властивiсть, що обирає спосiб сортування.</li>
+ *   <li>{@link StreamingTopK#PROPERTY} - Системна властивiсть з файлом (або {@code -} для stdin), в якому шукаються
+ *       {@link StreamingTopK#K_PROPERTY} найранiших i найпiзнiших значень без побудови черги.</li>
+ *   <li>{@link BlockedBloomFilter#PROPERTY} - Системна властивiсть з часткою хибнопозитивних вiдповiдей фiльтра Блума перед пошуком у черзi.</li>
  * </ul>
  * 
  * <p>Змiннi екземпляра:</p>
  * <ul>
  *   <li>{@link #dateTimeValueToSearch} - Значення LocalDateTime для пошуку.</li>
  *   <li>{@link #dateTimeArray} - Масив LocalDateTime.</li>
- *   <li>{@link #dateTimeQueue} - Черга LocalDateTime.</li>
+ *   <li>{@link #dateTimeArrayStatistics} - Мiнiмум, максимум i ознака впорядкованостi масиву LocalDateTime.</li>
+ *   <li>{@link #dateTimeQueue} - Черга LocalDateTime, що повертає мiнiмум i максимум за сталий час.</li>
+ *   <li>{@link #dateTimeFilter} - Фiльтр Блума елементiв черги (лише з {@link BlockedBloomFilter#PROPERTY}).</li>
  * </ul>
  * 
  * <p>Приклад використання:</p>
@@ -50,17 +96,113 @@ import java.util.PriorityQueue;
  * java BasicDataOperationUsingQueue "2024-03-16T00:12:38Z"
  * }
  * </pre>
+ * 
+ * <p>Вибiр способу сортування масиву (sequential, parallel або radix, див. {@link SortEngine}):</p>
+ * <pre>
+ * {@code
+ * java -Dsort.engine=parallel BasicDataOperationUsingQueue "2024-03-16T00:12:38Z"
+ * }
+ * </pre>
+ * 
+ * <p>Двостороння черга з пошуком за O(log n) та порiвняння її з {@link PriorityQueue} на мiльйонi елементiв:</p>
+ * <pre>
+ * {@code
+ * java -Dqueue.structure=deque BasicDataOperationUsingQueue "2024-03-16T00:12:38Z"
+ * java -Dqueue.benchmark=1000000 BasicDataOperationUsingQueue
+ * }
+ * </pre>
+ * 
+ * <p>Потокобезпечна черга без блокувань {@link ConcurrentPriorityQueue}, до якої можуть одночасно додавати
+ * i з якої можуть вилучати та читати багато потокiв, i вимiрювання її пропускної здатностi
+ * порiвняно з {@link PriorityBlockingQueue} (4 виробники, 4 споживачi та потiк-читач):</p>
+ * <pre>
+ * {@code
+ * java -Dqueue.structure=concurrent BasicDataOperationUsingQueue "2024-03-16T00:12:38Z"
+ * java -Dqueue.concurrent.benchmark=1000000 -Dqueue.threads=4 BasicDataOperationUsingQueue
+ * }
+ * </pre>
+ * 
+ * <p>Фiльтр Блума з часткою хибнопозитивних вiдповiдей 1%: вiдсутнi значення вiдхиляються ним за одне звернення
+ * до пам'ятi замiсть перегляду всiєї черги {@code contains}, а пiсля пошуку виводяться лiчильники фiльтра.
+ * Разом з {@code queue.benchmark} перевiрки належностi вимiрюються ще й через фiльтр:</p>
+ * <pre>
+ * {@code
+ * java -Dsearch.bloom=0.01 BasicDataOperationUsingQueue "2024-03-16T00:12:38Z"
+ * java -Dsearch.bloom=0.01 -Dqueue.benchmark=100000 BasicDataOperationUsingQueue
+ * }
+ * </pre>
+ * 
+ * <p>Потоковий пошук K найранiших i K найпiзнiших значень: зберiгаються лише двi купи по K елементiв, тому пам'ять
+ * не залежить вiд розмiру входу. Файл розбирається частинами в {@code queue.threads} потоках, частковi результати
+ * об'єднуються; stdin читається по рядку (див. {@link StreamingTopK}):</p>
+ * <pre>
+ * {@code
+ * java -Dqueue.top=list/LocalDateTime.data -Dqueue.top.k=5 -Dqueue.threads=4 BasicDataOperationUsingQueue
+ * cat list/LocalDateTime.data | java -Dqueue.top=- BasicDataOperationUsingQueue
+ * }
+ * </pre>
+ * 
+ * <p>Пакетний пошук: запити зчитуються з файлу (або stdin для {@code -}), сортуються i знаходяться
+ * за один прохiд по вiдсортованому масиву; для кожного запиту виводиться рядок {@code <запит>\t<iндекс>},
+ * де iндекс дорiвнює -1, якщо значення не знайдено:</p>
+ * <pre>
+ * {@code
+ * java -Dsearch.batch=queries.data BasicDataOperationUsingQueue
+ * }
+ * </pre>
  */
 public class BasicDataOperationUsingQueue {
     static final String PATH_TO_DATA_FILE = "list/LocalDateTime.data";
+    static final String BATCH_SEARCH_PROPERTY = "search.batch";
+    static final String QUEUE_STRUCTURE_PROPERTY = "queue.structure";
+    static final String QUEUE_STRUCTURE_HEAP = "heap";
+    static final String QUEUE_STRUCTURE_DEQUE = "deque";
+    static final String QUEUE_STRUCTURE_CONCURRENT = "concurrent";
+    static final String QUEUE_STRUCTURE_BLOCKING = "blocking";
+    static final String QUEUE_BENCHMARK_PROPERTY = "queue.benchmark";
+    static final int QUEUE_BENCHMARK_ITERATIONS = 10;
+    static final int QUEUE_BENCHMARK_QUERIES = 1000;
+    static final String QUEUE_CONCURRENT_BENCHMARK_PROPERTY = "queue.concurrent.benchmark";
+    static final String QUEUE_THREADS_PROPERTY = "queue.threads";
 
     LocalDateTime dateTimeValueToSearch;
     LocalDateTime[] dateTimeArray;
-    Queue<LocalDateTime> dateTimeQueue;
+    ValueStatistics<LocalDateTime> dateTimeArrayStatistics;
+    MinMaxQueue<LocalDateTime> dateTimeQueue;
+    BlockedBloomFilter dateTimeFilter;
+    SortEngine sortEngine;
 
     public static void main(String[] args) {  
+        Integer benchmarkSize = Integer.getInteger(QUEUE_BENCHMARK_PROPERTY);
+        if (benchmarkSize != null) {
+            compareQueueStructures(benchmarkSize);
+            OperationMetrics.report();
+            return;
+        }
+
+        Integer concurrentBenchmarkSize = Integer.getInteger(QUEUE_CONCURRENT_BENCHMARK_PROPERTY);
+        if (concurrentBenchmarkSize != null) {
+            benchmarkConcurrentQueues(concurrentBenchmarkSize,
+                    Integer.getInteger(QUEUE_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+            OperationMetrics.report();
+            return;
+        }
+
+        String topSource = System.getProperty(StreamingTopK.PROPERTY);
+        if (topSource != null) {
+            doTopK(topSource, Integer.getInteger(StreamingTopK.K_PROPERTY, StreamingTopK.DEFAULT_K),
+                    Integer.getInteger(QUEUE_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+            OperationMetrics.report();
+            return;
+        }
+
         BasicDataOperationUsingQueue basicDataOperationUsingQueue = new BasicDataOperationUsingQueue(args);
-        basicDataOperationUsingQueue.doDataOperation();
+        if (System.getProperty(BATCH_SEARCH_PROPERTY) != null) {
+            basicDataOperationUsingQueue.doBatchSearch();
+        } else {
+            basicDataOperationUsingQueue.doDataOperation();
+        }
+        OperationMetrics.report();
     }
 
     /**
@@ -69,16 +211,66 @@ public class BasicDataOperationUsingQueue {
      * @param args Аргументи командного рядка, де перший аргумент - значення для пошуку.
      */
     BasicDataOperationUsingQueue(String[] args) {
-        if (args.length == 0) {
+        if (args.length == 0 && System.getProperty(BATCH_SEARCH_PROPERTY) == null) {
             throw new RuntimeException("Вiдсутнє значення для пошуку");
         }
 
-        String valueToSearch = args[0];
-        this.dateTimeValueToSearch = LocalDateTime.parse(valueToSearch, DateTimeFormatter.ISO_DATE_TIME);
+        if (args.length > 0) {
+            String valueToSearch = args[0];
+            this.dateTimeValueToSearch = LocalDateTime.parse(valueToSearch, DateTimeFormatter.ISO_DATE_TIME);
+        }
+
+        sortEngine = SortEngine.fromSystemProperty();
+
+        dateTimeArrayStatistics = new ValueStatistics<>();
+        dateTimeArray = Utils.readArrayFromFile(PATH_TO_DATA_FILE, dateTimeArrayStatistics);
+
+        dateTimeQueue = createQueue(System.getProperty(QUEUE_STRUCTURE_PROPERTY, QUEUE_STRUCTURE_HEAP),
+                dateTimeArray, dateTimeArrayStatistics);
+
+        Double falsePositiveRate = BlockedBloomFilter.rateFromSystemProperty();
+        if (falsePositiveRate != null) {
+            OperationTimer timer = OperationTimer.start();
+            dateTimeFilter = createFilter(dateTimeArray, falsePositiveRate);
+            timer.stop("побудова фiльтра Блума");
+        }
+    }
 
-        dateTimeArray = Utils.readArrayFromFile(PATH_TO_DATA_FILE);
+    /**
+     * Будує фiльтр Блума елементiв черги за хешами {@link BlockedBloomFilter#hash(LocalDateTime)}.
+     * 
+     * @param values Елементи черги.
+     * @param falsePositiveRate Бажана частка хибнопозитивних вiдповiдей.
+     * @return Фiльтр з усiма елементами.
+     */
+    static BlockedBloomFilter createFilter(LocalDateTime[] values, double falsePositiveRate) {
+        BlockedBloomFilter filter = new BlockedBloomFilter(values.length, falsePositiveRate);
+        for (LocalDateTime value : values) {
+            filter.add(BlockedBloomFilter.hash(value));
+        }
+        return filter;
+    }
 
-        dateTimeQueue = new PriorityQueue<>(Arrays.asList(dateTimeArray));
+    /**
+     * Створює чергу дати i часу обраної структури.
+     * 
+     * @param structure {@link #QUEUE_STRUCTURE_HEAP} - двiйкова купа {@link PriorityQueue};
+     *                  {@link #QUEUE_STRUCTURE_DEQUE} - двостороння черга {@link DoubleEndedPriorityQueue};
+     *                  {@link #QUEUE_STRUCTURE_CONCURRENT} - потокобезпечна черга {@link ConcurrentPriorityQueue}.
+     * @param values Елементи черги.
+     * @param statistics Статистика елементiв.
+     * @return Черга дати i часу.
+     */
+    static MinMaxQueue<LocalDateTime> createQueue(String structure, LocalDateTime[] values,
+                                                  ValueStatistics<LocalDateTime> statistics) {
+        if (QUEUE_STRUCTURE_HEAP.equals(structure)) {
+            return new StatisticsPriorityQueue<>(values, statistics);
+        } else if (QUEUE_STRUCTURE_DEQUE.equals(structure)) {
+            return new DoubleEndedPriorityQueue<>(values);
+        } else if (QUEUE_STRUCTURE_CONCURRENT.equals(structure)) {
+            return new ConcurrentPriorityQueue<>(values);
+        }
+        throw new RuntimeException("Невiдома структура черги: " + structure);
     }
 
     /**
@@ -105,23 +297,43 @@ public class BasicDataOperationUsingQueue {
         Utils.writeArrayToFile(dateTimeArray, PATH_TO_DATA_FILE + ".sorted");
     }
 
+    /**
+     * Виконує пакетний пошук: сортує масив i запити, знаходить усi запити за один прохiд злиттям
+     * та виводить результати у порядку зростання запитiв.
+     */
+    void doBatchSearch() {
+        sortArray();
+
+        LocalDateTime[] queries = Utils.readQueries(System.getProperty(BATCH_SEARCH_PROPERTY));
+        sortEngine.sort(queries);
+
+        OperationTimer timer = OperationTimer.start();
+
+        int[] results = BatchSearch.search(dateTimeArray, queries);
+
+        timer.stop(() -> "пакетний пошук " + queries.length + " значень");
+
+        Utils.writeBatchResults(queries, results);
+    }
+
     /**
      * Сортує масив об'єктiв LocalDateTime та виводить початковий i вiдсортований масиви.
-     * Вимiрює та виводить час, витрачений на сортування масиву в наносекундах.
+     * Вимiрює час, витрачений на сортування масиву в наносекундах, i записує його в {@link OperationMetrics}.
      * 
      * Метод виконує наступнi кроки:
      * <li>1. Виводить початковий масив об'єктiв LocalDateTime.</li>
-     * <li>2. Вимiрює час, витрачений на сортування масиву за допомогою Arrays.sort().</li>
-     * <li>3. Виводить час, витрачений на сортування масиву в наносекундах.</li>
+     * <li>2. Вимiрює час, витрачений на сортування масиву обраним способом {@link SortEngine}.</li>
+     * <li>3. Записує час, витрачений на сортування масиву в наносекундах, в {@link OperationMetrics}.</li>
      * <li>4. Виводить вiдсортований масив об'єктiв LocalDateTime.</li>
      */
     private void sortArray() {
         // вимiрюємо час, витрачений на сортування масиву дати i часу 
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
 
-        Arrays.sort(dateTimeArray);
+        sortEngine.sort(dateTimeArray);
+        dateTimeArrayStatistics.markSorted();
 
-        Utils.printOperationDuration(startTime, "сортування масиву дати i часу");
+        timer.stop(() -> "сортування масиву дати i часу (" + sortEngine + ")");
     }
 
     /**
@@ -129,11 +341,11 @@ public class BasicDataOperationUsingQueue {
      */
     private void searchArray() {
         // вимiрюємо час, витрачений на пошук в масивi дати i часу
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
         
         int index = Arrays.binarySearch(this.dateTimeArray, dateTimeValueToSearch);
         
-        Utils.printOperationDuration(startTime, "пошук в масивi дати i часу");
+        timer.stop("пошук в масивi дати i часу");
 
         if (index >= 0) {
             System.out.println("Значення '" + dateTimeValueToSearch + "' знайдено в масивi за iндексом: " + index);
@@ -152,21 +364,13 @@ public class BasicDataOperationUsingQueue {
         }
 
         // вимiрюємо час, витрачений на пошук мiнiмальної i максимальної дати i часу
-        long startTime = System.nanoTime();
-
-        LocalDateTime min = dateTimeArray[0];
-        LocalDateTime max = dateTimeArray[0];
+        OperationTimer timer = OperationTimer.start();
 
-        for (LocalDateTime dateTime : dateTimeArray) {
-            if (dateTime.isBefore(min)) {
-                min = dateTime;
-            }
-            if (dateTime.isAfter(max)) {
-                max = dateTime;
-            }
-        }
+        // мiнiмум i максимум накопиченi пiд час завантаження, тому масив не переглядається
+        LocalDateTime min = dateTimeArrayStatistics.min();
+        LocalDateTime max = dateTimeArrayStatistics.max();
 
-        Utils.printOperationDuration(startTime, "пошук мiнiмальної i максимальної дати i часу в масивi");
+        timer.stop("пошук мiнiмальної i максимальної дати i часу в масивi");
 
         System.out.println("Мiнiмальне значення в масивi: " + min);
         System.out.println("Максимальне значення в масивi: " + max);
@@ -177,17 +381,22 @@ public class BasicDataOperationUsingQueue {
      */
     private void searchQueue() {
         // вимiрюємо час, витрачений на пошук в черзi дати i часу
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
 
-        boolean isFound = this.dateTimeQueue.contains(dateTimeValueToSearch);
+        boolean isFound = (dateTimeFilter != null)
+                ? dateTimeFilter.contains(BlockedBloomFilter.hash(dateTimeValueToSearch), () -> dateTimeQueue.contains(dateTimeValueToSearch))
+                : dateTimeQueue.contains(dateTimeValueToSearch);
 
-        Utils.printOperationDuration(startTime, "пошук в Queue дати i часу");
+        timer.stop("пошук в Queue дати i часу");
 
         if (isFound) {
             System.out.println("Значення '" + dateTimeValueToSearch + "' знайдено в Queue");
         } else {
             System.out.println("Значення '" + dateTimeValueToSearch + "' в Queue не знайдено.");
         }
+        if (dateTimeFilter != null) {
+            System.out.println(dateTimeFilter.report());
+        }
     }
 
     /**
@@ -200,12 +409,12 @@ public class BasicDataOperationUsingQueue {
         }
 
         // вимiрюємо час, витрачений на пошук мiнiмальної i максимальної дати i часу
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
 
-        LocalDateTime min = Collections.min(dateTimeQueue);
-        LocalDateTime max = Collections.max(dateTimeQueue);
+        LocalDateTime min = dateTimeQueue.min();
+        LocalDateTime max = dateTimeQueue.max();
 
-        Utils.printOperationDuration(startTime, "пошук мiнiмальної i максимальної дати i часу в Queue");
+        timer.stop("пошук мiнiмальної i максимальної дати i часу в Queue");
 
         System.out.println("Мiнiмальне значення в Queue: " + min);
         System.out.println("Максимальне значення в Queue: " + max);
@@ -228,6 +437,266 @@ public class BasicDataOperationUsingQueue {
 
         firstElement = dateTimeQueue.peek();
         System.out.println("Перший елемент у черзi: " + firstElement);
+
+        if (dateTimeQueue instanceof DoubleEndedPriorityQueue && !dateTimeQueue.isEmpty()) {
+            DoubleEndedPriorityQueue<LocalDateTime> deque = (DoubleEndedPriorityQueue<LocalDateTime>) dateTimeQueue;
+
+            System.out.println("Останнiй елемент у черзi: " + deque.max());
+            System.out.println("Забрати останнiй елемент у черзi: " + deque.pollLast());
+            System.out.println("Останнiй елемент у черзi: " + deque.max());
+        }
+    }
+
+    /**
+     * Знаходить K найранiших i K найпiзнiших значень файлу або stdin потоком, не будуючи черги з усiх значень,
+     * та виводить їх: найранiшi - за зростанням, найпiзнiшi - за спаданням.
+     * 
+     * @param source Шлях до файлу або {@code -} для стандартного вводу.
+     * @param k Кiлькiсть значень у кожному напрямку.
+     * @param threads Кiлькiсть потокiв для розбору файлу.
+     */
+    static void doTopK(String source, int k, int threads) {
+        if (threads < 1) {
+            throw new RuntimeException("Кiлькiсть потокiв має бути додатною: " + threads);
+        }
+
+        OperationTimer timer = OperationTimer.start();
+        StreamingTopK topK = StreamingTopK.STDIN.equals(source)
+                ? StreamingTopK.readStdin(k)
+                : StreamingTopK.readFile(source, k, threads);
+        timer.stop(() -> "потоковий пошук " + k + " найранiших i найпiзнiших значень " + source);
+
+        System.out.println("Переглянуто значень: " + topK.count());
+        System.out.println("Найранiшi " + k + " значень:");
+        for (LocalDateTime value : topK.earliest()) {
+            System.out.println(value);
+        }
+        System.out.println("Найпiзнiшi " + k + " значень:");
+        for (LocalDateTime value : topK.latest()) {
+            System.out.println(value);
+        }
+    }
+
+    /**
+     * Порiвнює двiйкову купу, двосторонню та потокобезпечну черги в одному потоцi на випадкових датах i часi заданого розмiру.
+     * 
+     * <p>Для кожної структури {@link #QUEUE_BENCHMARK_ITERATIONS} разiв вимiрюються побудова, {@link #QUEUE_BENCHMARK_QUERIES}
+     * перевiрок належностi (половина влучає), пошук мiнiмуму i максимуму та вилучення всiх елементiв.
+     * Результати записуються в {@link OperationMetrics}, тому першi (холоднi) iтерацiї видно у p99.</p>
+     * 
+     * @param size Кiлькiсть елементiв.
+     */
+    static void compareQueueStructures(int size) {
+        Random random = new Random(size);
+        LocalDateTime[] values = randomValues(random, size);
+        LocalDateTime[] queries = randomQueries(random, values);
+        ValueStatistics<LocalDateTime> statistics = new ValueStatistics<>();
+        for (LocalDateTime value : values) {
+            statistics.accept(value);
+        }
+
+        Double falsePositiveRate = BlockedBloomFilter.rateFromSystemProperty();
+        BlockedBloomFilter filter = null;
+        if (falsePositiveRate != null) {
+            OperationTimer timer = OperationTimer.start();
+            filter = createFilter(values, falsePositiveRate);
+            timer.stop(() -> "порiвняння: побудова фiльтра Блума " + size + " елементiв");
+        }
+
+        long found = 0;
+        for (int iteration = 0; iteration < QUEUE_BENCHMARK_ITERATIONS; iteration++) {
+            for (String structure : new String[] {QUEUE_STRUCTURE_HEAP, QUEUE_STRUCTURE_DEQUE, QUEUE_STRUCTURE_CONCURRENT}) {
+                OperationTimer timer = OperationTimer.start();
+                MinMaxQueue<LocalDateTime> queue = createQueue(structure, values, statistics);
+                timer.stop(() -> "порiвняння " + structure + ": побудова " + size + " елементiв");
+
+                timer = OperationTimer.start();
+                for (LocalDateTime query : queries) {
+                    found += queue.contains(query) ? 1 : 0;
+                }
+                timer.stop(() -> "порiвняння " + structure + ": " + queries.length + " перевiрок належностi");
+
+                if (filter != null) {
+                    BlockedBloomFilter bloom = filter;
+                    timer = OperationTimer.start();
+                    for (LocalDateTime query : queries) {
+                        found += bloom.contains(BlockedBloomFilter.hash(query), () -> queue.contains(query)) ? 1 : 0;
+                    }
+                    timer.stop(() -> "порiвняння " + structure + " з фiльтром Блума: " + queries.length + " перевiрок належностi");
+                }
+
+                timer = OperationTimer.start();
+                found += queue.min().getSecond() + queue.max().getSecond();
+                timer.stop(() -> "порiвняння " + structure + ": мiнiмум i максимум");
+
+                timer = OperationTimer.start();
+                while (queue.poll() != null) {
+                    found++;
+                }
+                timer.stop(() -> "порiвняння " + structure + ": вилучення всiх елементiв");
+            }
+        }
+
+        System.out.println("Контрольна сума порiвняння: " + found);
+        if (filter != null) {
+            System.out.println(filter.report());
+        }
+    }
+
+    /**
+     * Вимiрює пропускну здатнiсть черг при одночаснiй роботi багатьох виробникiв i споживачiв.
+     * 
+     * <p>{@code threads} потокiв-виробникiв додають разом {@code size} випадкових дат i часу, стiльки ж потокiв-споживачiв
+     * вилучають їх, доки виробники не завершать роботу i черга не спорожнiє, а окремий потiк-читач тим часом
+     * виконує {@code peek} i перевiрки належностi. Порiвнюються {@link ConcurrentPriorityQueue} без блокувань
+     * i {@link PriorityBlockingQueue} з одним блокуванням на всю чергу. Кожна структура проходить
+     * {@link #QUEUE_BENCHMARK_ITERATIONS} прогонiв, тривалiсть кожного записується в {@link OperationMetrics}.</p>
+     * 
+     * @param size Кiлькiсть елементiв, що проходять через чергу за один прогiн.
+     * @param threads Кiлькiсть виробникiв i, окремо, споживачiв.
+     */
+    static void benchmarkConcurrentQueues(int size, int threads) {
+        if (threads < 1) {
+            throw new RuntimeException("Кiлькiсть потокiв має бути додатною: " + threads);
+        }
+
+        Random random = new Random(size);
+        LocalDateTime[] values = randomValues(random, size);
+        LocalDateTime[] queries = randomQueries(random, values);
+
+        for (String structure : new String[] {QUEUE_STRUCTURE_CONCURRENT, QUEUE_STRUCTURE_BLOCKING}) {
+            long totalNanos = 0;
+            long totalReads = 0;
+            for (int iteration = 0; iteration < QUEUE_BENCHMARK_ITERATIONS; iteration++) {
+                Queue<LocalDateTime> queue = QUEUE_STRUCTURE_CONCURRENT.equals(structure)
+                        ? new ConcurrentPriorityQueue<>()
+                        : new PriorityBlockingQueue<>();
+
+                long startTime = System.nanoTime();
+                totalReads += runProducersAndConsumers(queue, values, queries, threads,
+                        "конкурентне порiвняння " + structure + ": " + threads + " виробникiв i " + threads + " споживачiв");
+                totalNanos += System.nanoTime() - startTime;
+            }
+
+            double seconds = totalNanos / 1e9;
+            System.out.printf("Пропускна здатнiсть %s (%d виробникiв, %d споживачiв): %.0f операцiй/с, %.0f читань/с%n",
+                    structure, threads, threads, 2.0 * size * QUEUE_BENCHMARK_ITERATIONS / seconds, totalReads / seconds);
+        }
+    }
+
+    /**
+     * Пропускає всi значення через чергу потоками-виробниками i споживачами та одночасно читає її.
+     * 
+     * @return Кiлькiсть виконаних читань ({@code peek} i перевiрка належностi).
+     */
+    private static long runProducersAndConsumers(Queue<LocalDateTime> queue, LocalDateTime[] values,
+                                                 LocalDateTime[] queries, int threads, String operationName) {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger activeProducers = new AtomicInteger(threads);
+        AtomicBoolean isFinished = new AtomicBoolean();
+        AtomicLong polled = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+
+        Thread[] workers = new Thread[2 * threads];
+        int chunkSize = (values.length + threads - 1) / threads;
+        for (int thread = 0; thread < threads; thread++) {
+            int from = Math.min(values.length, thread * chunkSize);
+            int to = Math.min(values.length, from + chunkSize);
+            workers[2 * thread] = new Thread(() -> {
+                awaitQuietly(startSignal);
+                for (int i = from; i < to; i++) {
+                    queue.offer(values[i]);
+                }
+                activeProducers.decrementAndGet();
+            });
+            workers[2 * thread + 1] = new Thread(() -> {
+                awaitQuietly(startSignal);
+                long count = 0;
+                while (true) {
+                    // стан виробникiв читається до poll: якщо вони вже завершили, порожня черга лишиться порожньою
+                    boolean isProducing = activeProducers.get() > 0;
+                    if (queue.poll() != null) {
+                        count++;
+                    } else if (!isProducing) {
+                        break;
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                }
+                polled.addAndGet(count);
+            });
+        }
+        Thread reader = new Thread(() -> {
+            awaitQuietly(startSignal);
+            long count = 0;
+            while (!isFinished.get()) {
+                queue.peek();
+                queue.contains(queries[(int) (count % queries.length)]);
+                count++;
+            }
+            reads.set(count);
+        });
+
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        reader.start();
+
+        OperationTimer timer = OperationTimer.start();
+        startSignal.countDown();
+        for (Thread worker : workers) {
+            joinQuietly(worker);
+        }
+        timer.stop(operationName);
+
+        isFinished.set(true);
+        joinQuietly(reader);
+
+        if (polled.get() != values.length) {
+            throw new RuntimeException("Вилучено " + polled.get() + " елементiв замiсть " + values.length);
+        }
+        return reads.get();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Створює випадковi дати i час з непарною кiлькiстю секунд, щоб запити з парною кiлькiстю гарантовано давали промахи.
+     */
+    private static LocalDateTime[] randomValues(Random random, int size) {
+        LocalDateTime[] values = new LocalDateTime[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = LocalDateTime.ofEpochSecond(1_704_067_200L + 2L * random.nextInt(Integer.MAX_VALUE / 2) + 1, 0, ZoneOffset.UTC);
+        }
+        return values;
+    }
+
+    /**
+     * Створює {@link #QUEUE_BENCHMARK_QUERIES} запитiв, половина з яких влучає у значення.
+     */
+    private static LocalDateTime[] randomQueries(Random random, LocalDateTime[] values) {
+        LocalDateTime[] queries = new LocalDateTime[QUEUE_BENCHMARK_QUERIES];
+        for (int i = 0; i < queries.length; i++) {
+            LocalDateTime hit = values[random.nextInt(values.length)];
+            queries[i] = (i % 2 == 0) ? hit : hit.plusSeconds(1);
+        }
+        return queries;
     }
 }
 
@@ -235,45 +704,233 @@ public class BasicDataOperationUsingQueue {
  * Клас Utils мiститить допомiжнi методи для роботи з даними типу LocalDateTime.
  */
 class Utils {
+    static final int READ_BUFFER_SIZE = 1 << 16;
+    static final int MIN_CAPACITY = 16;
+    static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    static final int LINE_SAMPLE_SIZE = 1 << 16;
+    static final int MAX_ESTIMATED_CAPACITY = 1 << 26;
+
     /**
-     * Виводить час виконання операцiї в наносекундах.
+     * Зчитує масив об'єктiв LocalDateTime з файлу.
      * 
-     * @param startTime Час початку операцiї в наносекундах.
-     * @param operationName Назва операцiї.
+     * <p>Мiсткiсть масиву попередньо оцiнюється за розмiром файлу та вибiркою рядкiв з його початку,
+     * а якщо оцiнка виявилась замалою - масив збiльшується геометрично. Файл розбирається за один прохiд,
+     * i якщо оцiнка точна (зокрема для файлiв, що вмiщуються у вибiрку), пiдсумковий масив повертається
+     * без додаткового копiювання.</p>
+     * 
+     * <p>Рядки фiксованого формату ISO декодуються безпосередньо з вiдображеного у пам'ять файлу
+     * (див. {@link MappedLineReader}); форматер використовується лише для рядкiв iншого вигляду.</p>
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @return Масив об'єктiв LocalDateTime.
      */
-    static void printOperationDuration(long startTime, String operationName) {
-        long endTime = System.nanoTime();
-        long duration = (endTime - startTime);
-        System.out.println("\n>>>>>>>>>> Час виконання операцiї '" + operationName + "'': " + duration + " наносекунд");
+    static LocalDateTime[] readArrayFromFile(String pathToFile) {
+        return readArrayFromFile(pathToFile, new ValueStatistics<>());
     }
 
     /**
-     * Зчитує масив об'єктiв LocalDateTime з файлу.
+     * Зчитує масив об'єктiв LocalDateTime з файлу, накопичуючи статистику значень за той самий прохiд.
      * 
      * @param pathToFile Шлях до файлу з даними.
+     * @param statistics Статистика, в яку додається кожне зчитане значення.
      * @return Масив об'єктiв LocalDateTime.
      */
-    static LocalDateTime[] readArrayFromFile(String pathToFile) {
+    static LocalDateTime[] readArrayFromFile(String pathToFile, ValueStatistics<LocalDateTime> statistics) {
+        OperationTimer timer = OperationTimer.start();
+
         DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
-        LocalDateTime[] tempArray = new LocalDateTime[1000];
+        LocalDateTime[] tempArray = new LocalDateTime[estimateLineCount(pathToFile)];
         int index = 0;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(pathToFile))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                LocalDateTime dateTime = LocalDateTime.parse(line, formatter);
+        try (MappedLineReader reader = new MappedLineReader(pathToFile)) {
+            while (reader.nextLine()) {
+                if (index == tempArray.length) {
+                    tempArray = Arrays.copyOf(tempArray, growCapacity(tempArray.length));
+                }
+                LocalDateTime dateTime = reader.hasIsoLayout()
+                        ? LocalDateTime.ofEpochSecond(reader.epochSecond(), 0, ZoneOffset.UTC)
+                        : LocalDateTime.parse(reader.line(), formatter);
+                statistics.accept(dateTime);
                 tempArray[index++] = dateTime;
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
 
-        LocalDateTime[] finalArray = new LocalDateTime[index];
-        System.arraycopy(tempArray, 0, finalArray, 0, index);
+        LocalDateTime[] finalArray = (index == tempArray.length) ? tempArray : Arrays.copyOf(tempArray, index);
+
+        printLoadReport(timer, pathToFile, index);
+
+        return finalArray;
+    }
+
+    /**
+     * Зчитує мiтки часу з файлу у масив секунд вiд початку епохи (UTC) без створення об'єктiв LocalDateTime.
+     * 
+     * <p>Рядки, якi не мають фiксованого формату ISO, розбираються форматером; дробова частина секунд
+     * у таких рядках вiдкидається.</p>
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @return Масив секунд вiд початку епохи.
+     */
+    static long[] readEpochSecondsFromFile(String pathToFile) {
+        OperationTimer timer = OperationTimer.start();
+
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+        long[] tempArray = new long[estimateLineCount(pathToFile)];
+        int index = 0;
+
+        try (MappedLineReader reader = new MappedLineReader(pathToFile)) {
+            while (reader.nextLine()) {
+                if (index == tempArray.length) {
+                    tempArray = Arrays.copyOf(tempArray, growCapacity(tempArray.length));
+                }
+                tempArray[index++] = reader.hasIsoLayout()
+                        ? reader.epochSecond()
+                        : LocalDateTime.parse(reader.line(), formatter).toEpochSecond(ZoneOffset.UTC);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        long[] finalArray = (index == tempArray.length) ? tempArray : Arrays.copyOf(tempArray, index);
+
+        printLoadReport(timer, pathToFile, index);
 
         return finalArray;
     }
 
+    /**
+     * Зчитує значення для пакетного пошуку з файлу або зi стандартного вводу.
+     * 
+     * @param source Шлях до файлу або {@code -} для стандартного вводу.
+     * @return Масив запитiв у порядку зчитування.
+     */
+    static LocalDateTime[] readQueries(String source) {
+        if (!"-".equals(source)) {
+            return readArrayFromFile(source);
+        }
+
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+        LocalDateTime[] queries = new LocalDateTime[MIN_CAPACITY];
+        int index = 0;
+
+        try {
+            BufferedReader br = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (index == queries.length) {
+                    queries = Arrays.copyOf(queries, growCapacity(queries.length));
+                }
+                queries[index++] = LocalDateTime.parse(line.trim(), formatter);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return Arrays.copyOf(queries, index);
+    }
+
+    /**
+     * Виводить результати пакетного пошуку рядками {@code <запит>\t<iндекс>} через буфер,
+     * не формуючи весь вивiд у пам'ятi.
+     * 
+     * @param queries Запити.
+     * @param results Iндекси знайдених значень або {@link BatchSearch#NOT_FOUND}.
+     */
+    static void writeBatchResults(LocalDateTime[] queries, int[] results) {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        try {
+            for (int i = 0; i < queries.length; i++) {
+                writer.write(queries[i].toString());
+                writer.write('\t');
+                writer.write(Integer.toString(results[i]));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Оцiнює кiлькiсть рядкiв у файлi за вибiркою з перших {@link #LINE_SAMPLE_SIZE} байтiв: середня довжина
+     * рядка у вибiрцi не залежить вiд того, короткий чи порожнiй перший рядок. Файл, що вмiщується у вибiрку,
+     * пiдраховується точно. Оцiнка обмежена {@link #MAX_ESTIMATED_CAPACITY}: якщо її не вистачить,
+     * масив збiльшиться в {@link #growCapacity}, а завищена оцiнка не видiлить зайвий масив на весь файл.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @return Початкова мiсткiсть масиву (не менше одиницi).
+     */
+    static int estimateLineCount(String pathToFile) {
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+            long fileLength = channel.size();
+            ByteBuffer sample = ByteBuffer.allocate((int) Math.min(fileLength, LINE_SAMPLE_SIZE));
+            while (sample.hasRemaining() && channel.read(sample) > 0) {
+                // читання до заповнення вибiрки
+            }
+
+            int sampleLength = sample.position();
+            long lineCount = 0;
+            for (int i = 0; i < sampleLength; i++) {
+                if (sample.get(i) == '\n') {
+                    lineCount++;
+                }
+            }
+
+            if (sampleLength == fileLength) {
+                // +1 на останнiй рядок без символу нового рядка
+                boolean hasUnterminatedLine = sampleLength > 0 && sample.get(sampleLength - 1) != '\n';
+                return (int) Math.max(1, lineCount + (hasUnterminatedLine ? 1 : 0));
+            }
+            if (lineCount == 0) {
+                // жодного цiлого рядка у вибiрцi - рядки довгi, тому достатньо мiнiмальної мiсткостi
+                return MIN_CAPACITY;
+            }
+            long estimate = fileLength * lineCount / sampleLength + 1;
+            return (int) Math.min(estimate, MAX_ESTIMATED_CAPACITY);
+        } catch (IOException e) {
+            return MIN_CAPACITY;
+        }
+    }
+
+    /**
+     * Обчислює нову мiсткiсть масиву при геометричному збiльшеннi в 1.5 раза.
+     * 
+     * @param currentCapacity Поточна мiсткiсть масиву.
+     * @return Нова мiсткiсть масиву.
+     */
+    static int growCapacity(int currentCapacity) {
+        if (currentCapacity >= MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError("Кiлькiсть рядкiв перевищує максимальний розмiр масиву");
+        }
+        long newCapacity = Math.max(MIN_CAPACITY, currentCapacity + (currentCapacity >> 1));
+        return (int) Math.min(newCapacity, MAX_ARRAY_SIZE);
+    }
+
+    /**
+     * Виводить звiт про завантаження файлу: час, кiлькiсть рядкiв та пiкове використання heap.
+     * 
+     * @param timer Таймер, запущений на початку завантаження.
+     * @param pathToFile Шлях до файлу з даними.
+     * @param lineCount Кiлькiсть зчитаних рядкiв.
+     */
+    static void printLoadReport(OperationTimer timer, String pathToFile, int lineCount) {
+        timer.stop(() -> "завантаження файлу " + pathToFile);
+
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        System.out.println("Зчитано рядкiв: " + lineCount + ", пiкове використання heap: " + (peakHeapBytes >> 20) + " МБ");
+    }
+
     /**
      * Записує масив об'єктiв LocalDateTime у файл.
      * 
@@ -290,4 +947,1655 @@ class Utils {
             e.printStackTrace();
         }
     }
+}
+
+/**
+ * Клас ValueStatistics iнкрементально накопичує кiлькiсть, мiнiмум i максимум значень та ознаку впорядкованостi,
+ * щоб запити до крайнiх значень виконувались за сталий час без повторного перегляду даних.
+ * 
+ * <p>Значення враховуються в тому порядку, в якому вони додаються в кiнець послiдовностi
+ * (пiд час завантаження файлу або вставки в контейнер).</p>
+ */
+class ValueStatistics<T extends Comparable<? super T>> {
+    private long count;
+    private T min;
+    private T max;
+    private T last;
+    private boolean isSorted = true;
+
+    /**
+     * Враховує значення, додане в кiнець послiдовностi.
+     * 
+     * @param value Значення.
+     */
+    void accept(T value) {
+        if (count == 0 || value.compareTo(min) < 0) {
+            min = value;
+        }
+        if (count == 0 || value.compareTo(max) > 0) {
+            max = value;
+        }
+        if (count > 0 && value.compareTo(last) < 0) {
+            isSorted = false;
+        }
+        last = value;
+        count++;
+    }
+
+    /**
+     * Позначає послiдовнiсть як вiдсортовану за зростанням (мiнiмум i максимум при цьому не змiнюються).
+     */
+    void markSorted() {
+        isSorted = true;
+        last = max;
+    }
+
+    /**
+     * Позначає послiдовнiсть як невпорядковану, наприклад пiсля вставки в середину.
+     */
+    void markUnsorted() {
+        isSorted = false;
+    }
+
+    /**
+     * Скидає накопичену статистику.
+     */
+    void clear() {
+        count = 0;
+        min = null;
+        max = null;
+        last = null;
+        isSorted = true;
+    }
+
+    /**
+     * @return Копiя статистики.
+     */
+    ValueStatistics<T> copy() {
+        ValueStatistics<T> copy = new ValueStatistics<>();
+        copy.count = count;
+        copy.min = min;
+        copy.max = max;
+        copy.last = last;
+        copy.isSorted = isSorted;
+        return copy;
+    }
+
+    long count() {
+        return count;
+    }
+
+    T min() {
+        return min;
+    }
+
+    T max() {
+        return max;
+    }
+
+    boolean isSorted() {
+        return isSorted;
+    }
+}
+
+/**
+ * Iнтерфейс MinMaxQueue описує чергу з прiоритетом, яка повертає мiнiмальний i максимальний елементи за сталий час.
+ */
+interface MinMaxQueue<E> extends Queue<E> {
+    /**
+     * @return Мiнiмальний елемент (або null для порожньої черги).
+     */
+    E min();
+
+    /**
+     * @return Максимальний елемент (або null для порожньої черги).
+     */
+    E max();
+}
+
+/**
+ * Клас DoubleEndedPriorityQueue - двостороння черга з прiоритетом на основi впорядкованого мультимножинного
+ * {@link TreeMap} (значення - кiлькiсть повторiв елемента).
+ * 
+ * <p>Перевiрка належностi виконується за O(log n) замiсть лiнiйного перегляду купи, мiнiмум i максимум
+ * кешуються i повертаються за O(1), а вилучати елементи можна з обох кiнцiв черги за O(log n).
+ * {@link #poll()} i {@link #peek()} працюють з мiнiмальним кiнцем, як у {@link PriorityQueue}.</p>
+ */
+class DoubleEndedPriorityQueue<E extends Comparable<? super E>> extends AbstractQueue<E> implements MinMaxQueue<E> {
+    private final TreeMap<E, int[]> counts = new TreeMap<>();
+    private int size;
+    private E first;
+    private E last;
+
+    /**
+     * Створює чергу з елементiв масиву.
+     * 
+     * @param values Елементи черги.
+     */
+    DoubleEndedPriorityQueue(E[] values) {
+        for (E value : values) {
+            offer(value);
+        }
+    }
+
+    @Override
+    public boolean offer(E element) {
+        int[] count = counts.get(element);
+        if (count == null) {
+            counts.put(element, new int[] {1});
+        } else {
+            count[0]++;
+        }
+        size++;
+
+        if (first == null || element.compareTo(first) < 0) {
+            first = element;
+        }
+        if (last == null || element.compareTo(last) > 0) {
+            last = element;
+        }
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E peek() {
+        return first;
+    }
+
+    /**
+     * Вилучає мiнiмальний елемент.
+     * 
+     * @return Мiнiмальний елемент або null, якщо черга порожня.
+     */
+    E pollFirst() {
+        E element = first;
+        if (element != null) {
+            decrement(element);
+        }
+        return element;
+    }
+
+    /**
+     * Вилучає максимальний елемент.
+     * 
+     * @return Максимальний елемент або null, якщо черга порожня.
+     */
+    E pollLast() {
+        E element = last;
+        if (element != null) {
+            decrement(element);
+        }
+        return element;
+    }
+
+    @Override
+    public E min() {
+        return first;
+    }
+
+    @Override
+    public E max() {
+        return last;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return object != null && counts.containsKey(object);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object object) {
+        if (!contains(object)) {
+            return false;
+        }
+        decrement((E) object);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        counts.clear();
+        size = 0;
+        first = null;
+        last = null;
+    }
+
+    /**
+     * Повертає iтератор, що обходить елементи за зростанням (з повторами).
+     */
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<Map.Entry<E, int[]>> entries = counts.entrySet().iterator();
+        return new Iterator<E>() {
+            private Map.Entry<E, int[]> current;
+            private int remaining;
+            private boolean canRemove;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0 || entries.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (remaining == 0) {
+                    current = entries.next();
+                    remaining = current.getValue()[0];
+                }
+                remaining--;
+                canRemove = true;
+                return current.getKey();
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove) {
+                    throw new IllegalStateException();
+                }
+                canRemove = false;
+                size--;
+                if (--current.getValue()[0] == 0) {
+                    entries.remove();
+                    refreshBounds(current.getKey());
+                }
+            }
+        };
+    }
+
+    private void decrement(E element) {
+        int[] count = counts.get(element);
+        size--;
+        if (--count[0] == 0) {
+            counts.remove(element);
+            refreshBounds(element);
+        }
+    }
+
+    /**
+     * Оновлює кешованi мiнiмум i максимум пiсля того, як ключ повнiстю видалено з дерева.
+     */
+    private void refreshBounds(E removedKey) {
+        if (counts.isEmpty()) {
+            first = null;
+            last = null;
+            return;
+        }
+        if (removedKey.compareTo(first) == 0) {
+            first = counts.firstKey();
+        }
+        if (removedKey.compareTo(last) == 0) {
+            last = counts.lastKey();
+        }
+    }
+}
+
+/**
+ * Клас StatisticsPriorityQueue - черга з прiоритетом, яка повертає мiнiмальний i максимальний елементи за сталий час.
+ * 
+ * <p>Мiнiмум - це вершина купи {@link PriorityQueue#peek()}, а максимум оновлюється при кожному додаваннi.
+ * Вилучення вершини не змiнює максимум, доки черга не порожня; видалення довiльного елемента
+ * позначає максимум застарiлим, i вiн перераховується одним проходом при наступному запитi.</p>
+ */
+class StatisticsPriorityQueue<E extends Comparable<? super E>> extends AbstractQueue<E> implements MinMaxQueue<E> {
+    private final PriorityQueue<E> heap;
+    private E max;
+    private boolean isMaxValid = true;
+
+    /**
+     * Створює чергу з елементiв масиву з уже обчисленою статистикою.
+     * 
+     * @param values Елементи черги.
+     * @param statistics Статистика елементiв масиву.
+     */
+    StatisticsPriorityQueue(E[] values, ValueStatistics<E> statistics) {
+        this.heap = new PriorityQueue<>(Arrays.asList(values));
+        this.max = statistics.max();
+    }
+
+    @Override
+    public boolean offer(E element) {
+        heap.offer(element);
+        if (isMaxValid && (max == null || element.compareTo(max) > 0)) {
+            max = element;
+        }
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        E element = heap.poll();
+        if (heap.isEmpty()) {
+            max = null;
+            isMaxValid = true;
+        }
+        return element;
+    }
+
+    @Override
+    public E peek() {
+        return heap.peek();
+    }
+
+    @Override
+    public int size() {
+        return heap.size();
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return heap.contains(object);
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        boolean isRemoved = heap.remove(object);
+        if (isRemoved) {
+            isMaxValid = false;
+        }
+        return isRemoved;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<E> iterator = heap.iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                isMaxValid = false;
+            }
+        };
+    }
+
+    @Override
+    public E min() {
+        return heap.peek();
+    }
+
+    @Override
+    public E max() {
+        if (!isMaxValid) {
+            max = null;
+            for (E element : heap) {
+                if (max == null || element.compareTo(max) > 0) {
+                    max = element;
+                }
+            }
+            isMaxValid = true;
+        }
+        return max;
+    }
+}
+
+/**
+ * Клас ConcurrentPriorityQueue - потокобезпечна черга з прiоритетом без блокувань на основi
+ * {@link ConcurrentSkipListMap}, ключi якої - пари (елемент, порядковий номер додавання).
+ * 
+ * <p>Порядковий номер робить ключi унiкальними, тому однаковi елементи зберiгаються як окремi записи,
+ * а серед рiвних першим вилучається доданий ранiше. Додавання, {@link #poll()} i {@link #pollLast()}
+ * атомарнi та виконуються за O(log n) без блокувань, тож багато потокiв-виробникiв i споживачiв
+ * працюють з чергою одночасно. {@link #peek()} i {@link #min()} повертають перший ключ за O(1),
+ * {@link #max()} i {@link #contains(Object)} - за O(log n). Розмiр ведеться лiчильником {@link LongAdder},
+ * а iтератор слабко узгоджений: вiн не кидає {@link java.util.ConcurrentModificationException}
+ * i може як побачити, так i не побачити змiни, зробленi пiд час обходу.</p>
+ */
+class ConcurrentPriorityQueue<E extends Comparable<? super E>> extends AbstractQueue<E> implements MinMaxQueue<E> {
+    private final ConcurrentSkipListMap<Entry<E>, Boolean> entries = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Створює порожню чергу.
+     */
+    ConcurrentPriorityQueue() {
+    }
+
+    /**
+     * Створює чергу з елементiв масиву.
+     * 
+     * @param values Елементи черги.
+     */
+    ConcurrentPriorityQueue(E[] values) {
+        for (E value : values) {
+            offer(value);
+        }
+    }
+
+    @Override
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        entries.put(new Entry<>(element, sequence.getAndIncrement()), Boolean.TRUE);
+        size.increment();
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        return removed(entries.pollFirstEntry());
+    }
+
+    /**
+     * Вилучає максимальний елемент.
+     * 
+     * @return Максимальний елемент або null, якщо черга порожня.
+     */
+    E pollLast() {
+        return removed(entries.pollLastEntry());
+    }
+
+    @Override
+    public E peek() {
+        return min();
+    }
+
+    @Override
+    public E min() {
+        Map.Entry<Entry<E>, Boolean> first = entries.firstEntry();
+        return (first != null) ? first.getKey().value : null;
+    }
+
+    @Override
+    public E max() {
+        Map.Entry<Entry<E>, Boolean> last = entries.lastEntry();
+        return (last != null) ? last.getKey().value : null;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, size.sum()));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return firstEntryOf(object) != null;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        // iнший потiк може вилучити знайдений запис ранiше, тодi шукаємо наступний рiвний
+        for (Entry<E> entry = firstEntryOf(object); entry != null; entry = firstEntryOf(object)) {
+            if (entries.remove(entry) != null) {
+                size.decrement();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) {
+            // кожен запис вилучається атомарно, щоб лiчильник розмiру лишався узгодженим
+        }
+    }
+
+    /**
+     * Повертає слабко узгоджений iтератор, що обходить елементи за зростанням (з повторами).
+     */
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<Entry<E>> keys = entries.keySet().iterator();
+        return new Iterator<E>() {
+            private Entry<E> current;
+
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public E next() {
+                current = keys.next();
+                return current.value;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                if (entries.remove(current) != null) {
+                    size.decrement();
+                }
+                current = null;
+            }
+        };
+    }
+
+    private E removed(Map.Entry<Entry<E>, Boolean> entry) {
+        if (entry == null) {
+            return null;
+        }
+        size.decrement();
+        return entry.getKey().value;
+    }
+
+    /**
+     * Знаходить найстарiший запис, рiвний заданому елементу.
+     */
+    @SuppressWarnings("unchecked")
+    private Entry<E> firstEntryOf(Object object) {
+        if (object == null) {
+            return null;
+        }
+        E element = (E) object;
+        Entry<E> entry = entries.ceilingKey(new Entry<>(element, Long.MIN_VALUE));
+        return (entry != null && entry.value.compareTo(element) == 0) ? entry : null;
+    }
+
+    /**
+     * Запис черги: елемент i порядковий номер, що розрiзняє рiвнi елементи.
+     */
+    private static final class Entry<E extends Comparable<? super E>> implements Comparable<Entry<E>> {
+        final E value;
+        final long sequence;
+
+        Entry(E value, long sequence) {
+            this.value = value;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry<E> other) {
+            int comparison = value.compareTo(other.value);
+            return (comparison != 0) ? comparison : Long.compare(sequence, other.sequence);
+        }
+    }
+}
+
+/**
+ * Клас StreamingTopK знаходить K найранiших i K найпiзнiших значень потоку дати i часу, зберiгаючи лише 2K значень.
+ * 
+ * <p>Найранiшi значення тримаються в купi з найбiльшим елементом на вершинi, найпiзнiшi - в купi з найменшим:
+ * нове значення порiвнюється з вершиною i замiнює її лише тодi, коли воно краще за найгiрше з вiдiбраних.
+ * Тому пам'ять не залежить вiд довжини потоку, а кожне значення обробляється за {@code O(log K)}.
+ * Частковi результати кiлькох потокiв об'єднуються {@link #merge(StreamingTopK)}.</p>
+ */
+class StreamingTopK {
+    static final String PROPERTY = "queue.top";
+    static final String K_PROPERTY = "queue.top.k";
+    static final int DEFAULT_K = 10;
+    static final String STDIN = "-";
+
+    private final int k;
+    private final PriorityQueue<LocalDateTime> earliest;
+    private final PriorityQueue<LocalDateTime> latest;
+    private long count;
+
+    /**
+     * @param k Кiлькiсть значень у кожному напрямку.
+     */
+    StreamingTopK(int k) {
+        if (k < 1) {
+            throw new RuntimeException("Кiлькiсть значень має бути додатною: " + k);
+        }
+        this.k = k;
+        this.earliest = new PriorityQueue<>(k, Comparator.reverseOrder());
+        this.latest = new PriorityQueue<>(k, Comparator.naturalOrder());
+    }
+
+    /**
+     * Зчитує файл частинами в кiлькох потоках (кожна частина - з власними купами) та об'єднує частковi результати.
+     * Рядки фiксованого формату ISO декодуються без форматера (див. {@link MappedLineReader}).
+     * 
+     * @param pathToFile Шлях до файлу.
+     * @param k Кiлькiсть значень у кожному напрямку.
+     * @param threads Кiлькiсть частин, що розбираються паралельно.
+     * @return Об'єднаний результат.
+     */
+    static StreamingTopK readFile(String pathToFile, int k, int threads) {
+        long fileSize;
+        try {
+            fileSize = Files.size(Paths.get(pathToFile));
+        } catch (IOException e) {
+            throw new RuntimeException("Не вдалося прочитати файл: " + pathToFile, e);
+        }
+
+        int chunkCount = (int) Math.max(1, Math.min(threads, fileSize / MappedLineReader.MIN_RANGE_SIZE));
+        long chunkSize = (fileSize + chunkCount - 1) / chunkCount;
+        StreamingTopK[] partials = new StreamingTopK[chunkCount];
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            StreamingTopK partial = new StreamingTopK(k);
+            long start = chunk * chunkSize;
+            try (MappedLineReader reader = new MappedLineReader(pathToFile, start, Math.min(fileSize, start + chunkSize))) {
+                while (reader.nextLine()) {
+                    if (reader.hasIsoLayout()) {
+                        partial.accept(LocalDateTime.ofEpochSecond(reader.epochSecond(), 0, ZoneOffset.UTC));
+                    } else if (!reader.line().isBlank()) {
+                        partial.accept(LocalDateTime.parse(reader.line().trim(), DateTimeFormatter.ISO_DATE_TIME));
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Не вдалося прочитати файл: " + pathToFile, e);
+            }
+            partials[chunk] = partial;
+        });
+
+        StreamingTopK result = new StreamingTopK(k);
+        for (StreamingTopK partial : partials) {
+            result.merge(partial);
+        }
+        return result;
+    }
+
+    /**
+     * Зчитує значення зi стандартного вводу по рядку, доки вiн не закриється.
+     * 
+     * @param k Кiлькiсть значень у кожному напрямку.
+     * @return Результат.
+     */
+    static StreamingTopK readStdin(int k) {
+        StreamingTopK result = new StreamingTopK(k);
+        try {
+            BufferedReader br = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), Utils.READ_BUFFER_SIZE);
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isBlank()) {
+                    result.accept(LocalDateTime.parse(line.trim(), DateTimeFormatter.ISO_DATE_TIME));
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    /**
+     * Враховує наступне значення потоку.
+     * 
+     * @param value Значення.
+     */
+    void accept(LocalDateTime value) {
+        count++;
+        offer(earliest, value);
+        offer(latest, value);
+    }
+
+    /**
+     * Додає до результату вiдiбранi значення iншої частини потоку.
+     * 
+     * @param other Частковий результат з тим самим K.
+     */
+    void merge(StreamingTopK other) {
+        for (LocalDateTime value : other.earliest) {
+            offer(earliest, value);
+        }
+        for (LocalDateTime value : other.latest) {
+            offer(latest, value);
+        }
+        count += other.count;
+    }
+
+    /**
+     * @return Кiлькiсть переглянутих значень.
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * @return До K найранiших значень за зростанням.
+     */
+    LocalDateTime[] earliest() {
+        LocalDateTime[] values = earliest.toArray(new LocalDateTime[0]);
+        Arrays.sort(values);
+        return values;
+    }
+
+    /**
+     * @return До K найпiзнiших значень за спаданням.
+     */
+    LocalDateTime[] latest() {
+        LocalDateTime[] values = latest.toArray(new LocalDateTime[0]);
+        Arrays.sort(values, Comparator.reverseOrder());
+        return values;
+    }
+
+    /**
+     * Додає значення в неповну купу або замiнює ним вершину повної. Вершина - найгiрше з вiдiбраних значень,
+     * тож нове значення краще за неї, якщо в порядку купи воно йде пiсля вершини.
+     */
+    private void offer(PriorityQueue<LocalDateTime> heap, LocalDateTime value) {
+        if (heap.size() < k) {
+            heap.add(value);
+        } else if (heap.comparator().compare(value, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(value);
+        }
+    }
+}
+
+/**
+ * Клас BlockedBloomFilter - блоковий фiльтр Блума перед точним пошуком. Усi бiти ключа лежать в одному блоцi
+ * з {@link #BLOCK_BITS} бiтiв (64 байти, один рядок кешу), тому вiдсутнє значення здебiльшого вiдхиляється
+ * одним зверненням до пам'ятi, без пошуку в основнiй структурi.
+ * 
+ * <p>Розмiр обчислюється за кiлькiстю ключiв i бажаною часткою хибнопозитивних вiдповiдей з властивостi
+ * {@link #PROPERTY}: {@code -ln p / ln²2} бiтiв на ключ i {@code ln 2} вiд цього хешiв. Через нерiвномiрне
+ * заповнення блокiв фактична частка дещо вища за задану; її показують лiчильники {@link #report()}.
+ * Лiчильники не синхронiзованi: фiльтр розрахований на пошук з одного потоку.</p>
+ */
+class BlockedBloomFilter {
+    static final String PROPERTY = "search.bloom";
+    static final int BLOCK_BITS = 512;
+    private static final int BLOCK_WORDS = BLOCK_BITS / Long.SIZE;
+    private static final int MAX_HASH_COUNT = 16;
+
+    private final long[] words;
+    private final int blockCount;
+    private final int hashCount;
+    private long hits;
+    private long misses;
+    private long falsePositives;
+
+    /**
+     * Створює порожнiй фiльтр.
+     * 
+     * @param expectedKeys Очiкувана кiлькiсть ключiв.
+     * @param falsePositiveRate Бажана частка хибнопозитивних вiдповiдей, вiд 0 до 1 (не включно).
+     */
+    BlockedBloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new RuntimeException("Частка хибнопозитивних вiдповiдей має бути мiж 0 i 1: " + falsePositiveRate);
+        }
+        double bitsPerKey = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long blocks = Math.max(1, (long) Math.ceil(Math.max(1, expectedKeys) * bitsPerKey / BLOCK_BITS));
+        if (blocks > Integer.MAX_VALUE / BLOCK_WORDS) {
+            throw new RuntimeException("Фiльтр Блума завеликий для " + expectedKeys + " ключiв");
+        }
+        this.blockCount = (int) blocks;
+        this.words = new long[blockCount * BLOCK_WORDS];
+        this.hashCount = (int) Math.max(1, Math.min(MAX_HASH_COUNT, Math.round(bitsPerKey * Math.log(2))));
+    }
+
+    /**
+     * @return Частка хибнопозитивних вiдповiдей з властивостi {@link #PROPERTY} або null, якщо фiльтр вимкнено.
+     */
+    static Double rateFromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Неправильна частка хибнопозитивних вiдповiдей: " + value);
+        }
+    }
+
+    /**
+     * Додає ключ.
+     * 
+     * @param hash 64-бiтний хеш ключа з добре перемiшаними бiтами.
+     */
+    void add(long hash) {
+        int offset = blockOffset(hash);
+        int probe = (int) hash;
+        int step = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++, probe += step) {
+            int bit = probe & (BLOCK_BITS - 1);
+            words[offset + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @param hash Хеш ключа.
+     * @return false, якщо ключ точно не додавався; true, якщо ключ, можливо, додавався.
+     */
+    boolean mightContain(long hash) {
+        int offset = blockOffset(hash);
+        int probe = (int) hash;
+        int step = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++, probe += step) {
+            int bit = probe & (BLOCK_BITS - 1);
+            if ((words[offset + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Перевiряє ключ фiльтром i лише для ключiв, що пройшли фiльтр, виконує точний пошук; оновлює лiчильники.
+     * 
+     * @param hash Хеш ключа.
+     * @param lookup Точний пошук в основнiй структурi.
+     * @return Результат точного пошуку або false, якщо ключ вiдхилено фiльтром.
+     */
+    boolean contains(long hash, BooleanSupplier lookup) {
+        if (!mightContain(hash)) {
+            misses++;
+            return false;
+        }
+        if (lookup.getAsBoolean()) {
+            hits++;
+            return true;
+        }
+        falsePositives++;
+        return false;
+    }
+
+    /**
+     * @return Кiлькiсть знайдених ключiв (пройшли фiльтр i є в основнiй структурi).
+     */
+    long hits() {
+        return hits;
+    }
+
+    /**
+     * @return Кiлькiсть ключiв, вiдхилених фiльтром без точного пошуку.
+     */
+    long misses() {
+        return misses;
+    }
+
+    /**
+     * @return Кiлькiсть ключiв, що пройшли фiльтр, але вiдсутнi в основнiй структурi.
+     */
+    long falsePositives() {
+        return falsePositives;
+    }
+
+    /**
+     * @return Обсяг бiтового масиву в байтах.
+     */
+    long footprintBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    /**
+     * @return Рядок з розмiром фiльтра, лiчильниками та фактичною часткою хибнопозитивних вiдповiдей серед вiдсутнiх ключiв.
+     */
+    String report() {
+        long absent = misses + falsePositives;
+        return "Фiльтр Блума: обсяг=" + footprintBytes() + " байт, блокiв=" + blockCount + ", хешiв=" + hashCount
+                + ", знайдено=" + hits + ", вiдхилено=" + misses + ", хибнопозитивних=" + falsePositives
+                + ", частка хибнопозитивних=" + ((absent == 0) ? 0.0 : (double) falsePositives / absent);
+    }
+
+    /**
+     * Хеш дати i часу з рiвнiстю {@link LocalDateTime#equals(Object)}: фiналiзатор MurmurHash3 над секундами
+     * вiд початку епохи, поєднаними з наносекундами.
+     */
+    static long hash(LocalDateTime value) {
+        long hash = value.toEpochSecond(ZoneOffset.UTC) * 1_000_000_007L + value.getNano();
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private int blockOffset(long hash) {
+        // старшi 32 бiти хешу рiвномiрно вiдображаються на номер блоку множенням замiсть дiлення з остачею
+        return (int) (((hash >>> 32) * blockCount) >>> 32) * BLOCK_WORDS;
+    }
+}
+
+/**
+ * Клас OperationTimer фiксує момент початку операцiї та кiлькiсть байтiв, видiлених поточним потоком,
+ * щоб пiсля завершення операцiї записати її тривалiсть i видiлену пам'ять у {@link OperationMetrics}.
+ */
+class OperationTimer {
+    private final long startTime;
+    private final long startAllocatedBytes;
+
+    private OperationTimer(long startTime, long startAllocatedBytes) {
+        this.startTime = startTime;
+        this.startAllocatedBytes = startAllocatedBytes;
+    }
+
+    /**
+     * Починає вимiрювання операцiї.
+     * 
+     * @return Таймер операцiї.
+     */
+    static OperationTimer start() {
+        long startAllocatedBytes = OperationMetrics.currentThreadAllocatedBytes();
+        return new OperationTimer(System.nanoTime(), startAllocatedBytes);
+    }
+
+    /**
+     * Завершує вимiрювання та записує тривалiсть операцiї в наносекундах i видiленi байти в метрики.
+     * 
+     * <p>Аргумент обчислюється до виклику, тобто всерединi вимiрювання, тому назву, яку потрiбно складати
+     * з частин, слiд будувати до {@link #start()} або передавати через {@link #stop(Supplier)}.</p>
+     * 
+     * @param operationName Назва операцiї.
+     */
+    void stop(String operationName) {
+        long duration = System.nanoTime() - startTime;
+        long allocatedBytes = OperationMetrics.currentThreadAllocatedBytes() - startAllocatedBytes;
+        OperationMetrics.record(operationName, duration, Math.max(0, allocatedBytes));
+    }
+
+    /**
+     * Завершує вимiрювання, як {@link #stop(String)}, але будує назву операцiї лише пiсля того, як зчитано час
+     * i лiчильник видiлених байтiв, тож побудова назви не потрапляє у вимiрювання.
+     * 
+     * @param operationName Джерело назви операцiї.
+     */
+    void stop(Supplier<String> operationName) {
+        long endTime = System.nanoTime();
+        long allocatedBytes = OperationMetrics.currentThreadAllocatedBytes() - startAllocatedBytes;
+        OperationMetrics.record(operationName.get(), endTime - startTime, Math.max(0, allocatedBytes));
+    }
+}
+
+/**
+ * Клас OperationMetrics накопичує час виконання операцiй у гiстограмах {@link LatencyHistogram} за назвою операцiї.
+ * 
+ * <p>Запис у метрики не виконує введення-виведення, тому не впливає на вимiрюваний час. Пiдсумок виводиться
+ * один раз методом {@link #report()} наприкiнцi запуску; якщо задано системну властивiсть {@link #OUTPUT_PROPERTY},
+ * метрики також записуються у файл у форматi {@link #FORMAT_PROPERTY} ({@code json} або {@code prometheus}),
+ * щоб результати багатьох запускiв можна було об'єднувати.</p>
+ */
+class OperationMetrics {
+    static final String OUTPUT_PROPERTY = "metrics.output";
+    static final String FORMAT_PROPERTY = "metrics.format";
+
+    static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    static final String[] QUANTILE_NAMES = {"p50", "p99", "p999"};
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean IS_ALLOCATION_SUPPORTED = THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemorySupported();
+
+    /**
+     * Записує одне вимiрювання операцiї.
+     * 
+     * @param operationName Назва операцiї.
+     * @param durationNanos Тривалiсть у наносекундах.
+     * @param allocatedBytes Кiлькiсть байтiв, видiлених пiд час операцiї.
+     */
+    static void record(String operationName, long durationNanos, long allocatedBytes) {
+        HISTOGRAMS.computeIfAbsent(operationName, name -> new LatencyHistogram()).record(durationNanos, allocatedBytes);
+    }
+
+    /**
+     * @return Кiлькiсть байтiв, видiлених поточним потоком, або 0, якщо JVM цього не пiдтримує.
+     */
+    static long currentThreadAllocatedBytes() {
+        return IS_ALLOCATION_SUPPORTED
+                ? ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getCurrentThreadAllocatedBytes()
+                : 0;
+    }
+
+    /**
+     * Виводить пiдсумок метрик у консоль та, за потреби, записує їх у файл.
+     */
+    static void report() {
+        System.out.println("\n>>>>>>>>> Метрики операцiй (наносекунди):");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            System.out.println("'" + entry.getKey() + "': кiлькiсть=" + histogram.count()
+                    + ", p50=" + histogram.quantile(0.5) + ", p99=" + histogram.quantile(0.99)
+                    + ", p999=" + histogram.quantile(0.999) + ", max=" + histogram.max()
+                    + ", видiлено байт=" + histogram.allocatedBytes());
+        }
+
+        String outputPath = System.getProperty(OUTPUT_PROPERTY);
+        if (outputPath == null) {
+            return;
+        }
+
+        String format = System.getProperty(FORMAT_PROPERTY, "json");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputPath), StandardCharsets.UTF_8))) {
+            if ("prometheus".equals(format)) {
+                writePrometheus(writer);
+            } else if ("json".equals(format)) {
+                writeJson(writer);
+            } else {
+                throw new IOException("Невiдомий формат метрик: " + format);
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка запису метрик у файл: " + e.getMessage());
+        }
+    }
+
+    private static void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"operations\": [");
+        String separator = "\n";
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            writer.write(separator + "    {\"name\": \"" + escapeJson(entry.getKey()) + "\", \"count\": " + histogram.count()
+                    + ", \"sumNanos\": " + histogram.sum() + ", \"maxNanos\": " + histogram.max());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                writer.write(", \"" + QUANTILE_NAMES[i] + "Nanos\": " + histogram.quantile(QUANTILES[i]));
+            }
+            writer.write(", \"allocatedBytes\": " + histogram.allocatedBytes() + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  ]\n}\n");
+    }
+
+    private static void writePrometheus(Writer writer) throws IOException {
+        Map<String, LatencyHistogram> histograms = new TreeMap<>(HISTOGRAMS);
+
+        writer.write("# HELP operation_duration_nanoseconds Тривалiсть операцiї в наносекундах.\n");
+        writer.write("# TYPE operation_duration_nanoseconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String label = "operation=\"" + escapePrometheus(entry.getKey()) + "\"";
+            LatencyHistogram histogram = entry.getValue();
+            for (double quantile : QUANTILES) {
+                writer.write("operation_duration_nanoseconds{" + label + ",quantile=\"" + quantile + "\"} "
+                        + histogram.quantile(quantile) + "\n");
+            }
+            writer.write("operation_duration_nanoseconds_sum{" + label + "} " + histogram.sum() + "\n");
+            writer.write("operation_duration_nanoseconds_count{" + label + "} " + histogram.count() + "\n");
+        }
+
+        writer.write("# HELP operation_allocated_bytes_total Кiлькiсть байтiв, видiлених пiд час операцiї.\n");
+        writer.write("# TYPE operation_allocated_bytes_total counter\n");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            writer.write("operation_allocated_bytes_total{operation=\"" + escapePrometheus(entry.getKey()) + "\"} "
+                    + entry.getValue().allocatedBytes() + "\n");
+        }
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapePrometheus(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
+
+/**
+ * Клас LatencyHistogram - безблокувальна гiстограма з логарифмiчно-лiнiйними кошиками на зразок HdrHistogram.
+ * 
+ * <p>Значення меншi за {@link #SUB_BUCKET_COUNT} зберiгаються точно, бiльшi - з вiдносною похибкою не бiльше 1/32.
+ * Усi лiчильники оновлюються атомарно, тому гiстограму можна заповнювати з кiлькох потокiв одночасно.</p>
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    void record(long value, long allocated) {
+        long nonNegative = Math.max(0, value);
+        counts.incrementAndGet(indexOf(nonNegative));
+        count.incrementAndGet();
+        sum.addAndGet(nonNegative);
+        max.accumulateAndGet(nonNegative, Math::max);
+        allocatedBytes.addAndGet(allocated);
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long sum() {
+        return sum.get();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * Повертає верхню межу кошика, в який потрапляє задана частка вимiрювань.
+     * 
+     * @param quantile Частка вiд 0 до 1.
+     * @return Значення квантиля (не бiльше за максимальне записане значення).
+     */
+    long quantile(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            cumulative += counts.get(index);
+            if (cumulative >= target) {
+                return Math.min(upperBoundOf(index), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        long upperBound = ((subBucket + 1) << shift) - 1;
+        return (upperBound < 0) ? Long.MAX_VALUE : upperBound;
+    }
+}
+
+/**
+ * Перелiк SortEngine визначає спосiб сортування масивiв i спискiв дати та часу.
+ * 
+ * <p>Спосiб обирається системною властивiстю {@link #PROPERTY}, наприклад {@code -Dsort.engine=radix}:</p>
+ * <ul>
+ *   <li>{@link #SEQUENTIAL} - однопотокове сортування порiвнянням ({@link Arrays#sort(Object[])}).</li>
+ *   <li>{@link #PARALLEL} - {@link Arrays#parallelSort(Comparable[])} на пулi fork-join.</li>
+ *   <li>{@link #RADIX} - паралельне порозрядне сортування LSD за ключами в наносекундах вiд початку епохи
+ *       (див. {@link LongRadixSort}).</li>
+ * </ul>
+ */
+enum SortEngine {
+    SEQUENTIAL,
+    PARALLEL,
+    RADIX;
+
+    static final String PROPERTY = "sort.engine";
+
+    /**
+     * Повертає спосiб сортування, заданий системною властивiстю {@link #PROPERTY} (типово {@link #SEQUENTIAL}).
+     * 
+     * @return Обраний спосiб сортування.
+     */
+    static SortEngine fromSystemProperty() {
+        String value = System.getProperty(PROPERTY, SEQUENTIAL.name());
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Невiдомий спосiб сортування: " + value);
+        }
+    }
+
+    /**
+     * Сортує масив дати i часу за зростанням.
+     * 
+     * @param array Масив для сортування.
+     */
+    void sort(LocalDateTime[] array) {
+        switch (this) {
+            case PARALLEL:
+                Arrays.parallelSort(array);
+                break;
+            case RADIX:
+                radixSort(array);
+                break;
+            default:
+                Arrays.sort(array);
+        }
+    }
+
+    /**
+     * Сортує масив секунд вiд початку епохи за зростанням.
+     * 
+     * @param keys Масив для сортування.
+     */
+    void sort(long[] keys) {
+        switch (this) {
+            case PARALLEL:
+                Arrays.parallelSort(keys);
+                break;
+            case RADIX:
+                LongRadixSort.sort(keys, null);
+                break;
+            default:
+                Arrays.sort(keys);
+        }
+    }
+
+    /**
+     * Сортує масив дати i часу порозрядно: обчислює ключi в наносекундах, сортує їх разом з iндексами
+     * i переставляє елементи за отриманим порядком. Сортування стабiльне.
+     * Якщо ключ не вмiщується в long (роки поза 1677-2262), використовується {@link #PARALLEL}.
+     */
+    private static void radixSort(LocalDateTime[] array) {
+        long[] keys = new long[array.length];
+        int[] order = new int[array.length];
+
+        try {
+            for (int i = 0; i < array.length; i++) {
+                long epochSecond = array[i].toEpochSecond(ZoneOffset.UTC);
+                keys[i] = Math.addExact(Math.multiplyExact(epochSecond, 1_000_000_000L), array[i].getNano());
+                order[i] = i;
+            }
+        } catch (ArithmeticException e) {
+            Arrays.parallelSort(array);
+            return;
+        }
+
+        LongRadixSort.sort(keys, order);
+
+        LocalDateTime[] source = array.clone();
+        for (int i = 0; i < array.length; i++) {
+            array[i] = source[order[i]];
+        }
+    }
+}
+
+/**
+ * Клас LongRadixSort реалiзує паралельне стабiльне порозрядне сортування LSD для масивiв long.
+ * 
+ * <p>Ключ обробляється вiсьмома проходами по 8 бiт. На кожному проходi масив дiлиться на частини,
+ * для яких паралельно (на пулi fork-join) будуються гiстограми розрядiв, пiсля чого кожна частина
+ * паралельно розкладає свої елементи на обчисленi позицiї. Проходи, у яких усi ключi мають однаковий
+ * розряд (наприклад, старшi байти близьких мiток часу), пропускаються.</p>
+ */
+class LongRadixSort {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Сортує ключi за зростанням (зi знаком), за потреби переставляючи разом з ними масив супутнiх iндексiв.
+     * 
+     * @param keys Масив ключiв.
+     * @param payload Масив супутнiх значень тiєї ж довжини або null.
+     */
+    static void sort(long[] keys, int[] payload) {
+        int length = keys.length;
+        int chunkCount = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L, length / MIN_CHUNK_SIZE));
+        int chunkSize = (length + chunkCount - 1) / Math.max(1, chunkCount);
+        int[][] counts = new int[chunkCount][RADIX];
+
+        long[] source = keys;
+        long[] target = new long[length];
+        int[] sourcePayload = payload;
+        int[] targetPayload = (payload == null) ? null : new int[length];
+
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            final int digitShift = shift;
+            final long[] from = source;
+            final long[] to = target;
+            final int[] fromPayload = sourcePayload;
+            final int[] toPayload = targetPayload;
+
+            IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+                int[] chunkCounts = counts[chunk];
+                Arrays.fill(chunkCounts, 0);
+                int end = Math.min(length, (chunk + 1) * chunkSize);
+                for (int i = chunk * chunkSize; i < end; i++) {
+                    chunkCounts[digit(from[i], digitShift)]++;
+                }
+            });
+
+            if (isTrivialPass(counts, length)) {
+                continue;
+            }
+
+            // перетворюємо лiчильники на початковi позицiї: спершу за розрядом, потiм за номером частини
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                for (int chunk = 0; chunk < chunkCount; chunk++) {
+                    int count = counts[chunk][digit];
+                    counts[chunk][digit] = offset;
+                    offset += count;
+                }
+            }
+
+            IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+                int[] positions = counts[chunk];
+                int end = Math.min(length, (chunk + 1) * chunkSize);
+                for (int i = chunk * chunkSize; i < end; i++) {
+                    int position = positions[digit(from[i], digitShift)]++;
+                    to[position] = from[i];
+                    if (toPayload != null) {
+                        toPayload[position] = fromPayload[i];
+                    }
+                }
+            });
+
+            source = to;
+            target = from;
+            sourcePayload = toPayload;
+            targetPayload = fromPayload;
+        }
+
+        if (source != keys) {
+            System.arraycopy(source, 0, keys, 0, length);
+            if (payload != null) {
+                System.arraycopy(sourcePayload, 0, payload, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Повертає розряд ключа; знаковий бiт iнвертується, щоб беззнаковий порядок розрядiв збiгався зi знаковим порядком ключiв.
+     */
+    private static int digit(long key, int shift) {
+        return (int) ((key ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1);
+    }
+
+    private static boolean isTrivialPass(int[][] counts, int length) {
+        for (int digit = 0; digit < RADIX; digit++) {
+            int total = 0;
+            for (int[] chunkCounts : counts) {
+                total += chunkCounts[digit];
+            }
+            if (total != 0) {
+                return total == length;
+            }
+        }
+        return true;
+    }
+}
+
+/**
+ * Клас BatchSearch знаходить багато вiдсортованих запитiв у вiдсортованому масивi за один прохiд.
+ * 
+ * <p>Запити обробляються злиттям: пошук кожного наступного запиту починається з позицiї попереднього
+ * i виконується експоненцiйним (galloping) пошуком, тому сумарна вартiсть - O(m log(n/m)) замiсть m log n
+ * незалежних бiнарних пошукiв. Великi пакети запитiв дiляться на частини, якi обробляються паралельно
+ * на пулi fork-join; кожна частина починає злиття з бiнарного пошуку свого першого запиту.</p>
+ */
+class BatchSearch {
+    static final int NOT_FOUND = -1;
+    private static final int MIN_CHUNK_SIZE = 1 << 12;
+
+    /**
+     * Знаходить вiдсортованi запити у вiдсортованому масивi.
+     * 
+     * @param sortedValues Вiдсортований масив значень.
+     * @param sortedQueries Вiдсортований масив запитiв.
+     * @return Для кожного запиту - iндекс першого рiвного йому значення або {@link #NOT_FOUND}.
+     */
+    static <T extends Comparable<? super T>> int[] search(T[] sortedValues, T[] sortedQueries) {
+        int[] results = new int[sortedQueries.length];
+        int chunkCount = chunkCount(sortedQueries.length);
+        int chunkSize = (sortedQueries.length + chunkCount - 1) / chunkCount;
+
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int from = 0;
+            int end = Math.min(sortedQueries.length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                from = lowerBound(sortedValues, from, sortedQueries[i]);
+                boolean isFound = from < sortedValues.length && sortedValues[from].compareTo(sortedQueries[i]) == 0;
+                results[i] = isFound ? from : NOT_FOUND;
+            }
+        });
+        return results;
+    }
+
+    private static int chunkCount(int queryCount) {
+        return (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L, queryCount / MIN_CHUNK_SIZE));
+    }
+
+    /**
+     * Повертає перший iндекс не менший за {@code from}, значення за яким не менше за ключ.
+     * Спершу крок пошуку подвоюється, доки не перескочить ключ, потiм бiнарний пошук звужує знайдений промiжок.
+     */
+    private static <T extends Comparable<? super T>> int lowerBound(T[] values, int from, T key) {
+        int low = from;
+        int high = values.length;
+        long step = 1;
+        int probe = low;
+        while (probe < values.length) {
+            if (values[probe].compareTo(key) >= 0) {
+                high = probe;
+                break;
+            }
+            low = probe + 1;
+            probe = (int) Math.min(values.length, low + step);
+            step <<= 1;
+        }
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
+
+/**
+ * Клас MappedLineReader зчитує рядки файлу через вiдображений у пам'ять {@link MappedByteBuffer}
+ * та декодує мiтки часу фiксованого формату ISO безпосередньо з байтiв, без створення промiжних рядкiв.
+ * 
+ * <p>Пiдтримуються формати {@code yyyy-MM-ddTHH:mm:ss} та {@code yyyy-MM-ddTHH:mm} (у тому числi з суфiксом {@code Z}),
+ * якi зустрiчаються у вхiдних файлах та у вiдсортованому виводi. Для iнших рядкiв {@link #hasIsoLayout()}
+ * повертає false, i рядок слiд розбирати повiльним форматером через {@link #line()}.</p>
+ * 
+ * <p>Великi файли вiдображаються вiкнами по {@link #WINDOW_SIZE} байт, тому розмiр файлу не обмежений 2 ГБ.</p>
+ */
+class MappedLineReader implements Closeable {
+    static final int WINDOW_SIZE = 1 << 28;
+    static final int MIN_RANGE_SIZE = 1 << 20;
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long rangeEnd;
+
+    private MappedByteBuffer buffer;
+    private long windowStart;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+
+    /**
+     * Вiдкриває файл та вiдображає перше вiкно в пам'ять.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @throws IOException якщо файл не вдалося вiдкрити.
+     */
+    MappedLineReader(String pathToFile) throws IOException {
+        this(pathToFile, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Вiдкриває частину файлу: зчитуються лише рядки, що починаються в дiапазонi {@code [start, end)}.
+     * Рядок, що перетинає {@code start}, належить попереднiй частинi, тому частини, якi покривають файл
+     * без промiжкiв, разом повертають кожен рядок рiвно один раз.
+     * 
+     * @param pathToFile Шлях до файлу з даними.
+     * @param start Початок частини в байтах.
+     * @param end Кiнець частини в байтах (не включно).
+     * @throws IOException якщо файл не вдалося вiдкрити.
+     */
+    MappedLineReader(String pathToFile, long start, long end) throws IOException {
+        this.channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.rangeEnd = Math.min(end, fileSize);
+        if (start == 0) {
+            map(0);
+        } else {
+            // читання з байта перед початком пропускає хвiст рядка попередньої частини (або порожнiй рядок,
+            // якщо частина починається одразу пiсля переведення рядка)
+            map(start - 1);
+            nextLine();
+        }
+    }
+
+    /**
+     * Переходить до наступного рядка файлу.
+     * 
+     * @return true, якщо рядок зчитано; false, якщо досягнуто кiнця файлу.
+     * @throws IOException якщо рядок довший за вiкно вiдображення або сталася помилка читання.
+     */
+    boolean nextLine() throws IOException {
+        while (true) {
+            if (windowStart + position >= rangeEnd) {
+                return false;
+            }
+
+            int limit = buffer.limit();
+            boolean isLastWindow = windowStart + limit >= fileSize;
+
+            if (position >= limit) {
+                if (isLastWindow) {
+                    return false;
+                }
+                map(windowStart + limit);
+                continue;
+            }
+
+            int end = position;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+
+            if (end == limit && !isLastWindow) {
+                if (position == 0) {
+                    throw new IOException("Рядок довший за " + WINDOW_SIZE + " байт");
+                }
+                // рядок перетинає межу вiкна - вiдображаємо нове вiкно з його початку
+                map(windowStart + position);
+                continue;
+            }
+
+            lineStart = position;
+            lineEnd = (end > position && buffer.get(end - 1) == '\r') ? end - 1 : end;
+            position = end + 1;
+            return true;
+        }
+    }
+
+    /**
+     * Перевiряє, чи має поточний рядок фiксований формат ISO, який декодує {@link #epochSecond()}.
+     * 
+     * @return true, якщо рядок можна декодувати без форматера.
+     */
+    boolean hasIsoLayout() {
+        int length = lineEnd - lineStart;
+        if (length > 0 && buffer.get(lineEnd - 1) == 'Z') {
+            length--;
+        }
+        if (length != 16 && length != 19) {
+            return false;
+        }
+        if (!isDigits(0, 4) || buffer.get(lineStart + 4) != '-' || !isDigits(5, 2) || buffer.get(lineStart + 7) != '-'
+                || !isDigits(8, 2) || buffer.get(lineStart + 10) != 'T' || !isDigits(11, 2)
+                || buffer.get(lineStart + 13) != ':' || !isDigits(14, 2)) {
+            return false;
+        }
+        if (length == 19 && (buffer.get(lineStart + 16) != ':' || !isDigits(17, 2))) {
+            return false;
+        }
+
+        int year = number(0, 4);
+        int month = number(5, 2);
+        int day = number(8, 2);
+        return month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)
+                && number(11, 2) < 24 && number(14, 2) < 60 && (length == 16 || number(17, 2) < 60);
+    }
+
+    /**
+     * Декодує поточний рядок у кiлькiсть секунд вiд початку епохи (UTC).
+     * Викликати лише пiсля того, як {@link #hasIsoLayout()} повернув true.
+     * 
+     * @return Кiлькiсть секунд вiд 1970-01-01T00:00:00.
+     */
+    long epochSecond() {
+        int year = number(0, 4);
+        int month = number(5, 2);
+        int day = number(8, 2);
+        int hour = number(11, 2);
+        int minute = number(14, 2);
+        boolean hasSeconds = lineEnd - lineStart >= 19 && buffer.get(lineStart + 16) == ':';
+        int second = hasSeconds ? number(17, 2) : 0;
+
+        return epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+    }
+
+    /**
+     * Повертає поточний рядок як String для розбору повiльним форматером.
+     * 
+     * @return Поточний рядок.
+     */
+    String line() {
+        byte[] bytes = new byte[lineEnd - lineStart];
+        buffer.get(lineStart, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Обчислює номер дня вiд 1970-01-01 для дати пролептичного григорiанського календаря.
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = (month <= 2) ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        boolean isLeap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+        return (month == 2 && isLeap) ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    private boolean isDigits(int offset, int count) {
+        for (int i = lineStart + offset; i < lineStart + offset + count; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int number(int offset, int count) {
+        int value = 0;
+        for (int i = lineStart + offset; i < lineStart + offset + count; i++) {
+            value = value * 10 + (buffer.get(i) - '0');
+        }
+        return value;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        position = 0;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileSize - start));
+    }
 }
\ No newline at end of file
@@ -1,19 +1,116 @@
 import java.io.*;
+import java.lang.management.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * Клас BasicDataOperationUsingSet надає методи для виконання основних операцій з даними типу Double.
  * 
  * Цей клас зчитує дані з файлу "list/double.data", сортує їх та виконує пошук значення в масиві та множині.
+ *
+ * Структура множини обирається властивістю {@code -Dset.structure}: {@code hash} (типово, {@link HashSet})
+ * або {@code primitive} ({@link DoubleOpenHashSet} без упакування значень). Властивість {@code -Dset.benchmark=<розмір>}
+ * порівнює обидві структури за обсягом пам'яті та пропускною здатністю пошуку, а {@code -Dset.check=<кількість>}
+ * звіряє {@link DoubleOpenHashSet} з {@link HashSet} на випадкових операціях з крайніми значеннями
+ * (NaN, -0.0, 4.9E-324, Double.MAX_VALUE) і завершується помилкою при першій розбіжності.
+ *
+ * Властивість {@code -Dsearch.bloom=<частка>} будує під час завантаження блоковий фільтр Блума {@link BlockedBloomFilter}
+ * із заданою часткою хибнопозитивних відповідей (наприклад, {@code 0.01}): відсутні значення відхиляються ним
+ * без пошуку в множині, а лічильники фільтра виводяться після пошуку. З {@code -Dset.benchmark} пошук
+ * відсутніх значень вимірюється окремо без фільтра і з ним.
+ *
+ * Властивість {@code -Dsearch.batch=<файл>} (або {@code -} для stdin) вмикає пакетний пошук: запити сортуються
+ * і знаходяться у відсортованому масиві за один прохід, для кожного виводиться рядок {@code <запит>\t<індекс>}
+ * (індекс -1, якщо значення не знайдено).
+ *
+ * Властивість {@code -Dsorted.format=binary} записує відсортований масив не текстом, а у бінарний файл {@link ColumnFile}
+ * ({@link #PATH_TO_SORTED_COLUMN_FILE}), який наступні запуски можуть відобразити у пам'ять без розбору.
+ *
+ * Властивість {@code -Dload.parallel=concat} зчитує файл частинами на всіх ядрах (див. {@link ParallelFileLoader}).
+ *
+ * Властивість {@code -Dstorage=offheap} зберігає числа поза heap у {@link OffHeapLongArray} без масиву Double і множини;
+ * {@code -Dmemory.report=true} виводить час збирань сміття, heap і RSS для порівняння з типовим {@code objects}.
+ * Мінімум і максимум невідсортованих ключів поза heap шукаються розгорнутим проходом {@link ScanKernel};
+ * {@code -Dscan.kernel=scalar} повертає прохід по одному елементу.
+ *
+ * Кількість унікальних значень і найчастіші значення відсортованого масиву рахуються точно одним проходом.
+ * Властивість {@code -Dset.distinct=<файл>} (або {@code -} для stdin) рахує їх потоком, не зберігаючи значень:
+ * оцінкою HyperLogLog з точністю {@code -Dset.distinct.precision} і count-min sketch; кількість найчастіших
+ * значень задає {@code -Dset.distinct.top} (див. {@link DuplicateStatistics}).
  */
 public class BasicDataOperationUsingSet {
     static final String PATH_TO_DATA_FILE = "list/double.data";
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    private static final int MIN_CAPACITY = 16;
+    private static final int LINE_SAMPLE_SIZE = 1 << 16;
+    private static final int MAX_ESTIMATED_CAPACITY = 1 << 26;
+    static final String SET_STRUCTURE_PROPERTY = "set.structure";
+    static final String SET_STRUCTURE_HASH = "hash";
+    static final String SET_STRUCTURE_PRIMITIVE = "primitive";
+    static final String SET_BENCHMARK_PROPERTY = "set.benchmark";
+    static final String SET_CHECK_PROPERTY = "set.check";
+    static final String BATCH_SEARCH_PROPERTY = "search.batch";
+    static final String SORTED_FORMAT_PROPERTY = "sorted.format";
+    static final String SORTED_FORMAT_TEXT = "text";
+    static final String SORTED_FORMAT_BINARY = "binary";
+    static final String PATH_TO_SORTED_COLUMN_FILE = PATH_TO_DATA_FILE + ".sorted.col";
+    static final String STORAGE_PROPERTY = "storage";
+    static final String STORAGE_OBJECTS = "objects";
+    static final String STORAGE_OFFHEAP = "offheap";
+    private static final int SET_BENCHMARK_ITERATIONS = 10;
 
     private final double valueToSearch;
     private Double[] valueArray;
-    private Set<Double> valueSet;
+    private ValueStatistics<Double> valueArrayStatistics;
+    private MinMaxSet<Double> valueSet;
+    private OffHeapLongArray valueOffHeapArray;
+    private BlockedBloomFilter valueFilter;
+    private final ScanKernel scanKernel;
 
     public static void main(String[] args) {
+        String batchSource = System.getProperty(BATCH_SEARCH_PROPERTY);
+        if (batchSource != null) {
+            doBatchSearch(batchSource);
+            OperationMetrics.report();
+            return;
+        }
+
+        Integer benchmarkSize = Integer.getInteger(SET_BENCHMARK_PROPERTY);
+        if (benchmarkSize != null) {
+            compareSetStructures(benchmarkSize);
+            OperationMetrics.report();
+            return;
+        }
+
+        Integer checkOperations = Integer.getInteger(SET_CHECK_PROPERTY);
+        if (checkOperations != null) {
+            checkPrimitiveSet(checkOperations);
+            return;
+        }
+
+        String distinctSource = System.getProperty(DuplicateStatistics.PROPERTY);
+        if (distinctSource != null) {
+            doDistinctStatistics(distinctSource);
+            OperationMetrics.report();
+            return;
+        }
+
         if (args.length == 0) {
             System.err.println("Будь ласка, вкажіть значення для пошуку.");
             return;
@@ -23,6 +120,10 @@ public class BasicDataOperationUsingSet {
             double valueToSearch = Double.parseDouble(args[0]);
             BasicDataOperationUsingSet operation = new BasicDataOperationUsingSet(valueToSearch);
             operation.doDataOperation();
+            OperationMetrics.report();
+            if (MemoryReport.isEnabled()) {
+                MemoryReport.print();
+            }
         } catch (NumberFormatException e) {
             System.err.println("Неправильний формат числа: " + args[0]);
         }
@@ -30,11 +131,305 @@ public class BasicDataOperationUsingSet {
 
     public BasicDataOperationUsingSet(double valueToSearch) {
         this.valueToSearch = valueToSearch;
-        this.valueArray = readArrayFromFile(PATH_TO_DATA_FILE);
-        this.valueSet = new HashSet<>(Arrays.asList(valueArray));
+        this.valueArrayStatistics = new ValueStatistics<>();
+        this.scanKernel = ScanKernel.fromSystemProperty();
+        String storageMode = System.getProperty(STORAGE_PROPERTY, STORAGE_OBJECTS);
+        if (STORAGE_OFFHEAP.equals(storageMode)) {
+            this.valueOffHeapArray = readOffHeapArrayFromFile(PATH_TO_DATA_FILE);
+            return;
+        } else if (!STORAGE_OBJECTS.equals(storageMode)) {
+            throw new IllegalArgumentException("Невідомий спосіб зберігання даних: " + storageMode);
+        }
+
+        String loadMode = System.getProperty(ParallelFileLoader.PROPERTY);
+        if (loadMode == null) {
+            this.valueArray = readArrayFromFile(PATH_TO_DATA_FILE, valueArrayStatistics);
+        } else if (ParallelFileLoader.MODE_CONCAT.equals(loadMode)) {
+            this.valueArray = readArrayFromFileInParallel(PATH_TO_DATA_FILE, valueArrayStatistics);
+        } else {
+            throw new IllegalArgumentException("Невідомий спосіб паралельного завантаження: " + loadMode);
+        }
+        this.valueSet = createSet(System.getProperty(SET_STRUCTURE_PROPERTY, SET_STRUCTURE_HASH), valueArray);
+
+        Double falsePositiveRate = BlockedBloomFilter.rateFromSystemProperty();
+        if (falsePositiveRate != null) {
+            OperationTimer timer = OperationTimer.start();
+            this.valueFilter = createFilter(valueArray, falsePositiveRate);
+            timer.stop("побудова фільтра Блума");
+        }
+    }
+
+    /**
+     * Будує фільтр Блума за хешами {@link DuplicateStatistics#hash(double)}, рівність яких збігається з {@link Double#equals}.
+     */
+    private static BlockedBloomFilter createFilter(Double[] values, double falsePositiveRate) {
+        BlockedBloomFilter filter = new BlockedBloomFilter(values.length, falsePositiveRate);
+        for (Double value : values) {
+            filter.add(DuplicateStatistics.hash(value));
+        }
+        return filter;
+    }
+
+    /**
+     * Сортує масив і знаходить у ньому всі запити з файлу або stdin за один прохід (див. {@link BatchSearch}).
+     */
+    private static void doBatchSearch(String source) {
+        Double[] values = readArrayFromFile(PATH_TO_DATA_FILE, new ValueStatistics<>());
+        Arrays.sort(values);
+
+        Double[] queries = "-".equals(source)
+                ? readValues(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : readArrayFromFile(source, new ValueStatistics<>());
+        Arrays.sort(queries);
+
+        OperationTimer timer = OperationTimer.start();
+        int[] results = BatchSearch.search(values, queries);
+        timer.stop(() -> "пакетний пошук " + queries.length + " значень");
+
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        try {
+            for (int i = 0; i < queries.length; i++) {
+                writer.write(queries[i] + "\t" + results[i]);
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("Помилка виведення результатів: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Рахує унікальні та найчастіші значення файлу або stdin потоком, не зберігаючи самих значень
+     * (див. {@link DuplicateStatistics}).
+     */
+    private static void doDistinctStatistics(String source) {
+        DuplicateStatistics statistics = DuplicateStatistics.fromSystemProperties();
+
+        OperationTimer timer = OperationTimer.start();
+        try (BufferedReader br = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), READ_BUFFER_SIZE)
+                : new BufferedReader(new FileReader(source), READ_BUFFER_SIZE)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isBlank()) {
+                    statistics.accept(Double.parseDouble(line.trim()));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка читання файлу: " + e.getMessage());
+        }
+        timer.stop(() -> "потокова статистика повторів " + source);
+
+        printDuplicateStatistics(statistics);
+    }
+
+    private static void printDuplicateStatistics(DuplicateStatistics statistics) {
+        long distinctCount = statistics.distinctCount();
+        if (statistics.isExact()) {
+            System.out.println("Кількість унікальних значень: " + distinctCount);
+            System.out.println("Кількість повторів: " + (statistics.count() - distinctCount));
+        } else {
+            System.out.printf("Кількість унікальних значень (оцінка HyperLogLog, похибка ±%.2f%%): %d%n",
+                    100 * statistics.relativeError(), distinctCount);
+            System.out.println("Кількість повторів (оцінка): " + Math.max(0, statistics.count() - distinctCount));
+            System.out.println("Пам'ять скетчів: " + statistics.footprintBytes() + " байт");
+        }
+
+        HeavyHitters heavyHitters = statistics.heavyHitters();
+        if (heavyHitters.size() > 0) {
+            System.out.println(statistics.isExact()
+                    ? "Найчастіші значення:"
+                    : "Найчастіші значення (частота за count-min sketch, не менша за точну):");
+            for (int index : heavyHitters.order()) {
+                System.out.println(heavyHitters.value(index) + "\t" + heavyHitters.count(index));
+            }
+        }
+    }
+
+    private static Double[] readValues(Reader reader) {
+        List<Double> values = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(reader, READ_BUFFER_SIZE)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isBlank()) {
+                    values.add(Double.parseDouble(line.trim()));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка читання запитів: " + e.getMessage());
+        }
+        return values.toArray(new Double[0]);
+    }
+
+    static MinMaxSet<Double> createSet(String structure, Double[] values) {
+        if (SET_STRUCTURE_HASH.equals(structure)) {
+            return new StatisticsSet<>(Arrays.asList(values));
+        } else if (SET_STRUCTURE_PRIMITIVE.equals(structure)) {
+            return new DoubleOpenHashSet(values);
+        }
+        throw new IllegalArgumentException("Невідома структура множини: " + structure);
+    }
+
+    /**
+     * Порівнює HashSet і DoubleOpenHashSet на випадкових числах заданого розміру.
+     * Виділені під час побудови байти (у звіті метрик) - це обсяг пам'яті множини, пошук виконується
+     * для кожного елемента масиву (влучання) та для стількох же відсутніх значень (промахи).
+     */
+    static void compareSetStructures(int size) {
+        Random random = new Random(size);
+        Double[] values = new Double[size];
+        double[] misses = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble() * 1e9;
+            misses[i] = -random.nextDouble() * 1e9 - 1;
+        }
+
+        Double falsePositiveRate = BlockedBloomFilter.rateFromSystemProperty();
+        BlockedBloomFilter filter = null;
+        if (falsePositiveRate != null) {
+            OperationTimer timer = OperationTimer.start();
+            filter = createFilter(values, falsePositiveRate);
+            timer.stop(() -> "порівняння: побудова фільтра Блума " + size + " елементів");
+        }
+
+        long found = 0;
+        for (int iteration = 0; iteration < SET_BENCHMARK_ITERATIONS; iteration++) {
+            for (String structure : new String[] {SET_STRUCTURE_HASH, SET_STRUCTURE_PRIMITIVE}) {
+                OperationTimer timer = OperationTimer.start();
+                MinMaxSet<Double> set = createSet(structure, values);
+                timer.stop(() -> "порівняння " + structure + ": побудова " + size + " елементів");
+
+                timer = OperationTimer.start();
+                for (Double value : values) {
+                    found += contains(set, value) ? 1 : 0;
+                }
+                for (double miss : misses) {
+                    found += contains(set, miss) ? 1 : 0;
+                }
+                timer.stop(() -> "порівняння " + structure + ": " + (2L * size) + " пошуків");
+
+                // фільтр Блума прискорює саме промахи, тому вони вимірюються окремо з ним і без нього
+                if (filter != null) {
+                    timer = OperationTimer.start();
+                    for (double miss : misses) {
+                        found += contains(set, miss) ? 1 : 0;
+                    }
+                    timer.stop(() -> "порівняння " + structure + ": " + size + " промахів");
+
+                    BlockedBloomFilter bloom = filter;
+                    timer = OperationTimer.start();
+                    for (double miss : misses) {
+                        found += bloom.contains(DuplicateStatistics.hash(miss), () -> contains(set, miss)) ? 1 : 0;
+                    }
+                    timer.stop(() -> "порівняння " + structure + " з фільтром Блума: " + size + " промахів");
+                }
+
+                if (iteration == 0 && set instanceof DoubleOpenHashSet) {
+                    System.out.println("Розмір таблиці DoubleOpenHashSet: " + ((DoubleOpenHashSet) set).footprintBytes() + " байт");
+                }
+            }
+        }
+
+        System.out.println("Контрольна сума порівняння: " + found);
+        if (filter != null) {
+            System.out.println(filter.report());
+        }
+    }
+
+    /**
+     * Звіряє {@link DoubleOpenHashSet} з {@link HashSet} на випадкових додаваннях, видаленнях і пошуках.
+     * Значення беруться з невеликого набору, що містить крайні значення: два NaN з різними бітами (для
+     * {@link Double#equals(Object)} це одне значення), 0.0 і -0.0 (різні значення), 4.9E-324, Double.MAX_VALUE
+     * і нескінченності. Набір малий, а таблиця починається з мінімального розміру, тому ланцюжки пробування
+     * часто переходять через кінець таблиці, і видалення зі зсувом перевіряється на таких ланцюжках.
+     * Після кожної операції порівнюються результат і розмір, періодично - вміст, мінімум і максимум.
+     * 
+     * @param operations Кількість випадкових операцій.
+     * @throws IllegalStateException при першій розбіжності.
+     */
+    static void checkPrimitiveSet(int operations) {
+        if (operations <= 0) {
+            throw new IllegalArgumentException("Кількість операцій перевірки має бути додатною: " + operations);
+        }
+
+        double[] edgeValues = {Double.NaN, Double.longBitsToDouble(0x7ff8_0000_0000_0001L), 0.0, -0.0,
+                Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE,
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 1.0, -1.0};
+        Random random = new Random(operations);
+        double[] pool = Arrays.copyOf(edgeValues, edgeValues.length + 36);
+        for (int i = edgeValues.length; i < pool.length; i++) {
+            pool[i] = random.nextDouble() * 1e9;
+        }
+
+        DoubleOpenHashSet primitive = new DoubleOpenHashSet(0);
+        Set<Double> expected = new HashSet<>();
+        for (int operation = 0; operation < operations; operation++) {
+            double value = pool[random.nextInt(pool.length)];
+            int kind = random.nextInt(5);
+            boolean actualResult;
+            boolean expectedResult;
+            if (kind == 0) {
+                actualResult = primitive.add(value);
+                expectedResult = expected.add(value);
+            } else if (kind == 1) {
+                actualResult = primitive.add(Double.valueOf(value));
+                expectedResult = expected.add(value);
+            } else if (kind == 2) {
+                actualResult = primitive.remove(value);
+                expectedResult = expected.remove(value);
+            } else if (kind == 3) {
+                actualResult = primitive.contains(value);
+                expectedResult = expected.contains(value);
+            } else {
+                actualResult = primitive.contains((Object) value);
+                expectedResult = expected.contains(value);
+            }
+
+            if (actualResult != expectedResult || primitive.size() != expected.size()) {
+                throw new IllegalStateException("Операція " + operation + " (" + kind + ") для " + value
+                        + ": DoubleOpenHashSet повернула " + actualResult + " і має " + primitive.size()
+                        + " елементів, HashSet - " + expectedResult + " і " + expected.size());
+            }
+            if (operation % 64 == 0 || operation == operations - 1) {
+                checkSameContents(primitive, expected, operation);
+            }
+        }
+
+        System.out.println("Перевірка DoubleOpenHashSet: " + operations + " операцій збігаються з HashSet");
+    }
+
+    private static void checkSameContents(DoubleOpenHashSet primitive, Set<Double> expected, int operation) {
+        Set<Double> actual = new HashSet<>();
+        for (Double value : primitive) {
+            if (!actual.add(value)) {
+                throw new IllegalStateException("Після операції " + operation + " значення " + value + " повторюється в таблиці");
+            }
+        }
+        if (!actual.equals(expected)) {
+            throw new IllegalStateException("Після операції " + operation + " вміст " + actual + " замість " + expected);
+        }
+
+        Double expectedMin = expected.isEmpty() ? null : Collections.min(expected, Double::compare);
+        Double expectedMax = expected.isEmpty() ? null : Collections.max(expected, Double::compare);
+        if (!Objects.equals(primitive.min(), expectedMin) || !Objects.equals(primitive.max(), expectedMax)) {
+            throw new IllegalStateException("Після операції " + operation + " мінімум і максимум " + primitive.min()
+                    + " і " + primitive.max() + " замість " + expectedMin + " і " + expectedMax);
+        }
+    }
+
+    private static boolean contains(Set<Double> set, double value) {
+        if (set instanceof DoubleOpenHashSet) {
+            return ((DoubleOpenHashSet) set).contains(value);
+        }
+        return set.contains(value);
     }
 
     private void doDataOperation() {
+        if (valueOffHeapArray != null) {
+            doOffHeapOperation();
+            return;
+        }
+
         searchArray();
         findMinAndMaxInArray();
 
@@ -47,19 +442,117 @@ public class BasicDataOperationUsingSet {
         findMinAndMaxInSet();
         compareArrayAndSet();
 
-        writeArrayToFile(valueArray, PATH_TO_DATA_FILE + ".sorted");
+        writeSortedOutput();
+    }
+
+    /**
+     * Пошук, мінімум і максимум та сортування чисел, що зберігаються поза heap (режим {@code offheap}).
+     * Числа зберігаються як ключі {@link #toSortableBits(double)}, порядок яких збігається з {@link Double#compare}.
+     */
+    private void doOffHeapOperation() {
+        searchOffHeapArray();
+        findMinAndMaxInOffHeapArray();
+
+        OperationTimer timer = OperationTimer.start();
+        valueOffHeapArray.sort();
+        timer.stop("сортування масиву чисел поза heap");
+
+        searchOffHeapArray();
+        findMinAndMaxInOffHeapArray();
+
+        writeSortedOutput();
+    }
+
+    private void searchOffHeapArray() {
+        OperationTimer timer = OperationTimer.start();
+        int index = valueOffHeapArray.binarySearch(toSortableBits(valueToSearch));
+        timer.stop("пошук у масиві чисел поза heap");
+
+        if (index >= 0) {
+            System.out.println("Значення '" + valueToSearch + "' знайдено в масиві поза heap за індексом: " + index);
+        } else {
+            System.out.println("Значення '" + valueToSearch + "' у масиві поза heap не знайдено.");
+        }
+    }
+
+    private void findMinAndMaxInOffHeapArray() {
+        if (valueOffHeapArray.size() == 0) {
+            System.out.println("Масив поза heap порожній.");
+            return;
+        }
+
+        OperationTimer timer = OperationTimer.start();
+        double min = fromSortableBits(valueOffHeapArray.min(scanKernel));
+        double max = fromSortableBits(valueOffHeapArray.max(scanKernel));
+        timer.stop("пошук мінімального та максимального значень у масиві поза heap");
+
+        System.out.println("Мінімальне значення в масиві поза heap: " + min);
+        System.out.println("Максимальне значення в масиві поза heap: " + max);
+    }
+
+    /**
+     * Перетворює число на ключ, знакове порівняння якого збігається з {@link Double#compare}:
+     * у від'ємних чисел інвертуються всі біти, крім знакового.
+     */
+    static long toSortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    static double fromSortableBits(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+    }
+
+    private void writeSortedOutput() {
+        String format = System.getProperty(SORTED_FORMAT_PROPERTY, SORTED_FORMAT_TEXT);
+        if (SORTED_FORMAT_TEXT.equals(format) && valueOffHeapArray != null) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(PATH_TO_DATA_FILE + ".sorted"), READ_BUFFER_SIZE)) {
+                for (int i = 0; i < valueOffHeapArray.size(); i++) {
+                    writer.write(Double.toString(fromSortableBits(valueOffHeapArray.get(i))));
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                System.err.println("Помилка запису у файл: " + e.getMessage());
+            }
+        } else if (SORTED_FORMAT_TEXT.equals(format)) {
+            writeArrayToFile(valueArray, PATH_TO_DATA_FILE + ".sorted");
+        } else if (SORTED_FORMAT_BINARY.equals(format) && valueOffHeapArray != null) {
+            OperationTimer timer = OperationTimer.start();
+            try {
+                ColumnFile.writeDoubles(PATH_TO_SORTED_COLUMN_FILE, valueOffHeapArray.size(),
+                        index -> fromSortableBits(valueOffHeapArray.get(index)), valueOffHeapArray.isSorted());
+            } catch (IOException e) {
+                System.err.println("Помилка запису у файл: " + e.getMessage());
+            }
+            timer.stop("запис бінарного файлу " + PATH_TO_SORTED_COLUMN_FILE);
+        } else if (SORTED_FORMAT_BINARY.equals(format)) {
+            OperationTimer timer = OperationTimer.start();
+            double[] values = new double[valueArray.length];
+            for (int i = 0; i < valueArray.length; i++) {
+                values[i] = valueArray[i];
+            }
+            try {
+                ColumnFile.write(PATH_TO_SORTED_COLUMN_FILE, values, valueArrayStatistics.isSorted());
+            } catch (IOException e) {
+                System.err.println("Помилка запису у файл: " + e.getMessage());
+            }
+            timer.stop("запис бінарного файлу " + PATH_TO_SORTED_COLUMN_FILE);
+        } else {
+            System.err.println("Невідомий формат відсортованого файлу: " + format);
+        }
     }
 
     private void sortArray() {
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
         Arrays.sort(valueArray);
-        printOperationDuration(startTime, "сортування масиву чисел");
+        valueArrayStatistics.markSorted();
+        timer.stop("сортування масиву чисел");
     }
 
     private void searchArray() {
-        long startTime = System.nanoTime();
+        OperationTimer timer = OperationTimer.start();
         int index = Arrays.binarySearch(valueArray, valueToSearch);
-        printOperationDuration(startTime, "пошук у масиві чисел");
+        timer.stop("пошук у масиві чисел");
 
         if (index >= 0) {
             System.out.println("Значення '" + valueToSearch + "' знайдено в масиві за індексом: " + index);
@@ -74,25 +567,31 @@ public class BasicDataOperationUsingSet {
             return;
         }
 
-        long startTime = System.nanoTime();
-        double min = Collections.min(Arrays.asList(valueArray));
-        double max = Collections.max(Arrays.asList(valueArray));
-        printOperationDuration(startTime, "пошук мінімального та максимального значень у масиві");
+        OperationTimer timer = OperationTimer.start();
+        // мінімум і максимум накопичені під час завантаження, тому масив не переглядається
+        double min = valueArrayStatistics.min();
+        double max = valueArrayStatistics.max();
+        timer.stop("пошук мінімального та максимального значень у масиві");
 
         System.out.println("Мінімальне значення в масиві: " + min);
         System.out.println("Максимальне значення в масиві: " + max);
     }
 
     private void searchSet() {
-        long startTime = System.nanoTime();
-        boolean isFound = valueSet.contains(valueToSearch);
-        printOperationDuration(startTime, "пошук у множині чисел");
+        OperationTimer timer = OperationTimer.start();
+        boolean isFound = (valueFilter != null)
+                ? valueFilter.contains(DuplicateStatistics.hash(valueToSearch), () -> contains(valueSet, valueToSearch))
+                : contains(valueSet, valueToSearch);
+        timer.stop("пошук у множині чисел");
 
         if (isFound) {
             System.out.println("Значення '" + valueToSearch + "' знайдено у множині.");
         } else {
             System.out.println("Значення '" + valueToSearch + "' у множині не знайдено.");
         }
+        if (valueFilter != null) {
+            System.out.println(valueFilter.report());
+        }
     }
 
     private void findMinAndMaxInSet() {
@@ -101,10 +600,10 @@ public class BasicDataOperationUsingSet {
             return;
         }
 
-        long startTime = System.nanoTime();
-        double min = Collections.min(valueSet);
-        double max = Collections.max(valueSet);
-        printOperationDuration(startTime, "пошук мінімального та максимального значень у множині");
+        OperationTimer timer = OperationTimer.start();
+        double min = valueSet.min();
+        double max = valueSet.max();
+        timer.stop("пошук мінімального та максимального значень у множині");
 
         System.out.println("Мінімальне значення у множині: " + min);
         System.out.println("Максимальне значення у множині: " + max);
@@ -114,28 +613,138 @@ public class BasicDataOperationUsingSet {
         System.out.println("Кількість елементів у масиві: " + valueArray.length);
         System.out.println("Кількість елементів у множині: " + valueSet.size());
 
-        boolean allElementsMatch = valueSet.containsAll(Arrays.asList(valueArray));
+        OperationTimer timer = OperationTimer.start();
+        DuplicateStatistics statistics;
+        if (valueArrayStatistics.isSorted()) {
+            statistics = DuplicateStatistics.ofSorted(valueArray, DuplicateStatistics.topFromSystemProperty());
+        } else {
+            statistics = DuplicateStatistics.fromSystemProperties();
+            for (Double value : valueArray) {
+                statistics.accept(value);
+            }
+        }
+        timer.stop("статистика повторів у масиві");
+
+        printDuplicateStatistics(statistics);
+        if (!statistics.isExact()) {
+            return;
+        }
 
-        if (allElementsMatch) {
+        // множина побудована з масиву, тому містить усі його елементи тоді й лише тоді, коли її розмір
+        // дорівнює кількості унікальних значень масиву - окремий прохід containsAll не потрібен
+        if (statistics.distinctCount() == valueSet.size()) {
             System.out.println("Усі елементи масиву присутні у множині.");
         } else {
             System.out.println("Не всі елементи масиву присутні у множині.");
         }
     }
 
-    private static Double[] readArrayFromFile(String pathToFile) {
-        List<Double> tempList = new ArrayList<>();
+    private static Double[] readArrayFromFile(String pathToFile, ValueStatistics<Double> statistics) {
+        OperationTimer timer = OperationTimer.start();
+        Double[] tempArray = new Double[estimateLineCount(pathToFile)];
+        int index = 0;
+
+        try (BufferedReader br = new BufferedReader(new FileReader(pathToFile), READ_BUFFER_SIZE)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (index == tempArray.length) {
+                    // геометричне збільшення в 1.5 раза, якщо оцінка кількості рядків виявилась замалою
+                    tempArray = Arrays.copyOf(tempArray, Math.max(MIN_CAPACITY, index + (index >> 1)));
+                }
+                Double value = Double.parseDouble(line);
+                statistics.accept(value);
+                tempArray[index++] = value;
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка читання файлу: " + e.getMessage());
+        }
+
+        Double[] finalArray = (index == tempArray.length) ? tempArray : Arrays.copyOf(tempArray, index);
+        printLoadReport(timer, pathToFile, index);
+        return finalArray;
+    }
+
+    private static Double[] readArrayFromFileInParallel(String pathToFile, ValueStatistics<Double> statistics) {
+        OperationTimer timer = OperationTimer.start();
+        double[] values = new double[0];
+        try {
+            values = ParallelFileLoader.readDoubles(pathToFile);
+        } catch (IOException e) {
+            System.err.println("Помилка читання файлу: " + e.getMessage());
+        }
+
+        double[] parsed = values;
+        Double[] array = new Double[parsed.length];
+        Arrays.parallelSetAll(array, i -> parsed[i]);
+        // статистика залежить від порядку значень, тому накопичується після об'єднання частин
+        for (Double value : array) {
+            statistics.accept(value);
+        }
+
+        printLoadReport(timer, pathToFile, array.length);
+        return array;
+    }
+
+    private static OffHeapLongArray readOffHeapArrayFromFile(String pathToFile) {
+        OperationTimer timer = OperationTimer.start();
+        OffHeapLongArray values = new OffHeapLongArray(estimateLineCount(pathToFile));
 
-        try (BufferedReader br = new BufferedReader(new FileReader(pathToFile))) {
+        try (BufferedReader br = new BufferedReader(new FileReader(pathToFile), READ_BUFFER_SIZE)) {
             String line;
             while ((line = br.readLine()) != null) {
-                tempList.add(Double.parseDouble(line));
+                values.add(toSortableBits(Double.parseDouble(line)));
             }
         } catch (IOException e) {
             System.err.println("Помилка читання файлу: " + e.getMessage());
         }
 
-        return tempList.toArray(new Double[0]);
+        printLoadReport(timer, pathToFile, values.size());
+        return values;
+    }
+
+    /**
+     * Оцінює кількість рядків за вибіркою з перших {@link #LINE_SAMPLE_SIZE} байтів файлу; файл, що вміщується
+     * у вибірку, підраховується точно. Оцінка обмежена {@link #MAX_ESTIMATED_CAPACITY}, далі масив росте в 1.5 раза.
+     */
+    private static int estimateLineCount(String pathToFile) {
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+            long fileLength = channel.size();
+            ByteBuffer sample = ByteBuffer.allocate((int) Math.min(fileLength, LINE_SAMPLE_SIZE));
+            while (sample.hasRemaining() && channel.read(sample) > 0) {
+                // читання до заповнення вибірки
+            }
+
+            int sampleLength = sample.position();
+            long lineCount = 0;
+            for (int i = 0; i < sampleLength; i++) {
+                if (sample.get(i) == '\n') {
+                    lineCount++;
+                }
+            }
+
+            if (sampleLength == fileLength) {
+                boolean hasUnterminatedLine = sampleLength > 0 && sample.get(sampleLength - 1) != '\n';
+                return (int) Math.max(MIN_CAPACITY, lineCount + (hasUnterminatedLine ? 1 : 0));
+            }
+            if (lineCount == 0) {
+                return MIN_CAPACITY;
+            }
+            return (int) Math.min(fileLength * lineCount / sampleLength + 1, MAX_ESTIMATED_CAPACITY);
+        } catch (IOException e) {
+            return MIN_CAPACITY;
+        }
+    }
+
+    private static void printLoadReport(OperationTimer timer, String pathToFile, int lineCount) {
+        timer.stop(() -> "завантаження файлу " + pathToFile);
+
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.println("Зчитано рядків: " + lineCount + ", пікове використання heap: " + (peakHeapBytes >> 20) + " МБ");
     }
 
     private static void writeArrayToFile(Double[] array, String pathToFile) {
@@ -148,11 +757,2084 @@ public class BasicDataOperationUsingSet {
             System.err.println("Помилка запису у файл: " + e.getMessage());
         }
     }
+}
 
-    private static void printOperationDuration(long startTime, String operationName) {
-        long endTime = System.nanoTime();
-        long duration = endTime - startTime;
-        System.out.println("Час виконання операції '" + operationName + "': " + duration + " наносекунд");
+/**
+ * Клас OffHeapLongArray - масив long поза heap у прямих буферах {@link ByteBuffer#allocateDirect(int)}.
+ * 
+ * <p>Значення зберігаються частинами по {@link #CHUNK_LENGTH} елементів (128 МБ), тому розмір не обмежений
+ * 2 ГБ одного буфера, а збирач сміття бачить лише невеликі об'єкти буферів i не переглядає та не копіює дані.
+ * Сортування (порозрядне LSD, з допоміжним масивом поза heap), бінарний пошук i пошук мінімуму та максимуму
+ * працюють безпосередньо з буферами. Пам'ять звільняється, коли масив стає недосяжним; її загальний обсяг
+ * обмежує {@code -XX:MaxDirectMemorySize} (типово - розмір heap).</p>
+ */
+class OffHeapLongArray {
+    static final int CHUNK_SHIFT = 24;
+    static final int CHUNK_LENGTH = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_LENGTH - 1;
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int SCAN_BLOCK_LENGTH = 1 << 12;
+
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    private long capacity;
+    private int size;
+    private boolean isSorted;
+
+    /**
+     * Створює масив з місткістю для заданої кількості елементів.
+     * 
+     * @param expectedSize Очікувана кількість елементів.
+     */
+    OffHeapLongArray(int expectedSize) {
+        while (capacity < expectedSize) {
+            addChunk((int) Math.min(CHUNK_LENGTH, Math.max(MIN_CAPACITY, expectedSize - capacity)));
+        }
+    }
+
+    void add(long value) {
+        if (size == capacity) {
+            grow();
+        }
+        set(size++, value);
+    }
+
+    long get(int index) {
+        return chunks[index >>> CHUNK_SHIFT].getLong((index & CHUNK_MASK) << 3);
+    }
+
+    void set(int index, long value) {
+        chunks[index >>> CHUNK_SHIFT].putLong((index & CHUNK_MASK) << 3, value);
+        isSorted = false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isSorted() {
+        return isSorted;
+    }
+
+    /**
+     * @return Обсяг виділеної пам'яті поза heap у байтах.
+     */
+    long footprintBytes() {
+        return capacity * Long.BYTES;
+    }
+
+    /**
+     * Сортує масив за зростанням порозрядним сортуванням по 8 бітів; розряди, однакові для всіх значень, пропускаються.
+     */
+    void sort() {
+        if (isSorted) {
+            return;
+        }
+
+        OffHeapLongArray source = this;
+        OffHeapLongArray target = new OffHeapLongArray(size);
+        target.size = size;
+        int[] offsets = new int[RADIX];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(offsets, 0);
+            for (int i = 0; i < size; i++) {
+                offsets[digit(source.get(i), shift)]++;
+            }
+            if (size == 0 || offsets[digit(source.get(0), shift)] == size) {
+                continue;
+            }
+
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = offsets[digit];
+                offsets[digit] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < size; i++) {
+                long value = source.get(i);
+                target.set(offsets[digit(value, shift)]++, value);
+            }
+
+            OffHeapLongArray swap = source;
+            source = target;
+            target = swap;
+        }
+
+        if (source != this) {
+            chunks = source.chunks;
+            capacity = source.capacity;
+        }
+        isSorted = true;
+    }
+
+    /**
+     * Виконує бінарний пошук у відсортованому масиві.
+     * 
+     * @param key Значення для пошуку.
+     * @return Iндекс знайденого значення або {@code -(точка вставки) - 1}, як у {@link Arrays#binarySearch(long[], long)}.
+     */
+    int binarySearch(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long value = get(middle);
+            if (value < key) {
+                low = middle + 1;
+            } else if (value > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * @param scanKernel Спосіб проходу невідсортованого масиву.
+     * @return Мінімальне значення (для відсортованого масиву - перший елемент без перегляду).
+     */
+    long min(ScanKernel scanKernel) {
+        if (isSorted) {
+            return get(0);
+        }
+        long min = get(0);
+        long[] block = new long[SCAN_BLOCK_LENGTH];
+        for (int from = 0; from < size; from += SCAN_BLOCK_LENGTH) {
+            int length = copyBlock(from, block);
+            min = Math.min(min, scanKernel.min(block, 0, length));
+        }
+        return min;
+    }
+
+    /**
+     * @param scanKernel Спосіб проходу невідсортованого масиву.
+     * @return Максимальне значення (для відсортованого масиву - останній елемент без перегляду).
+     */
+    long max(ScanKernel scanKernel) {
+        if (isSorted) {
+            return get(size - 1);
+        }
+        long max = get(0);
+        long[] block = new long[SCAN_BLOCK_LENGTH];
+        for (int from = 0; from < size; from += SCAN_BLOCK_LENGTH) {
+            int length = copyBlock(from, block);
+            max = Math.max(max, scanKernel.max(block, 0, length));
+        }
+        return max;
+    }
+
+    /**
+     * Копіює блок елементів, що починається з {@code from}, у масив у heap одним масовим читанням буфера,
+     * щоб прохід {@link ScanKernel} працював з масивом, а не з окремими зверненнями до буфера.
+     * Блок не перетинає межу частини, бо {@link #SCAN_BLOCK_LENGTH} ділить {@link #CHUNK_LENGTH}.
+     * 
+     * @return Кількість скопійованих елементів.
+     */
+    private int copyBlock(int from, long[] block) {
+        int length = Math.min(block.length, size - from);
+        // після зростання позиція частини не нульова, а її копія має порядок байтів big-endian,
+        // тому подання будується з початку частини і з порядком байтів платформи
+        ByteBuffer chunk = chunks[from >>> CHUNK_SHIFT].duplicate().clear().order(ByteOrder.nativeOrder());
+        chunk.asLongBuffer().get(from & CHUNK_MASK, block, 0, length);
+        return length;
+    }
+
+    private void grow() {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Масив поза heap досяг найбільшого розміру");
+        }
+        ByteBuffer last = (chunks.length > 0) ? chunks[chunks.length - 1] : null;
+        if (last == null || last.capacity() == CHUNK_LENGTH * Long.BYTES) {
+            addChunk(MIN_CAPACITY);
+            return;
+        }
+
+        // неповна остання частина зростає вдвічі, доки не стане повною
+        ByteBuffer grown = allocate((int) Math.min(CHUNK_LENGTH, 2L * last.capacity() / Long.BYTES));
+        grown.put(last.duplicate().clear());
+        capacity += (grown.capacity() - last.capacity()) / Long.BYTES;
+        chunks[chunks.length - 1] = grown;
+    }
+
+    private void addChunk(int length) {
+        chunks = Arrays.copyOf(chunks, chunks.length + 1);
+        chunks[chunks.length - 1] = allocate(length);
+        capacity += length;
+    }
+
+    private static ByteBuffer allocate(int length) {
+        return ByteBuffer.allocateDirect(length * Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    private static int digit(long value, int shift) {
+        // інвертований знаковий біт упорядковує від'ємні значення перед додатними
+        return (int) (((value ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1));
     }
 }
 
+/**
+ * Перелік ScanKernel визначає спосіб лінійного проходу по масивах {@code long}: пошук мінімуму і максимуму,
+ * підрахунок значень у діапазоні та пошук значення в невідсортованих даних.
+ * 
+ * <p>Спосіб обирається системною властивістю {@link #PROPERTY}, наприклад {@code -Dscan.kernel=scalar}:</p>
+ * <ul>
+ *   <li>{@link #UNROLLED} - цикл розгорнутий на кілька незалежних накопичувачів без умовних переходів,
+ *       що залежать від даних: сусідні порівняння не чекають одне на одне, а компілятор C2 може виконати їх
+ *       векторними інструкціями.</li>
+ *   <li>{@link #SCALAR} - по одному елементу за ітерацію; еталон для перевірки та порівняння.</li>
+ * </ul>
+ */
+enum ScanKernel {
+    SCALAR,
+    UNROLLED;
+
+    static final String PROPERTY = "scan.kernel";
+
+    /**
+     * Повертає спосіб проходу, заданий системною властивістю {@link #PROPERTY} (типово {@link #UNROLLED}).
+     * 
+     * @return Обраний спосіб проходу.
+     */
+    static ScanKernel fromSystemProperty() {
+        String value = System.getProperty(PROPERTY, UNROLLED.name());
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Невідомий спосіб проходу масиву: " + value);
+        }
+    }
+
+    /**
+     * @param values Масив.
+     * @param from Початковий індекс (включно).
+     * @param to Кінцевий індекс (не включно), більший за {@code from}.
+     * @return Мінімальне значення в {@code values[from, to)}.
+     */
+    long min(long[] values, int from, int to) {
+        long min0 = values[from];
+        int i = from + 1;
+        if (this == UNROLLED) {
+            long min1 = min0;
+            long min2 = min0;
+            long min3 = min0;
+            for (int end = to - 3; i < end; i += 4) {
+                min0 = Math.min(min0, values[i]);
+                min1 = Math.min(min1, values[i + 1]);
+                min2 = Math.min(min2, values[i + 2]);
+                min3 = Math.min(min3, values[i + 3]);
+            }
+            min0 = Math.min(Math.min(min0, min1), Math.min(min2, min3));
+        }
+        for (; i < to; i++) {
+            min0 = Math.min(min0, values[i]);
+        }
+        return min0;
+    }
+
+    /**
+     * @param values Масив.
+     * @param from Початковий індекс (включно).
+     * @param to Кінцевий індекс (не включно), більший за {@code from}.
+     * @return Максимальне значення в {@code values[from, to)}.
+     */
+    long max(long[] values, int from, int to) {
+        long max0 = values[from];
+        int i = from + 1;
+        if (this == UNROLLED) {
+            long max1 = max0;
+            long max2 = max0;
+            long max3 = max0;
+            for (int end = to - 3; i < end; i += 4) {
+                max0 = Math.max(max0, values[i]);
+                max1 = Math.max(max1, values[i + 1]);
+                max2 = Math.max(max2, values[i + 2]);
+                max3 = Math.max(max3, values[i + 3]);
+            }
+            max0 = Math.max(Math.max(max0, max1), Math.max(max2, max3));
+        }
+        for (; i < to; i++) {
+            max0 = Math.max(max0, values[i]);
+        }
+        return max0;
+    }
+
+    /**
+     * Підраховує значення з діапазону {@code [low, high)}. Розгорнутий прохід замінює два порівняння одним
+     * беззнаковим {@code value - low < high - low}, обчисленим без умовного переходу.
+     * 
+     * @param values Масив.
+     * @param from Початковий індекс (включно).
+     * @param to Кінцевий індекс (не включно).
+     * @param low Нижня межа діапазону (включно).
+     * @param high Верхня межа діапазону (не включно).
+     * @return Кількість значень діапазону в {@code values[from, to)}.
+     */
+    int countInRange(long[] values, int from, int to, long low, long high) {
+        if (low >= high) {
+            return 0;
+        }
+
+        int count0 = 0;
+        int i = from;
+        if (this == UNROLLED) {
+            long width = high - low;
+            int count1 = 0;
+            int count2 = 0;
+            int count3 = 0;
+            for (int end = to - 3; i < end; i += 4) {
+                count0 += isBelowUnsigned(values[i] - low, width);
+                count1 += isBelowUnsigned(values[i + 1] - low, width);
+                count2 += isBelowUnsigned(values[i + 2] - low, width);
+                count3 += isBelowUnsigned(values[i + 3] - low, width);
+            }
+            count0 += count1 + count2 + count3;
+        }
+        for (; i < to; i++) {
+            if (values[i] >= low && values[i] < high) {
+                count0++;
+            }
+        }
+        return count0;
+    }
+
+    /**
+     * Шукає перше входження значення. Розгорнутий прохід порівнює вісім елементів без переходів між ними
+     * і переглядає блок поелементно лише тоді, коли в ньому є збіг.
+     * 
+     * @param values Масив.
+     * @param from Початковий індекс (включно).
+     * @param to Кінцевий індекс (не включно).
+     * @param key Значення для пошуку.
+     * @return Індекс першого входження або -1, якщо значення відсутнє.
+     */
+    int indexOf(long[] values, int from, int to, long key) {
+        int i = from;
+        if (this == UNROLLED) {
+            for (int end = to - 7; i < end; i += 8) {
+                if ((values[i] == key) | (values[i + 1] == key) | (values[i + 2] == key) | (values[i + 3] == key)
+                        | (values[i + 4] == key) | (values[i + 5] == key) | (values[i + 6] == key) | (values[i + 7] == key)) {
+                    break;
+                }
+            }
+        }
+        for (; i < to; i++) {
+            if (values[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 1, якщо {@code left < right} як беззнакові числа, інакше 0 (Hacker's Delight, 2-12).
+     */
+    private static int isBelowUnsigned(long left, long right) {
+        return (int) (((~left & right) | ((~left | right) & (left - right))) >>> 63);
+    }
+}
+
+/**
+ * Клас MemoryReport виводить використання пам'яті процесом: час i кількість збирань сміття, heap,
+ * пам'ять прямих i відображених буферів та резидентну пам'ять процесу (RSS) з {@code /proc/self/status}.
+ */
+class MemoryReport {
+    static final String PROPERTY = "memory.report";
+    private static final String PROC_STATUS = "/proc/self/status";
+
+    static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    static void print() {
+        long collectionCount = 0;
+        long collectionMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectionCount += Math.max(0, collector.getCollectionCount());
+            collectionMillis += Math.max(0, collector.getCollectionTime());
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+
+        System.out.println("\n>>>>>>>>> Пам'ять процесу:");
+        System.out.println("Збирань сміття: " + collectionCount + ", сумарний час: " + collectionMillis + " мс");
+        System.out.println("Heap: використано " + (heap.getUsed() >> 20) + " МБ, виділено " + (heap.getCommitted() >> 20) + " МБ");
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            System.out.println("Буфери " + pool.getName() + ": " + (pool.getMemoryUsed() >> 20) + " МБ");
+        }
+
+        try {
+            for (String line : Files.readAllLines(Paths.get(PROC_STATUS))) {
+                if (line.startsWith("VmRSS:") || line.startsWith("VmHWM:")) {
+                    System.out.println(line.replaceAll("\\s+", " "));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("RSS недоступний: " + e.getMessage());
+        }
+    }
+}
+
+/**
+ * Клас ValueStatistics інкрементально накопичує кількість, мінімум i максимум значень та ознаку впорядкованості,
+ * щоб запити до крайніх значень виконувались за сталий час без повторного перегляду даних.
+ * 
+ * <p>Значення враховуються в тому порядку, в якому вони додаються в кінець послідовності
+ * (під час завантаження файлу або вставки в контейнер).</p>
+ */
+class ValueStatistics<T extends Comparable<? super T>> {
+    private long count;
+    private T min;
+    private T max;
+    private T last;
+    private boolean isSorted = true;
+
+    /**
+     * Враховує значення, додане в кінець послідовності.
+     * 
+     * @param value Значення.
+     */
+    void accept(T value) {
+        if (count == 0 || value.compareTo(min) < 0) {
+            min = value;
+        }
+        if (count == 0 || value.compareTo(max) > 0) {
+            max = value;
+        }
+        if (count > 0 && value.compareTo(last) < 0) {
+            isSorted = false;
+        }
+        last = value;
+        count++;
+    }
+
+    /**
+     * Позначає послідовність як відсортовану за зростанням (мінімум i максимум при цьому не змінюються).
+     */
+    void markSorted() {
+        isSorted = true;
+        last = max;
+    }
+
+    /**
+     * Позначає послідовність як невпорядковану, наприклад після вставки в середину.
+     */
+    void markUnsorted() {
+        isSorted = false;
+    }
+
+    /**
+     * Скидає накопичену статистику.
+     */
+    void clear() {
+        count = 0;
+        min = null;
+        max = null;
+        last = null;
+        isSorted = true;
+    }
+
+    /**
+     * @return Копія статистики.
+     */
+    ValueStatistics<T> copy() {
+        ValueStatistics<T> copy = new ValueStatistics<>();
+        copy.count = count;
+        copy.min = min;
+        copy.max = max;
+        copy.last = last;
+        copy.isSorted = isSorted;
+        return copy;
+    }
+
+    long count() {
+        return count;
+    }
+
+    T min() {
+        return min;
+    }
+
+    T max() {
+        return max;
+    }
+
+    boolean isSorted() {
+        return isSorted;
+    }
+}
+
+/**
+ * Клас StatisticsSet - множина на основі {@link HashSet}, яка повертає мінімальний i максимальний елементи за сталий час.
+ * 
+ * <p>Кожен новий елемент оновлює мінімум i максимум під час вставки; видалення позначає статистику застарілою,
+ * i вона перераховується одним проходом при наступному запиті.</p>
+ */
+class StatisticsSet<E extends Comparable<? super E>> extends AbstractSet<E> implements MinMaxSet<E> {
+    private final HashSet<E> elements;
+    private final ValueStatistics<E> statistics = new ValueStatistics<>();
+    private boolean isStatisticsValid = true;
+
+    StatisticsSet(Collection<? extends E> values) {
+        this.elements = new HashSet<>(Math.max((int) (values.size() / .75f) + 1, 16));
+        addAll(values);
+    }
+
+    @Override
+    public boolean add(E element) {
+        if (!elements.add(element)) {
+            return false;
+        }
+        if (isStatisticsValid) {
+            statistics.accept(element);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        boolean isRemoved = elements.remove(object);
+        if (isRemoved) {
+            isStatisticsValid = false;
+        }
+        return isRemoved;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return elements.contains(object);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+        statistics.clear();
+        isStatisticsValid = true;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<E> iterator = elements.iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                isStatisticsValid = false;
+            }
+        };
+    }
+
+    @Override
+    public E min() {
+        return statistics().min();
+    }
+
+    @Override
+    public E max() {
+        return statistics().max();
+    }
+
+    private ValueStatistics<E> statistics() {
+        if (!isStatisticsValid) {
+            statistics.clear();
+            for (E element : elements) {
+                statistics.accept(element);
+            }
+            isStatisticsValid = true;
+        }
+        return statistics;
+    }
+}
+
+/**
+ * Інтерфейс MinMaxSet описує множину, яка повертає мінімальний і максимальний елементи за сталий час.
+ */
+interface MinMaxSet<E> extends Set<E> {
+    E min();
+
+    E max();
+}
+
+/**
+ * Клас DoubleOpenHashSet - множина примітивних double з відкритою адресацією та лінійним пробуванням.
+ *
+ * <p>Ключем є {@link Double#doubleToLongBits(double)}, тому рівність збігається з {@link Double#equals(Object)}:
+ * усі NaN вважаються одним значенням, а -0.0 і 0.0 - різними. Таблиця - це один масив long (8 байт на комірку
+ * без вузлів і упакованих Double). Порожня комірка позначається бітовим шаблоном NaN, який
+ * {@code doubleToLongBits} ніколи не повертає. Мінімум і максимум ведуться в порядку {@link Double#compare}.</p>
+ *
+ * <p>Видалення через {@link #remove(Object)} виконується зі зсувом наступних елементів ланцюжка;
+ * видалення через ітератор не підтримується.</p>
+ */
+class DoubleOpenHashSet extends AbstractSet<Double> implements MinMaxSet<Double> {
+    private static final long EMPTY = 0x7ff0_0000_0000_0001L;
+    private static final int MIN_TABLE_SIZE = 16;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private long[] table;
+    private int size;
+    private double min;
+    private double max;
+    private boolean isStatisticsValid = true;
+
+    DoubleOpenHashSet(int expectedSize) {
+        table = new long[tableSizeFor(expectedSize)];
+        Arrays.fill(table, EMPTY);
+    }
+
+    DoubleOpenHashSet(Double[] values) {
+        this(values.length);
+        for (Double value : values) {
+            add(value.doubleValue());
+        }
+    }
+
+    /**
+     * Додає значення без упакування.
+     *
+     * @return true, якщо значення ще не було в множині.
+     */
+    boolean add(double value) {
+        long key = Double.doubleToLongBits(value);
+        int mask = table.length - 1;
+        int index = mix(key) & mask;
+        while (table[index] != EMPTY) {
+            if (table[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if ((size + 1) * 2 > table.length && table.length == MAX_TABLE_SIZE) {
+            throw new IllegalStateException("DoubleOpenHashSet не може містити більше " + MAX_TABLE_SIZE / 2 + " значень");
+        }
+
+        table[index] = key;
+        if (isStatisticsValid) {
+            if (size == 0 || Double.compare(value, min) < 0) {
+                min = value;
+            }
+            if (size == 0 || Double.compare(value, max) > 0) {
+                max = value;
+            }
+        }
+        // коефіцієнт заповнення не перевищує 1/2, щоб ланцюжки пробування залишались короткими;
+        // найбільша таблиця не росте далі - додавання понад її половину відхиляється вище
+        if (++size * 2 > table.length) {
+            resize(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Перевіряє наявність значення без упакування.
+     */
+    boolean contains(double value) {
+        return indexOf(Double.doubleToLongBits(value)) >= 0;
+    }
+
+    @Override
+    public boolean add(Double value) {
+        return add(value.doubleValue());
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return (object instanceof Double) && contains(((Double) object).doubleValue());
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        if (!(object instanceof Double)) {
+            return false;
+        }
+        int index = indexOf(Double.doubleToLongBits((Double) object));
+        if (index < 0) {
+            return false;
+        }
+
+        // зсуваємо назад елементи ланцюжка, щоб пробування не обривалося на звільненій комірці
+        int mask = table.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (table[next] != EMPTY) {
+            int home = mix(table[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = EMPTY;
+        size--;
+        isStatisticsValid = false;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+        isStatisticsValid = true;
+    }
+
+    @Override
+    public Iterator<Double> iterator() {
+        return new Iterator<Double>() {
+            private int index = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return index < table.length;
+            }
+
+            @Override
+            public Double next() {
+                if (index >= table.length) {
+                    throw new NoSuchElementException();
+                }
+                double value = Double.longBitsToDouble(table[index]);
+                index = advance(index + 1);
+                return value;
+            }
+
+            private int advance(int from) {
+                int position = from;
+                while (position < table.length && table[position] == EMPTY) {
+                    position++;
+                }
+                return position;
+            }
+        };
+    }
+
+    @Override
+    public Double min() {
+        ensureStatistics();
+        return (size == 0) ? null : min;
+    }
+
+    @Override
+    public Double max() {
+        ensureStatistics();
+        return (size == 0) ? null : max;
+    }
+
+    /**
+     * @return Кількість байтів, які займає таблиця множини.
+     */
+    long footprintBytes() {
+        return 16L + (long) table.length * Long.BYTES;
+    }
+
+    private void ensureStatistics() {
+        if (!isStatisticsValid) {
+            boolean isFirst = true;
+            for (long key : table) {
+                if (key == EMPTY) {
+                    continue;
+                }
+                double value = Double.longBitsToDouble(key);
+                if (isFirst || Double.compare(value, min) < 0) {
+                    min = value;
+                }
+                if (isFirst || Double.compare(value, max) > 0) {
+                    max = value;
+                }
+                isFirst = false;
+            }
+            isStatisticsValid = true;
+        }
+    }
+
+    private int indexOf(long key) {
+        int mask = table.length - 1;
+        int index = mix(key) & mask;
+        while (table[index] != EMPTY) {
+            if (table[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int newLength) {
+        long[] oldTable = table;
+        table = new long[newLength];
+        Arrays.fill(table, EMPTY);
+        int mask = newLength - 1;
+        for (long key : oldTable) {
+            if (key != EMPTY) {
+                int index = mix(key) & mask;
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = key;
+            }
+        }
+    }
+
+    /**
+     * Перемішує біти ключа (фіналізатор MurmurHash3), щоб близькі значення не потрапляли в сусідні комірки.
+     */
+    private static int mix(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long required = Math.max(MIN_TABLE_SIZE, (long) expectedSize * 2);
+        return (int) Math.min(MAX_TABLE_SIZE, Long.highestOneBit(required - 1) << 1);
+    }
+}
+
+/**
+ * Клас DuplicateStatistics рахує кількість унікальних значень і найчастіші значення без побудови {@link HashSet}.
+ *
+ * <p>Для відсортованих даних ({@link #ofSorted}) рівні значення лежать поспіль, тому точна кількість унікальних
+ * значень і частота кожного з них виходять одним проходом за довжинами серій. Для невідсортованого або потокового
+ * входу (конструктор і {@link #accept(double)}) кількість унікальних значень оцінюється {@link HyperLogLog}
+ * з точністю {@link #PRECISION_PROPERTY}, частоти - скетчем {@link CountMinSketch} (оцінка не менша за точну),
+ * а найчастіші значення відбирає {@link HeavyHitters}. Пам'ять потокового режиму не залежить від обсягу даних.</p>
+ *
+ * <p>Рівність значень збігається з {@link Double#equals(Object)}, як у множині: усі NaN - одне значення,
+ * а -0.0 і 0.0 - різні.</p>
+ */
+class DuplicateStatistics {
+    static final String PROPERTY = "set.distinct";
+    static final String PRECISION_PROPERTY = "set.distinct.precision";
+    static final String TOP_PROPERTY = "set.distinct.top";
+    static final int DEFAULT_PRECISION = 14;
+    static final int DEFAULT_TOP = 5;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 1 << 16;
+
+    private final HyperLogLog hyperLogLog;
+    private final CountMinSketch sketch;
+    private final HeavyHitters heavyHitters;
+    private long count;
+    private long distinctCount;
+
+    /**
+     * Створює потокову статистику.
+     *
+     * @param precision Точність HyperLogLog (кількість бітів індексу регістра).
+     * @param top Кількість найчастіших значень, що відстежуються.
+     */
+    DuplicateStatistics(int precision, int top) {
+        this.hyperLogLog = new HyperLogLog(precision);
+        this.sketch = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        this.heavyHitters = new HeavyHitters(top);
+    }
+
+    private DuplicateStatistics(long count, long distinctCount, HeavyHitters heavyHitters) {
+        this.hyperLogLog = null;
+        this.sketch = null;
+        this.heavyHitters = heavyHitters;
+        this.count = count;
+        this.distinctCount = distinctCount;
+    }
+
+    /**
+     * Створює потокову статистику з параметрами із системних властивостей {@link #PRECISION_PROPERTY} і {@link #TOP_PROPERTY}.
+     */
+    static DuplicateStatistics fromSystemProperties() {
+        return new DuplicateStatistics(Integer.getInteger(PRECISION_PROPERTY, DEFAULT_PRECISION), topFromSystemProperty());
+    }
+
+    /**
+     * Рахує точну статистику відсортованого масиву одним проходом за довжинами серій рівних значень.
+     *
+     * @param sorted Масив, відсортований за {@link Double#compareTo(Double)}.
+     * @param top Кількість найчастіших значень.
+     * @return Точна статистика.
+     */
+    static DuplicateStatistics ofSorted(Double[] sorted, int top) {
+        HeavyHitters heavyHitters = new HeavyHitters(top);
+        long distinctCount = 0;
+        int runStart = 0;
+        for (int i = 1; i <= sorted.length; i++) {
+            if (i == sorted.length || !sorted[i].equals(sorted[runStart])) {
+                distinctCount++;
+                heavyHitters.offer(sorted[runStart], i - runStart);
+                runStart = i;
+            }
+        }
+        return new DuplicateStatistics(sorted.length, distinctCount, heavyHitters);
+    }
+
+    static int topFromSystemProperty() {
+        return Integer.getInteger(TOP_PROPERTY, DEFAULT_TOP);
+    }
+
+    /**
+     * Додає значення потоку.
+     *
+     * @param value Значення.
+     * @throws IllegalStateException Якщо статистика точна (створена з відсортованого масиву).
+     */
+    void accept(double value) {
+        if (hyperLogLog == null) {
+            throw new IllegalStateException("Точна статистика не приймає нових значень");
+        }
+        long hash = hash(value);
+        count++;
+        hyperLogLog.add(hash);
+        heavyHitters.offer(value, sketch.add(hash));
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * @return Точна кількість унікальних значень або оцінка HyperLogLog.
+     */
+    long distinctCount() {
+        return isExact() ? distinctCount : hyperLogLog.estimate();
+    }
+
+    boolean isExact() {
+        return hyperLogLog == null;
+    }
+
+    /**
+     * @return Стандартна відносна похибка оцінки кількості унікальних значень (0 для точної статистики).
+     */
+    double relativeError() {
+        return isExact() ? 0 : hyperLogLog.relativeError();
+    }
+
+    /**
+     * @return Обсяг пам'яті скетчів у байтах (0 для точної статистики).
+     */
+    long footprintBytes() {
+        return isExact() ? 0 : hyperLogLog.footprintBytes() + sketch.footprintBytes();
+    }
+
+    HeavyHitters heavyHitters() {
+        return heavyHitters;
+    }
+
+    /**
+     * Хеш значення з рівністю {@link Double#equals(Object)}: фіналізатор MurmurHash3 над {@link Double#doubleToLongBits(double)}.
+     */
+    static long hash(double value) {
+        long hash = Double.doubleToLongBits(value);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
+
+/**
+ * Клас BlockedBloomFilter - блоковий фільтр Блума перед точним пошуком. Усі біти ключа лежать в одному блоці
+ * з {@link #BLOCK_BITS} бітів (64 байти, один рядок кешу), тому відсутнє значення здебільшого відхиляється
+ * одним зверненням до пам'яті, без пошуку в основній структурі.
+ * 
+ * <p>Розмір обчислюється за кількістю ключів і бажаною часткою хибнопозитивних відповідей з властивості
+ * {@link #PROPERTY}: {@code -ln p / ln²2} бітів на ключ і {@code ln 2} від цього хешів. Через нерівномірне
+ * заповнення блоків фактична частка дещо вища за задану; її показують лічильники {@link #report()}.
+ * Лічильники не синхронізовані: фільтр розрахований на пошук з одного потоку.</p>
+ */
+class BlockedBloomFilter {
+    static final String PROPERTY = "search.bloom";
+    static final int BLOCK_BITS = 512;
+    private static final int BLOCK_WORDS = BLOCK_BITS / Long.SIZE;
+    private static final int MAX_HASH_COUNT = 16;
+
+    private final long[] words;
+    private final int blockCount;
+    private final int hashCount;
+    private long hits;
+    private long misses;
+    private long falsePositives;
+
+    /**
+     * Створює порожній фільтр.
+     * 
+     * @param expectedKeys Очікувана кількість ключів.
+     * @param falsePositiveRate Бажана частка хибнопозитивних відповідей, від 0 до 1 (не включно).
+     */
+    BlockedBloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("Частка хибнопозитивних відповідей має бути між 0 і 1: " + falsePositiveRate);
+        }
+        double bitsPerKey = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long blocks = Math.max(1, (long) Math.ceil(Math.max(1, expectedKeys) * bitsPerKey / BLOCK_BITS));
+        if (blocks > Integer.MAX_VALUE / BLOCK_WORDS) {
+            throw new IllegalArgumentException("Фільтр Блума завеликий для " + expectedKeys + " ключів");
+        }
+        this.blockCount = (int) blocks;
+        this.words = new long[blockCount * BLOCK_WORDS];
+        this.hashCount = (int) Math.max(1, Math.min(MAX_HASH_COUNT, Math.round(bitsPerKey * Math.log(2))));
+    }
+
+    /**
+     * @return Частка хибнопозитивних відповідей з властивості {@link #PROPERTY} або null, якщо фільтр вимкнено.
+     */
+    static Double rateFromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неправильна частка хибнопозитивних відповідей: " + value);
+        }
+    }
+
+    /**
+     * Додає ключ.
+     * 
+     * @param hash 64-бітний хеш ключа з добре перемішаними бітами.
+     */
+    void add(long hash) {
+        int offset = blockOffset(hash);
+        int probe = (int) hash;
+        int step = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++, probe += step) {
+            int bit = probe & (BLOCK_BITS - 1);
+            words[offset + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @param hash Хеш ключа.
+     * @return false, якщо ключ точно не додавався; true, якщо ключ, можливо, додавався.
+     */
+    boolean mightContain(long hash) {
+        int offset = blockOffset(hash);
+        int probe = (int) hash;
+        int step = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++, probe += step) {
+            int bit = probe & (BLOCK_BITS - 1);
+            if ((words[offset + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Перевіряє ключ фільтром і лише для ключів, що пройшли фільтр, виконує точний пошук; оновлює лічильники.
+     * 
+     * @param hash Хеш ключа.
+     * @param lookup Точний пошук в основній структурі.
+     * @return Результат точного пошуку або false, якщо ключ відхилено фільтром.
+     */
+    boolean contains(long hash, BooleanSupplier lookup) {
+        if (!mightContain(hash)) {
+            misses++;
+            return false;
+        }
+        if (lookup.getAsBoolean()) {
+            hits++;
+            return true;
+        }
+        falsePositives++;
+        return false;
+    }
+
+    /**
+     * @return Кількість знайдених ключів (пройшли фільтр і є в основній структурі).
+     */
+    long hits() {
+        return hits;
+    }
+
+    /**
+     * @return Кількість ключів, відхилених фільтром без точного пошуку.
+     */
+    long misses() {
+        return misses;
+    }
+
+    /**
+     * @return Кількість ключів, що пройшли фільтр, але відсутні в основній структурі.
+     */
+    long falsePositives() {
+        return falsePositives;
+    }
+
+    /**
+     * @return Обсяг бітового масиву в байтах.
+     */
+    long footprintBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    /**
+     * @return Рядок з розміром фільтра, лічильниками та фактичною часткою хибнопозитивних відповідей серед відсутніх ключів.
+     */
+    String report() {
+        long absent = misses + falsePositives;
+        return "Фільтр Блума: обсяг=" + footprintBytes() + " байт, блоків=" + blockCount + ", хешів=" + hashCount
+                + ", знайдено=" + hits + ", відхилено=" + misses + ", хибнопозитивних=" + falsePositives
+                + ", частка хибнопозитивних=" + ((absent == 0) ? 0.0 : (double) falsePositives / absent);
+    }
+
+    private int blockOffset(long hash) {
+        // старші 32 біти хешу рівномірно відображаються на номер блоку множенням замість ділення з остачею
+        return (int) (((hash >>> 32) * blockCount) >>> 32) * BLOCK_WORDS;
+    }
+}
+
+/**
+ * Клас HyperLogLog оцінює кількість унікальних значень за 64-бітними хешами.
+ *
+ * <p>Старші {@code precision} бітів хеша вибирають один з {@code 2^precision} регістрів, а регістр запам'ятовує
+ * найбільшу позицію першої одиниці в решті бітів. Стандартна відносна похибка - {@code 1.04 / sqrt(2^precision)}
+ * (0.8% для типової точності 14 при 16 КБ регістрів). Для малих кількостей, поки є порожні регістри,
+ * використовується лінійний підрахунок.</p>
+ */
+class HyperLogLog {
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Точність HyperLogLog має бути від " + MIN_PRECISION + " до " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // сторожовий біт обмежує позицію, якщо решта бітів нульова
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    long estimate() {
+        int registerCount = registers.length;
+        double sum = 0;
+        int zeroCount = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeroCount++;
+            }
+        }
+
+        double alpha = (registerCount == 16) ? 0.673
+                : (registerCount == 32) ? 0.697
+                : (registerCount == 64) ? 0.709
+                : 0.7213 / (1 + 1.079 / registerCount);
+        double estimate = alpha * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeroCount > 0) {
+            estimate = registerCount * Math.log((double) registerCount / zeroCount);
+        }
+        return Math.round(estimate);
+    }
+
+    double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    long footprintBytes() {
+        return registers.length;
+    }
+}
+
+/**
+ * Клас CountMinSketch оцінює частоту значень за 64-бітними хешами у {@code depth} рядках лічильників.
+ *
+ * <p>Кожен рядок має власну комірку для значення (подвійне хешування: {@code h1 + i * h2}), а оцінкою є мінімум
+ * по рядках: вона ніколи не менша за точну частоту і перевищує її не більше ніж на {@code e * n / width}
+ * з імовірністю {@code 1 - e^-depth}.</p>
+ */
+class CountMinSketch {
+    private final int depth;
+    private final int mask;
+    private final int[] counters;
+
+    /**
+     * @param depth Кількість рядків.
+     * @param width Кількість лічильників у рядку (степінь двійки).
+     */
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Неправильні розміри скетчу: " + depth + "x" + width);
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new int[depth * width];
+    }
+
+    /**
+     * Збільшує частоту значення на одиницю.
+     *
+     * @param hash Хеш значення.
+     * @return Оцінка частоти після додавання.
+     */
+    long add(long hash) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * (mask + 1) + ((first + row * second) & mask);
+            if (counters[index] < Integer.MAX_VALUE) {
+                counters[index]++;
+            }
+            estimate = Math.min(estimate, counters[index]);
+        }
+        return estimate;
+    }
+
+    long estimate(long hash) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * (mask + 1) + ((first + row * second) & mask)]);
+        }
+        return estimate;
+    }
+
+    long footprintBytes() {
+        return (long) counters.length * Integer.BYTES;
+    }
+}
+
+/**
+ * Клас HeavyHitters відбирає задану кількість значень з найбільшими частотами.
+ *
+ * <p>Кандидати зберігаються у примітивних масивах без упакування: частота наявного кандидата оновлюється,
+ * а нове значення витісняє кандидата з найменшою частотою, лише якщо його частота більша.
+ * Кількість кандидатів мала, тому лінійний перегляд швидший за купу.</p>
+ */
+class HeavyHitters {
+    private final long[] keys;
+    private final double[] values;
+    private final long[] counts;
+    private int size;
+
+    HeavyHitters(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Кількість найчастіших значень не може бути від'ємною: " + capacity);
+        }
+        this.keys = new long[capacity];
+        this.values = new double[capacity];
+        this.counts = new long[capacity];
+    }
+
+    /**
+     * Враховує поточну частоту значення.
+     *
+     * @param value Значення.
+     * @param count Поточна (точна або оцінена) частота значення.
+     */
+    void offer(double value, long count) {
+        long key = Double.doubleToLongBits(value);
+        int minIndex = -1;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                counts[i] = Math.max(counts[i], count);
+                return;
+            }
+            if (minIndex < 0 || counts[i] < counts[minIndex]) {
+                minIndex = i;
+            }
+        }
+
+        if (size < keys.length) {
+            minIndex = size++;
+        } else if (minIndex < 0 || count <= counts[minIndex]) {
+            return;
+        }
+        keys[minIndex] = key;
+        values[minIndex] = value;
+        counts[minIndex] = count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return Індекси кандидатів за спаданням частоти.
+     */
+    int[] order() {
+        return IntStream.range(0, size).boxed()
+                .sorted((left, right) -> Long.compare(counts[right], counts[left]))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    double value(int index) {
+        return values[index];
+    }
+
+    long count(int index) {
+        return counts[index];
+    }
+}
+
+/**
+ * Клас BatchSearch знаходить багато відсортованих запитів у відсортованому масиві за один прохід.
+ * 
+ * <p>Запити обробляються злиттям: пошук кожного наступного запиту починається з позиції попереднього
+ * i виконується експоненційним (galloping) пошуком, тому сумарна вартість - O(m log(n/m)) замість m log n
+ * незалежних бінарних пошуків. Великі пакети запитів діляться на частини, які обробляються паралельно
+ * на пулі fork-join; кожна частина починає злиття з бінарного пошуку свого першого запиту.</p>
+ */
+class BatchSearch {
+    static final int NOT_FOUND = -1;
+    private static final int MIN_CHUNK_SIZE = 1 << 12;
+
+    /**
+     * Знаходить відсортовані запити у відсортованому масиві.
+     * 
+     * @param sortedValues Відсортований масив значень.
+     * @param sortedQueries Відсортований масив запитів.
+     * @return Для кожного запиту - індекс першого рівного йому значення або {@link #NOT_FOUND}.
+     */
+    static <T extends Comparable<? super T>> int[] search(T[] sortedValues, T[] sortedQueries) {
+        int[] results = new int[sortedQueries.length];
+        int chunkCount = chunkCount(sortedQueries.length);
+        int chunkSize = (sortedQueries.length + chunkCount - 1) / chunkCount;
+
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int from = 0;
+            int end = Math.min(sortedQueries.length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                from = lowerBound(sortedValues, from, sortedQueries[i]);
+                boolean isFound = from < sortedValues.length && sortedValues[from].compareTo(sortedQueries[i]) == 0;
+                results[i] = isFound ? from : NOT_FOUND;
+            }
+        });
+        return results;
+    }
+
+    private static int chunkCount(int queryCount) {
+        return (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L, queryCount / MIN_CHUNK_SIZE));
+    }
+
+    /**
+     * Повертає перший індекс не менший за {@code from}, значення за яким не менше за ключ.
+     * Спершу крок пошуку подвоюється, доки не перескочить ключ, потім бінарний пошук звужує знайдений проміжок.
+     */
+    private static <T extends Comparable<? super T>> int lowerBound(T[] values, int from, T key) {
+        int low = from;
+        int high = values.length;
+        long step = 1;
+        int probe = low;
+        while (probe < values.length) {
+            if (values[probe].compareTo(key) >= 0) {
+                high = probe;
+                break;
+            }
+            low = probe + 1;
+            probe = (int) Math.min(values.length, low + step);
+            step <<= 1;
+        }
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
+
+/**
+ * Клас ColumnFile - бінарний стовпцевий формат відсортованих даних, що відкривається відображенням у пам'ять без розбору тексту.
+ *
+ * <p>Усі числа записуються у порядку байтів little-endian:</p>
+ * <pre>
+ * 0   int    {@link #MAGIC}
+ * 4   short  {@link #VERSION}
+ * 6   byte   тип значень ({@link #TYPE_EPOCH_SECONDS} або {@link #TYPE_DOUBLE})
+ * 7   byte   прапорці ({@link #FLAG_SORTED})
+ * 8   long   кількість значень
+ * 16  int    кількість значень у блоці ({@link #BLOCK_SIZE})
+ * 20  int    кількість блоків
+ * 24  long[] мінімум i максимум кожного блоку
+ * ... long[] значення (для {@code double} - біти {@link Double#doubleToRawLongBits(double)})
+ * </pre>
+ *
+ * <p>Мінімуми i максимуми блоків дають крайні значення файлу без перегляду даних, а пошук у відсортованому файлі
+ * спершу вибирає блок за його максимумом i лише потім звертається до сторінок з самими значеннями.</p>
+ */
+final class ColumnFile {
+    static final int MAGIC = 0x4C4F4342;
+    static final short VERSION = 1;
+    static final byte TYPE_EPOCH_SECONDS = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte FLAG_SORTED = 1;
+    static final int BLOCK_SIZE = 4096;
+
+    private static final int HEADER_SIZE = 24;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final ByteBuffer buffer;
+    private final byte type;
+    private final boolean isSorted;
+    private final int count;
+    private final int blockCount;
+    private final int payloadOffset;
+
+    private ColumnFile(ByteBuffer buffer, byte type, boolean isSorted, int count, int blockCount) {
+        this.buffer = buffer;
+        this.type = type;
+        this.isSorted = isSorted;
+        this.count = count;
+        this.blockCount = blockCount;
+        this.payloadOffset = HEADER_SIZE + blockCount * 2 * Long.BYTES;
+    }
+
+    /**
+     * Записує масив секунд від початку епохи у файл.
+     *
+     * @param pathToFile Шлях до файлу для запису.
+     * @param epochSeconds Значення.
+     * @param isSorted Чи відсортовані значення за зростанням.
+     * @throws IOException Якщо запис не вдався.
+     */
+    static void write(String pathToFile, long[] epochSeconds, boolean isSorted) throws IOException {
+        write(pathToFile, TYPE_EPOCH_SECONDS, epochSeconds.length, index -> epochSeconds[index], isSorted);
+    }
+
+    /**
+     * Записує масив чисел з рухомою комою у файл.
+     *
+     * @param pathToFile Шлях до файлу для запису.
+     * @param values Значення.
+     * @param isSorted Чи відсортовані значення за зростанням.
+     * @throws IOException Якщо запис не вдався.
+     */
+    static void write(String pathToFile, double[] values, boolean isSorted) throws IOException {
+        writeDoubles(pathToFile, values.length, index -> values[index], isSorted);
+    }
+
+    /**
+     * Записує числа з рухомою комою з довільного джерела у файл без копіювання їх у масив.
+     *
+     * @param pathToFile Шлях до файлу для запису.
+     * @param count Кількість значень.
+     * @param values Значення за індексом.
+     * @param isSorted Чи відсортовані значення за зростанням.
+     * @throws IOException Якщо запис не вдався.
+     */
+    static void writeDoubles(String pathToFile, int count, IntToDoubleFunction values, boolean isSorted) throws IOException {
+        write(pathToFile, TYPE_DOUBLE, count, index -> Double.doubleToRawLongBits(values.applyAsDouble(index)), isSorted);
+    }
+
+    private static void write(String pathToFile, byte type, int count, IntToLongFunction values, boolean isSorted) throws IOException {
+        int blockCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + blockCount * 2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).put(type).put(isSorted ? FLAG_SORTED : 0)
+                .putLong(count).putInt(BLOCK_SIZE).putInt(blockCount);
+        for (int block = 0; block < blockCount; block++) {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(count, from + BLOCK_SIZE);
+            long min = values.applyAsLong(from);
+            long max = min;
+            for (int i = from + 1; i < to; i++) {
+                long value = values.applyAsLong(i);
+                if (compare(type, value, min) < 0) {
+                    min = value;
+                }
+                if (compare(type, value, max) > 0) {
+                    max = value;
+                }
+            }
+            header.putLong(min).putLong(max);
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            ByteBuffer payload = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < count; i++) {
+                if (!payload.hasRemaining()) {
+                    drain(channel, payload);
+                }
+                payload.putLong(values.applyAsLong(i));
+            }
+            drain(channel, payload);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer payload) throws IOException {
+        payload.flip();
+        while (payload.hasRemaining()) {
+            channel.write(payload);
+        }
+        payload.clear();
+    }
+
+    /**
+     * Відкриває файл відображенням у пам'ять. Значення не зчитуються: сторінки завантажуються операційною
+     * системою лише під час звернення до них.
+     *
+     * @param pathToFile Шлях до файлу.
+     * @return Відкритий стовпець.
+     * @throws IOException Якщо файл відсутній, пошкоджений або завеликий для одного відображення.
+     */
+    static ColumnFile open(String pathToFile) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Файл завеликий для одного відображення: " + pathToFile);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Файл не є бінарним стовпцем: " + pathToFile);
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Непідтримувана версія бінарного стовпця " + buffer.getShort(4) + ": " + pathToFile);
+        }
+
+        byte type = buffer.get(6);
+        boolean isSorted = (buffer.get(7) & FLAG_SORTED) != 0;
+        long count = buffer.getLong(8);
+        int blockSize = buffer.getInt(16);
+        int blockCount = buffer.getInt(20);
+        long expectedSize = HEADER_SIZE + (long) blockCount * 2 * Long.BYTES + count * Long.BYTES;
+        if ((type != TYPE_EPOCH_SECONDS && type != TYPE_DOUBLE) || blockSize != BLOCK_SIZE
+                || blockCount != (count + BLOCK_SIZE - 1) / BLOCK_SIZE || expectedSize != buffer.capacity()) {
+            throw new IOException("Пошкоджений заголовок бінарного стовпця: " + pathToFile);
+        }
+        return new ColumnFile(buffer, type, isSorted, (int) count, blockCount);
+    }
+
+    byte type() {
+        return type;
+    }
+
+    boolean isSorted() {
+        return isSorted;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @param index Iндекс значення.
+     * @return Значення типу {@link #TYPE_EPOCH_SECONDS} за індексом.
+     */
+    long getLong(int index) {
+        return buffer.getLong(payloadOffset + index * Long.BYTES);
+    }
+
+    /**
+     * @param index Iндекс значення.
+     * @return Значення типу {@link #TYPE_DOUBLE} за індексом.
+     */
+    double getDouble(int index) {
+        return Double.longBitsToDouble(getLong(index));
+    }
+
+    /**
+     * @return Мінімальне значення (біти значення для {@link #TYPE_DOUBLE}) за таблицею блоків.
+     */
+    long minBits() {
+        long min = blockMin(0);
+        for (int block = 1; block < blockCount; block++) {
+            if (compare(type, blockMin(block), min) < 0) {
+                min = blockMin(block);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @return Максимальне значення (біти значення для {@link #TYPE_DOUBLE}) за таблицею блоків.
+     */
+    long maxBits() {
+        long max = blockMax(0);
+        for (int block = 1; block < blockCount; block++) {
+            if (compare(type, blockMax(block), max) > 0) {
+                max = blockMax(block);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Виконує бінарний пошук у відсортованому файлі.
+     *
+     * @param key Значення для пошуку (біти значення для {@link #TYPE_DOUBLE}).
+     * @return Iндекс знайденого значення або {@code -(точка вставки) - 1}, як у {@link Arrays#binarySearch(long[], long)}.
+     * @throws IllegalStateException Якщо файл не відсортований.
+     */
+    int binarySearch(long key) {
+        if (!isSorted) {
+            throw new IllegalStateException("Бінарний пошук можливий лише у відсортованому стовпці");
+        }
+
+        // перший блок, максимум якого не менший за ключ - лише в ньому може бути перше входження
+        int lowBlock = 0;
+        int highBlock = blockCount;
+        while (lowBlock < highBlock) {
+            int middle = (lowBlock + highBlock) >>> 1;
+            if (compare(type, blockMax(middle), key) < 0) {
+                lowBlock = middle + 1;
+            } else {
+                highBlock = middle;
+            }
+        }
+        if (lowBlock == blockCount) {
+            return -count - 1;
+        }
+
+        int low = lowBlock * BLOCK_SIZE;
+        int high = Math.min(count, low + BLOCK_SIZE) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(type, getLong(middle), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    private long blockMin(int block) {
+        return buffer.getLong(HEADER_SIZE + block * 2 * Long.BYTES);
+    }
+
+    private long blockMax(int block) {
+        return buffer.getLong(HEADER_SIZE + block * 2 * Long.BYTES + Long.BYTES);
+    }
+
+    private static int compare(byte type, long left, long right) {
+        return (type == TYPE_DOUBLE)
+                ? Double.compare(Double.longBitsToDouble(left), Double.longBitsToDouble(right))
+                : Long.compare(left, right);
+    }
+}
+
+/**
+ * Клас ParallelFileLoader зчитує файл чисел паралельно на всіх ядрах.
+ *
+ * <p>Файл ділиться на ділянки байтів, межі яких зсуваються до початку наступного рядка, тож кожен рядок
+ * належить рівно одній ділянці. Кожна ділянка відображається у пам'ять i розбирається окремою задачею
+ * спільного пулу fork-join у власний масив {@code double[]}, після чого масиви об'єднуються у порядку рядків.</p>
+ */
+class ParallelFileLoader {
+    static final String PROPERTY = "load.parallel";
+    static final String MODE_CONCAT = "concat";
+
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    private static final long MAX_CHUNK_SIZE = 1 << 30;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Зчитує файл з одним числом у рядку.
+     *
+     * @param pathToFile Шлях до файлу.
+     * @return Числа у порядку рядків файлу.
+     * @throws IOException якщо сталася помилка читання.
+     */
+    static double[] readDoubles(String pathToFile) throws IOException {
+        long[] bounds = splitAtLines(pathToFile, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD);
+        double[][] chunks;
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+            chunks = IntStream.range(0, bounds.length - 1).parallel().mapToObj(chunk -> {
+                try {
+                    return parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, bounds[chunk], bounds[chunk + 1] - bounds[chunk]));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toArray(double[][]::new);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int count = 0;
+        for (double[] chunk : chunks) {
+            count += chunk.length;
+        }
+        double[] values = new double[count];
+        int offset = 0;
+        for (double[] chunk : chunks) {
+            System.arraycopy(chunk, 0, values, offset, chunk.length);
+            offset += chunk.length;
+        }
+        return values;
+    }
+
+    /**
+     * Ділить файл на ділянки, межі яких збігаються з початками рядків.
+     *
+     * @param pathToFile Шлях до файлу.
+     * @param maxChunkCount Найбільша кількість ділянок (може бути збільшена, щоб ділянку можна було відобразити у пам'ять).
+     * @return Позиції меж: ділянка {@code i} займає байти від {@code bounds[i]} до {@code bounds[i + 1]}.
+     * @throws IOException якщо сталася помилка читання.
+     */
+    static long[] splitAtLines(String pathToFile, int maxChunkCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkCount = Math.max(size / MAX_CHUNK_SIZE + 1, Math.min(maxChunkCount, size / MIN_CHUNK_SIZE));
+
+            long[] bounds = new long[(int) chunkCount + 1];
+            int boundCount = 1;
+            ByteBuffer scratch = ByteBuffer.allocate(4096);
+            for (int i = 1; i < chunkCount; i++) {
+                long bound = nextLineStart(channel, Math.max(bounds[boundCount - 1], size / chunkCount * i), scratch);
+                if (bound > bounds[boundCount - 1] && bound < size) {
+                    bounds[boundCount++] = bound;
+                }
+            }
+            bounds[boundCount++] = size;
+            return Arrays.copyOf(bounds, boundCount);
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer scratch) throws IOException {
+        // рядок, що починається рівно на позиції, лишається цілим, тому перевіряється й попередній байт
+        long current = Math.max(0, position - 1);
+        while (true) {
+            scratch.clear();
+            int read = channel.read(scratch, current);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (scratch.get(i) == '\n') {
+                    return current + i + 1;
+                }
+            }
+            current += read;
+        }
+    }
+
+    private static double[] parseChunk(ByteBuffer buffer) {
+        double[] values = new double[16];
+        int count = 0;
+        byte[] line = new byte[64];
+        int length = 0;
+
+        for (int position = 0; position <= buffer.limit(); position++) {
+            byte b = (position < buffer.limit()) ? buffer.get(position) : (byte) '\n';
+            if (b != '\n') {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+                continue;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            if (length > 0) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count + (count >> 1));
+                }
+                values[count++] = Double.parseDouble(new String(line, 0, length, StandardCharsets.US_ASCII));
+            }
+            length = 0;
+        }
+        return Arrays.copyOf(values, count);
+    }
+}
+
+/**
+ * Клас OperationTimer фіксує момент початку операції та кількість байтів, виділених поточним потоком,
+ * щоб після завершення операції записати її тривалість i виділену пам'ять у {@link OperationMetrics}.
+ */
+class OperationTimer {
+    private final long startTime;
+    private final long startAllocatedBytes;
+
+    private OperationTimer(long startTime, long startAllocatedBytes) {
+        this.startTime = startTime;
+        this.startAllocatedBytes = startAllocatedBytes;
+    }
+
+    /**
+     * Починає вимірювання операції.
+     * 
+     * @return Таймер операції.
+     */
+    static OperationTimer start() {
+        long startAllocatedBytes = OperationMetrics.currentThreadAllocatedBytes();
+        return new OperationTimer(System.nanoTime(), startAllocatedBytes);
+    }
+
+    /**
+     * Завершує вимірювання та записує тривалість операції в наносекундах i виділені байти в метрики.
+     * 
+     * <p>Аргумент обчислюється до виклику, тобто всередині вимірювання, тому назву, яку потрібно складати
+     * з частин, слід будувати до {@link #start()} або передавати через {@link #stop(Supplier)}.</p>
+     * 
+     * @param operationName Назва операції.
+     */
+    void stop(String operationName) {
+        long duration = System.nanoTime() - startTime;
+        long allocatedBytes = OperationMetrics.currentThreadAllocatedBytes() - startAllocatedBytes;
+        OperationMetrics.record(operationName, duration, Math.max(0, allocatedBytes));
+    }
+
+    /**
+     * Завершує вимірювання, як {@link #stop(String)}, але будує назву операції лише після того, як зчитано час
+     * i лічильник виділених байтів, тож побудова назви не потрапляє у вимірювання.
+     * 
+     * @param operationName Джерело назви операції.
+     */
+    void stop(Supplier<String> operationName) {
+        long endTime = System.nanoTime();
+        long allocatedBytes = OperationMetrics.currentThreadAllocatedBytes() - startAllocatedBytes;
+        OperationMetrics.record(operationName.get(), endTime - startTime, Math.max(0, allocatedBytes));
+    }
+}
+
+/**
+ * Клас OperationMetrics накопичує час виконання операцій у гістограмах {@link LatencyHistogram} за назвою операції.
+ * 
+ * <p>Запис у метрики не виконує введення-виведення, тому не впливає на вимірюваний час. Підсумок виводиться
+ * один раз методом {@link #report()} наприкінці запуску; якщо задано системну властивість {@link #OUTPUT_PROPERTY},
+ * метрики також записуються у файл у форматі {@link #FORMAT_PROPERTY} ({@code json} або {@code prometheus}),
+ * щоб результати багатьох запусків можна було об'єднувати.</p>
+ */
+class OperationMetrics {
+    static final String OUTPUT_PROPERTY = "metrics.output";
+    static final String FORMAT_PROPERTY = "metrics.format";
+
+    static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    static final String[] QUANTILE_NAMES = {"p50", "p99", "p999"};
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean IS_ALLOCATION_SUPPORTED = THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemorySupported();
+
+    /**
+     * Записує одне вимірювання операції.
+     * 
+     * @param operationName Назва операції.
+     * @param durationNanos Тривалість у наносекундах.
+     * @param allocatedBytes Кількість байтів, виділених під час операції.
+     */
+    static void record(String operationName, long durationNanos, long allocatedBytes) {
+        HISTOGRAMS.computeIfAbsent(operationName, name -> new LatencyHistogram()).record(durationNanos, allocatedBytes);
+    }
+
+    /**
+     * @return Кількість байтів, виділених поточним потоком, або 0, якщо JVM цього не підтримує.
+     */
+    static long currentThreadAllocatedBytes() {
+        return IS_ALLOCATION_SUPPORTED
+                ? ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getCurrentThreadAllocatedBytes()
+                : 0;
+    }
+
+    /**
+     * Виводить підсумок метрик у консоль та, за потреби, записує їх у файл.
+     */
+    static void report() {
+        System.out.println("\n>>>>>>>>> Метрики операцій (наносекунди):");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            System.out.println("'" + entry.getKey() + "': кількість=" + histogram.count()
+                    + ", p50=" + histogram.quantile(0.5) + ", p99=" + histogram.quantile(0.99)
+                    + ", p999=" + histogram.quantile(0.999) + ", max=" + histogram.max()
+                    + ", виділено байт=" + histogram.allocatedBytes());
+        }
+
+        String outputPath = System.getProperty(OUTPUT_PROPERTY);
+        if (outputPath == null) {
+            return;
+        }
+
+        String format = System.getProperty(FORMAT_PROPERTY, "json");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputPath), StandardCharsets.UTF_8))) {
+            if ("prometheus".equals(format)) {
+                writePrometheus(writer);
+            } else if ("json".equals(format)) {
+                writeJson(writer);
+            } else {
+                throw new IOException("Невідомий формат метрик: " + format);
+            }
+        } catch (IOException e) {
+            System.err.println("Помилка запису метрик у файл: " + e.getMessage());
+        }
+    }
+
+    private static void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"operations\": [");
+        String separator = "\n";
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            writer.write(separator + "    {\"name\": \"" + escapeJson(entry.getKey()) + "\", \"count\": " + histogram.count()
+                    + ", \"sumNanos\": " + histogram.sum() + ", \"maxNanos\": " + histogram.max());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                writer.write(", \"" + QUANTILE_NAMES[i] + "Nanos\": " + histogram.quantile(QUANTILES[i]));
+            }
+            writer.write(", \"allocatedBytes\": " + histogram.allocatedBytes() + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  ]\n}\n");
+    }
+
+    private static void writePrometheus(Writer writer) throws IOException {
+        Map<String, LatencyHistogram> histograms = new TreeMap<>(HISTOGRAMS);
+
+        writer.write("# HELP operation_duration_nanoseconds Тривалість операції в наносекундах.\n");
+        writer.write("# TYPE operation_duration_nanoseconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String label = "operation=\"" + escapePrometheus(entry.getKey()) + "\"";
+            LatencyHistogram histogram = entry.getValue();
+            for (double quantile : QUANTILES) {
+                writer.write("operation_duration_nanoseconds{" + label + ",quantile=\"" + quantile + "\"} "
+                        + histogram.quantile(quantile) + "\n");
+            }
+            writer.write("operation_duration_nanoseconds_sum{" + label + "} " + histogram.sum() + "\n");
+            writer.write("operation_duration_nanoseconds_count{" + label + "} " + histogram.count() + "\n");
+        }
+
+        writer.write("# HELP operation_allocated_bytes_total Кількість байтів, виділених під час операції.\n");
+        writer.write("# TYPE operation_allocated_bytes_total counter\n");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            writer.write("operation_allocated_bytes_total{operation=\"" + escapePrometheus(entry.getKey()) + "\"} "
+                    + entry.getValue().allocatedBytes() + "\n");
+        }
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapePrometheus(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
+
+/**
+ * Клас LatencyHistogram - безблокувальна гістограма з логарифмічно-лінійними кошиками на зразок HdrHistogram.
+ * 
+ * <p>Значення менші за {@link #SUB_BUCKET_COUNT} зберігаються точно, більші - з відносною похибкою не більше 1/32.
+ * Усі лічильники оновлюються атомарно, тому гістограму можна заповнювати з кількох потоків одночасно.</p>
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    void record(long value, long allocated) {
+        long nonNegative = Math.max(0, value);
+        counts.incrementAndGet(indexOf(nonNegative));
+        count.incrementAndGet();
+        sum.addAndGet(nonNegative);
+        max.accumulateAndGet(nonNegative, Math::max);
+        allocatedBytes.addAndGet(allocated);
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long sum() {
+        return sum.get();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * Повертає верхню межу кошика, в який потрапляє задана частка вимірювань.
+     * 
+     * @param quantile Частка від 0 до 1.
+     * @return Значення квантиля (не більше за максимальне записане значення).
+     */
+    long quantile(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            cumulative += counts.get(index);
+            if (cumulative >= target) {
+                return Math.min(upperBoundOf(index), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        long upperBound = ((subBucket + 1) << shift) - 1;
+        return (upperBound < 0) ? Long.MAX_VALUE : upperBound;
+    }
+}